@@ -65,7 +65,7 @@ public class INPrintfAnnotation extends INAnnotation
 		}
 		
 		INStringLiteralExpression fmt = (INStringLiteralExpression)args.get(0);
-		fmt.location.hits++;
+		fmt.location.addHits(1);
 		Console.out.printf(fmt.value.value, values);
 	}
 }
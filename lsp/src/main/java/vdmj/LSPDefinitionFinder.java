@@ -25,6 +25,9 @@
 package vdmj;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import com.fujitsu.vdmj.ast.lex.LexNameToken;
@@ -239,6 +242,76 @@ public class LSPDefinitionFinder
 		}
 	}
 	
+	/**
+	 * Resolve every name in the modules, giving the locations of the names that refer
+	 * to each definition location. This is one pass over the TC tree, rather than one
+	 * findDefinition call per name.
+	 */
+	public Map<LexLocation, Set<LexLocation>> findReferences(TCModuleList modules)
+	{
+		Map<LexLocation, Set<LexLocation>> results = new HashMap<LexLocation, Set<LexLocation>>();
+		LSPReferenceFinder finder = new LSPReferenceFinder();
+
+		for (TCModule module: modules)
+		{
+			ModuleEnvironment env = new ModuleEnvironment(module);
+			String fromModule = module.name.getName();
+
+			for (LSPReferenceFinder.Reference ref: finder.findReferences(module))
+			{
+				addReference(results, ref, env, fromModule);
+			}
+		}
+
+		return results;
+	}
+
+	public Map<LexLocation, Set<LexLocation>> findReferences(TCClassList classes)
+	{
+		Map<LexLocation, Set<LexLocation>> results = new HashMap<LexLocation, Set<LexLocation>>();
+		LSPReferenceFinder finder = new LSPReferenceFinder();
+		PublicClassEnvironment globals = new PublicClassEnvironment(classes);
+
+		for (TCClassDefinition cdef: classes)
+		{
+			PrivateClassEnvironment env = new PrivateClassEnvironment(cdef, globals);
+			String fromModule = cdef.name.getName();
+
+			for (LSPReferenceFinder.Reference ref: finder.findReferences(cdef))
+			{
+				addReference(results, ref, env, fromModule);
+			}
+		}
+
+		return results;
+	}
+
+	private void addReference(Map<LexLocation, Set<LexLocation>> results,
+		LSPReferenceFinder.Reference ref, Environment env, String fromModule)
+	{
+		try
+		{
+			TCDefinition def = lookupNodeDefinition(ref.node, env, fromModule);
+
+			if (def != null && def.location != null && !def.location.equals(ref.location))
+			{
+				Set<LexLocation> refs = results.get(def.location);
+
+				if (refs == null)
+				{
+					refs = new LinkedHashSet<LexLocation>();
+					results.put(def.location, refs);
+				}
+
+				refs.add(ref.location);
+			}
+		}
+		catch (Exception e)
+		{
+			Diag.warning("Cannot resolve %s at %s: %s", ref.node, ref.location, e);
+		}
+	}
+
 	private TCDefinition lookupNodeDefinition(TCNode node, Environment env, String fromModule)
 	{
 		if (node instanceof TCDefinition)	// node is already a definition (eg. a func or param name)
@@ -0,0 +1,713 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package vdmj;
+
+import java.util.List;
+import java.util.Vector;
+
+import com.fujitsu.vdmj.lex.LexLocation;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.TCVisitorSet;
+import com.fujitsu.vdmj.tc.definitions.TCAssignmentDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCClassDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCExplicitFunctionDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCExplicitOperationDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCImplicitFunctionDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCImplicitOperationDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCInstanceVariableDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCLocalDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCMutexSyncDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCPerSyncDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCStateDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCTypeDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCValueDefinition;
+import com.fujitsu.vdmj.tc.definitions.visitors.TCLeafDefinitionVisitor;
+import com.fujitsu.vdmj.tc.expressions.TCExpression;
+import com.fujitsu.vdmj.tc.expressions.TCFieldExpression;
+import com.fujitsu.vdmj.tc.expressions.TCFuncInstantiationExpression;
+import com.fujitsu.vdmj.tc.expressions.TCHistoryExpression;
+import com.fujitsu.vdmj.tc.expressions.TCIsExpression;
+import com.fujitsu.vdmj.tc.expressions.TCLetDefExpression;
+import com.fujitsu.vdmj.tc.expressions.TCMkTypeExpression;
+import com.fujitsu.vdmj.tc.expressions.TCNarrowExpression;
+import com.fujitsu.vdmj.tc.expressions.TCNewExpression;
+import com.fujitsu.vdmj.tc.expressions.TCStateInitExpression;
+import com.fujitsu.vdmj.tc.expressions.TCVariableExpression;
+import com.fujitsu.vdmj.tc.expressions.visitors.TCLeafExpressionVisitor;
+import com.fujitsu.vdmj.tc.lex.TCNameToken;
+import com.fujitsu.vdmj.tc.modules.TCExport;
+import com.fujitsu.vdmj.tc.modules.TCExportedFunction;
+import com.fujitsu.vdmj.tc.modules.TCExportedOperation;
+import com.fujitsu.vdmj.tc.modules.TCExportedType;
+import com.fujitsu.vdmj.tc.modules.TCExportedValue;
+import com.fujitsu.vdmj.tc.modules.TCImport;
+import com.fujitsu.vdmj.tc.modules.TCImportFromModule;
+import com.fujitsu.vdmj.tc.modules.TCImportedValue;
+import com.fujitsu.vdmj.tc.modules.TCModule;
+import com.fujitsu.vdmj.tc.patterns.TCBind;
+import com.fujitsu.vdmj.tc.patterns.TCMultipleBind;
+import com.fujitsu.vdmj.tc.patterns.TCMultipleTypeBind;
+import com.fujitsu.vdmj.tc.patterns.TCPattern;
+import com.fujitsu.vdmj.tc.patterns.TCRecordPattern;
+import com.fujitsu.vdmj.tc.patterns.TCTypeBind;
+import com.fujitsu.vdmj.tc.patterns.visitors.TCLeafBindVisitor;
+import com.fujitsu.vdmj.tc.patterns.visitors.TCLeafMultipleBindVisitor;
+import com.fujitsu.vdmj.tc.patterns.visitors.TCLeafPatternVisitor;
+import com.fujitsu.vdmj.tc.statements.TCAssignmentStatement;
+import com.fujitsu.vdmj.tc.statements.TCCallObjectStatement;
+import com.fujitsu.vdmj.tc.statements.TCCallStatement;
+import com.fujitsu.vdmj.tc.statements.TCExternalClause;
+import com.fujitsu.vdmj.tc.statements.TCFieldDesignator;
+import com.fujitsu.vdmj.tc.statements.TCIdentifierDesignator;
+import com.fujitsu.vdmj.tc.statements.TCMapSeqDesignator;
+import com.fujitsu.vdmj.tc.statements.TCObjectApplyDesignator;
+import com.fujitsu.vdmj.tc.statements.TCObjectDesignator;
+import com.fujitsu.vdmj.tc.statements.TCObjectFieldDesignator;
+import com.fujitsu.vdmj.tc.statements.TCObjectIdentifierDesignator;
+import com.fujitsu.vdmj.tc.statements.TCObjectNewDesignator;
+import com.fujitsu.vdmj.tc.statements.TCSpecificationStatement;
+import com.fujitsu.vdmj.tc.statements.TCStateDesignator;
+import com.fujitsu.vdmj.tc.statements.TCStatement;
+import com.fujitsu.vdmj.tc.statements.visitors.TCLeafStatementVisitor;
+import com.fujitsu.vdmj.tc.types.TCParameterType;
+import com.fujitsu.vdmj.tc.types.TCType;
+import com.fujitsu.vdmj.tc.types.TCTypeList;
+import com.fujitsu.vdmj.tc.types.TCUnresolvedType;
+
+/**
+ * Collect every name in a module or class that refers to a definition, with the node
+ * that LSPDefinitionFinder resolves. These are the nodes that the LSP*LocationFinder
+ * visitors return for a position, but the names that declare definitions (like
+ * function names and parameters) are not included.
+ */
+public class LSPReferenceFinder extends TCLeafDefinitionVisitor<LSPReferenceFinder.Reference, List<LSPReferenceFinder.Reference>, Object>
+{
+	/**
+	 * A name that refers to a definition, and the node to resolve to find it.
+	 */
+	public static class Reference
+	{
+		public final TCNode node;
+		public final LexLocation location;
+
+		public Reference(TCNode node, LexLocation location)
+		{
+			this.node = node;
+			this.location = location;
+		}
+	}
+
+	public LSPReferenceFinder()
+	{
+		visitorSet = new TCVisitorSet<Reference, List<Reference>, Object>()
+		{
+			@Override
+			protected void setVisitors()
+			{
+				definitionVisitor = LSPReferenceFinder.this;
+				expressionVisitor = new ExpressionFinder(this);
+				statementVisitor = new StatementFinder(this);
+				patternVisitor = new PatternFinder(this);
+				bindVisitor = new BindFinder(this);
+				multiBindVisitor = new MultipleBindFinder(this);
+			}
+
+			@Override
+			protected List<Reference> newCollection()
+			{
+				return LSPReferenceFinder.this.newCollection();
+			}
+		};
+	}
+
+	public List<Reference> findReferences(TCModule module)
+	{
+		List<Reference> all = newCollection();
+
+		if (module.imports != null)
+		{
+			for (TCImportFromModule ifm: module.imports.imports)
+			{
+				for (TCImport imp: ifm.signatures)
+				{
+					all.add(new Reference(imp, imp.name.getLocation()));
+
+					if (imp instanceof TCImportedValue)
+					{
+						unresolved(all, ((TCImportedValue)imp).unresolved);
+					}
+				}
+			}
+		}
+
+		if (module.exports != null)
+		{
+			for (TCExport exp: module.exports.exports)
+			{
+				if (exp instanceof TCExportedValue)
+				{
+					TCExportedValue value = (TCExportedValue)exp;
+					names(all, value.nameList);
+					unresolved(all, value.unresolved);
+				}
+				else if (exp instanceof TCExportedFunction)
+				{
+					TCExportedFunction func = (TCExportedFunction)exp;
+					names(all, func.nameList);
+					unresolved(all, func.unresolved);
+				}
+				else if (exp instanceof TCExportedOperation)
+				{
+					TCExportedOperation op = (TCExportedOperation)exp;
+					names(all, op.nameList);
+					unresolved(all, op.unresolved);
+				}
+				else if (exp instanceof TCExportedType)
+				{
+					TCExportedType type = (TCExportedType)exp;
+					all.add(new Reference(type.name, type.name.getLocation()));
+				}
+			}
+		}
+
+		for (TCDefinition def: module.defs)
+		{
+			all.addAll(def.apply(this, null));
+		}
+
+		return all;
+	}
+
+	public List<Reference> findReferences(TCClassDefinition cdef)
+	{
+		return cdef.apply(this, null);
+	}
+
+	@Override
+	public List<Reference> caseDefinition(TCDefinition node, Object arg)
+	{
+		return newCollection();
+	}
+
+	@Override
+	public List<Reference> caseClassDefinition(TCClassDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseClassDefinition(node, arg);
+
+		if (node.supernames != null)
+		{
+			names(all, node.supernames);
+		}
+
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseAssignmentDefinition(TCAssignmentDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseAssignmentDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseInstanceVariableDefinition(TCInstanceVariableDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseInstanceVariableDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseTypeDefinition(TCTypeDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseTypeDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseLocalDefinition(TCLocalDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseLocalDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseValueDefinition(TCValueDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseValueDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseExplicitFunctionDefinition(TCExplicitFunctionDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseExplicitFunctionDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseImplicitFunctionDefinition(TCImplicitFunctionDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseImplicitFunctionDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseExplicitOperationDefinition(TCExplicitOperationDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseExplicitOperationDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseImplicitOperationDefinition(TCImplicitOperationDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseImplicitOperationDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		externals(all, node.externals);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseStateDefinition(TCStateDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseStateDefinition(node, arg);
+		unresolved(all, node.unresolved);
+		return all;
+	}
+
+	@Override
+	public List<Reference> caseMutexSyncDefinition(TCMutexSyncDefinition node, Object arg)
+	{
+		List<Reference> all = super.caseMutexSyncDefinition(node, arg);
+		names(all, node.operations);
+		return all;
+	}
+
+	@Override
+	public List<Reference> casePerSyncDefinition(TCPerSyncDefinition node, Object arg)
+	{
+		List<Reference> all = super.casePerSyncDefinition(node, arg);
+		all.add(new Reference(node.opname, node.opname.getLocation()));
+		return all;
+	}
+
+	@Override
+	protected List<Reference> newCollection()
+	{
+		return new Vector<Reference>();
+	}
+
+	private static void names(List<Reference> all, List<TCNameToken> names)
+	{
+		for (TCNameToken name: names)
+		{
+			all.add(new Reference(name, name.getLocation()));
+		}
+	}
+
+	private static void unresolved(List<Reference> all, TCTypeList unresolved)
+	{
+		if (unresolved != null)
+		{
+			for (TCType type: unresolved)
+			{
+				if (type instanceof TCUnresolvedType)
+				{
+					TCUnresolvedType utype = (TCUnresolvedType)type;
+					all.add(new Reference(utype, utype.typename.getLocation()));
+				}
+				else if (type instanceof TCParameterType)
+				{
+					TCParameterType ptype = (TCParameterType)type;
+					all.add(new Reference(ptype, ptype.name.getLocation()));
+				}
+			}
+		}
+	}
+
+	private static void externals(List<Reference> all, List<TCExternalClause> externals)
+	{
+		if (externals != null)
+		{
+			for (TCExternalClause ext: externals)
+			{
+				names(all, ext.identifiers);
+				unresolved(all, ext.unresolved);
+			}
+		}
+	}
+
+	private static class ExpressionFinder extends TCLeafExpressionVisitor<Reference, List<Reference>, Object>
+	{
+		public ExpressionFinder(TCVisitorSet<Reference, List<Reference>, Object> visitors)
+		{
+			visitorSet = visitors;
+		}
+
+		@Override
+		protected List<Reference> newCollection()
+		{
+			return new Vector<Reference>();
+		}
+
+		@Override
+		public List<Reference> caseExpression(TCExpression node, Object arg)
+		{
+			return newCollection();
+		}
+
+		@Override
+		public List<Reference> caseMkTypeExpression(TCMkTypeExpression node, Object arg)
+		{
+			List<Reference> all = super.caseMkTypeExpression(node, arg);
+			all.add(new Reference(node, node.typename.getLocation()));
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseVariableExpression(TCVariableExpression node, Object arg)
+		{
+			List<Reference> all = newCollection();
+			all.add(new Reference(node, node.name.getLocation()));
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseLetDefExpression(TCLetDefExpression node, Object arg)
+		{
+			List<Reference> all = newCollection();
+
+			for (TCDefinition def: node.localDefs)
+			{
+				all.addAll(visitorSet.applyDefinitionVisitor(def, arg));
+			}
+
+			all.addAll(node.expression.apply(this, arg));
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseFuncInstantiationExpression(TCFuncInstantiationExpression node, Object arg)
+		{
+			List<Reference> all = super.caseFuncInstantiationExpression(node, arg);
+			unresolved(all, node.unresolved);
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseFieldExpression(TCFieldExpression node, Object arg)
+		{
+			List<Reference> all = super.caseFieldExpression(node, arg);
+			all.add(new Reference(node, node.field.getLocation()));
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseNewExpression(TCNewExpression node, Object arg)
+		{
+			List<Reference> all = super.caseNewExpression(node, arg);
+
+			if (node.ctordef != null)
+			{
+				all.add(new Reference(node.ctordef.name, node.classname.getLocation()));
+			}
+			else
+			{
+				all.add(new Reference(node.classname, node.classname.getLocation()));	// Anon ctor
+			}
+
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseIsExpression(TCIsExpression node, Object arg)
+		{
+			List<Reference> all = super.caseIsExpression(node, arg);
+
+			if (node.typename != null)
+			{
+				all.add(new Reference(node.typename, node.typename.getLocation()));
+			}
+			else
+			{
+				unresolved(all, node.unresolved);
+			}
+
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseNarrowExpression(TCNarrowExpression node, Object arg)
+		{
+			List<Reference> all = super.caseNarrowExpression(node, arg);
+
+			if (node.typename != null)
+			{
+				all.add(new Reference(node.typename, node.typename.getLocation()));
+			}
+			else
+			{
+				unresolved(all, node.unresolved);
+			}
+
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseHistoryExpression(TCHistoryExpression node, Object arg)
+		{
+			List<Reference> all = newCollection();
+			names(all, node.opnames);
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseStateInitExpression(TCStateInitExpression node, Object arg)
+		{
+			return visitorSet.applyExpressionVisitor(node.state.initExpression, arg);
+		}
+	}
+
+	private static class StatementFinder extends TCLeafStatementVisitor<Reference, List<Reference>, Object>
+	{
+		public StatementFinder(TCVisitorSet<Reference, List<Reference>, Object> visitors)
+		{
+			visitorSet = visitors;
+		}
+
+		@Override
+		protected List<Reference> newCollection()
+		{
+			return new Vector<Reference>();
+		}
+
+		@Override
+		public List<Reference> caseStatement(TCStatement node, Object arg)
+		{
+			return newCollection();
+		}
+
+		@Override
+		public List<Reference> caseCallObjectStatement(TCCallObjectStatement node, Object arg)
+		{
+			List<Reference> all = caseObjectDesignator(node.designator, arg);
+
+			if (node.classname != null)
+			{
+				all.add(new Reference(node.classname, node.classname.getLocation()));
+			}
+
+			if (node.field != null)
+			{
+				all.add(new Reference(node.field, node.field.getLocation()));
+			}
+
+			all.addAll(super.caseCallObjectStatement(node, arg));
+			return all;
+		}
+
+		private List<Reference> caseObjectDesignator(TCObjectDesignator node, Object arg)
+		{
+			List<Reference> all = newCollection();
+
+			if (node instanceof TCObjectApplyDesignator)
+			{
+				TCObjectApplyDesignator apply = (TCObjectApplyDesignator)node;
+
+				for (TCExpression a: apply.args)
+				{
+					all.addAll(visitorSet.applyExpressionVisitor(a, arg));
+				}
+
+				all.addAll(caseObjectDesignator(apply.object, arg));
+			}
+			else if (node instanceof TCObjectFieldDesignator)
+			{
+				TCObjectFieldDesignator fdes = (TCObjectFieldDesignator)node;
+
+				if (fdes.field != null)
+				{
+					all.add(new Reference(fdes.field, fdes.field.getLocation()));
+				}
+
+				all.addAll(caseObjectDesignator(fdes.object, arg));
+			}
+			else if (node instanceof TCObjectIdentifierDesignator)
+			{
+				TCObjectIdentifierDesignator id = (TCObjectIdentifierDesignator)node;
+				all.add(new Reference(id.expression, id.name.getLocation()));
+			}
+			else if (node instanceof TCObjectNewDesignator)
+			{
+				TCObjectNewDesignator des = (TCObjectNewDesignator)node;
+				all.addAll(visitorSet.applyExpressionVisitor(des.expression, arg));
+			}
+
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseCallStatement(TCCallStatement node, Object arg)
+		{
+			List<Reference> all = super.caseCallStatement(node, arg);
+			all.add(new Reference(node, node.name.getLocation()));
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseAssignmentStatement(TCAssignmentStatement node, Object arg)
+		{
+			List<Reference> all = super.caseAssignmentStatement(node, arg);
+			TCStateDesignator des = node.target;
+
+			while (true)
+			{
+				if (des instanceof TCIdentifierDesignator)
+				{
+					TCIdentifierDesignator id = (TCIdentifierDesignator)des;
+					all.add(new Reference(id, id.name.getLocation()));
+					break;
+				}
+				else if (des instanceof TCMapSeqDesignator)
+				{
+					TCMapSeqDesignator ms = (TCMapSeqDesignator)des;
+					all.addAll(visitorSet.applyExpressionVisitor(ms.exp, arg));
+					des = ms.mapseq;
+				}
+				else if (des instanceof TCFieldDesignator)
+				{
+					des = ((TCFieldDesignator)des).object;
+				}
+				else
+				{
+					break;
+				}
+			}
+
+			return all;
+		}
+
+		@Override
+		public List<Reference> caseSpecificationStatement(TCSpecificationStatement node, Object arg)
+		{
+			List<Reference> all = super.caseSpecificationStatement(node, arg);
+			externals(all, node.externals);
+			return all;
+		}
+	}
+
+	private static class PatternFinder extends TCLeafPatternVisitor<Reference, List<Reference>, Object>
+	{
+		public PatternFinder(TCVisitorSet<Reference, List<Reference>, Object> visitors)
+		{
+			visitorSet = visitors;
+		}
+
+		@Override
+		protected List<Reference> newCollection()
+		{
+			return new Vector<Reference>();
+		}
+
+		@Override
+		public List<Reference> casePattern(TCPattern node, Object arg)
+		{
+			return newCollection();
+		}
+
+		@Override
+		public List<Reference> caseRecordPattern(TCRecordPattern node, Object arg)
+		{
+			List<Reference> all = super.caseRecordPattern(node, arg);
+			all.add(new Reference(node.typename, node.typename.getLocation()));
+			return all;
+		}
+	}
+
+	private static class BindFinder extends TCLeafBindVisitor<Reference, List<Reference>, Object>
+	{
+		public BindFinder(TCVisitorSet<Reference, List<Reference>, Object> visitors)
+		{
+			visitorSet = visitors;
+		}
+
+		@Override
+		protected List<Reference> newCollection()
+		{
+			return new Vector<Reference>();
+		}
+
+		@Override
+		public List<Reference> caseBind(TCBind node, Object arg)
+		{
+			return newCollection();
+		}
+
+		@Override
+		public List<Reference> caseTypeBind(TCTypeBind node, Object arg)
+		{
+			List<Reference> all = super.caseTypeBind(node, arg);
+			unresolved(all, node.unresolved);
+			return all;
+		}
+	}
+
+	private static class MultipleBindFinder extends TCLeafMultipleBindVisitor<Reference, List<Reference>, Object>
+	{
+		public MultipleBindFinder(TCVisitorSet<Reference, List<Reference>, Object> visitors)
+		{
+			visitorSet = visitors;
+		}
+
+		@Override
+		protected List<Reference> newCollection()
+		{
+			return new Vector<Reference>();
+		}
+
+		@Override
+		public List<Reference> caseMultipleBind(TCMultipleBind node, Object arg)
+		{
+			return newCollection();
+		}
+
+		@Override
+		public List<Reference> caseMultipleTypeBind(TCMultipleTypeBind node, Object arg)
+		{
+			List<Reference> all = super.caseMultipleTypeBind(node, arg);
+			unresolved(all, node.unresolved);
+			return all;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package workspace;
+
+import json.JSONObject;
+
+/**
+ * The offsets of the start of each line of a project file buffer, so that an LSP
+ * (line, character) position can be converted to a buffer offset without scanning
+ * the buffer from the start. Edits made via replace update the buffer and the line
+ * starts together, so the index does not have to be rebuilt after each keystroke.
+ */
+public class LineIndex
+{
+	private final StringBuilder buffer;
+	private int[] starts;
+	private int count;
+	private int length;
+
+	public LineIndex(StringBuilder buffer)
+	{
+		this.buffer = buffer;
+		this.starts = new int[1024];
+		this.count = 0;
+
+		add(0);
+
+		for (int i=0; i<buffer.length(); i++)
+		{
+			if (buffer.charAt(i) == '\n')
+			{
+				add(i + 1);
+			}
+		}
+
+		this.length = buffer.length();
+	}
+
+	/**
+	 * True if this index is for the buffer passed, and the buffer has not been changed
+	 * since, other than by replace. Only the length is compared, so callers that change
+	 * the buffer contents in other ways must discard the index themselves.
+	 */
+	public boolean isFor(StringBuilder other)
+	{
+		return other == buffer && other.length() == length;
+	}
+
+	public int findPosition(JSONObject position)
+	{
+		long line = position.get("line");
+		long character = position.get("character");
+		return findPosition(line, character);
+	}
+
+	/**
+	 * The offset of a zero-relative line and character, which can be the position of
+	 * the newline at the end of the line, or the end of the buffer. This is the same
+	 * as Utils.findPosition, including -1 for positions that are not in the buffer.
+	 */
+	public int findPosition(long zline, long zcol)
+	{
+		if (zline >= 0 && zline < count && zcol >= 0)
+		{
+			int line = (int)zline;
+			long end = (line + 1 < count) ? starts[line + 1] - 1 : length;
+			long offset = starts[line] + zcol;
+
+			if (offset <= end)
+			{
+				return (int)offset;
+			}
+		}
+
+		Diag.error("Cannot locate line %d character %s in buffer length %d", zline, zcol, length);
+		return -1;
+	}
+
+	/**
+	 * Replace a range of the buffer, as StringBuilder.replace, and update the line starts.
+	 */
+	public void replace(int start, int end, String text)
+	{
+		buffer.replace(start, end, text);
+
+		int first = after(start);	// The first line start removed or moved
+		int last = after(end);		// The first line start moved
+		int delta = text.length() - (end - start);
+		int added = 0;
+
+		for (int i=0; i<text.length(); i++)
+		{
+			if (text.charAt(i) == '\n')
+			{
+				added++;
+			}
+		}
+
+		int moved = count - last;
+		int newCount = first + added + moved;
+
+		if (newCount > starts.length)
+		{
+			int[] larger = new int[Math.max(newCount, starts.length * 2)];
+			System.arraycopy(starts, 0, larger, 0, count);
+			starts = larger;
+		}
+
+		System.arraycopy(starts, last, starts, first + added, moved);
+
+		for (int i=first + added; i<newCount; i++)
+		{
+			starts[i] += delta;
+		}
+
+		for (int i=0, line=first; i<text.length(); i++)
+		{
+			if (text.charAt(i) == '\n')
+			{
+				starts[line++] = start + i + 1;
+			}
+		}
+
+		count = newCount;
+		length = buffer.length();
+	}
+
+	/**
+	 * The index of the first line that starts after an offset.
+	 */
+	private int after(int offset)
+	{
+		int low = 0;
+		int high = count;
+
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+
+			if (starts[mid] <= offset)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	private void add(int start)
+	{
+		if (count == starts.length)
+		{
+			int[] larger = new int[starts.length * 2];
+			System.arraycopy(starts, 0, larger, 0, count);
+			starts = larger;
+		}
+
+		starts[count++] = start;
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package workspace;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+import com.fujitsu.vdmj.lex.LexLocation;
+import com.fujitsu.vdmj.tc.definitions.TCDefinition;
+
+import json.JSONArray;
+import json.JSONObject;
+
+/**
+ * An index of the names that refer to each definition in a checked specification, for
+ * reference requests. It is created by the TCPlugin after each type check, by resolving
+ * every name in the TC tree once with LSPDefinitionFinder.findReferences. A request is
+ * then answered from the index, in time proportional to the number of results.
+ */
+public class SymbolIndex
+{
+	private final Map<LexLocation, Set<LexLocation>> references;
+
+	public SymbolIndex(Map<LexLocation, Set<LexLocation>> references)
+	{
+		this.references = references;
+	}
+
+	public SymbolIndex()
+	{
+		this.references = Collections.emptyMap();
+	}
+
+	/**
+	 * The locations of the names that refer to a definition, in file order. The
+	 * definition's own name is not included.
+	 */
+	public List<LexLocation> getReferences(LexLocation definition)
+	{
+		Set<LexLocation> refs = references.get(definition);
+		List<LexLocation> results = new Vector<LexLocation>();
+
+		if (refs != null)
+		{
+			results.addAll(refs);
+			Collections.sort(results);
+		}
+
+		return results;
+	}
+
+	/**
+	 * The LSP locations of the references to a definition. The range of each is the
+	 * definition's name at the end of the referring name, which may be longer, like the
+	 * "R" in "mk_R" or "x" in "M`x".
+	 */
+	public JSONArray findReferences(TCDefinition def)
+	{
+		JSONArray results = new JSONArray();
+		int wlen = def.name.getName().length();
+
+		for (LexLocation ref: getReferences(def.location))
+		{
+			long zline;
+			long zend;
+
+			if (ref.endPos == 0)	// end is not set
+			{
+				zline = ref.startLine - 1;
+				zend = ref.startPos - 1 + wlen;
+			}
+			else
+			{
+				zline = ref.endLine - 1;
+				zend = ref.endPos;
+			}
+
+			results.add(new JSONObject(
+				"uri", ref.file.toPath().toUri().toString(),
+				"range", new JSONObject(
+					"start", new JSONObject("line", zline, "character", zend - wlen),
+					"end",   new JSONObject("line", zline, "character", zend))));
+		}
+
+		return results;
+	}
+}
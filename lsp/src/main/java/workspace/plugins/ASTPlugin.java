@@ -26,6 +26,9 @@ package workspace.plugins;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +54,9 @@ import com.fujitsu.vdmj.lex.LexException;
 import com.fujitsu.vdmj.lex.LexLocation;
 import com.fujitsu.vdmj.lex.LexTokenReader;
 import com.fujitsu.vdmj.mapper.Mappable;
+import com.fujitsu.vdmj.messages.VDMError;
+import com.fujitsu.vdmj.messages.VDMWarning;
+import com.fujitsu.vdmj.syntax.SyntaxReader;
 
 import json.JSONArray;
 import json.JSONObject;
@@ -74,6 +80,67 @@ public abstract class ASTPlugin extends AnalysisPlugin implements EventListener
 	protected boolean dirty;
 	protected Map<File, LexLocation> dirtyEndings = new LinkedHashMap<File, LexLocation>();
 	
+	/**
+	 * The result of parsing one project file. A file whose content has not changed
+	 * since the last check is not parsed again by checkLoadedFiles. Instead, its AST,
+	 * messages and locations are reused from here. Only a digest of the content is
+	 * kept, rather than a copy of every file.
+	 */
+	protected static class ParsedFile<T>
+	{
+		private final byte[] digest;
+		public final T result;
+		public final List<VDMError> errors;
+		public final List<VDMWarning> warnings;
+		public final LexLocation ending;
+		public final LexLocation.FileLocations locations;
+		
+		public ParsedFile(File file, String content, T result, SyntaxReader reader, LexTokenReader ltr)
+		{
+			this.digest = digestOf(content);
+			this.result = result;
+			this.errors = reader.getErrors();
+			this.warnings = reader.getWarnings();
+			this.ending = endingOf(ltr);
+			this.locations = LexLocation.saveFile(file);
+		}
+		
+		/**
+		 * True if the content is the same as that parsed.
+		 */
+		public boolean isFor(String content)
+		{
+			return MessageDigest.isEqual(digest, digestOf(content));
+		}
+		
+		private static byte[] digestOf(String content)
+		{
+			try
+			{
+				MessageDigest md = MessageDigest.getInstance("SHA-256");
+				return md.digest(content.getBytes(StandardCharsets.UTF_8));
+			}
+			catch (NoSuchAlgorithmException e)
+			{
+				throw new IllegalStateException(e);		// SHA-256 is always available
+			}
+		}
+		
+		private static LexLocation endingOf(LexTokenReader ltr)
+		{
+			try
+			{
+				// Last should be the EOF token at the end of the file parse
+				return ltr.getLast().location;
+			}
+			catch (LexException e)
+			{
+				Diag.error(e);
+				return null;
+			}
+		}
+	}
+	
 	public static ASTPlugin factory(Dialect dialect)
 	{
 		switch (dialect)
@@ -191,6 +258,33 @@ public abstract class ASTPlugin extends AnalysisPlugin implements EventListener
 	
 	abstract protected void parseFile(File file);
 
+	/**
+	 * Add the results of a ParsedFile to the check, having either just parsed it, or
+	 * restored its locations after the LexLocation.resetLocations for this check.
+	 */
+	protected void addParsedFile(File file, ParsedFile<?> parsed, boolean restore)
+	{
+		if (restore)
+		{
+			LexLocation.restoreFile(parsed.locations);
+		}
+		
+		if (parsed.ending != null)
+		{
+			LSPPlugin.getInstance().getFileEndings().put(file, parsed.ending);
+		}
+		
+		if (!parsed.errors.isEmpty())
+		{
+			messagehub.addPluginMessages(this, parsed.errors);
+		}
+		
+		if (!parsed.warnings.isEmpty())
+		{
+			messagehub.addPluginMessages(this, parsed.warnings);
+		}
+	}
+
 	protected void setDirtyEnding(File file, LexTokenReader ltr)
 	{
 		try
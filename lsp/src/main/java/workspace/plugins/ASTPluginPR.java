@@ -26,6 +26,7 @@ package workspace.plugins;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -61,6 +62,7 @@ public class ASTPluginPR extends ASTPlugin
 {
 	private ASTClassList astClassList = null;
 	private ASTClassList dirtyClassList = null;
+	private Map<File, ParsedFile<ASTClassList>> parsedFiles = new HashMap<File, ParsedFile<ASTClassList>>();
 	
 	public ASTPluginPR()
 	{
@@ -102,22 +104,29 @@ public class ASTPluginPR extends ASTPlugin
 		
 		for (Entry<File, StringBuilder> entry: projectFiles.entrySet())
 		{
-			LexTokenReader ltr = new LexTokenReader(entry.getValue().toString(), Settings.dialect, entry.getKey());
-			ClassReader mr = new ClassReader(ltr);
-			astClassList.addAll(mr.readClasses());
-			lsp.setFileEnding(entry.getKey(), ltr);
+			File file = entry.getKey();
+			String content = entry.getValue().toString();
+			ParsedFile<ASTClassList> parsed = parsedFiles.get(file);
 			
-			if (mr.getErrorCount() > 0)
+			if (parsed != null && parsed.isFor(content))
 			{
-				messagehub.addPluginMessages(this, mr.getErrors());
+				addParsedFile(file, parsed, true);		// Unchanged since the last check
 			}
-			
-			if (mr.getWarningCount() > 0)
+			else
 			{
-				messagehub.addPluginMessages(this, mr.getWarnings());
+				LexTokenReader ltr = new LexTokenReader(content, Settings.dialect, file);
+				ClassReader cr = new ClassReader(ltr);
+				ASTClassList classes = cr.readClasses();
+				parsed = new ParsedFile<ASTClassList>(file, content, classes, cr, ltr);
+				parsedFiles.put(file, parsed);
+				addParsedFile(file, parsed, false);
 			}
+			
+			astClassList.addAll(parsed.result);
 		}
 		
+		parsedFiles.keySet().retainAll(projectFiles.keySet());
+		
 		String remoteSimulation = System.getProperty("lsp.remoteSimulation");
 		
 		if (remoteSimulation != null)
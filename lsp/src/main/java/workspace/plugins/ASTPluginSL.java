@@ -26,6 +26,7 @@ package workspace.plugins;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -57,6 +58,7 @@ public class ASTPluginSL extends ASTPlugin
 {
 	private ASTModuleList astModuleList = null;
 	private ASTModuleList dirtyModuleList = null;
+	private Map<File, ParsedFile<ASTModuleList>> parsedFiles = new HashMap<File, ParsedFile<ASTModuleList>>();
 	
 	public ASTPluginSL()
 	{
@@ -83,21 +85,28 @@ public class ASTPluginSL extends ASTPlugin
 		
 		for (Entry<File, StringBuilder> entry: projectFiles.entrySet())
 		{
-			LexTokenReader ltr = new LexTokenReader(entry.getValue().toString(), Dialect.VDM_SL, entry.getKey());
-			ModuleReader mr = new ModuleReader(ltr);
-			astModuleList.addAll(mr.readModules());
-			lsp.setFileEnding(entry.getKey(), ltr);
+			File file = entry.getKey();
+			String content = entry.getValue().toString();
+			ParsedFile<ASTModuleList> parsed = parsedFiles.get(file);
 			
-			if (mr.getErrorCount() > 0)
+			if (parsed != null && parsed.isFor(content))
 			{
-				messagehub.addPluginMessages(this, mr.getErrors());
+				addParsedFile(file, parsed, true);		// Unchanged since the last check
 			}
-			
-			if (mr.getWarningCount() > 0)
+			else
 			{
-				messagehub.addPluginMessages(this, mr.getWarnings());
+				LexTokenReader ltr = new LexTokenReader(content, Dialect.VDM_SL, file);
+				ModuleReader mr = new ModuleReader(ltr);
+				ASTModuleList modules = mr.readModules();
+				parsed = new ParsedFile<ASTModuleList>(file, content, modules, mr, ltr);
+				parsedFiles.put(file, parsed);
+				addParsedFile(file, parsed, false);
 			}
+			
+			astModuleList.addAll(parsed.result);
 		}
+		
+		parsedFiles.keySet().retainAll(projectFiles.keySet());
 	}
 	
 	@SuppressWarnings("unchecked")
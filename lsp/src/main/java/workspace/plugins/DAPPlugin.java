@@ -113,6 +113,8 @@ public class DAPPlugin extends AnalysisPlugin
 		"vdmj.scheduler.fcfs_timeslice",
 		"vdmj.scheduler.virtual_timeslice",
 		"vdmj.scheduler.jitter",
+		"vdmj.scheduler.thread_stack",
+		"vdmj.scheduler.deferred_start",
 		"vdmj.rt.duration_default",
 		"vdmj.rt.duration_transactions",
 		"vdmj.rt.log_instvarchanges",
@@ -121,7 +123,9 @@ public class DAPPlugin extends AnalysisPlugin
 		"vdmj.rt.diags_timestep",
 		"vdmj.in.powerset_limit",
 		"vdmj.in.typebind_limit",
-		"vdmj.in.undefined_evals"
+		"vdmj.in.undefined_evals",
+		"vdmj.in.shared_collections",
+		"vdmj.in.parallel_binds"
 	);
 	
 	protected DAPPlugin()
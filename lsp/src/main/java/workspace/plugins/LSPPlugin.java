@@ -113,6 +113,7 @@ import workspace.EventHub;
 import workspace.EventListener;
 import workspace.GlobFinder;
 import workspace.HeapMonitor;
+import workspace.LineIndex;
 import workspace.MessageHub;
 import workspace.PluginRegistry;
 import workspace.events.ChangeFileEvent;
@@ -146,6 +147,7 @@ public class LSPPlugin extends AnalysisPlugin
 	private File rootUri = null;
 	private Map<File, StringBuilder> projectFiles = new LinkedHashMap<File, StringBuilder>();
 	private Map<File, LexLocation> fileEndings = new LinkedHashMap<File, LexLocation>();
+	private Map<File, LineIndex> lineIndexes = new HashMap<File, LineIndex>();
 	private Set<File> openFiles = new HashSet<File>();
 	private boolean checkInProgress = false;
 
@@ -514,6 +516,7 @@ public class LSPPlugin extends AnalysisPlugin
 	{
 		projectFiles.clear();
 		fileEndings.clear();
+		lineIndexes.clear();
 		externalFilesWarned.clear();	// Re-warn after reloads
 		messagehub.clear();
 		
@@ -1127,13 +1130,14 @@ public class LSPPlugin extends AnalysisPlugin
 			
 			if (range != null)
 			{
-				int start = Utils.findPosition(buffer, range.get("start"));
-				int end   = Utils.findPosition(buffer, range.get("end"));
+				LineIndex index = getLineIndex(file);
+				int start = index.findPosition(range.get("start"));
+				int end   = index.findPosition(range.get("end"));
 				
 				if (start >= 0 && end >= 0)
 				{
 					String original = buffer.substring(start, end);
-					buffer.replace(start, end, text);
+					index.replace(start, end, text);
 					
 					if (original.equals(text))
 					{
@@ -1149,6 +1153,7 @@ public class LSPPlugin extends AnalysisPlugin
 				Diag.fine("Replacing entire content of %s", file);
 				buffer.setLength(0);
 				buffer.append(text);
+				lineIndexes.remove(file);	// Same buffer, so isFor cannot tell
 			}
 			
 			return eventhub.publish(new ChangeFileEvent(request, file));
@@ -1502,50 +1507,15 @@ public class LSPPlugin extends AnalysisPlugin
 		}
 		else
 		{
-			String word = def.name.getName();
-			JSONArray results = new JSONArray();
-			
-			JSONObject defRange = Utils.lexLocationToRange(def.location);
-			
-			for (File pfile: projectFiles.keySet())
-			{
-				StringBuilder buffer = projectFiles.get(pfile);
-				
-				if (buffer.indexOf(word) >= 0)
-				{
-					JSONArray list = Utils.findWords(buffer, word);
-					
-					for (int i=0; i<list.size(); i++)
-					{
-						JSONObject range = list.index(i);
-						
-						if (!range.equals(defRange))	// See incdec below
-						{
-							JSONObject start = range.get("start");
-							long zline2 = start.get("line");
-							long zcol2  = start.get("character");
-
-							TCDefinition def2 = findDefinition(pfile, zline2, zcol2);
-							
-							// Check by location, so that manufactured definitions for fields
-							// will match.
-							if (def2 != null && def2.location.equals(def.location))
-							{
-								results.add(
-									new JSONObject(
-										"uri", pfile.toPath().toUri().toString(),
-										"range", range));
-							}
-						}
-					}
-				}
-			}
+			// Indexed by location, so that manufactured definitions for fields will match.
+			TCPlugin plugin = registry.getPlugin("TC");
+			JSONArray results = plugin.getSymbolIndex().findReferences(def);
 			
 			if (incdec)
 			{
 				results.add(new JSONObject(
 						"uri", def.location.file.toPath().toUri().toString(),
-						"range", defRange));
+						"range", Utils.lexLocationToRange(def.location)));
 			}
 			
 			return new RPCMessageList(request, results);
@@ -1636,7 +1606,7 @@ public class LSPPlugin extends AnalysisPlugin
 		else if (projectFiles.containsKey(file))
 		{
 			StringBuilder buffer = projectFiles.get(file);
-			int position = Utils.findPosition(buffer, zline, zcol);
+			int position = getLineIndex(file).findPosition(zline, zcol);
 			
 			if (position >= 0)
 			{
@@ -1834,7 +1804,25 @@ public class LSPPlugin extends AnalysisPlugin
 		TCPlugin plugin = registry.getPlugin("TC");
 		return plugin.findDefinition(file, (int)zline, (int)zcol);
 	}
-
+	
+	/**
+	 * Get the LineIndex for a project file, creating it if the buffer is new or
+	 * has been replaced.
+	 */
+	private LineIndex getLineIndex(File file)
+	{
+		StringBuilder buffer = projectFiles.get(file);
+		LineIndex index = lineIndexes.get(file);
+		
+		if (index == null || !index.isFor(buffer))
+		{
+			index = new LineIndex(buffer);
+			lineIndexes.put(file, index);
+		}
+		
+		return index;
+	}
+	
 	private FilenameFilter getFilenameFilter()
 	{
 		ASTPlugin ast = registry.getPlugin("AST");
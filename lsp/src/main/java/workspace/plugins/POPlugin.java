@@ -44,6 +44,7 @@ import com.fujitsu.vdmj.po.definitions.POImplicitFunctionDefinition;
 import com.fujitsu.vdmj.po.definitions.POImplicitOperationDefinition;
 import com.fujitsu.vdmj.po.definitions.POStateDefinition;
 import com.fujitsu.vdmj.po.definitions.POTypeDefinition;
+import com.fujitsu.vdmj.pog.ObligationCache;
 import com.fujitsu.vdmj.pog.POContextStack;
 import com.fujitsu.vdmj.pog.POType;
 import com.fujitsu.vdmj.pog.ProofObligation;
@@ -102,6 +103,7 @@ abstract public class POPlugin extends AnalysisPlugin implements EventListener
 	private final Map<File, List<POInlayHint>> inlayHints;
 	protected ProofObligationList obligationList;
 	private int projectHash = 0;	// Set after CompleteCheckEvent
+	private String cacheSettings = null;	// QuickCheck settings for cached results
 
 	protected POPlugin()
 	{
@@ -307,6 +309,39 @@ abstract public class POPlugin extends AnalysisPlugin implements EventListener
 
 	abstract protected void addDependencyCodeLenses();
 
+	/**
+	 * Set the QuickCheck settings that a cached result must have been checked with to
+	 * be restored. These are set by the QC plugin, if it is loaded.
+	 */
+	public void setCacheSettings(String cacheSettings)
+	{
+		this.cacheSettings = cacheSettings;
+	}
+
+	/**
+	 * The vdmj.qc.cache_file, with a relative path resolved against the project root.
+	 */
+	protected File getCacheFile()
+	{
+		LSPPlugin lsp = registry.getPlugin("LSP");
+		return ObligationCache.getFile(lsp.getRoot());
+	}
+
+	/**
+	 * Set the status of any new POs that were checked by QuickCheck earlier, with the
+	 * current settings, from the vdmj.qc.cache_file.
+	 */
+	protected void restoreCachedResults(ObligationCache cache)
+	{
+		if (cacheSettings != null)
+		{
+			for (ProofObligation po: obligationList)
+			{
+				cache.restore(po, cacheSettings);
+			}
+		}
+	}
+
 	public ProofObligationList getDependentPOs(TCNameToken applyname)
 	{
 		ProofObligationList result = new ProofObligationList();
@@ -24,14 +24,17 @@
 
 package workspace.plugins;
 
+import com.fujitsu.vdmj.config.Properties;
 import com.fujitsu.vdmj.mapper.ClassMapper;
 import com.fujitsu.vdmj.mapper.Mappable;
 import com.fujitsu.vdmj.po.PONode;
 import com.fujitsu.vdmj.po.annotations.POAnnotation;
 import com.fujitsu.vdmj.po.definitions.POClassDefinition;
 import com.fujitsu.vdmj.po.definitions.POClassList;
+import com.fujitsu.vdmj.pog.ObligationCache;
 import com.fujitsu.vdmj.pog.ProofObligation;
 import com.fujitsu.vdmj.pog.ProofObligationList;
+import com.fujitsu.vdmj.tc.definitions.TCClassList;
 import com.fujitsu.vdmj.util.NullProgress;
 import com.fujitsu.vdmj.util.Progress;
 
@@ -96,6 +99,13 @@ public class POPluginPR extends POPlugin
 			{
 				obligationList.renumber();
 				addDependencyCodeLenses();
+
+				if (Properties.qc_cache_file != null)
+				{
+					TCPlugin tc = registry.getPlugin("TC");
+					TCClassList tcList = tc.getTC();
+					restoreCachedResults(new ObligationCache(getCacheFile(), tcList));
+				}
 			}
 		}
 
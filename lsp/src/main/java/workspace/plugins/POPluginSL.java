@@ -26,16 +26,19 @@ package workspace.plugins;
 
 import java.util.Map.Entry;
 
+import com.fujitsu.vdmj.config.Properties;
 import com.fujitsu.vdmj.mapper.ClassMapper;
 import com.fujitsu.vdmj.mapper.Mappable;
 import com.fujitsu.vdmj.po.PONode;
 import com.fujitsu.vdmj.po.annotations.POAnnotation;
 import com.fujitsu.vdmj.po.modules.POModule;
 import com.fujitsu.vdmj.po.modules.POModuleList;
+import com.fujitsu.vdmj.pog.ObligationCache;
 import com.fujitsu.vdmj.pog.ProofObligation;
 import com.fujitsu.vdmj.pog.ProofObligationList;
 import com.fujitsu.vdmj.runtime.Context;
 import com.fujitsu.vdmj.tc.lex.TCNameToken;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
 import com.fujitsu.vdmj.util.NullProgress;
 import com.fujitsu.vdmj.util.Progress;
 import com.fujitsu.vdmj.values.Value;
@@ -101,6 +104,13 @@ public class POPluginSL extends POPlugin
 			{
 				obligationList.renumber();
 				addDependencyCodeLenses();
+
+				if (Properties.qc_cache_file != null)
+				{
+					TCPlugin tc = registry.getPlugin("TC");
+					TCModuleList tcList = tc.getTC();
+					restoreCachedResults(new ObligationCache(getCacheFile(), tcList));
+				}
 			}
 		}
 		
@@ -61,6 +61,7 @@ import lsp.textdocument.SymbolKind;
 import rpc.RPCMessageList;
 import workspace.Diag;
 import workspace.EventListener;
+import workspace.SymbolIndex;
 import workspace.events.CheckPrepareEvent;
 import workspace.events.CheckTypeEvent;
 import workspace.events.CodeLensEvent;
@@ -93,6 +94,7 @@ abstract public class TCPlugin extends AnalysisPlugin implements EventListener
 
 	protected final Map<File, JSONArray> codeLenses;		// cache for efficiency
 	protected final Map<File, List<TCInlayHint>> inlayHints;		// cache for efficiency
+	protected SymbolIndex symbolIndex = new SymbolIndex();		// references, set by each check
 
 	protected TCPlugin()
 	{
@@ -192,6 +194,7 @@ abstract public class TCPlugin extends AnalysisPlugin implements EventListener
 		messagehub.clearPluginMessages(this);
 		codeLenses.clear();
 		inlayHints.clear();
+		symbolIndex = new SymbolIndex();
 	}
 	
 	/**
@@ -266,6 +269,11 @@ abstract public class TCPlugin extends AnalysisPlugin implements EventListener
 
 	abstract public TCDefinition findDefinition(File file, long zline, long zcol);
 
+	public SymbolIndex getSymbolIndex()
+	{
+		return symbolIndex;
+	}
+
 	abstract public TCDefinitionList lookupDefinition(String startsWith);
 	
 	abstract public void saveDependencies(File saveUri) throws IOException;
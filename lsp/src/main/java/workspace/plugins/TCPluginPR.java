@@ -48,6 +48,7 @@ import json.JSONObject;
 import lsp.textdocument.SymbolKind;
 import vdmj.LSPDefinitionFinder;
 import workspace.Diag;
+import workspace.SymbolIndex;
 import workspace.events.CheckPrepareEvent;
 import workspace.events.CheckTypeEvent;
 import workspace.lenses.TCCodeLens;
@@ -101,6 +102,15 @@ public class TCPluginPR extends TCPlugin
 		{
 			messagehub.addPluginMessages(this, TypeChecker.getWarnings());
 		}
+
+		try
+		{
+			symbolIndex = new SymbolIndex(new LSPDefinitionFinder().findReferences(tcClassList));
+		}
+		catch (Exception e)
+		{
+			Diag.error(e);		// No references are found until the next check
+		}
 	}
 
 	@SuppressWarnings("unchecked")
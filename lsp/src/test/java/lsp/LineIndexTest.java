@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package lsp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import com.fujitsu.vdmj.lex.Dialect;
+
+import json.JSONObject;
+import rpc.RPCRequest;
+import workspace.LineIndex;
+
+public class LineIndexTest extends LSPTest
+{
+	private JSONObject range(long sline, long scol, long eline, long ecol)
+	{
+		return new JSONObject(
+			"start", new JSONObject("line", sline, "character", scol),
+			"end",   new JSONObject("line", eline, "character", ecol));
+	}
+
+	/**
+	 * Apply an edit with Utils.findPosition, which scans the buffer each time.
+	 */
+	private void expected(StringBuilder buffer, JSONObject range, String text) throws Exception
+	{
+		int start = Utils.findPosition(buffer, range.get("start"));
+		int end = Utils.findPosition(buffer, range.get("end"));
+		buffer.replace(start, end, text);
+	}
+
+	private void actual(LineIndex index, JSONObject range, String text)
+	{
+		int start = index.findPosition((JSONObject)range.get("start"));
+		int end = index.findPosition((JSONObject)range.get("end"));
+		index.replace(start, end, text);
+	}
+
+	@Test
+	public void testPositions() throws Exception
+	{
+		StringBuilder buffer = new StringBuilder("abc\n\ndefgh\nij");
+		LineIndex index = new LineIndex(buffer);
+
+		for (long line = 0; line < 4; line++)
+		{
+			for (long col = 0; col < 7; col++)
+			{
+				JSONObject position = new JSONObject("line", line, "character", col);
+				assertEquals("line " + line + " col " + col,
+					Utils.findPosition(buffer, position), index.findPosition(position));
+			}
+		}
+	}
+
+	@Test
+	public void testMultiLineReplace() throws Exception
+	{
+		StringBuilder buffer = new StringBuilder("line 0\nline 1\nline 2\nline 3\n");
+		StringBuilder check = new StringBuilder(buffer);
+		LineIndex index = new LineIndex(buffer);
+
+		Object[][] edits =
+		{
+			{ range(1, 2, 2, 4), "X\nY\nZ" },		// More lines
+			{ range(0, 0, 3, 1), "" },				// Fewer lines
+			{ range(0, 2, 0, 2), "\n\n" },			// Insert newlines
+			{ range(2, 0, 3, 0), "tail" },			// Join lines
+			{ range(0, 1, 1, 0), "a\nb\nc\nd\n" }
+		};
+
+		for (Object[] edit: edits)
+		{
+			expected(check, (JSONObject)edit[0], (String)edit[1]);
+			actual(index, (JSONObject)edit[0], (String)edit[1]);
+			assertEquals(check.toString(), buffer.toString());
+
+			for (long line = 0; line < 8; line++)
+			{
+				for (long col = 0; col < 10; col++)
+				{
+					JSONObject position = new JSONObject("line", line, "character", col);
+					assertEquals(Utils.findPosition(check, position), index.findPosition(position));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFullReplaceSameLength() throws Exception
+	{
+		setupWorkspace(Dialect.VDM_SL);
+		File testdir = new File("src/test/resources/deptest_sl");
+		initialize(testdir, new JSONObject());
+
+		File file = new File(testdir, "deptest.vdmsl").getCanonicalFile();
+		StringBuilder buffer = lspManager.getProjectFiles().get(file);
+		String original = buffer.toString();
+		lspManager.lspDidOpen(RPCRequest.notification("textDocument/didOpen", null), file, original);
+
+		// A ranged edit, which builds the line index for the buffer
+		StringBuilder check = new StringBuilder(original);
+		JSONObject first = range(1, 0, 1, 7);
+		expected(check, first, "IMPORTS");
+		lspManager.lspDidChange(null, file, first, "IMPORTS");
+		assertEquals(check.toString(), buffer.toString());
+
+		// Replace the whole content with text of the same length but different lines
+		String moved = check.toString().replace("\n", " ").replaceFirst(" ", "\n\n\n");
+		moved = moved.substring(0, moved.length() - 2);
+		assertEquals(check.length(), moved.length());
+		lspManager.lspDidChange(null, file, null, moved);
+		assertEquals(moved, buffer.toString());
+
+		// A ranged edit that uses the line starts of the new content
+		check = new StringBuilder(moved);
+		JSONObject second = range(3, 2, 3, 4);
+		expected(check, second, "xyz");
+		lspManager.lspDidChange(null, file, second, "xyz");
+		assertEquals(check.toString(), buffer.toString());
+	}
+}
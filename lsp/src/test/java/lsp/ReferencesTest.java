@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package lsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.tc.definitions.TCDefinition;
+
+import json.JSONArray;
+import json.JSONObject;
+import rpc.RPCMessageList;
+import rpc.RPCRequest;
+import workspace.PluginRegistry;
+import workspace.plugins.TCPlugin;
+
+/**
+ * Check that references from the SymbolIndex are the same as those found by searching
+ * the files for the name and finding the definition at each occurrence, for every name
+ * in a specification.
+ */
+public class ReferencesTest extends LSPTest
+{
+	@Test
+	public void testSL() throws Exception
+	{
+		setupWorkspace(Dialect.VDM_SL);
+		compare(new File("src/test/resources/references_sl"), 60);
+	}
+
+	@Test
+	public void testAlarm() throws Exception
+	{
+		setupWorkspace(Dialect.VDM_SL);
+		compare(new File("src/test/resources/ctalarm_sl"), 100);
+	}
+
+	@Test
+	public void testPP() throws Exception
+	{
+		setupWorkspace(Dialect.VDM_PP);
+		compare(new File("src/test/resources/references_pp"), 20);
+	}
+
+	private void compare(File testdir, int minimum) throws Exception
+	{
+		initialize(testdir, new JSONObject());
+		Map<File, StringBuilder> files = new LinkedHashMap<File, StringBuilder>();
+
+		for (File file: testdir.listFiles())
+		{
+			files.put(file.getAbsoluteFile(), new StringBuilder(new String(Files.readAllBytes(file.toPath()))));
+		}
+
+		int count = 0;
+
+		for (File file: files.keySet())
+		{
+			StringBuilder buffer = files.get(file);
+			long zline = 0;
+			long zcol = 0;
+
+			for (int i=0; i<buffer.length(); i++)
+			{
+				char c = buffer.charAt(i);
+
+				if (Character.isLetter(c) && (i == 0 || !Character.isLetterOrDigit(buffer.charAt(i-1))))
+				{
+					Set<JSONObject> expected = search(files, file, zline, zcol);
+
+					if (expected != null)
+					{
+						RPCRequest request = RPCRequest.create("textDocument/references", null);
+						RPCMessageList response = lspManager.lspReferences(request, file, zline, zcol, false);
+						JSONArray result = response.get(0).get("result");
+						assertEquals(file.getName() + " " + zline + ":" + zcol, expected, new HashSet<Object>(result));
+						count = count + result.size();
+					}
+				}
+
+				if (c == '\n')
+				{
+					zline++;
+					zcol = 0;
+				}
+				else
+				{
+					zcol++;
+				}
+			}
+		}
+
+		assertTrue("Only " + count + " references found", count >= minimum);
+	}
+
+	/**
+	 * Find the references to the definition at a position by searching for its name
+	 * in every file, and checking the definition at each occurrence.
+	 */
+	private Set<JSONObject> search(Map<File, StringBuilder> files, File file, long zline, long zcol)
+	{
+		TCPlugin tc = PluginRegistry.getInstance().getPlugin("TC");
+		TCDefinition def = tc.findDefinition(file, zline, zcol);
+
+		if (def == null || def.name == null || def.name.getName().isEmpty() ||
+			def.location.file.getName().equals("?"))
+		{
+			return null;
+		}
+
+		Set<JSONObject> results = new HashSet<JSONObject>();
+		JSONObject defRange = Utils.lexLocationToRange(def.location);
+
+		for (File pfile: files.keySet())
+		{
+			JSONArray list = Utils.findWords(files.get(pfile), def.name.getName());
+
+			for (int i=0; i<list.size(); i++)
+			{
+				JSONObject range = list.index(i);
+				JSONObject start = range.get("start");
+				TCDefinition def2 = tc.findDefinition(pfile, start.get("line"), start.get("character"));
+
+				if (!range.equals(defRange) && def2 != null && def2.location.equals(def.location))
+				{
+					results.add(new JSONObject("uri", pfile.toPath().toUri().toString(), "range", range));
+				}
+			}
+		}
+
+		return results;
+	}
+}
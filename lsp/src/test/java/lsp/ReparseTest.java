@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package lsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Vector;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fujitsu.vdmj.ast.definitions.ASTDefinition;
+import com.fujitsu.vdmj.ast.lex.LexNameToken;
+import com.fujitsu.vdmj.ast.modules.ASTModule;
+import com.fujitsu.vdmj.ast.modules.ASTModuleList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexLocation;
+
+import json.JSONObject;
+import rpc.RPCRequest;
+import workspace.PluginRegistry;
+import workspace.plugins.ASTPlugin;
+
+/**
+ * Check that when one file of a multi-file specification is edited, the AST and the
+ * LexLocation registry after the incremental re-parse are the same as those after a
+ * full parse of the edited specification.
+ */
+public class ReparseTest extends LSPTest
+{
+	private static final String ADDED =
+		"-- Lines added before the module, which move all of its locations\n" +
+		"\n";
+
+	private static final String FUNCTION =
+		"functions\n" +
+		"\tadded: nat -> nat\n" +
+		"\tadded(n) == n + MAX;\n\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File copySpec(File source) throws Exception
+	{
+		File root = folder.newFolder();
+
+		for (File file: source.listFiles())
+		{
+			Files.copy(file.toPath(), new File(root, file.getName()).toPath());
+		}
+
+		return root;
+	}
+
+	private ASTModuleList getAST()
+	{
+		ASTPlugin ast = PluginRegistry.getInstance().getPlugin("AST");
+		return ast.getAST();
+	}
+
+	/**
+	 * The state of the AST and the LexLocation registry, as strings.
+	 */
+	private List<String> getState(File root)
+	{
+		List<String> state = new Vector<String>();
+
+		for (ASTModule module: getAST())
+		{
+			state.add(module.name + " " + module.name.location);
+
+			for (ASTDefinition def: module.defs)
+			{
+				state.add(def.location + ": " + def);
+			}
+		}
+
+		state.add("Locations " + LexLocation.getLocationCount());
+
+		for (File file: root.listFiles())
+		{
+			File afile = file.getAbsoluteFile();
+			state.add(afile.getName() + " " + LexLocation.getSourceLocations(afile));
+			Map<String, String> spans = new TreeMap<String, String>();
+
+			for (LexNameToken name: LexLocation.getSpanNames(afile))
+			{
+				spans.put(name.toString(), LexLocation.getSpan(name).toString());
+			}
+
+			state.add(afile.getName() + " " + spans);
+		}
+
+		return state;
+	}
+
+	private String edit(String content)
+	{
+		int defs = content.indexOf("operations");
+		return ADDED + content.substring(0, defs) + FUNCTION + content.substring(defs);
+	}
+
+	@Test
+	public void testEdit() throws Exception
+	{
+		setupWorkspace(Dialect.VDM_SL);
+		File root = copySpec(new File("src/test/resources/references_sl"));
+		File afile = new File(root, "a.vdmsl").getAbsoluteFile();
+		File bfile = new File(root, "b.vdmsl").getAbsoluteFile();
+		initialize(root, new JSONObject());
+
+		ASTModule moduleA = getAST().get(0);
+		ASTModule moduleB = getAST().get(1);
+		assertEquals(afile, moduleA.name.location.file);
+		assertEquals(bfile, moduleB.name.location.file);
+
+		// Edit B as an editor does: open, change the whole text, and save
+
+		String original = new String(Files.readAllBytes(bfile.toPath()));
+		String edited = edit(original);
+		lspManager.lspDidOpen(RPCRequest.create("textDocument/didOpen", null), bfile, original);
+		lspManager.lspDidChange(RPCRequest.create("textDocument/didChange", null), bfile, null, edited);
+		int changed = LexLocation.getLocationCount();	// After clearFile and a parse of B
+		Files.write(bfile.toPath(), edited.getBytes());
+		lspManager.lspDidSave(RPCRequest.create("textDocument/didSave", null), bfile, edited);
+
+		assertSame(moduleA, getAST().get(0));		// A was not parsed again
+		assertNotSame(moduleB, getAST().get(1));
+		List<String> incremental = getState(root);
+
+		// A full parse of the same files, in a new workspace
+
+		setupWorkspace(Dialect.VDM_SL);
+		initialize(root, new JSONObject());
+		assertNotSame(moduleA, getAST().get(0));
+		List<String> full = getState(root);
+
+		assertEquals(full, incremental);
+		// The locations of the old B were removed by clearFile, else there would be
+		// about half as many again. The check after a save may add a few more.
+		assertTrue("Locations not cleared", changed <= LexLocation.getLocationCount());
+	}
+
+	@Test
+	public void testEditBack() throws Exception
+	{
+		setupWorkspace(Dialect.VDM_SL);
+		File root = copySpec(new File("src/test/resources/references_sl"));
+		File bfile = new File(root, "b.vdmsl").getAbsoluteFile();
+		initialize(root, new JSONObject());
+		List<String> before = getState(root);
+
+		// Edit B and save it, then change it back and save it again
+
+		String original = new String(Files.readAllBytes(bfile.toPath()));
+		String edited = edit(original);
+		lspManager.lspDidOpen(RPCRequest.create("textDocument/didOpen", null), bfile, original);
+		lspManager.lspDidChange(RPCRequest.create("textDocument/didChange", null), bfile, null, edited);
+		lspManager.lspDidSave(RPCRequest.create("textDocument/didSave", null), bfile, edited);
+		lspManager.lspDidChange(RPCRequest.create("textDocument/didChange", null), bfile, null, original);
+		lspManager.lspDidSave(RPCRequest.create("textDocument/didSave", null), bfile, original);
+
+		assertEquals(before, getState(root));
+	}
+}
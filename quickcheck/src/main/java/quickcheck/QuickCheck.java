@@ -31,14 +31,29 @@ import static quickcheck.commands.QCConsole.infoln;
 import static quickcheck.commands.QCConsole.verbose;
 import static quickcheck.commands.QCConsole.verboseln;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
 import java.util.regex.PatternSyntaxException;
 
 import com.fujitsu.vdmj.Settings;
@@ -54,6 +69,7 @@ import com.fujitsu.vdmj.in.patterns.INBindingOverride;
 import com.fujitsu.vdmj.lex.Dialect;
 import com.fujitsu.vdmj.mapper.ClassMapper;
 import com.fujitsu.vdmj.po.annotations.POAnnotation;
+import com.fujitsu.vdmj.pog.ObligationCache;
 import com.fujitsu.vdmj.pog.POStatus;
 import com.fujitsu.vdmj.pog.ProofObligation;
 import com.fujitsu.vdmj.pog.ProofObligationList;
@@ -62,14 +78,19 @@ import com.fujitsu.vdmj.runtime.Context;
 import com.fujitsu.vdmj.runtime.ContextException;
 import com.fujitsu.vdmj.runtime.Interpreter;
 import com.fujitsu.vdmj.runtime.ObjectContext;
+import com.fujitsu.vdmj.runtime.ThreadState;
 import com.fujitsu.vdmj.runtime.ValueException;
+import com.fujitsu.vdmj.tc.definitions.TCClassList;
 import com.fujitsu.vdmj.tc.expressions.TCExpression;
 import com.fujitsu.vdmj.tc.lex.TCNameToken;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
 import com.fujitsu.vdmj.tc.types.TCParameterType;
 import com.fujitsu.vdmj.tc.types.TCRealType;
 import com.fujitsu.vdmj.tc.types.TCType;
+import com.fujitsu.vdmj.typechecker.TypeComparator;
 import com.fujitsu.vdmj.util.GetResource;
 import com.fujitsu.vdmj.values.BooleanValue;
+import com.fujitsu.vdmj.values.CPUValue;
 import com.fujitsu.vdmj.values.ObjectValue;
 import com.fujitsu.vdmj.values.ParameterValue;
 import com.fujitsu.vdmj.values.UndefinedValue;
@@ -81,17 +102,22 @@ import quickcheck.annotations.po.POQuickCheckAnnotation;
 import quickcheck.strategies.FixedQCStrategy;
 import quickcheck.strategies.QCStrategy;
 import quickcheck.strategies.StrategyResults;
+import quickcheck.strategies.StrategyUpdater;
 import quickcheck.visitors.ExpressionTypeBindOverrider;
 import quickcheck.visitors.FixedRangeCreator;
 
 public class QuickCheck
 {
 	public static final long DEFAULT_TIMEOUT = 5000;	// 5s timeout
+	private static final long WAIT_POLL = 100;			// Parallel check polling, in ms
 	
 	private int errorCount = 0;
 	private List<QCStrategy> strategies = null;		// Configured to be used
 	private List<QCStrategy> disabled = null;		// Known, but not to be used
 	private ProofObligationList chosenPOs = null;
+	private String strategyArgs = "";				// Arguments used by the strategies
+	private ObligationCache cache = null;			// Results from vdmj.qc.cache_file
+	private File cacheRoot = null;					// For a relative vdmj.qc.cache_file
 
 	private boolean undefinedEvals = true;			// Use undefinedEval for some bools, by default
 	
@@ -109,12 +135,21 @@ public class QuickCheck
 	{
 		errorCount = 0;
 	}
+
+	/**
+	 * Errors found while checking obligations, which can be in parallel.
+	 */
+	private synchronized void addError()
+	{
+		errorCount++;
+	}
 	
 	public void loadStrategies(List<String> argv)
 	{
 		strategies = new Vector<QCStrategy>();
 		disabled = new Vector<QCStrategy>();
 		errorCount = 0;
+		List<String> consumed = (argv == null) ? new Vector<String>() : new Vector<String>(argv);
 		
 		try
 		{
@@ -185,6 +220,16 @@ public class QuickCheck
 			errorln("Cannot load strategies: " + e);
 			errorCount++;
 		}
+
+		if (argv != null)
+		{
+			for (String arg: argv)
+			{
+				consumed.remove(arg);	// Leaving those removed by the strategies
+			}
+		}
+
+		strategyArgs = consumed.toString();
 	}
 	
 	public boolean initStrategies()
@@ -323,10 +368,44 @@ public class QuickCheck
 	{
 		return inexp.apply(new ExpressionTypeBindOverrider(), null);
 	}
+
+	private List<INBindingOverride> getINBindList(INExpression inexp, INBindingGlobals globals)
+	{
+		return inexp.apply(new ExpressionTypeBindOverrider(globals), null);
+	}
 	
+	/**
+	 * A PO's result from the cache, which is set in place of a check.
+	 */
+	private class CachedUpdater extends StrategyUpdater
+	{
+		@Override
+		public void updateProofObligation(ProofObligation po)
+		{
+			cache.restore(po, getSettings());
+		}
+	}
+
 	public StrategyResults getValues(ProofObligation po)
+	{
+		ObligationCache cache = getCache();
+
+		if (cache != null && po.isCheckable && cache.isCached(po, getSettings()))
+		{
+			verbose("PO #%d, using cached result of a %dms check\n", po.number, cache.getDuration(po, getSettings()));
+			return new StrategyResults(new CachedUpdater());
+		}
+
+		long before = System.currentTimeMillis();
+		StrategyResults results = findValues(po);
+		results.duration = System.currentTimeMillis() - before;
+		return results;
+	}
+
+	private StrategyResults findValues(ProofObligation po)
 	{
 		Map<String, ValueList> union = new HashMap<String, ValueList>();
+		boolean suspended = INAnnotation.suspended;	// Already set by parallel checks
 		
 		if (!po.isCheckable)
 		{
@@ -334,7 +413,8 @@ public class QuickCheck
 		}
 		
 		INExpression poexp = getINExpression(po);
-		List<INBindingOverride> binds = getINBindList(poexp);
+		INBindingGlobals globals = new INBindingGlobals();	// This PO's results
+		List<INBindingOverride> binds = getINBindList(poexp, globals);
 		Context ctxt = Interpreter.getInstance().getInitialContext();
 		ctxt = addSelf(po, ctxt);
 		IterableContext ictxt = addTypeParams(po, ctxt);
@@ -379,13 +459,13 @@ public class QuickCheck
 				}
 				finally
 				{
-					INAnnotation.suspend(false);
+					INAnnotation.suspend(suspended);
 				}
 				
 				if (sresults.updater != null)	// No need to go further
 				{
 					verbose("Obligation resolved by %s updater\n", strategy.getName());
-					sresults.setDetails(poexp, binds);
+					sresults.setDetails(poexp, binds, globals);
 					return sresults;
 				}
 
@@ -437,12 +517,215 @@ public class QuickCheck
 		}
 		
 		StrategyResults results = new StrategyResults(union, hasAllValues);
-		results.setDetails(poexp, binds);
+		results.setDetails(poexp, binds, globals);
 		return results;
 	}
 	
 	public void checkObligation(ProofObligation po, StrategyResults sresults)
 	{
+		checkObligation(po, sresults, null);
+	}
+
+	/**
+	 * Called by checkObligations with each PO checked, in the order of the list. The
+	 * duration includes the time to get the PO's values. Returning false stops the check.
+	 */
+	public interface ResultHandler
+	{
+		public boolean checked(ProofObligation po, long duration);
+	}
+
+	/**
+	 * True if a list of POs can be checked in parallel, using vdmj.qc.parallel_obligations
+	 * threads. This is only for VDM-SL, because VDM++ and RT evaluations need the scheduler
+	 * and object state, and only if there are no breakpoints, since the debugger expects
+	 * one thread.
+	 */
+	public boolean isParallel(ProofObligationList chosen)
+	{
+		Interpreter interpreter = Interpreter.getInstance();
+
+		return Properties.qc_parallel_obligations > 1 && chosen.size() > 1 &&
+			Settings.dialect == Dialect.VDM_SL &&
+			interpreter != null && interpreter.getBreakpoints().isEmpty();
+	}
+
+	/**
+	 * Check a list of POs in parallel, using a pool of threads where each PO has its own
+	 * binding globals and each worker has its own ThreadState and current module. Each
+	 * worker finds its PO's values just before evaluating it, one PO at a time because the
+	 * strategies are not thread safe, so only the values of running POs are in memory. The
+	 * timeout applies to each PO's evaluation, and is implemented by terminating the
+	 * worker's ThreadState rather than with a global interrupt. A worker that has not
+	 * stopped at twice the timeout is abandoned, and its PO is given a TIMEOUT status.
+	 * The cancelled test is polled while waiting, and stops the check when true.
+	 */
+	public void checkObligations(ProofObligationList chosen, long timeout,
+		ResultHandler handler, BooleanSupplier cancelled)
+	{
+		resetErrors();
+		long stack = Properties.scheduler_thread_stack * 1024L;	// 0 = JVM default
+
+		ExecutorService executor = Executors.newFixedThreadPool(Properties.qc_parallel_obligations,
+			runnable -> new Thread(null, runnable, "QuickCheck worker", stack));
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+		Set<ThreadState> running = Collections.synchronizedSet(new HashSet<ThreadState>());
+		List<Future<Long>> futures = new Vector<Future<Long>>();
+		AtomicLongArray started = new AtomicLongArray(chosen.size());	// Evaluation start times
+		Object strategyLock = new Object();
+		boolean[] stopped = { false };
+
+		INAnnotation.suspend(true);
+		Properties.in_undefined_evals = undefinedEvals;
+
+		try
+		{
+			for (int i=0; i<chosen.size(); i++)
+			{
+				ProofObligation po = chosen.get(i);
+				int index = i;
+
+				futures.add(executor.submit(() ->
+				{
+					long before = System.currentTimeMillis();
+					ThreadState state = new ThreadState((CPUValue)null);
+					ScheduledFuture<?> alarm = null;
+
+					synchronized (running)
+					{
+						if (stopped[0])
+						{
+							return 0L;
+						}
+
+						running.add(state);
+					}
+
+					try
+					{
+						TypeComparator.setLocalModule(true);
+						ThreadState.setThreadParent(state);	// For invariant evaluations etc.
+						StrategyResults sresults = null;
+
+						synchronized (strategyLock)
+						{
+							sresults = getValues(po);
+						}
+
+						if (!state.isTerminating())		// Not stopped while finding values
+						{
+							started.set(index, System.currentTimeMillis());
+
+							if (timeout > 0)
+							{
+								alarm = timer.schedule(() -> state.setTerminate(true), timeout, TimeUnit.MILLISECONDS);
+							}
+
+							checkObligation(po, sresults, state);
+						}
+					}
+					finally
+					{
+						if (alarm != null)
+						{
+							alarm.cancel(false);
+						}
+
+						running.remove(state);
+						ThreadState.setThreadParent(null);
+						TypeComparator.setLocalModule(false);
+					}
+
+					return System.currentTimeMillis() - before;
+				}));
+			}
+
+			for (int i=0; i<chosen.size(); i++)		// In the original order
+			{
+				long duration = waitFor(chosen.get(i), futures.get(i), started, i, timeout, () ->
+				{
+					if (!stopped[0] && cancelled.getAsBoolean())
+					{
+						stopWorkers(running, stopped);
+					}
+				});
+
+				if (!stopped[0] && !handler.checked(chosen.get(i), duration))
+				{
+					stopWorkers(running, stopped);
+				}
+			}
+		}
+		catch (InterruptedException | ExecutionException e)
+		{
+			stopWorkers(running, stopped);
+			errorln("Parallel QuickCheck failed: " + e);
+			addError();
+		}
+		finally
+		{
+			executor.shutdownNow();
+			timer.shutdownNow();
+			INAnnotation.suspend(false);
+			Properties.in_undefined_evals = false;		// Always disable on restore
+		}
+	}
+
+	/**
+	 * Wait for a PO's worker, calling the poll every WAIT_POLL ms. If the PO's evaluation
+	 * runs for twice the timeout, it is not reaching the breakpoint checks that stop it,
+	 * so the worker is interrupted and the PO is given a TIMEOUT status.
+	 */
+	private long waitFor(ProofObligation po, Future<Long> future, AtomicLongArray started,
+		int index, long timeout, Runnable poll) throws InterruptedException, ExecutionException
+	{
+		while (true)
+		{
+			try
+			{
+				return future.get(WAIT_POLL, TimeUnit.MILLISECONDS);
+			}
+			catch (TimeoutException e)
+			{
+				long start = started.get(index);
+
+				if (timeout > 0 && start > 0 && System.currentTimeMillis() - start > 2 * timeout)
+				{
+					future.cancel(true);
+					po.setStatus(POStatus.TIMEOUT);
+					po.setMessage("Evaluation did not stop after the timeout");
+					return System.currentTimeMillis() - start;
+				}
+
+				poll.run();
+			}
+		}
+	}
+
+	/**
+	 * Stop any POs that have not started, and terminate those that are running.
+	 */
+	private void stopWorkers(Set<ThreadState> running, boolean[] stopped)
+	{
+		synchronized (running)
+		{
+			stopped[0] = true;
+
+			for (ThreadState state: running)
+			{
+				state.setTerminate(true);
+			}
+		}
+	}
+
+	/**
+	 * The ThreadState is set when the PO is checked by a parallel worker, in which case
+	 * the global settings for the evaluation are made once, by checkObligations.
+	 */
+	private void checkObligation(ProofObligation po, StrategyResults sresults, ThreadState state)
+	{
+		long before = System.currentTimeMillis();
+
 		try
 		{
 			verbose("------------------------ Checking PO #%d\n", po.number);
@@ -453,7 +736,11 @@ public class QuickCheck
 				return;
 			}
 
-			resetErrors();			// Only flag fatal errors
+			if (state == null)
+			{
+				resetErrors();		// Only flag fatal errors
+			}
+
 			po.clearAnalysis();		// Clears fields to be set by QC
 
 			if (sresults.updater != null)
@@ -464,20 +751,97 @@ public class QuickCheck
 			else
 			{
 				verbose("Trying possible values from strategies\n");
-				tryPossibleValues(po, sresults);
+				tryPossibleValues(po, sresults, state);
 			}
 		}
 		catch (Exception e)
 		{
 			po.setStatus(POStatus.FAILED);
 			po.setMessage(e.getMessage());
-			errorCount++;
+			addError();
+		}
+
+		if (cache != null && !(sresults.updater instanceof CachedUpdater))
+		{
+			cache.save(po, getSettings(), sresults.duration + System.currentTimeMillis() - before);
+		}
+	}
+
+	/**
+	 * The vdmj.qc.cache_file results, if set, read when first used.
+	 */
+	private synchronized ObligationCache getCache()
+	{
+		if (cache == null && Properties.qc_cache_file != null)
+		{
+			File file = ObligationCache.getFile(cacheRoot);
+			Interpreter interpreter = Interpreter.getInstance();
+
+			if (Settings.dialect == Dialect.VDM_SL)
+			{
+				TCModuleList modules = interpreter.getTC();
+				cache = new ObligationCache(file, modules);
+			}
+			else
+			{
+				TCClassList classes = interpreter.getTC();
+				cache = new ObligationCache(file, classes);
+			}
+		}
+
+		return cache;
+	}
+
+	/**
+	 * Set the directory that a relative vdmj.qc.cache_file is in, like a project root.
+	 * By default, it is the current directory.
+	 */
+	public void setCacheRoot(File cacheRoot)
+	{
+		this.cacheRoot = cacheRoot;
+	}
+
+	/**
+	 * Write any new results to the vdmj.qc.cache_file, removing any that are not for
+	 * the obligations passed, which should be all of the current obligations.
+	 */
+	public void saveCache(ProofObligationList all)
+	{
+		if (cache != null)
+		{
+			try
+			{
+				cache.prune(all);
+				cache.write();
+			}
+			catch (IOException e)
+			{
+				errorln("Cannot write QC cache: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * The QC options that can affect a result, which must match to use a cached result.
+	 */
+	public String getSettings()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (QCStrategy strategy: strategies)
+		{
+			sb.append(strategy.getName());
+			sb.append(" ");
 		}
+
+		sb.append(strategyArgs);
+		sb.append(undefinedEvals ? " -u" : " -e");
+		return sb.toString();
 	}
 
-	private void tryPossibleValues(ProofObligation po, StrategyResults sresults) throws Exception
+	private void tryPossibleValues(ProofObligation po, StrategyResults sresults, ThreadState state) throws Exception
 	{
-		INBindingGlobals globals = INBindingGlobals.getInstance();
+		INBindingGlobals globals = sresults.globals;
 		globals.clear();		// Clear before each obligation run
 
 		Value execResult = new BooleanValue(false);
@@ -499,25 +863,40 @@ public class QuickCheck
 				else
 				{
 					errorln("PO #" + po.number + ": No bind values defined for " + mbind);
-					errorCount++;
+					addError();
 				}
 			}
 			
 			globals.setAllValues(sresults.hasAllValues);
 			Context ctxt = Interpreter.getInstance().getInitialContext();
-			Interpreter.getInstance().setDefaultName(po.location.module);
+			
+			if (state == null)
+			{
+				Interpreter.getInstance().setDefaultName(po.location.module);
+			}
+			else
+			{
+				TypeComparator.setCurrentModule(po.location.module);	// Thread local
+			}
 			
 			ctxt = addSelf(po, ctxt);
 			IterableContext ictxt = addTypeParams(po, ctxt);
 
 			verbose("PO #%d, starting evaluation...\n", po.number);
 			
-			// Suspend annotation execution by the interpreter, because the
-			// expressions and statements in the PO can invoke them.
-			INAnnotation.suspend(true);
-
-			// Allow some error cases in booleans to return undefined?
-			Properties.in_undefined_evals = undefinedEvals;
+			if (state == null)
+			{
+				// Suspend annotation execution by the interpreter, because the
+				// expressions and statements in the PO can invoke them.
+				INAnnotation.suspend(true);
+	
+				// Allow some error cases in booleans to return undefined?
+				Properties.in_undefined_evals = undefinedEvals;
+			}
+			else
+			{
+				ictxt.threadState = state;	// This worker's state, for timeouts
+			}
 			
 			do
 			{
@@ -587,10 +966,14 @@ public class QuickCheck
 				mbind.setBindValues(null);
 			}
 			
-			INBindingGlobals.getInstance().clear();
+			globals.clear();
 			verbose("PO #%d, stopped evaluation.\n", po.number);
-			INAnnotation.suspend(false);
-			Properties.in_undefined_evals = false;		// Always disable on restore
+			
+			if (state == null)
+			{
+				INAnnotation.suspend(false);
+				Properties.in_undefined_evals = false;		// Always disable on restore
+			}
 		}
 	}
 
@@ -752,7 +1135,7 @@ public class QuickCheck
 		{
 			po.setStatus(POStatus.FAILED);
 			po.setMessage("PO evaluation returns " + execResult.kind());
-			errorCount++;
+			addError();
 		}
 	}
 	
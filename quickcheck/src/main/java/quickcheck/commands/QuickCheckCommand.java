@@ -202,51 +202,71 @@ public class QuickCheckCommand extends AnalysisCommand
 
 		if (qc.initStrategies())
 		{
-			for (ProofObligation po: chosen)
+			if (qc.isParallel(chosen))
 			{
-				verbose("Processing PO #%s\n", po.number);
-				long before = System.currentTimeMillis();
-				StrategyResults results = qc.getValues(po);
-				
-				if (!qc.hasErrors())
+				boolean showNominal = nominal;
+
+				qc.checkObligations(chosen, timeout, (po, duration) ->
 				{
-					ConsoleExecTimer execTimer = null;
-					ConsoleDebugReader dbg = null;
-					
-					try
+					if (includes.isEmpty() || includes.contains(po.status))
+					{
+						qc.printQuickCheckResult(po, (double)duration/1000, showNominal);
+					}
+
+					return true;
+				},
+				() -> false);
+			}
+			else
+			{
+				for (ProofObligation po: chosen)
+				{
+					verbose("Processing PO #%s\n", po.number);
+					long before = System.currentTimeMillis();
+					StrategyResults results = qc.getValues(po);
+				
+					if (!qc.hasErrors())
 					{
-						dbg = new ConsoleDebugReader();
-						dbg.start();
-						execTimer = new ConsoleExecTimer(timeout);
-						execTimer.start();
+						ConsoleExecTimer execTimer = null;
+						ConsoleDebugReader dbg = null;
+					
+						try
+						{
+							dbg = new ConsoleDebugReader();
+							dbg.start();
+							execTimer = new ConsoleExecTimer(timeout);
+							execTimer.start();
 						
-						qc.checkObligation(po, results);
-						double duration = (double)(System.currentTimeMillis() - before)/1000;
+							qc.checkObligation(po, results);
+							double duration = (double)(System.currentTimeMillis() - before)/1000;
 						
-						if (includes.isEmpty() || includes.contains(po.status))
-						{
-							qc.printQuickCheckResult(po, duration, nominal);
+							if (includes.isEmpty() || includes.contains(po.status))
+							{
+								qc.printQuickCheckResult(po, duration, nominal);
+							}
 						}
-					}
-					catch (Exception e)
-					{
-						errorln(e);
-					}
-					finally
-					{
-						if (execTimer != null)
+						catch (Exception e)
 						{
-							execTimer.interrupt();
+							errorln(e);
 						}
-						
-						if (dbg != null)
+						finally
 						{
-							dbg.interrupt();
+							if (execTimer != null)
+							{
+								execTimer.interrupt();
+							}
+						
+							if (dbg != null)
+							{
+								dbg.interrupt();
+							}
 						}
 					}
 				}
 			}
 
+			qc.saveCache(all);
+
 			if (poList.isEmpty() && poNames.isEmpty() && chosen.size() != all.size())
 			{
 				infoln("(Use 'qc .*' to check all POs)");
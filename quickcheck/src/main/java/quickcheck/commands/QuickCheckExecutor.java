@@ -114,45 +114,52 @@ public class QuickCheckExecutor extends AsyncExecutor
 			pog.clearLenses(POLaunchDebugLens.class);
 			List<VDMMessage> messages = new Vector<VDMMessage>();
 
-			for (ProofObligation po: chosen)
+			if (qc.isParallel(chosen))
 			{
-				long before = System.currentTimeMillis();
-				StrategyResults results = qc.getValues(po);
-				
-				if (!qc.hasErrors())
+				qc.checkObligations(chosen, timeout, (po, duration) ->
+				{
+					addResult(pog, po, duration, messages);
+					return !wasCancelled();
+				},
+				() -> wasCancelled());
+			}
+			else
+			{
+				for (ProofObligation po: chosen)
 				{
-					ConsoleExecTimer execTimer = null;
+					long before = System.currentTimeMillis();
+					StrategyResults results = qc.getValues(po);
 					
-					try
+					if (!qc.hasErrors())
 					{
-						execTimer = new ConsoleExecTimer(timeout);
-						execTimer.start();
-
-						qc.checkObligation(po, results);
-
-						if (includes.isEmpty() || includes.contains(po.status))
+						ConsoleExecTimer execTimer = null;
+						
+						try
 						{
-							double duration = (double)(System.currentTimeMillis() - before)/1000;
-							qc.printQuickCheckResult(po, duration, nominal);
-							addWarnings(po, messages);
-							addCodeLenses(pog, po);
+							execTimer = new ConsoleExecTimer(timeout);
+							execTimer.start();
+	
+							qc.checkObligation(po, results);
+							addResult(pog, po, System.currentTimeMillis() - before, messages);
 						}
-					}
-					finally
-					{
-						if (execTimer != null)
+						finally
 						{
-							execTimer.interrupt();
+							if (execTimer != null)
+							{
+								execTimer.interrupt();
+							}
 						}
 					}
-				}
-				
-				if (wasCancelled())
-				{
-					break;
+					
+					if (wasCancelled())
+					{
+						break;
+					}
 				}
 			}
 
+			qc.saveCache(all);
+
 			if (poList.isEmpty() && poNames.isEmpty() && chosen.size() != all.size())
 			{
 				infoln("(Use 'qc .*' to check all POs)");
@@ -191,6 +198,16 @@ public class QuickCheckExecutor extends AsyncExecutor
 		answer = qc.hasErrors() ? "Failed" : wasCancelled() ? "Cancelled" : "OK";
 	}
 
+	private void addResult(POPlugin pog, ProofObligation po, long duration, List<VDMMessage> messages)
+	{
+		if (includes.isEmpty() || includes.contains(po.status))
+		{
+			qc.printQuickCheckResult(po, (double)duration/1000, nominal);
+			addWarnings(po, messages);
+			addCodeLenses(pog, po);
+		}
+	}
+
 	private void addCodeLenses(POPlugin pog, ProofObligation po)
 	{
 		JSONObject launch = po.isExistential() ? pog.getWitnessLaunch(po) : pog.getCexLaunch(po);
@@ -53,6 +53,7 @@ import workspace.Diag;
 import workspace.PluginRegistry;
 import workspace.plugins.AnalysisPlugin;
 import workspace.plugins.DAPPlugin;
+import workspace.plugins.LSPPlugin;
 import workspace.plugins.POPlugin;
 
 public class QuickCheckLSPPlugin extends AnalysisPlugin
@@ -76,6 +77,19 @@ public class QuickCheckLSPPlugin extends AnalysisPlugin
 		// Register handler with RPCDispatcher
 		RPCDispatcher dispatcher = RPCDispatcher.getInstance();
 		dispatcher.register(new QuickCheckHandler(), "slsp/POG/quickcheck");
+
+		// Cached results are restored if they match the default settings, until a
+		// quickcheck request gives others.
+
+		POPlugin pog = PluginRegistry.getInstance().getPlugin("PO");
+
+		if (pog != null)
+		{
+			QuickCheck qc = new QuickCheck();
+			qc.loadStrategies(new Vector<String>());
+			qc.setUndefinedEvals(false);	// The default "undefined_evals" config
+			pog.setCacheSettings(qc.getSettings());
+		}
 	}
 	
 	public RPCMessageList quickCheck(RPCRequest request)
@@ -142,6 +156,9 @@ public class QuickCheckLSPPlugin extends AnalysisPlugin
 		else if (qc.initStrategies())
 		{
 			qc.setUndefinedEvals(config.get("undefined_evals", false));
+			LSPPlugin lsp = PluginRegistry.getInstance().getPlugin("LSP");
+			qc.setCacheRoot(lsp.getRoot());
+			pog.setCacheSettings(qc.getSettings());
 			QuickCheckThread executor = new QuickCheckThread(request, qc, chosen, config.get("timeout"));
 			executor.start();
 			return null;
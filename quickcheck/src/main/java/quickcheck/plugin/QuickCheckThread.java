@@ -65,6 +65,11 @@ public class QuickCheckThread extends CancellableThread
 	private final Object workDoneToken;
 	private final long timeout;
 
+	private final List<VDMMessage> messages = new Vector<VDMMessage>();
+	private final JSONArray list = new JSONArray();
+	private long percentDone = -1;
+	private int count = 0;
+
 	public QuickCheckThread(RPCRequest request, QuickCheck qc, ProofObligationList chosenPOs, long timeout)
 	{
 		super(request.get("id"));
@@ -90,80 +95,54 @@ public class QuickCheckThread extends CancellableThread
 			MessageHub.getInstance().clearPluginMessages(pog);
 			pog.clearLenses(POLaunchDebugLens.class);
 			
-			List<VDMMessage> messages = new Vector<VDMMessage>();
-			JSONArray list = new JSONArray();
-			long percentDone = -1;
-			int count = 0;
-			
-			for (ProofObligation po: chosenPOs)
+			if (qc.isParallel(chosenPOs))
 			{
-				StrategyResults results = qc.getValues(po);
-				long before = System.currentTimeMillis();
-				long after = before;
-				
-				if (!qc.hasErrors())
-				{
-					ConsoleExecTimer execTimer = null;
-					
-					try
-					{
-						execTimer = new ConsoleExecTimer(timeout);
-						execTimer.start();
-
-						qc.checkObligation(po, results);
-					}
-					finally
-					{
-						if (execTimer != null)
-						{
-							execTimer.interrupt();
-						}
-
-						after = System.currentTimeMillis();
-					}
-				}
-				
-				list.add(getQCResponse(po, messages, after-before));
-				count++;
-				
-				if (workDoneToken != null)
+				qc.checkObligations(chosenPOs, timeout, (po, duration) -> addResult(po, duration), () -> wasCancelled());
+			}
+			else
+			{
+				for (ProofObligation po: chosenPOs)
 				{
-					long done = (100 * count)/chosenPOs.size();
+					StrategyResults results = qc.getValues(po);
+					long before = System.currentTimeMillis();
+					long after = before;
 					
-					if (done != percentDone)	// Only if changed %age
+					if (!qc.hasErrors())
 					{
-						JSONObject value = null;
+						ConsoleExecTimer execTimer = null;
 						
-						if (percentDone < 0)
+						try
 						{
-							value = new JSONObject(
-								"kind",			"begin",
-								"title",		"Executing QuickCheck",
-								"message",		"Processing QuickCheck",
-								"percentage",	done);
+							execTimer = new ConsoleExecTimer(timeout);
+							execTimer.start();
+	
+							qc.checkObligation(po, results);
 						}
-						else
+						finally
 						{
-							value = new JSONObject(
-								"kind",			"report",
-								"message",		"Processing QuickCheck",
-								"percentage",	done);
+							if (execTimer != null)
+							{
+								execTimer.interrupt();
+							}
+	
+							after = System.currentTimeMillis();
 						}
-						
-						JSONObject params = new JSONObject("token", workDoneToken, "value", value);
-						Diag.fine("Sending QC work done = %d%%", done);
-						server.writeMessage(RPCRequest.notification("$/progress", params));
-						percentDone = done;
 					}
-				}
-				
-				if (wasCancelled())
-				{
-					list.clear();
-					break;
+					
+					if (!addResult(po, after-before))
+					{
+						break;
+					}
 				}
 			}
 
+			qc.saveCache(pog.getProofObligations());
+
+			if (wasCancelled())
+			{
+				list.clear();
+			}
+
 			responses.add(RPCResponse.result(request, list));
 
 			if (!wasCancelled())
@@ -203,6 +182,57 @@ public class QuickCheckThread extends CancellableThread
 		}
 	}
 
+	/**
+	 * Add the response for a PO and report progress. Returns false if cancelled.
+	 */
+	private boolean addResult(ProofObligation po, long duration)
+	{
+		list.add(getQCResponse(po, messages, duration));
+		count++;
+		
+		if (workDoneToken != null)
+		{
+			long done = (100 * count)/chosenPOs.size();
+			
+			if (done != percentDone)	// Only if changed %age
+			{
+				JSONObject value = null;
+				
+				if (percentDone < 0)
+				{
+					value = new JSONObject(
+						"kind",			"begin",
+						"title",		"Executing QuickCheck",
+						"message",		"Processing QuickCheck",
+						"percentage",	done);
+				}
+				else
+				{
+					value = new JSONObject(
+						"kind",			"report",
+						"message",		"Processing QuickCheck",
+						"percentage",	done);
+				}
+				
+				JSONObject params = new JSONObject("token", workDoneToken, "value", value);
+				Diag.fine("Sending QC work done = %d%%", done);
+				
+				try
+				{
+					LSPServer.getInstance().writeMessage(RPCRequest.notification("$/progress", params));
+				}
+				catch (IOException e)
+				{
+					Diag.error(e);
+				}
+				
+				percentDone = done;
+			}
+		}
+		
+		return !wasCancelled();
+	}
+
 	private JSONObject getQCResponse(ProofObligation po, List<VDMMessage> messages, long duration)
 	{
 		JSONObject json = new JSONObject(
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.fujitsu.vdmj.in.expressions.INExpression;
+import com.fujitsu.vdmj.in.patterns.INBindingGlobals;
 import com.fujitsu.vdmj.in.patterns.INBindingOverride;
 import com.fujitsu.vdmj.values.ValueList;
 
@@ -48,6 +49,8 @@ public class StrategyResults
 	
 	public INExpression inExpression;		// The INExpression of the PO
 	public List<INBindingOverride> binds;	// The binds used from the PO
+	public INBindingGlobals globals;		// The globals set by the PO's binds
+	public long duration;					// The time taken by the strategies (ms)
 
 	public StrategyResults()
 	{
@@ -70,9 +73,10 @@ public class StrategyResults
 		this.hasAllValues = hasAllValues;
 	}
 
-	public void setDetails(INExpression inExpression, List<INBindingOverride> binds)
+	public void setDetails(INExpression inExpression, List<INBindingOverride> binds, INBindingGlobals globals)
 	{
 		this.inExpression = inExpression;
 		this.binds = binds;
+		this.globals = globals;
 	}
 }
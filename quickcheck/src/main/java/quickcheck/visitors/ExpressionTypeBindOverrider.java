@@ -37,9 +37,17 @@ import com.fujitsu.vdmj.in.patterns.INBindingOverride;
 
 public class ExpressionTypeBindOverrider extends INLeafExpressionVisitor<INBindingOverride, List<INBindingOverride>, Object>
 {
+	private final INBindingGlobals globals;
+
 	public ExpressionTypeBindOverrider()
+	{
+		this(INBindingGlobals.getInstance());
+	}
+
+	public ExpressionTypeBindOverrider(INBindingGlobals globals)
 	{
 		super(false);
+		this.globals = globals;
 		
 		visitorSet = new INVisitorSet<INBindingOverride, List<INBindingOverride>, Object>()
 		{
@@ -69,7 +77,7 @@ public class ExpressionTypeBindOverrider extends INLeafExpressionVisitor<INBindi
 	@Override
 	public List<INBindingOverride> caseForAllExpression(INForAllExpression node, Object arg)
 	{
-		node.globals = INBindingGlobals.getInstance();
+		node.globals = globals;
 
 		if (node.bindsUsed)
 		{
@@ -84,7 +92,7 @@ public class ExpressionTypeBindOverrider extends INLeafExpressionVisitor<INBindi
 	@Override
 	public List<INBindingOverride> caseExistsExpression(INExistsExpression node, Object arg)
 	{
-		node.globals = INBindingGlobals.getInstance();
+		node.globals = globals;
 
 		if (node.bindsUsed)
 		{
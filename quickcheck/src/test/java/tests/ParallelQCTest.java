@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Vector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.messages.ConsolePrintWriter;
+import com.fujitsu.vdmj.messages.ConsoleWriter;
+import com.fujitsu.vdmj.plugins.EventHub;
+import com.fujitsu.vdmj.plugins.Lifecycle;
+import com.fujitsu.vdmj.plugins.PluginRegistry;
+import com.fujitsu.vdmj.plugins.analyses.POPlugin;
+import com.fujitsu.vdmj.pog.POStatus;
+import com.fujitsu.vdmj.pog.ProofObligation;
+
+import quickcheck.commands.QuickCheckCommand;
+
+/**
+ * Check that vdmj.qc.parallel_obligations gives the same results, in the same order,
+ * as a serial QuickCheck, and that a PO that times out does not affect the others.
+ * The timeout must also stop the evaluation of an ordering function, whose context
+ * has its own ThreadState.
+ */
+public class ParallelQCTest
+{
+	private static class TestLifecycle extends Lifecycle
+	{
+		public TestLifecycle(String... args)
+		{
+			super(args);
+		}
+
+		public boolean load()
+		{
+			setDialect();
+			loadPlugins();
+			processArgs();
+			findFiles();
+			return checkAndInitFiles();
+		}
+	}
+
+	private int saved;
+	private ConsoleWriter savedOut;
+
+	@Before
+	public void setUp()
+	{
+		saved = Properties.qc_parallel_obligations;
+		savedOut = Console.out;
+		PluginRegistry.reset();
+		EventHub.reset();
+	}
+
+	@After
+	public void tearDown()
+	{
+		Properties.qc_parallel_obligations = saved;
+		Console.out = savedOut;
+	}
+
+	/**
+	 * Run a qc command, returning the results printed (without durations), followed
+	 * by the status and counterexample of every PO.
+	 */
+	private List<String> quickcheck(String command, int threads)
+	{
+		Properties.qc_parallel_obligations = threads;
+		StringWriter output = new StringWriter();
+		Console.out = new ConsolePrintWriter(new PrintWriter(output));
+
+		try
+		{
+			new QuickCheckCommand(command).run(command);
+		}
+		finally
+		{
+			Console.out = savedOut;
+		}
+
+		List<String> results = new Vector<String>();
+
+		for (String line: output.toString().split("\n"))
+		{
+			results.add(line.replaceAll(" in [0-9.E-]+s$", ""));
+		}
+
+		POPlugin pog = PluginRegistry.getInstance().getPlugin("PO");
+
+		for (ProofObligation po: pog.getProofObligations())
+		{
+			results.add("#" + po.number + " " + po.status + " " + po.counterexample);
+		}
+
+		return results;
+	}
+
+	private ProofObligation findPO(String definition, String kind)
+	{
+		POPlugin pog = PluginRegistry.getInstance().getPlugin("PO");
+
+		for (ProofObligation po: pog.getProofObligations())
+		{
+			if (po.toTitle().startsWith(definition + ": " + kind + " obligation"))
+			{
+				return po;
+			}
+		}
+
+		throw new AssertionError("PO not found: " + definition + " " + kind);
+	}
+
+	@Test
+	public void testParallel()
+	{
+		TestLifecycle lifecycle = new TestLifecycle("-vdmsl", "-cmd", "qc", "src/test/resources/qcparallel");
+		assertTrue("Spec loaded", lifecycle.load());
+
+		List<String> serial = quickcheck("qc -t 1000", 1);
+		List<String> parallel = quickcheck("qc -t 1000", 4);
+
+		assertEquals(serial, parallel);
+
+		assertEquals(POStatus.TIMEOUT, findPO("g", "subtype").status);
+		assertEquals(POStatus.TIMEOUT, findPO("o", "subtype").status);
+		assertNull("Ordering stopped by the timeout", findPO("o", "subtype").message);
+		assertEquals(POStatus.FAILED, findPO("f", "non-zero").status);
+		assertEquals("x = 5", findPO("f", "non-zero").counterexample.toString().trim());
+		assertEquals(POStatus.FAILED, findPO("h", "non-empty sequence").status);
+		assertEquals(POStatus.FAILED, findPO("m", "non-zero").status);
+	}
+}
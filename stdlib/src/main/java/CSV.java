@@ -22,10 +22,8 @@
  *
  ******************************************************************************/
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.Serializable;
 
@@ -53,9 +51,11 @@ import com.fujitsu.vdmj.values.TupleValue;
 import com.fujitsu.vdmj.values.Value;
 import com.fujitsu.vdmj.values.ValueList;
 
+import util.CsvLineIndex;
 import util.CsvParser;
 import util.CsvResult;
 import util.CsvValueBuilder;
+import util.LiteralReader;
 
 /**
  * Basic CSV file support for VDM. This class was imported from Overture.
@@ -118,6 +118,10 @@ public class CSV implements Serializable
 			lastError = e.getMessage();
 			return new BooleanValue(false);
 		}
+		finally
+		{
+			CsvLineIndex.invalidate(file);
+		}
 
 		return new BooleanValue(true);
 	}
@@ -145,17 +149,7 @@ public class CSV implements Serializable
 			boolean success = false;
 			try
 			{
-				CsvParser parser = new CsvParser(new CsvValueBuilder()
-				{
-					@Override
-					public Value createValue(String value)
-							throws Exception
-					{
-						return CSV.createValue("CSV", "freadval", value);
-					}
-				});
-				
-				CsvResult res = parser.parseValues(getLine(file, index));
+				CsvResult res = parseLine(CsvLineIndex.getInstance(file).getLine(index), "freadval");
 				
 				if(!res.dataOk())
 				{
@@ -204,7 +198,7 @@ public class CSV implements Serializable
 		try
 		{
 			File file = getFile(fval);
-			long count = getLineCount(file);
+			long count = CsvLineIndex.getInstance(file).getLineCount();
 
 			result.add(new BooleanValue(true));
 			result.add(new NaturalValue(count));
@@ -219,63 +213,82 @@ public class CSV implements Serializable
 		return new TupleValue(result);
 	}
 
-	private static int getLineCount(File file) throws IOException
-	{
-		BufferedReader bufRdr = new BufferedReader(new FileReader(file));
-		int lines = 0;
-		try
-		{
-			while (bufRdr.readLine() != null)
-			{
-				lines++;
-			}
-		} finally
-		{
-			bufRdr.close();
-		}
-		return lines;
-	}
-
-	private static String getLine(File file, long index) throws IOException
+	/**
+	 * Read a range of CSV lines as a seq of seq of ? in VDM, in one call
+	 * 
+	 * @param fval
+	 *            name of the file to read from
+	 * @param firstVal
+	 *            the first line index
+	 * @param lastVal
+	 *            the last line index
+	 * @return true + seq of seq of ? or false and nil
+	 */
+	@VDMFunction
+	public static Value freadvals(Value fval, Value firstVal, Value lastVal)
 	{
-		BufferedReader bufRdr = new BufferedReader(new FileReader(file));
-		String line = null;
-		int lineIndex = 0;
-
-		if (index < 1)
-		{
-			bufRdr.close();
-			throw new IOException("CSV line index before first entry");
-		}
+		ValueList result = new ValueList();
 
 		try
 		{
-			while ((line = bufRdr.readLine()) != null)
+			File file = getFile(fval);
+			long first = firstVal.intValue(null);
+			long last = lastVal.intValue(null);
+			ValueList rows = new ValueList();
+
+			for (String line: CsvLineIndex.getInstance(file).getLines(first, last))
 			{
-				lineIndex++;
-				if (lineIndex == index)
+				CsvResult res = parseLine(line, "freadvals");
+
+				if (!res.dataOk())
 				{
-					break;
+					throw new Exception(res.getErrorMsg());
 				}
 
+				SeqValue lineCells = new SeqValue();
+				lineCells.values.addAll(res.getValues());
+				rows.add(lineCells);
 			}
+
+			result.add(new BooleanValue(true));
+			result.add(new SeqValue(rows));
 		}
-		finally
+		catch (Exception e)
 		{
-			bufRdr.close();
+			lastError = e.getMessage();
+			result = new ValueList();
+			result.add(new BooleanValue(false));
+			result.add(new NilValue());
 		}
 
-		if (line == null)
+		return new TupleValue(result);
+	}
+
+	private static CsvResult parseLine(String line, String method)
+	{
+		CsvParser parser = new CsvParser(new CsvValueBuilder()
 		{
-			throw new IOException("CSV no data read. Empty line.");
-		}
+			@Override
+			public Value createValue(String value)
+					throws Exception
+			{
+				return CSV.createValue("CSV", method, value);
+			}
+		});
 
-		return line;
+		return parser.parseValues(line);
 	}
 
 	private static Value createValue(String module, String method, String value)
 			throws Exception
 	{
+		Value literal = LiteralReader.read(value);
+		
+		if (literal != null)
+		{
+			return literal;		// Most cells are simple literals
+		}
+		
 		LexTokenReader ltr = new LexTokenReader(value, Dialect.VDM_PP);
 		ExpressionReader reader = new ExpressionReader(ltr);
 		reader.setCurrentModule(module);
@@ -54,6 +54,8 @@ import com.fujitsu.vdmj.values.Value;
 import com.fujitsu.vdmj.values.ValueList;
 import com.fujitsu.vdmj.values.VoidValue;
 
+import util.LiteralReader;
+
 /**
  * This class contains the code for native IO operations.
  */
@@ -112,16 +114,26 @@ public class IO implements Serializable
 			}
 
 			LexTokenReader ltr = new LexTokenReader(file, Dialect.VDM_PP, Settings.filecharset);
-			ExpressionReader reader = new ExpressionReader(ltr);
-			reader.setCurrentModule("IO");
-			ASTExpression exp = reader.readExpression();
-			TCExpression tcexp = ClassMapper.getInstance(TCNode.MAPPINGS).convertLocal(exp);
-			Interpreter ip = Interpreter.getInstance();
-			ip.typeCheck(tcexp);
-			INExpression inexp = ClassMapper.getInstance(INNode.MAPPINGS).convertLocal(tcexp);
+			Value literal = LiteralReader.read(ltr.getText());
 			
-			result.add(new BooleanValue(true));
-			result.add(inexp.eval(ctxt));
+			if (literal != null)
+			{
+				result.add(new BooleanValue(true));
+				result.add(literal);
+			}
+			else
+			{
+				ExpressionReader reader = new ExpressionReader(ltr);
+				reader.setCurrentModule("IO");
+				ASTExpression exp = reader.readExpression();
+				TCExpression tcexp = ClassMapper.getInstance(TCNode.MAPPINGS).convertLocal(exp);
+				Interpreter ip = Interpreter.getInstance();
+				ip.typeCheck(tcexp);
+				INExpression inexp = ClassMapper.getInstance(INNode.MAPPINGS).convertLocal(tcexp);
+				
+				result.add(new BooleanValue(true));
+				result.add(inexp.eval(ctxt));
+			}
 		}
 		catch (Exception e)
 		{
@@ -50,6 +50,8 @@ import com.fujitsu.vdmj.values.Value;
 import com.fujitsu.vdmj.values.ValueList;
 import com.fujitsu.vdmj.values.ValueSet;
 
+import util.LiteralReader;
+
 public class VDMUtil
 {
 	@VDMFunction
@@ -83,6 +85,15 @@ public class VDMUtil
 				expression.append(ch.unicode);
 			}
 			
+			Value literal = LiteralReader.read(expression.toString());
+			
+			if (literal != null)
+			{
+				result.add(new BooleanValue(true));
+				result.add(literal);
+				return new TupleValue(result);
+			}
+			
 			LexTokenReader ltr = new LexTokenReader(expression.toString(), Dialect.VDM_PP);
 			ExpressionReader reader = new ExpressionReader(ltr);
 			reader.setCurrentModule("VDMUtil");
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * The byte offsets of the lines of a CSV file, so that a line can be read without
+ * reading the lines before it. Lines end with "\n", "\r" or "\r\n", as for
+ * BufferedReader.readLine, and are decoded with the default charset, as for the
+ * FileReader that was used before.
+ *
+ * The terminators are found by scanning bytes, which is only correct if the charset
+ * encodes them as single bytes that cannot be part of other characters, like UTF-8
+ * or ISO-8859-1. For other charsets, like UTF-16, the index just holds the line
+ * count, and lines are read from the start of the file, as before.
+ *
+ * The indexes of the last MAX_CACHED files are cached, and rebuilt if the file's
+ * length or modification time changes, or if it is written by CSV.fwriteval.
+ */
+public class CsvLineIndex
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_CACHED = 16;
+
+	private static final Map<File, CsvLineIndex> cache = new LinkedHashMap<File, CsvLineIndex>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, CsvLineIndex> eldest)
+		{
+			return size() > MAX_CACHED;		// Least recently used
+		}
+	};
+
+	private final File file;
+	private final Charset charset;
+	private final long modified;
+	private final long length;
+	private final boolean indexed;			// False if the charset cannot be scanned
+
+	private long[] starts = new long[1024];		// Offset of the start of each line
+	private long[] ends = new long[1024];		// Offset of the terminator of each line
+	private int count = 0;
+
+	/**
+	 * Index a file that is decoded with the charset passed. The cached instances
+	 * use the default charset.
+	 */
+	CsvLineIndex(File file, Charset charset) throws IOException
+	{
+		this.file = file;
+		this.charset = charset;
+		this.modified = file.lastModified();
+		this.length = file.length();
+		this.indexed = isScannable(charset);
+
+		if (indexed)
+		{
+			scanLines();
+		}
+		else
+		{
+			try (BufferedReader reader = open())
+			{
+				while (reader.readLine() != null)
+				{
+					count++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * True if the bytes of the line terminators only ever mean those characters.
+	 */
+	private static boolean isScannable(Charset charset)
+	{
+		return Arrays.equals("\n\r".getBytes(charset), new byte[] { '\n', '\r' }) &&
+			(charset.equals(StandardCharsets.UTF_8) || charset.newEncoder().maxBytesPerChar() == 1);
+	}
+
+	private BufferedReader open() throws IOException
+	{
+		return new BufferedReader(new InputStreamReader(new FileInputStream(file), charset));
+	}
+
+	private void scanLines() throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			long position = 0;
+			long start = 0;
+			boolean lastCR = false;
+
+			while (channel.read(buffer) > 0)
+			{
+				buffer.flip();
+
+				while (buffer.hasRemaining())
+				{
+					byte b = buffer.get();
+
+					if (b == '\n')
+					{
+						if (!lastCR)	// Else "\r\n" was ended by the '\r'
+						{
+							add(start, position);
+						}
+
+						start = position + 1;
+						lastCR = false;
+					}
+					else if (b == '\r')
+					{
+						add(start, position);
+						start = position + 1;
+						lastCR = true;
+					}
+					else
+					{
+						lastCR = false;
+					}
+
+					position++;
+				}
+
+				buffer.clear();
+			}
+
+			if (start < position)
+			{
+				add(start, position);	// A last line with no terminator
+			}
+		}
+	}
+
+	/**
+	 * Get the index for a file, from the cache if the file has not changed.
+	 */
+	public static synchronized CsvLineIndex getInstance(File file) throws IOException
+	{
+		CsvLineIndex index = cache.get(file);
+
+		if (index == null || index.modified != file.lastModified() || index.length != file.length())
+		{
+			index = new CsvLineIndex(file, Charset.defaultCharset());
+			cache.put(file, index);
+		}
+
+		return index;
+	}
+
+	/**
+	 * Remove a file from the cache, when it is written.
+	 */
+	public static synchronized void invalidate(File file)
+	{
+		cache.remove(file);
+	}
+
+	public int getLineCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Read lines "from" to "to" inclusive, where the first line is 1. The lines
+	 * are read with one positioned read. An empty range, where "to" is before
+	 * "from", gives an empty list.
+	 */
+	public List<String> getLines(long from, long to) throws IOException
+	{
+		if (from < 1)
+		{
+			throw new IOException("CSV line index before first entry");
+		}
+
+		if (to < from)
+		{
+			return new Vector<String>();
+		}
+
+		if (to > count)
+		{
+			throw new IOException("CSV no data read. Empty line.");
+		}
+
+		if (!indexed)
+		{
+			return readLines(from, to);
+		}
+
+		int first = (int)from - 1;
+		int last = (int)to - 1;
+		long size = ends[last] - starts[first];
+
+		if (size > Integer.MAX_VALUE)
+		{
+			throw new IOException("CSV line range too large to read");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int)size);
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			while (buffer.hasRemaining())
+			{
+				if (channel.read(buffer, starts[first] + buffer.position()) < 0)
+				{
+					throw new IOException("CSV file changed while reading");
+				}
+			}
+		}
+
+		byte[] bytes = buffer.array();
+		List<String> lines = new Vector<String>(last - first + 1);
+
+		for (int i=first; i<=last; i++)
+		{
+			int offset = (int)(starts[i] - starts[first]);
+			int len = (int)(ends[i] - starts[i]);
+			lines.add(new String(bytes, offset, len, charset));
+		}
+
+		return lines;
+	}
+
+	public String getLine(long index) throws IOException
+	{
+		return getLines(index, index).get(0);
+	}
+
+	/**
+	 * Read lines from the start of the file, when the charset cannot be indexed.
+	 */
+	private List<String> readLines(long from, long to) throws IOException
+	{
+		List<String> lines = new Vector<String>();
+
+		try (BufferedReader reader = open())
+		{
+			for (long line = 1; line <= to; line++)
+			{
+				String text = reader.readLine();
+
+				if (text == null)
+				{
+					throw new IOException("CSV no data read. Empty line.");
+				}
+
+				if (line >= from)
+				{
+					lines.add(text);
+				}
+			}
+		}
+
+		return lines;
+	}
+
+	private void add(long start, long end)
+	{
+		if (count == starts.length)
+		{
+			starts = Arrays.copyOf(starts, count * 2);
+			ends = Arrays.copyOf(ends, count * 2);
+		}
+
+		starts[count] = start;
+		ends[count] = end;
+		count++;
+	}
+}
@@ -0,0 +1,559 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package util;
+
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.runtime.ValueException;
+import com.fujitsu.vdmj.values.BooleanValue;
+import com.fujitsu.vdmj.values.CharacterValue;
+import com.fujitsu.vdmj.values.MapValue;
+import com.fujitsu.vdmj.values.NilValue;
+import com.fujitsu.vdmj.values.NumericValue;
+import com.fujitsu.vdmj.values.QuoteValue;
+import com.fujitsu.vdmj.values.SeqValue;
+import com.fujitsu.vdmj.values.SetValue;
+import com.fujitsu.vdmj.values.TokenValue;
+import com.fujitsu.vdmj.values.TupleValue;
+import com.fujitsu.vdmj.values.Value;
+import com.fujitsu.vdmj.values.ValueList;
+import com.fujitsu.vdmj.values.ValueMap;
+import com.fujitsu.vdmj.values.ValueSet;
+
+/**
+ * A reader for VDM values written as literals: numbers, characters, strings, quotes,
+ * booleans, nil, and sets, sequences, maps, tuples and tokens of these. The values
+ * are created directly, rather than by parsing, type checking and evaluating an
+ * expression, and are the same as the values that evaluation would produce.
+ *
+ * Text that is anything else, like a record, a comment or a malformed literal, is
+ * not read, and the caller should evaluate it as an expression instead.
+ */
+public class LiteralReader
+{
+	private final char[] text;
+	private final int length;
+	private int pos;
+
+	/**
+	 * Thrown internally when the text is not a literal that this class reads.
+	 */
+	private static class NotLiteral extends Exception
+	{
+		private static final long serialVersionUID = 1L;
+
+		public NotLiteral()
+		{
+			super(null, null, false, false);	// No stack trace needed
+		}
+	}
+
+	private static final NotLiteral NOT_LITERAL = new NotLiteral();
+
+	private LiteralReader(char[] text, int length)
+	{
+		this.text = text;
+		this.length = length;
+		this.pos = 0;
+	}
+
+	/**
+	 * Read the text as a literal value, or return null if it is not one.
+	 */
+	public static Value read(String text)
+	{
+		return read(text.toCharArray());
+	}
+
+	public static Value read(char[] text)
+	{
+		LiteralReader reader = new LiteralReader(text, text.length);
+
+		try
+		{
+			Value value = reader.readValue();
+			reader.skipSpace();
+			return reader.pos == reader.length ? value : null;
+		}
+		catch (NotLiteral e)
+		{
+			return null;
+		}
+	}
+
+	private Value readValue() throws NotLiteral
+	{
+		skipSpace();
+		char c = peek();
+
+		switch (c)
+		{
+			case '"':
+				return readString();
+
+			case '\'':
+				return readChar();
+
+			case '<':
+				return readQuote();
+
+			case '{':
+				return readSetOrMap();
+
+			case '[':
+				return readSeq();
+
+			case '-':
+				pos++;
+				skipSpace();
+
+				if (isDigit(peek()))
+				{
+					try
+					{
+						// As INUnaryMinusExpression, via a double
+						return numeric(-readNumber().realValue(null));
+					}
+					catch (ValueException e)
+					{
+						throw NOT_LITERAL;
+					}
+				}
+
+				throw NOT_LITERAL;
+
+			default:
+				if (isDigit(c))
+				{
+					return readNumber();
+				}
+				else if (matchWord("true"))
+				{
+					return BooleanValue.valueOf(true);
+				}
+				else if (matchWord("false"))
+				{
+					return BooleanValue.valueOf(false);
+				}
+				else if (matchWord("nil"))
+				{
+					return NilValue.valueOf();
+				}
+				else if (match("mk_("))
+				{
+					ValueList args = readList(')');
+
+					if (args.size() < 2)
+					{
+						throw NOT_LITERAL;
+					}
+
+					return new TupleValue(args);
+				}
+				else if (match("mk_token("))
+				{
+					Value arg = readValue();
+					skipSpace();
+					expect(')');
+					return new TokenValue(arg);
+				}
+
+				throw NOT_LITERAL;
+		}
+	}
+
+	private Value readNumber() throws NotLiteral
+	{
+		try
+		{
+			if (peek() == '0' && (peek(1) == 'x' || peek(1) == 'X'))
+			{
+				pos += 2;
+				int start = pos;
+
+				while (Character.digit(peek(), 16) >= 0)
+				{
+					pos++;
+				}
+
+				return numeric(Long.parseLong(new String(text, start, pos - start), 16));
+			}
+
+			String value = readDigits();
+			String fraction = null;
+			String exponent = null;
+			boolean negative = false;
+
+			if (peek() == '.' && isDigit(peek(1)))
+			{
+				pos++;
+				fraction = readDigits();
+				exponent = "0";
+			}
+
+			if (peek() == 'e' || peek() == 'E')
+			{
+				if (fraction == null) fraction = "0";
+				pos++;
+
+				if (peek() == '+')
+				{
+					pos++;
+				}
+				else if (peek() == '-')
+				{
+					pos++;
+					negative = true;
+				}
+
+				if (!isDigit(peek()))
+				{
+					throw NOT_LITERAL;
+				}
+
+				exponent = readDigits();
+			}
+
+			if (fraction != null)
+			{
+				// As LexTokenReader and LexRealToken
+				return numeric(Double.parseDouble("+" + value + "." + fraction + "e" +
+					(negative ? "-" : "+") + exponent));
+			}
+
+			return numeric(Long.parseLong(value));
+		}
+		catch (NumberFormatException e)
+		{
+			throw NOT_LITERAL;
+		}
+	}
+
+	private String readDigits()
+	{
+		int start = pos;
+
+		while (isDigit(peek()))
+		{
+			pos++;
+		}
+
+		return new String(text, start, pos - start);
+	}
+
+	private Value numeric(long value) throws NotLiteral
+	{
+		try
+		{
+			return NumericValue.valueOf(value, null);
+		}
+		catch (Exception e)
+		{
+			throw NOT_LITERAL;
+		}
+	}
+
+	private Value numeric(double value) throws NotLiteral
+	{
+		try
+		{
+			return NumericValue.valueOf(value, null);
+		}
+		catch (Exception e)
+		{
+			throw NOT_LITERAL;
+		}
+	}
+
+	private Value readString() throws NotLiteral
+	{
+		pos++;		// Skip the "
+		ValueList chars = new ValueList();
+
+		while (peek() != '"')
+		{
+			if (pos >= length || peek() == '\n')
+			{
+				throw NOT_LITERAL;
+			}
+
+			chars.add(CharacterValue.valueOf(readQuotedChar()));
+		}
+
+		pos++;
+		return new SeqValue(chars);
+	}
+
+	private Value readChar() throws NotLiteral
+	{
+		pos++;		// Skip the '
+
+		if (pos >= length || peek() == '\'')
+		{
+			throw NOT_LITERAL;
+		}
+
+		char c = readQuotedChar();
+		expect('\'');
+		return CharacterValue.valueOf(c);
+	}
+
+	/**
+	 * Read one character, or the simple escapes that LexTokenReader allows.
+	 * Others fall back to the full reader.
+	 */
+	private char readQuotedChar() throws NotLiteral
+	{
+		char c = next();
+
+		if (c == '\\')
+		{
+			switch (next())
+			{
+				case 'r':  return '\r';
+				case 'n':  return '\n';
+				case 't':  return '\t';
+				case 'f':  return '\f';
+				case 'e':  return '\033';
+				case 'a':  return '\007';
+				case '\'': return '\'';
+				case '\"': return '\"';
+				case '\\': return '\\';
+				default:   throw NOT_LITERAL;
+			}
+		}
+
+		return c;
+	}
+
+	private Value readQuote() throws NotLiteral
+	{
+		pos++;		// Skip the <
+		int start = pos;
+
+		if (!LexTokenReader.startOfName(peek()))
+		{
+			throw NOT_LITERAL;
+		}
+
+		while (LexTokenReader.restOfName(peek()))	// As the lexer
+		{
+			pos++;
+		}
+
+		String name = new String(text, start, pos - start);
+		expect('>');
+		return new QuoteValue(name);
+	}
+
+	private Value readSetOrMap() throws NotLiteral
+	{
+		pos++;		// Skip the {
+		skipSpace();
+
+		if (peek() == '}')
+		{
+			pos++;
+			return new SetValue();
+		}
+		else if (match("|->"))
+		{
+			skipSpace();
+			expect('}');
+			return new MapValue();
+		}
+
+		Value first = readValue();
+		skipSpace();
+
+		if (match("|->"))
+		{
+			ValueMap map = new ValueMap();
+			Value range = readValue();
+			map.put(first, range);
+			skipSpace();
+
+			while (peek() == ',')
+			{
+				pos++;
+				Value key = readValue();
+				skipSpace();
+
+				if (!match("|->"))
+				{
+					throw NOT_LITERAL;
+				}
+
+				range = readValue();
+				Value old = map.put(key, range);
+
+				if (old != null && !old.equals(range))
+				{
+					throw NOT_LITERAL;	// Let evaluation report the error
+				}
+
+				skipSpace();
+			}
+
+			expect('}');
+			return new MapValue(map);
+		}
+		else
+		{
+			ValueSet set = new ValueSet();
+			set.add(first);
+
+			while (peek() == ',')
+			{
+				pos++;
+				set.add(readValue());
+				skipSpace();
+			}
+
+			expect('}');
+			return new SetValue(set);
+		}
+	}
+
+	private Value readSeq() throws NotLiteral
+	{
+		pos++;		// Skip the [
+		return new SeqValue(readList(']'));
+	}
+
+	/**
+	 * Read a comma separated list of values up to the close character. The open
+	 * character has been read already.
+	 */
+	private ValueList readList(char close) throws NotLiteral
+	{
+		ValueList values = new ValueList();
+		skipSpace();
+
+		if (peek() == close)
+		{
+			pos++;
+			return values;
+		}
+
+		values.add(readValue());
+		skipSpace();
+
+		while (peek() == ',')
+		{
+			pos++;
+			values.add(readValue());
+			skipSpace();
+		}
+
+		expect(close);
+		return values;
+	}
+
+	private boolean match(String word)
+	{
+		int len = word.length();
+
+		if (pos + len > length)
+		{
+			return false;
+		}
+
+		for (int i=0; i<len; i++)
+		{
+			if (text[pos + i] != word.charAt(i))
+			{
+				return false;
+			}
+		}
+
+		pos += len;
+		return true;
+	}
+
+	/**
+	 * Match a keyword, which must not be the start of a longer name.
+	 */
+	private boolean matchWord(String word)
+	{
+		int start = pos;
+
+		if (match(word))
+		{
+			char c = peek();
+
+			if (!LexTokenReader.restOfName(c))
+			{
+				return true;
+			}
+
+			pos = start;
+		}
+
+		return false;
+	}
+
+	private void expect(char c) throws NotLiteral
+	{
+		if (peek() != c)
+		{
+			throw NOT_LITERAL;
+		}
+
+		pos++;
+	}
+
+	private void skipSpace()
+	{
+		while (pos < length && Character.isWhitespace(text[pos]))
+		{
+			pos++;
+		}
+	}
+
+	private char peek()
+	{
+		return (pos < length) ? text[pos] : 0;
+	}
+
+	private char peek(int ahead)
+	{
+		return (pos + ahead < length) ? text[pos + ahead] : 0;
+	}
+
+	private char next() throws NotLiteral
+	{
+		if (pos >= length)
+		{
+			throw NOT_LITERAL;
+		}
+
+		return text[pos++];
+	}
+
+	private boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+}
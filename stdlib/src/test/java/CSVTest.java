@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fujitsu.vdmj.values.NaturalValue;
+import com.fujitsu.vdmj.values.SeqValue;
+import com.fujitsu.vdmj.values.Value;
+
+/**
+ * Check the CSV library's line functions on a small file of literals.
+ */
+public class CSVTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Value file;
+
+	private Value nat(long n) throws Exception
+	{
+		return new NaturalValue(n);
+	}
+
+	private void write(String content) throws IOException
+	{
+		File csv = folder.newFile("test.csv");
+		Files.write(csv.toPath(), content.getBytes());
+		file = new SeqValue(csv.getPath());
+	}
+
+	@Test
+	public void testFreadvals() throws Exception
+	{
+		write("1,2\r\n\"a\",<A>\n{1},[2]\n");
+
+		assertEquals("mk_(true, 3)", CSV.flinecount(file).toString());
+		assertEquals("mk_(true, [1, 2])", CSV.freadval(file, nat(1)).toString());
+		assertEquals("mk_(true, [\"a\", <A>])", CSV.freadval(file, nat(2)).toString());
+		assertEquals("mk_(true, [[1, 2], [\"a\", <A>], [{1}, [2]]])", CSV.freadvals(file, nat(1), nat(3)).toString());
+		assertEquals("mk_(true, [[{1}, [2]]])", CSV.freadvals(file, nat(3), nat(3)).toString());
+		assertEquals("mk_(false, nil)", CSV.freadvals(file, nat(3), nat(4)).toString());
+	}
+
+	@Test
+	public void testEmptyRange() throws Exception
+	{
+		write("1,2\n3,4\n");
+
+		assertEquals("mk_(true, [])", CSV.freadvals(file, nat(2), nat(1)).toString());
+		assertEquals("mk_(true, [])", CSV.freadvals(file, nat(3), nat(2)).toString());
+		assertEquals("mk_(true, [])", CSV.freadvals(file, nat(1), nat(0)).toString());
+	}
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Vector;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Check that CsvLineIndex gives the same lines as BufferedReader.readLine, for
+ * each kind of line terminator and for multi-byte and UTF-16 charsets.
+ */
+public class CsvLineIndexTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File write(String content, Charset charset) throws IOException
+	{
+		File file = folder.newFile();
+		Files.write(file.toPath(), content.getBytes(charset));
+		return file;
+	}
+
+	private List<String> readLines(File file, Charset charset) throws IOException
+	{
+		List<String> lines = new Vector<String>();
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), charset)))
+		{
+			String line;
+
+			while ((line = reader.readLine()) != null)
+			{
+				lines.add(line);
+			}
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Check every line, singly and as a whole range, against BufferedReader.
+	 */
+	private void check(String content, Charset charset) throws IOException
+	{
+		File file = write(content, charset);
+		List<String> expected = readLines(file, charset);
+		CsvLineIndex index = new CsvLineIndex(file, charset);
+
+		assertEquals(expected.size(), index.getLineCount());
+		assertEquals(expected, index.getLines(1, expected.size()));
+
+		for (int i=0; i<expected.size(); i++)
+		{
+			assertEquals(expected.get(i), index.getLine(i + 1));
+		}
+	}
+
+	@Test
+	public void testTerminators() throws IOException
+	{
+		check("1,2\n3,4\n", StandardCharsets.UTF_8);
+		check("1,2\r\n3,4\r\n", StandardCharsets.UTF_8);
+		check("1,2\r3,4\r", StandardCharsets.UTF_8);
+		check("1\n2\r\n3\r4", StandardCharsets.UTF_8);
+		check("\n\n1\r\r\n\n", StandardCharsets.UTF_8);
+		check("", StandardCharsets.UTF_8);
+
+		StringBuilder sb = new StringBuilder();		// A "\r\n" across the scan buffers
+
+		while (sb.length() < 64 * 1024 - 1)
+		{
+			sb.append('x');
+		}
+
+		sb.append("\r\nlast");
+		check(sb.toString(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testCharsets() throws IOException
+	{
+		String content = "\"été\",1\n\"日本\",2\r\n'ü',3\n<α>,4";
+
+		check(content, StandardCharsets.UTF_8);
+		check(content, StandardCharsets.UTF_16);
+		check(content, StandardCharsets.UTF_16LE);
+		check("café,1\r\nnaïve,2\n", StandardCharsets.ISO_8859_1);
+	}
+
+	@Test
+	public void testRanges() throws IOException
+	{
+		for (Charset charset: new Charset[] { StandardCharsets.UTF_8, StandardCharsets.UTF_16 })
+		{
+			CsvLineIndex index = new CsvLineIndex(write("1\n2\n3\n", charset), charset);
+
+			assertEquals(List.of("2", "3"), index.getLines(2, 3));
+			assertTrue(index.getLines(2, 1).isEmpty());
+			assertTrue(index.getLines(4, 3).isEmpty());
+
+			try
+			{
+				index.getLines(0, 1);
+				fail("Expecting line before first entry");
+			}
+			catch (IOException e)
+			{
+				assertEquals("CSV line index before first entry", e.getMessage());
+			}
+
+			try
+			{
+				index.getLines(3, 4);
+				fail("Expecting line after last entry");
+			}
+			catch (IOException e)
+			{
+				assertEquals("CSV no data read. Empty line.", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testCache() throws IOException
+	{
+		File file = write("1\n2\n", Charset.defaultCharset());
+		CsvLineIndex index = CsvLineIndex.getInstance(file);
+
+		assertSame(index, CsvLineIndex.getInstance(file));
+		assertEquals(2, index.getLineCount());
+
+		Files.write(file.toPath(), "1\n2\n3\n".getBytes(Charset.defaultCharset()));
+		CsvLineIndex changed = CsvLineIndex.getInstance(file);
+		assertNotSame(index, changed);
+		assertEquals(3, changed.getLineCount());
+
+		CsvLineIndex.invalidate(file);
+		assertNotSame(changed, CsvLineIndex.getInstance(file));
+
+		index = CsvLineIndex.getInstance(file);
+
+		for (int i=0; i<20; i++)	// More than are cached
+		{
+			CsvLineIndex.getInstance(write(i + "\n", Charset.defaultCharset()));
+		}
+
+		assertNotSame(index, CsvLineIndex.getInstance(file));
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.expressions.ASTExpression;
+import com.fujitsu.vdmj.in.INNode;
+import com.fujitsu.vdmj.in.expressions.INExpression;
+import com.fujitsu.vdmj.in.modules.INModuleList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.runtime.Context;
+import com.fujitsu.vdmj.runtime.Interpreter;
+import com.fujitsu.vdmj.runtime.ModuleInterpreter;
+import com.fujitsu.vdmj.syntax.ExpressionReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.expressions.TCExpression;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.values.Value;
+
+/**
+ * Check that LiteralReader gives the same values as parsing, type checking and
+ * evaluating the text, as IO.freadval and VDMUtil.seq_of_char2val did before, and
+ * that it does not read text that it should leave to that path.
+ */
+public class LiteralReaderTest
+{
+	/**
+	 * Text that LiteralReader reads, which must give the same value as evaluation.
+	 */
+	private static final String[] LITERALS =
+	{
+		// Numbers
+		"0", "123", "-123", "- 7", "0x1F", "0XfF", "-0x10",
+		"1.5", "-1.5", "1e3", "1E3", "1.5E-3", "2e+2", "-2.5e1", "0.000001",
+		"9223372036854775807", "-9223372036854775807",
+
+		// Characters, strings and escapes
+		"'x'", "'\\''", "'\"'", "'\\n'", "\"\"", "\"abc\"",
+		"\"a\\nb\\tc\\r\\f\"", "\"\\\"quoted\\\" \\\\ \\e\\a\"", "\"it's\"", "\"\u00e9t\u00e9\"",
+
+		// Quotes, with primes, $ and non-ASCII letters, and keywords
+		"<A>", "<abc_1>", "<A'>", "<A''b>", "<$x>", "<\u00c9t\u00e9>", "<\u03b1\u03b2>",
+		"true", "false", "nil",
+
+		// Sets, with duplicates, and maps
+		"{}", "{1}", "{1,1}", "{3, 1, 2, 1}", "{1, 1.0}", "{\"a\", \"a\", \"b\"}",
+		"{|->}", "{1 |-> 2}", "{1|->2, 1|->2}", "{1|->2, 2|->3}", "{<A> |-> {1, 1}}",
+
+		// Sequences, tuples and tokens, nested
+		"[]", "[1, 1, 2]", "[[1, 2], {3}, {4 |-> [5]}]", "mk_(1, 'a', \"b\")",
+		"mk_(mk_(1, 2), [3])", "mk_token(1)", "mk_token(\"a\")", "mk_token(mk_(1, {2}))",
+		"{mk_token(1), mk_token(1)}", "[nil, true, <A>]",
+
+		// White space around and between the parts
+		"  [ 1 ,2 ]  ", "\n{ 1 |-> 2 }\n", "mk_token( 1 )",
+	};
+
+	/**
+	 * Text that LiteralReader does not read, leaving it to be evaluated.
+	 */
+	private static final String[] OTHERS =
+	{
+		// Numbers that overflow a long, or are malformed
+		"9223372036854775808", "-9223372036854775808", "0xFFFFFFFFFFFFFFFF", "1e", "1.5e+",
+
+		// Maps with clashing values, which evaluation reports
+		"{1|->2, 1|->3}",
+
+		// Escapes that the reader does not handle
+		"\"\\x41\"", "\"\\101\"", "\"\\u0041\"", "'ab'", "''",
+
+		// Quotes and keywords that are not the lexer's, and other expressions
+		"<1A>", "< A>", "<A", "truex", "true'", "nilly", "mk_(1)", "mk_R(1)", "1 + 2", "-x",
+
+		// Comments and trailing text
+		"1 -- comment", "/* comment */ 1", "[1] x", "1 2", "{1,}", "[1,]",
+	};
+
+	@BeforeClass
+	public static void setUp() throws Exception
+	{
+		Settings.dialect = Dialect.VDM_SL;
+		Interpreter interpreter = new ModuleInterpreter(new INModuleList(), new TCModuleList());
+		interpreter.init();
+	}
+
+	/**
+	 * Evaluate text as IO.freadval does when it is not a literal.
+	 */
+	private Value evaluate(String text) throws Exception
+	{
+		LexTokenReader ltr = new LexTokenReader(text, Dialect.VDM_PP);
+		ExpressionReader reader = new ExpressionReader(ltr);
+		reader.setCurrentModule("IO");
+		ASTExpression exp = reader.readExpression();
+		TCExpression tcexp = ClassMapper.getInstance(TCNode.MAPPINGS).convertLocal(exp);
+		Interpreter.getInstance().typeCheck(tcexp);
+		INExpression inexp = ClassMapper.getInstance(INNode.MAPPINGS).convertLocal(tcexp);
+
+		Context ctxt = new Context(null, "LiteralReaderTest", null);
+		ctxt.setThreadState(null);
+		return inexp.eval(ctxt);
+	}
+
+	@Test
+	public void testLiterals() throws Exception
+	{
+		for (String text: LITERALS)
+		{
+			Value literal = LiteralReader.read(text);
+			assertNotNull("Literal not read: " + text, literal);
+
+			Value expected = evaluate(text);
+			assertEquals("Value of " + text, expected, literal);
+			assertEquals("Class of " + text, expected.getClass(), literal.getClass());
+			assertEquals("String of " + text, expected.toString(), literal.toString());
+		}
+	}
+
+	@Test
+	public void testOthers()
+	{
+		for (String text: OTHERS)
+		{
+			assertNull("Unexpected literal: " + text, LiteralReader.read(text));
+		}
+	}
+}
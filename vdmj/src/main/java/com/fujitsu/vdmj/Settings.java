@@ -35,6 +35,7 @@ import com.fujitsu.vdmj.lex.Dialect;
 public class Settings
 {
 	public static Class<? extends VDMJMain> mainClass = null;
+	public static String[] mainArgs = null;
 	public static Release release = Release.DEFAULT;
 	public static Dialect dialect = null;
 	public static Charset filecharset = Charset.defaultCharset();
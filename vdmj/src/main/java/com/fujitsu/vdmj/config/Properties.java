@@ -70,11 +70,23 @@ public class Properties
 	
 	/** The maximum TC warnings reported before "Too many warnings". */
 	public static int tc_max_warnings = 100;
+	
+	/** The number of threads for type checking VDM-SL module definitions (0 = serial). */
+	public static int tc_parallel_modules = 0;
 
 
 	/** The maximum number of paths in an operation before POG starts limiting them */
 	public static int pog_max_alt_paths = 200;
 
+	/** The number of threads for generating proof obligations for definitions (0 = serial) */
+	public static int pog_parallel_definitions = 0;
+
+	/** The number of threads for checking VDM-SL proof obligations with QuickCheck (0 = serial) */
+	public static int qc_parallel_obligations = 0;
+
+	/** A file to cache QuickCheck results for obligations that have not changed, or null */
+	public static String qc_cache_file = null;
+
 	
 	/** The default timeslice (statements executed) for a FCFS policy */
 	public static int scheduler_fcfs_timeslice = 10;
@@ -85,15 +97,24 @@ public class Properties
 	/** The timeslice variation (+/- jitter ticks) */
 	public static int scheduler_jitter = 0;
 
+	/** The stack size (KB) for object, periodic and async threads, or 0 for the JVM default */
+	public static int scheduler_thread_stack = 0;
+
+	/** Whether object, periodic and async threads start when first scheduled, rather than when created */
+	public static boolean scheduler_deferred_start = false;
+
 	
 	/** The maximum number of expansions for "+" and "*" trace patterns. */
 	public static int traces_max_repeats = 5;
 	
-	/** Serialize the system state between trace tests. */
+	/** Save and restore the system state between trace tests, rather than re-initializing. */
 	public static boolean traces_save_state = false;
 	
 	/** The size below which trace function args are expanded. */
 	public static int traces_max_arg_length = 50;
+	
+	/** The number of worker processes to run trace tests, if more than one. */
+	public static int traces_workers = 0;
 
 	
 	/** The default duration for RT statements. */
@@ -127,6 +148,12 @@ public class Properties
 	/** Whether to treat some errors as undefined values */
 	public static boolean in_undefined_evals = false;
 	
+	/** Whether copies of sets and sequences share storage until updated */
+	public static boolean in_shared_collections = false;
+	
+	/** The number of threads for evaluating large quantifier and comprehension binds (0 = serial) */
+	public static int in_parallel_binds = 0;
+	
 	
 	/** The class name for the DebugLink */
 	public static String debug_link_class = null;
@@ -210,16 +237,23 @@ public class Properties
 		tc_skip_cyclic_check = get(vdmj, "vdmj.tc.skip_cyclic_check", false);
 		tc_max_errors = get(vdmj, "vdmj.tc.max_errors", 100);
 		tc_max_warnings = get(vdmj, "vdmj.tc.max_warnings", 100);
+		tc_parallel_modules = get(vdmj, "vdmj.tc.parallel_modules", 0);
 
 		pog_max_alt_paths = get(vdmj, "vdmj.pog.max_alt_paths", 200);
+		pog_parallel_definitions = get(vdmj, "vdmj.pog.parallel_definitions", 0);
+		qc_parallel_obligations = get(vdmj, "vdmj.qc.parallel_obligations", 0);
+		qc_cache_file = get(vdmj, "vdmj.qc.cache_file", null);
 		
 		scheduler_fcfs_timeslice = get(vdmj, "vdmj.scheduler.fcfs_timeslice", 10);
 		scheduler_virtual_timeslice = get(vdmj, "vdmj.scheduler.virtual_timeslice", 10000);
 		scheduler_jitter = get(vdmj, "vdmj.scheduler_jitter", 0);
+		scheduler_thread_stack = get(vdmj, "vdmj.scheduler.thread_stack", 0);
+		scheduler_deferred_start = get(vdmj, "vdmj.scheduler.deferred_start", false);
 		
 		traces_max_repeats = get(vdmj, "vdmj.traces.max_repeats", 5);
 		traces_save_state = get(vdmj, "vdmj.traces.save_state", false);
 		traces_max_arg_length = get(vdmj, "vdmj.traces.max_arg_length", 50);
+		traces_workers = get(vdmj, "vdmj.traces.workers", 0);
 		
 		rt_duration_default = get(vdmj, "vdmj.rt.duration_default", 2);
 		rt_duration_transactions = get(vdmj, "vdmj.rt.duration_transactions", false);
@@ -232,6 +266,8 @@ public class Properties
 		in_typebind_limit = get(vdmj, "vdmj.in.typebind_limit", 100000);
 		in_init_checks = get(vdmj, "vdmj.in.init_checks", true);
 		in_undefined_evals = get(vdmj, "vdmj.in.undefined_evals", false);
+		in_shared_collections = get(vdmj, "vdmj.in.shared_collections", false);
+		in_parallel_binds = get(vdmj, "vdmj.in.parallel_binds", 0);
 
 		debug_link_class = get(vdmj, "vdmj.debug.link_class", null);		
 		diag_max_stack = get(vdmj, "vdmj.diag.max_stack", 1);
@@ -69,7 +69,7 @@ public class INAndExpression extends INBooleanBinaryExpression
 				}
 				else
 				{
-					return new BooleanValue(false);
+					return BooleanValue.valueOf(false);
 				}
 			}
 			else if (lv.boolValue(ctxt))
@@ -82,16 +82,16 @@ public class INAndExpression extends INBooleanBinaryExpression
 				}
 				else if (rv.boolValue(ctxt))
 				{
-					return new BooleanValue(true);
+					return BooleanValue.valueOf(true);
 				}
 				else
 				{
-					return new BooleanValue(false);
+					return BooleanValue.valueOf(false);
 				}
 			}
 			else
 			{
-				return new BooleanValue(false);
+				return BooleanValue.valueOf(false);
 			}
 		}
 		catch (ValueException e)
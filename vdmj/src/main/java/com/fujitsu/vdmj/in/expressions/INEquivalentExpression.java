@@ -65,11 +65,11 @@ public class INEquivalentExpression extends INBooleanBinaryExpression
 				}
 				else if (rv.boolValue(ctxt))
 				{
-					return new BooleanValue(true);
+					return BooleanValue.valueOf(true);
 				}
 				else
 				{
-					return new BooleanValue(false);
+					return BooleanValue.valueOf(false);
 				}
 			}
 			else
@@ -82,11 +82,11 @@ public class INEquivalentExpression extends INBooleanBinaryExpression
 				}
 				else if (rv.boolValue(ctxt))
 				{
-					return new BooleanValue(false);
+					return BooleanValue.valueOf(false);
 				}
 				else
 				{
-					return new BooleanValue(true);
+					return BooleanValue.valueOf(true);
 				}
 			}
         }
@@ -86,7 +86,7 @@ public class INExists1Expression extends INExpression
 				{
 					if (alreadyFound)
 					{
-						return new BooleanValue(false);
+						return BooleanValue.valueOf(false);
 					}
 
 					alreadyFound = true;
@@ -102,7 +102,7 @@ public class INExists1Expression extends INExpression
 			}
 		}
 
-		return new BooleanValue(alreadyFound);
+		return BooleanValue.valueOf(alreadyFound);
 	}
 
 	@Override
@@ -29,16 +29,15 @@ import com.fujitsu.vdmj.in.patterns.INMultipleBind;
 import com.fujitsu.vdmj.in.patterns.INMultipleBindList;
 import com.fujitsu.vdmj.in.patterns.INPattern;
 import com.fujitsu.vdmj.lex.LexLocation;
+import com.fujitsu.vdmj.runtime.BindingEvaluator;
+import com.fujitsu.vdmj.runtime.BindingEvaluator.Binding;
 import com.fujitsu.vdmj.runtime.Context;
 import com.fujitsu.vdmj.runtime.ValueException;
 import com.fujitsu.vdmj.values.BooleanValue;
-import com.fujitsu.vdmj.values.NameValuePair;
-import com.fujitsu.vdmj.values.NameValuePairList;
 import com.fujitsu.vdmj.values.Quantifier;
 import com.fujitsu.vdmj.values.QuantifierList;
 import com.fujitsu.vdmj.values.UndefinedValue;
 import com.fujitsu.vdmj.values.Value;
-import com.fujitsu.vdmj.values.ValueList;
 
 public class INExistsExpression extends INExpression
 {
@@ -79,7 +78,7 @@ public class INExistsExpression extends INExpression
 			{
 				if (bindsUsed)
 				{
-					ValueList bvals = mb.getBindValues(ctxt, false);
+					Iterable<Value> bvals = mb.getBindValueSource(ctxt);
 
 					for (INPattern p: mb.plist)
 					{
@@ -101,75 +100,82 @@ public class INExistsExpression extends INExpression
 
 			quantifiers.init(ctxt, true);
 
-			while (quantifiers.hasNext())
-			{
-				Context evalContext = new Context(location, "exists", ctxt);
-				NameValuePairList nvpl = quantifiers.next();
-				boolean matches = true;
+			BindingEvaluator<Value> evaluator = new BindingEvaluator<Value>(
+				quantifiers, ctxt, location, "exists",
+				evalContext -> predicate.eval(evalContext),
+				result -> isFinal(result, ctxt));
 
-				for (NameValuePair nvp: nvpl)
+			try
+			{
+				while (evaluator.hasNext())
 				{
-					Value v = evalContext.get(nvp.name);
-
-					if (v == null)
-					{
-						evalContext.put(nvp.name, nvp.value);
-					}
-					else
-					{
-						if (!v.equals(nvp.value))
-						{
-							matches = false;
-							break;	// This quantifier set does not match
-						}
-					}
-				}
+					Binding<Value> binding = evaluator.next();
 
-				try
-				{
-					if (matches)
+					try
 					{
-						Value result = predicate.eval(evalContext);
-						hasUndefined = hasUndefined || result.isUndefined();
-						
-						if (result.isDefined())
+						if (binding.matches)
 						{
-							if (result.boolValue(ctxt))
+							Value result = binding.getValue();
+							hasUndefined = hasUndefined || result.isUndefined();
+							
+							if (result.isDefined())
 							{
-								if (globals != null)
+								if (result.boolValue(ctxt))
 								{
-									globals.setWitness(evalContext);
+									if (globals != null)
+									{
+										globals.setWitness(binding.context);
+									}
+									
+									return BooleanValue.valueOf(true);
 								}
-								
-								return new BooleanValue(true);
-							}
-							else	// result is false
-							{
-								if (!bindsUsed)
+								else	// result is false
 								{
-									return new BooleanValue(false);
+									if (!bindsUsed)
+									{
+										return BooleanValue.valueOf(false);
+									}
 								}
 							}
 						}
 					}
-				}
-				catch (ValueException e)
-				{
-					predicate.abort(e);
+					catch (ValueException e)
+					{
+						predicate.abort(e);
+					}
 				}
 			}
+			finally
+			{
+				evaluator.close();
+			}
 		}
 	    catch (ValueException e)
 	    {
 	    	abort(e);
 	    }
 
-		if (hasUndefined || (globals != null && !bindList.hasAllValues()))
+		if (hasUndefined || (globals != null && !bindList.hasAllValues(globals)))
 		{
 			return new UndefinedValue();
 		}
 		
-		return new BooleanValue(false);
+		return BooleanValue.valueOf(false);
+	}
+
+	/**
+	 * A result that ends the evaluation, so that parallel bindings can stop early.
+	 */
+	private boolean isFinal(Value result, Context ctxt)
+	{
+		try
+		{
+			return result.isDefined() && (result.boolValue(ctxt) || !bindsUsed);
+		}
+		catch (ValueException e)
+		{
+			return true;	// Not a bool, so aborts
+		}
 	}
 
 	@Override
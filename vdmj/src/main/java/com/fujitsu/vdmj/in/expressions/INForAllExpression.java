@@ -30,17 +30,16 @@ import com.fujitsu.vdmj.in.patterns.INMultipleBind;
 import com.fujitsu.vdmj.in.patterns.INMultipleBindList;
 import com.fujitsu.vdmj.in.patterns.INPattern;
 import com.fujitsu.vdmj.lex.LexLocation;
+import com.fujitsu.vdmj.runtime.BindingEvaluator;
+import com.fujitsu.vdmj.runtime.BindingEvaluator.Binding;
 import com.fujitsu.vdmj.runtime.Context;
 import com.fujitsu.vdmj.runtime.ValueException;
 import com.fujitsu.vdmj.util.Utils;
 import com.fujitsu.vdmj.values.BooleanValue;
-import com.fujitsu.vdmj.values.NameValuePair;
-import com.fujitsu.vdmj.values.NameValuePairList;
 import com.fujitsu.vdmj.values.Quantifier;
 import com.fujitsu.vdmj.values.QuantifierList;
 import com.fujitsu.vdmj.values.UndefinedValue;
 import com.fujitsu.vdmj.values.Value;
-import com.fujitsu.vdmj.values.ValueList;
 
 public class INForAllExpression extends INExpression
 {
@@ -81,7 +80,7 @@ public class INForAllExpression extends INExpression
 			{
 				if (bindsUsed)
 				{
-					ValueList bvals = mb.getBindValues(ctxt, false);
+					Iterable<Value> bvals = mb.getBindValueSource(ctxt);
 
 					for (INPattern p: mb.plist)
 					{
@@ -103,75 +102,82 @@ public class INForAllExpression extends INExpression
 
 			quantifiers.init(ctxt, false);
 
-			while (quantifiers.hasNext())
-			{
-				Context evalContext = new Context(location, "forall", ctxt);
-				NameValuePairList nvpl = quantifiers.next();
-				boolean matches = true;
+			BindingEvaluator<Value> evaluator = new BindingEvaluator<Value>(
+				quantifiers, ctxt, location, "forall",
+				evalContext -> predicate.eval(evalContext),
+				result -> isFinal(result, ctxt));
 
-				for (NameValuePair nvp: nvpl)
+			try
+			{
+				while (evaluator.hasNext())
 				{
-					Value v = evalContext.get(nvp.name);
-
-					if (v == null)
-					{
-						evalContext.put(nvp.name, nvp.value);
-					}
-					else
-					{
-						if (!v.equals(nvp.value))
-						{
-							matches = false;
-							break;	// This quantifier set does not match
-						}
-					}
-				}
+					Binding<Value> binding = evaluator.next();
 
-				try
-				{
-					if (matches)
+					try
 					{
-						Value result = predicate.eval(evalContext);
-						hasUndefined = hasUndefined || result.isUndefined();
-						
-						if (result.isDefined())
+						if (binding.matches)
 						{
-							if (!result.boolValue(ctxt))
+							Value result = binding.getValue();
+							hasUndefined = hasUndefined || result.isUndefined();
+							
+							if (result.isDefined())
 							{
-								if (globals != null)
+								if (!result.boolValue(ctxt))
 								{
-									globals.setCounterexample(evalContext);
+									if (globals != null)
+									{
+										globals.setCounterexample(binding.context);
+									}
+									
+									return BooleanValue.valueOf(false);
 								}
-								
-								return new BooleanValue(false);
-							}
-							else	// result is true
-							{
-								if (!bindsUsed)
+								else	// result is true
 								{
-									return new BooleanValue(true);
+									if (!bindsUsed)
+									{
+										return BooleanValue.valueOf(true);
+									}
 								}
 							}
 						}
 					}
-				}
-				catch (ValueException e)
-				{
-					predicate.abort(e);
+					catch (ValueException e)
+					{
+						predicate.abort(e);
+					}
 				}
 			}
+			finally
+			{
+				evaluator.close();
+			}
 		}
 	    catch (ValueException e)
 	    {
 	    	return abort(e);
 	    }
 
-		if (hasUndefined || (globals != null && !bindList.hasAllValues()))
+		if (hasUndefined || (globals != null && !bindList.hasAllValues(globals)))
 		{
 			return new UndefinedValue();
 		}
 		
-		return new BooleanValue(true);
+		return BooleanValue.valueOf(true);
+	}
+
+	/**
+	 * A result that ends the evaluation, so that parallel bindings can stop early.
+	 */
+	private boolean isFinal(Value result, Context ctxt)
+	{
+		try
+		{
+			return result.isDefined() && (!result.boolValue(ctxt) || !bindsUsed);
+		}
+		catch (ValueException e)
+		{
+			return true;	// Not a bool, so aborts
+		}
 	}
 
 	@Override
@@ -65,7 +65,7 @@ public class INImpliesExpression extends INBooleanBinaryExpression
 				}
 				else if (rv.boolValue(ctxt))
 				{
-					return new BooleanValue(true);
+					return BooleanValue.valueOf(true);
 				}
 				else
 				{
@@ -82,16 +82,16 @@ public class INImpliesExpression extends INBooleanBinaryExpression
 				}
 				else if (rv.boolValue(ctxt))
 				{
-					return new BooleanValue(true);
+					return BooleanValue.valueOf(true);
 				}
 				else
 				{
-					return new BooleanValue(false);
+					return BooleanValue.valueOf(false);
 				}
 			}
 			else
 			{
-				return new BooleanValue(true);
+				return BooleanValue.valueOf(true);
 			}
 		}	
 		catch (ValueException e)
@@ -77,20 +77,20 @@ public class INIsExpression extends INExpression
     				{
     					// NB. we skip the DTC enabled check here
     					v.convertValueTo(typedef.getType(), ctxt);
-    					return new BooleanValue(true);
+    					return BooleanValue.valueOf(true);
     				}
     			}
     			else if (v.isType(RecordValue.class))
     			{
     				RecordValue rv = v.recordValue(ctxt);
-    				return new BooleanValue(rv.type.name.equals(typename));
+    				return BooleanValue.valueOf(rv.type.name.equals(typename));
     			}
     		}
     		else
     		{
     			// NB. we skip the DTC enabled check here
    				v.convertValueTo(basictype, ctxt);
-   				return new BooleanValue(true);
+   				return BooleanValue.valueOf(true);
     		}
 		}
 		catch (ContextException ex)
@@ -105,7 +105,7 @@ public class INIsExpression extends INExpression
 			// return false...
 		}
 
-		return new BooleanValue(false);
+		return BooleanValue.valueOf(false);
 	}
 
 	@Override
@@ -59,11 +59,11 @@ public class INIsOfBaseClassExpression extends INExpression
 
 			if (!(v instanceof ObjectValue))
 			{
-				return new BooleanValue(false);
+				return BooleanValue.valueOf(false);
 			}
 
 			ObjectValue ov = v.objectValue(ctxt);
-			return new BooleanValue(search(ov));
+			return BooleanValue.valueOf(search(ov));
 		}
 		catch (ValueException e)
 		{
@@ -58,11 +58,11 @@ public class INIsOfClassExpression extends INExpression
 
 			if (!(v instanceof ObjectValue))
 			{
-				return new BooleanValue(false);
+				return BooleanValue.valueOf(false);
 			}
 
 			ObjectValue ov = v.objectValue(ctxt);
-			return new BooleanValue(isOfClass(ov, classname.getName()));
+			return BooleanValue.valueOf(isOfClass(ov, classname.getName()));
 		}
 		catch (ValueException e)
 		{
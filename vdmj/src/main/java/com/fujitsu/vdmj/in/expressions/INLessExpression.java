@@ -54,7 +54,7 @@ public class INLessExpression extends INNumericBinaryExpression
 			
 			if (cmp != Integer.MIN_VALUE)	// Indicates comparable
 			{
-				return new BooleanValue(cmp < 0);
+				return BooleanValue.valueOf(cmp < 0);
 			}
 		}
 
@@ -29,12 +29,12 @@ import com.fujitsu.vdmj.in.patterns.INMultipleBind;
 import com.fujitsu.vdmj.in.patterns.INMultipleBindList;
 import com.fujitsu.vdmj.in.patterns.INPattern;
 import com.fujitsu.vdmj.lex.LexLocation;
+import com.fujitsu.vdmj.runtime.BindingEvaluator;
+import com.fujitsu.vdmj.runtime.BindingEvaluator.Binding;
 import com.fujitsu.vdmj.runtime.Context;
 import com.fujitsu.vdmj.runtime.ValueException;
 import com.fujitsu.vdmj.util.Utils;
 import com.fujitsu.vdmj.values.MapValue;
-import com.fujitsu.vdmj.values.NameValuePair;
-import com.fujitsu.vdmj.values.NameValuePairList;
 import com.fujitsu.vdmj.values.Quantifier;
 import com.fujitsu.vdmj.values.QuantifierList;
 import com.fujitsu.vdmj.values.Value;
@@ -87,52 +87,45 @@ public class INMapCompExpression extends INMapExpression
 
 			quantifiers.init(ctxt, false);
 
-			while (quantifiers.hasNext())
-			{
-				Context evalContext = new Context(location, "map comprehension", ctxt);
-				NameValuePairList nvpl = quantifiers.next();
-				boolean matches = true;
+			BindingEvaluator<Value[]> evaluator = new BindingEvaluator<Value[]>(
+				quantifiers, ctxt, location, "map comprehension",
+				evalContext -> maplet(evalContext, ctxt),
+				result -> false);
 
-				for (NameValuePair nvp: nvpl)
+			try
+			{
+				while (evaluator.hasNext())
 				{
-					Value v = evalContext.get(nvp.name);
+					Binding<Value[]> binding = evaluator.next();
 
-					if (v == null)
+					try
 					{
-						evalContext.put(nvp.name, nvp.value);
-					}
-					else
-					{
-						if (!v.equals(nvp.value))
+						if (binding.matches)
 						{
-							matches = false;
-							break;	// This quantifier set does not match
+							Value[] maplet = binding.getValue();
+
+							if (maplet != null)		// Predicate was true
+							{
+								Value dom = maplet[0];
+								Value rng = maplet[1];
+								Value old = map.put(dom, rng);
+
+								if (old != null && !old.equals(rng))
+								{
+									abort(4016, "Duplicate map keys have different values: " + dom, ctxt);
+								}
+							}
 						}
 					}
-				}
-
-				try
-				{
-					if (matches &&
-						(predicate == null ||
-						 predicate.eval(evalContext).boolValue(ctxt)))
+					catch (ValueException e)
 					{
-						Value dom = first.left.eval(evalContext);
-						Value rng = first.right.eval(evalContext);
-						first.location.hit();
-
-						Value old = map.put(dom, rng);
-
-						if (old != null && !old.equals(rng))
-						{
-							abort(4016, "Duplicate map keys have different values: " + dom, ctxt);
-						}
+						predicate.abort(e);
 					}
 				}
-				catch (ValueException e)
-				{
-					predicate.abort(e);
-				}
+			}
+			finally
+			{
+				evaluator.close();
 			}
 		}
 	    catch (ValueException e)
@@ -143,6 +136,25 @@ public class INMapCompExpression extends INMapExpression
 		return new MapValue(map);
 	}
 
+	/**
+	 * Evaluate one binding, returning the domain and range values, or null if the
+	 * predicate is false.
+	 */
+	private Value[] maplet(Context evalContext, Context ctxt) throws ValueException
+	{
+		if (predicate == null || predicate.eval(evalContext).boolValue(ctxt))
+		{
+			Value dom = first.left.eval(evalContext);
+			Value rng = first.right.eval(evalContext);
+			first.location.hit();
+			return new Value[] { dom, rng };
+		}
+		else
+		{
+			return null;
+		}
+	}
+
 	@Override
 	public <R, S> R apply(INExpressionVisitor<R, S> visitor, S arg)
 	{
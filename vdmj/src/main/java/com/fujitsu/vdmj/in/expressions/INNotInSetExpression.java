@@ -51,7 +51,7 @@ public class INNotInSetExpression extends INBinaryExpression
 
 		try
 		{
-			return new BooleanValue(!set.setValue(ctxt).contains(elem));
+			return BooleanValue.valueOf(!set.setValue(ctxt).contains(elem));
 		}
 		catch (ValueException e)
 		{
@@ -65,7 +65,7 @@ public class INOrExpression extends INBooleanBinaryExpression
 				}
 				else if (rv.boolValue(ctxt))
 				{
-					return new BooleanValue(true);
+					return BooleanValue.valueOf(true);
 				}
 				else
 				{
@@ -74,7 +74,7 @@ public class INOrExpression extends INBooleanBinaryExpression
 			}
 			else if (lv.boolValue(ctxt))
 			{
-				return new BooleanValue(true);
+				return BooleanValue.valueOf(true);
 			}
 			else
 			{
@@ -86,11 +86,11 @@ public class INOrExpression extends INBooleanBinaryExpression
 				}
 				else if (rv.boolValue(ctxt))
 				{
-					return new BooleanValue(true);
+					return BooleanValue.valueOf(true);
 				}
 				else
 				{
-					return new BooleanValue(false);
+					return BooleanValue.valueOf(false);
 				}
 			}
 		}
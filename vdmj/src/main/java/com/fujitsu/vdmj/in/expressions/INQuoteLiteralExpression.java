@@ -35,11 +35,13 @@ public class INQuoteLiteralExpression extends INExpression
 {
 	private static final long serialVersionUID = 1L;
 	public final LexQuoteToken type;
+	private final QuoteValue quote;
 
 	public INQuoteLiteralExpression(LexLocation location, LexQuoteToken type)
 	{
 		super(location);
 		this.type = type;
+		this.quote = new QuoteValue(type.value);	// Values are immutable
 	}
 
 	@Override
@@ -52,7 +54,7 @@ public class INQuoteLiteralExpression extends INExpression
 	public Value eval(Context ctxt)
 	{
 		breakpoint.check(location, ctxt);
-		return new QuoteValue(type.value);
+		return quote;
 	}
 
 	@Override
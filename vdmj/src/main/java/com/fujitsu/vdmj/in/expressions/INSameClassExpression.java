@@ -59,13 +59,13 @@ public class INSameClassExpression extends INExpression
 			if (!l.isType(ObjectValue.class) ||
 				!r.isType(ObjectValue.class))
 			{
-				return new BooleanValue(false);
+				return BooleanValue.valueOf(false);
 			}
 
 			ObjectValue lv = l.objectValue(ctxt);
 			ObjectValue rv = r.objectValue(ctxt);
 
-			return new BooleanValue(lv.type.equals(rv.type));
+			return BooleanValue.valueOf(lv.type.equals(rv.type));
 		}
 		catch (ValueException e)
 		{
@@ -29,11 +29,11 @@ import com.fujitsu.vdmj.in.patterns.INMultipleBind;
 import com.fujitsu.vdmj.in.patterns.INMultipleBindList;
 import com.fujitsu.vdmj.in.patterns.INPattern;
 import com.fujitsu.vdmj.lex.LexLocation;
+import com.fujitsu.vdmj.runtime.BindingEvaluator;
+import com.fujitsu.vdmj.runtime.BindingEvaluator.Binding;
 import com.fujitsu.vdmj.runtime.Context;
 import com.fujitsu.vdmj.runtime.ValueException;
 import com.fujitsu.vdmj.util.Utils;
-import com.fujitsu.vdmj.values.NameValuePair;
-import com.fujitsu.vdmj.values.NameValuePairList;
 import com.fujitsu.vdmj.values.Quantifier;
 import com.fujitsu.vdmj.values.QuantifierList;
 import com.fujitsu.vdmj.values.SetValue;
@@ -87,43 +87,40 @@ public class INSetCompExpression extends INSetExpression
 
 			quantifiers.init(ctxt, false);
 
-			while (quantifiers.hasNext())
-			{
-				Context evalContext = new Context(location, "set comprehension", ctxt);
-				NameValuePairList nvpl = quantifiers.next();
-				boolean matches = true;
+			BindingEvaluator<Value> evaluator = new BindingEvaluator<Value>(
+				quantifiers, ctxt, location, "set comprehension",
+				evalContext ->
+					(predicate == null || predicate.eval(evalContext).boolValue(ctxt)) ?
+						first.eval(evalContext) : null,
+				result -> false);
 
-				for (NameValuePair nvp: nvpl)
+			try
+			{
+				while (evaluator.hasNext())
 				{
-					Value v = evalContext.get(nvp.name);
+					Binding<Value> binding = evaluator.next();
 
-					if (v == null)
-					{
-						evalContext.put(nvp.name, nvp.value);
-					}
-					else
+					try
 					{
-						if (!v.equals(nvp.value))
+						if (binding.matches)
 						{
-							matches = false;
-							break;	// This quantifier set does not match
+							Value result = binding.getValue();
+
+							if (result != null)		// Predicate was true
+							{
+								set.add(result);
+							}
 						}
 					}
-				}
-
-				try
-				{
-					if (matches &&
-						(predicate == null ||
-						 predicate.eval(evalContext).boolValue(ctxt)))
+					catch (ValueException e)
 					{
-						set.add(first.eval(evalContext));
+						predicate.abort(e);
 					}
 				}
-				catch (ValueException e)
-				{
-					predicate.abort(e);
-				}
+			}
+			finally
+			{
+				evaluator.close();
 			}
 
 			return new SetValue(set);
@@ -65,7 +65,7 @@ public class INSetRangeExpression extends INSetExpression
 
     		for (long i=from; i<= to; i++)
     		{
-    			set.addSorted(new IntegerValue(i));
+    			set.addSorted(IntegerValue.valueOf(i));
     		}
 
     		return new SetValue(set, false);
@@ -67,7 +67,7 @@ public class INStateInitExpression extends INExpression
 				return invariant.eval(location, rv, ctxt);
 			}
 
-			return new BooleanValue(true);
+			return BooleanValue.valueOf(true);
 		}
 		catch (ValueException e)
 		{
@@ -26,6 +26,11 @@ package com.fujitsu.vdmj.in.patterns;
 
 import com.fujitsu.vdmj.runtime.Context;
 
+/**
+ * The results of a QuickCheck evaluation that are set by the forall and exists
+ * expressions of a PO. There is one shared instance, but QuickCheck can create
+ * others so that POs can be checked in parallel, each with its own globals.
+ */
 public class INBindingGlobals
 {
 	private static INBindingGlobals INSTANCE = null;
@@ -44,7 +49,7 @@ public class INBindingGlobals
 	private Context bindWitness = null;
 	private boolean bindAllValues = false;
 
-	private INBindingGlobals()
+	public INBindingGlobals()
 	{
 		clear();
 	}
@@ -69,6 +69,15 @@ public abstract class INMultipleBind extends INNode
 	/** Get a list of all the possible values to bind the variables to. */ 
 	abstract public ValueList getBindValues(Context ctxt, boolean permuted) throws ValueException;
 
+	/**
+	 * Get all the possible values to bind the variables to, for a caller that may stop
+	 * before the end. By default, this is the list from getBindValues.
+	 */
+	public Iterable<Value> getBindValueSource(Context ctxt) throws ValueException
+	{
+		return getBindValues(ctxt, false);
+	}
+
 	@Override
 	public Value abort(ValueException ve)
 	{
@@ -47,10 +47,8 @@ public class INMultipleBindList extends INMappedList<TCMultipleBind, INMultipleB
 	 * have all values (explicitly). This is used in forall and exists expressions
 	 * to set the INBindingGlobals "maybe" flag. 
 	 */
-	public boolean hasAllValues()
+	public boolean hasAllValues(INBindingGlobals globals)
 	{
-		INBindingGlobals globals = INBindingGlobals.getInstance();
-		
 		if (globals.hasAllValues())
 		{
 			return true;
@@ -27,6 +27,7 @@ package com.fujitsu.vdmj.in.patterns;
 import com.fujitsu.vdmj.config.Properties;
 import com.fujitsu.vdmj.in.patterns.visitors.INMultipleBindVisitor;
 import com.fujitsu.vdmj.in.types.visitors.INGetAllValuesVisitor;
+import com.fujitsu.vdmj.in.types.visitors.INIterateAllValuesVisitor;
 import com.fujitsu.vdmj.in.types.visitors.INTypeSizeVisitor;
 import com.fujitsu.vdmj.messages.InternalException;
 import com.fujitsu.vdmj.runtime.Context;
@@ -34,11 +35,16 @@ import com.fujitsu.vdmj.runtime.ContextException;
 import com.fujitsu.vdmj.runtime.ValueException;
 import com.fujitsu.vdmj.tc.types.TCType;
 import com.fujitsu.vdmj.tc.types.visitors.TCParameterCollector;
+import com.fujitsu.vdmj.values.Value;
 import com.fujitsu.vdmj.values.ValueList;
 
 public class INMultipleTypeBind extends INMultipleBind
 {
 	private static final long serialVersionUID = 1L;
+
+	/** Type binds larger than this are iterated by getBindValueSource, not expanded */
+	private static final long ITERATE_SIZE = 1000;
+
 	public final TCType type;
 	public final boolean hasTypeParams;
 	
@@ -77,27 +83,72 @@ public class INMultipleTypeBind extends INMultipleBind
 			return bindValues;		// Should be exactly the same
 		}
 		
+		try
+		{
+			getBindSize(ctxt);
+	   		bindValues = type.apply(new INGetAllValuesVisitor(), ctxt);
+	   		bindPermuted = permuted;
+	   		return bindValues;
+		}
+		catch (InternalException e)		// Used while visitors don't have exceptions
+		{
+			throw new ValueException(e.number, e.getMessage(), ctxt);
+		}
+	}
+
+	/**
+	 * Large type binds produce their values as they are needed, so that a quantifier
+	 * that stops early does not have to expand the whole type, and the values do not
+	 * all have to be held in memory. Smaller binds use the (cached) list of values.
+	 */
+	@Override
+	public Iterable<Value> getBindValueSource(Context ctxt) throws ValueException
+	{
+		if (setter != null && setter.hasOverride())
+		{
+			return setter.getBindValues();
+		}
+
+		if (bindValues != null && !hasTypeParams)
+		{
+			return bindValues;
+		}
+
+		try
+		{
+	   		if (getBindSize(ctxt) <= ITERATE_SIZE)
+	   		{
+	   			return getBindValues(ctxt, false);
+	   		}
+
+	   		return type.apply(new INIterateAllValuesVisitor(), ctxt);
+		}
+		catch (InternalException e)		// Used while visitors don't have exceptions
+		{
+			throw new ValueException(e.number, e.getMessage(), ctxt);
+		}
+	}
+
+	/**
+	 * The number of values of the type, which must be within vdmj.in.typebind_limit.
+	 */
+	private long getBindSize(Context ctxt)
+	{
 		try
 		{
 			long size = type.apply(new INTypeSizeVisitor(), ctxt);
-			
+
 	   		if (size > Properties.in_typebind_limit)
 			{
 				throw new ContextException(5039, "Cannot evaluate type bind of size " + size, location, ctxt);
 			}
 
-	   		bindValues = type.apply(new INGetAllValuesVisitor(), ctxt);
-	   		bindPermuted = permuted;
-	   		return bindValues;
+	   		return size;
 		}
 		catch (ArithmeticException e)
 		{
 			throw new ContextException(5040, "Cannot evaluate type bind, size exceeds long", location, ctxt);
 		}
-		catch (InternalException e)		// Used while visitors don't have exceptions
-		{
-			throw new ValueException(e.number, e.getMessage(), ctxt);
-		}
 	}
 
 	@Override
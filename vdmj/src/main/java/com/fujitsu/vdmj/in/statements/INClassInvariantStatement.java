@@ -59,7 +59,7 @@ public class INClassInvariantStatement extends INStatement
 			{
 				if (!invdef.expression.eval(ctxt).boolValue(ctxt))
 				{
-					return new BooleanValue(false);
+					return BooleanValue.valueOf(false);
 				}
 			}
 			catch (ValueException e)
@@ -68,7 +68,7 @@ public class INClassInvariantStatement extends INStatement
 			}
 		}
 
-		return new BooleanValue(true);
+		return BooleanValue.valueOf(true);
 	}
 
 	@Override
@@ -91,7 +91,7 @@ public class INForIndexStatement extends INStatement
 				 value += bval)
 			{
 				Context evalContext = new Context(location, "for index", ctxt);
-				evalContext.put(var, new IntegerValue(value));
+				evalContext.put(var, IntegerValue.valueOf(value));
 
 				invariants.check(evalContext, true);
 				Value rv = statement.eval(evalContext);
@@ -105,7 +105,7 @@ public class INForIndexStatement extends INStatement
 
 			// Check after loop, with the loop variable one beyond the end
 			Context evalContext = new Context(location, "for index", ctxt);
-			evalContext.put(var, new IntegerValue(value));
+			evalContext.put(var, IntegerValue.valueOf(value));
 			invariants.check(evalContext, true);
 		}
 		catch (ValueException e)
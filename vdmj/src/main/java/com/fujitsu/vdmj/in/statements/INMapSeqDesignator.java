@@ -33,6 +33,7 @@ import com.fujitsu.vdmj.values.InvariantValue;
 import com.fujitsu.vdmj.values.InvariantValueListener;
 import com.fujitsu.vdmj.values.MapValue;
 import com.fujitsu.vdmj.values.SeqValue;
+import com.fujitsu.vdmj.values.StateSnapshot;
 import com.fujitsu.vdmj.values.UpdatableValue;
 import com.fujitsu.vdmj.values.Value;
 import com.fujitsu.vdmj.values.ValueList;
@@ -85,6 +86,7 @@ public class INMapSeqDesignator extends INStateDesignator
 
 					UpdatableValue ur = (UpdatableValue)root;
 					UpdatableValue uresult = UpdatableValue.factory(ur.listeners, mapType.to);
+					StateSnapshot.adding(ur, map, index);
 					map.put(index, uresult);
 
 					if (ur.getValue() instanceof InvariantValue)
@@ -111,6 +113,7 @@ public class INMapSeqDesignator extends INStateDesignator
 
 						UpdatableValue ur = (UpdatableValue)root;
 						UpdatableValue uresult = UpdatableValue.factory(ur.listeners, seqType.seqof);
+						StateSnapshot.adding(ur, seq);
 						seq.add(uresult);
 
 						if (ur.getValue() instanceof InvariantValue)
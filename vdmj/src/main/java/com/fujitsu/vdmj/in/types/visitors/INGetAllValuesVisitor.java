@@ -32,6 +32,7 @@ import com.fujitsu.vdmj.in.patterns.INPattern;
 import com.fujitsu.vdmj.messages.InternalException;
 import com.fujitsu.vdmj.runtime.Breakpoint;
 import com.fujitsu.vdmj.runtime.Context;
+import com.fujitsu.vdmj.runtime.ContextException;
 import com.fujitsu.vdmj.runtime.ExceptionHandler;
 import com.fujitsu.vdmj.runtime.ValueException;
 import com.fujitsu.vdmj.tc.lex.TCNameToken;
@@ -102,8 +103,8 @@ public class INGetAllValuesVisitor extends TCTypeVisitor<ValueList, Context>
 	public ValueList caseBooleanType(TCBooleanType type, Context ctxt)
 	{
 		ValueList v = new ValueList();
-		v.add(new BooleanValue(true));
-		v.add(new BooleanValue(false));
+		v.add(BooleanValue.valueOf(true));
+		v.add(BooleanValue.valueOf(false));
 		return v;
 	}
 
@@ -220,7 +221,7 @@ public class INGetAllValuesVisitor extends TCTypeVisitor<ValueList, Context>
 	public ValueList caseOptionalType(TCOptionalType type, Context ctxt)
 	{
 		ValueList list = type.type.apply(this, ctxt);
-		list.add(new NilValue());
+		list.add(NilValue.valueOf());
 		return list;
 	}
 
@@ -473,10 +474,17 @@ public class INGetAllValuesVisitor extends TCTypeVisitor<ValueList, Context>
 	}
 	
 	/**
-	 * Check whether we should drop into the debugger for long expansions.
+	 * Check whether we should drop into the debugger for long expansions, or stop
+	 * because this thread has been terminated. INIterateAllValuesVisitor also uses this.
 	 */
-	private void checkBreakpoint(TCType type, Breakpoint breakpoint, Context ctxt)
+	static void checkBreakpoint(TCType type, Breakpoint breakpoint, Context ctxt)
 	{
+		if (ctxt.threadState != null && ctxt.threadState.isTerminating())
+		{
+			ctxt.threadState.setTerminate(false);
+			ContextException.throwUserCancel(ctxt.location, ctxt);
+		}
+
 		// We check the interrupt level here, rather than letting the check
 		// method do it, to avoid incrementing the hit count for the breakpoint
 		// too many times.
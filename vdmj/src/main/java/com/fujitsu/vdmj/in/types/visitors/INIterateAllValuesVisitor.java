@@ -0,0 +1,358 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.in.types.visitors;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Vector;
+
+import com.fujitsu.vdmj.runtime.Breakpoint;
+import com.fujitsu.vdmj.runtime.Context;
+import com.fujitsu.vdmj.runtime.ValueException;
+import com.fujitsu.vdmj.tc.types.TCBracketType;
+import com.fujitsu.vdmj.tc.types.TCField;
+import com.fujitsu.vdmj.tc.types.TCNamedType;
+import com.fujitsu.vdmj.tc.types.TCOptionalType;
+import com.fujitsu.vdmj.tc.types.TCProductType;
+import com.fujitsu.vdmj.tc.types.TCRecordType;
+import com.fujitsu.vdmj.tc.types.TCType;
+import com.fujitsu.vdmj.tc.types.TCTypeList;
+import com.fujitsu.vdmj.tc.types.TCUnionType;
+import com.fujitsu.vdmj.tc.types.visitors.TCTypeVisitor;
+import com.fujitsu.vdmj.values.InvariantValue;
+import com.fujitsu.vdmj.values.NilValue;
+import com.fujitsu.vdmj.values.RecordValue;
+import com.fujitsu.vdmj.values.TupleValue;
+import com.fujitsu.vdmj.values.Value;
+import com.fujitsu.vdmj.values.ValueList;
+
+/**
+ * Produce all of the values of a type, in the same order as INGetAllValuesVisitor, but
+ * as an Iterable that creates product, record, union and (unordered) invariant values
+ * as they are needed. So the memory used depends on the sizes of the component types,
+ * rather than the size of their product. Other types, and ordered types which have to
+ * be sorted, are expanded by INGetAllValuesVisitor. Products check for interrupts every
+ * 100 values, as INGetAllValuesVisitor does while it expands them.
+ */
+public class INIterateAllValuesVisitor extends TCTypeVisitor<Iterable<Value>, Context>
+{
+	@Override
+	public Iterable<Value> caseType(TCType type, Context ctxt)
+	{
+		return type.apply(new INGetAllValuesVisitor(), ctxt);
+	}
+
+	@Override
+	public Iterable<Value> caseBracketType(TCBracketType type, Context ctxt)
+	{
+		return type.type.apply(this, ctxt);
+	}
+
+	@Override
+	public Iterable<Value> caseNamedType(TCNamedType type, Context ctxt)
+	{
+		if (type.isOrdered(type.location))
+		{
+			return caseType(type, ctxt);
+		}
+
+		return new Converter(type.type.apply(this, ctxt))
+		{
+			@Override
+			protected Value convert(Value v) throws ValueException
+			{
+				return new InvariantValue(type, v, ctxt);
+			}
+		};
+	}
+
+	@Override
+	public Iterable<Value> caseOptionalType(TCOptionalType type, Context ctxt)
+	{
+		List<Iterable<Value>> members = new Vector<Iterable<Value>>();
+		members.add(type.type.apply(this, ctxt));
+		ValueList nil = new ValueList();
+		nil.add(NilValue.valueOf());
+		members.add(nil);
+		return new Concatenation(members);
+	}
+
+	@Override
+	public Iterable<Value> caseProductType(TCProductType type, Context ctxt)
+	{
+		return ofTypeList(type, type.types, ctxt);
+	}
+
+	@Override
+	public Iterable<Value> caseRecordType(TCRecordType type, Context ctxt)
+	{
+		if (type.isOrdered(type.location))
+		{
+			return caseType(type, ctxt);
+		}
+
+		TCTypeList fieldtypes = new TCTypeList();
+
+		for (TCField f: type.fields)
+		{
+			fieldtypes.add(f.type);
+		}
+
+		return new Converter(ofTypeList(type, fieldtypes, ctxt))
+		{
+			@Override
+			protected Value convert(Value v) throws ValueException
+			{
+				TupleValue tuple = (TupleValue)v;
+				return new RecordValue(type, tuple.values, ctxt);
+			}
+		};
+	}
+
+	@Override
+	public Iterable<Value> caseUnionType(TCUnionType type, Context ctxt)
+	{
+		List<Iterable<Value>> members = new Vector<Iterable<Value>>();
+
+		for (TCType member: type.types)
+		{
+			members.add(member.apply(this, ctxt));
+		}
+
+		return new Concatenation(members);
+	}
+
+	private Iterable<Value> ofTypeList(TCType type, TCTypeList types, Context ctxt)
+	{
+		List<Iterable<Value>> components = new Vector<Iterable<Value>>();
+
+		for (TCType t: types)
+		{
+			components.add(t.apply(this, ctxt));
+		}
+
+		return new Product(components, type, ctxt);
+	}
+
+	/**
+	 * The values of a source, converted one at a time. Values that fail to convert,
+	 * because they do not meet an invariant, are skipped.
+	 */
+	private static abstract class Converter implements Iterable<Value>
+	{
+		private final Iterable<Value> source;
+
+		public Converter(Iterable<Value> source)
+		{
+			this.source = source;
+		}
+
+		abstract protected Value convert(Value v) throws ValueException;
+
+		@Override
+		public Iterator<Value> iterator()
+		{
+			return new Iterator<Value>()
+			{
+				private final Iterator<Value> iter = source.iterator();
+				private Value next = null;
+
+				@Override
+				public boolean hasNext()
+				{
+					while (next == null && iter.hasNext())
+					{
+						try
+						{
+							next = convert(iter.next());
+						}
+						catch (ValueException e)
+						{
+							// Value does not match invariant, so ignore it
+						}
+					}
+
+					return next != null;
+				}
+
+				@Override
+				public Value next()
+				{
+					if (!hasNext())
+					{
+						throw new NoSuchElementException();
+					}
+
+					Value v = next;
+					next = null;
+					return v;
+				}
+			};
+		}
+	}
+
+	/**
+	 * The values of several sources, one after the other.
+	 */
+	private static class Concatenation implements Iterable<Value>
+	{
+		private final List<Iterable<Value>> members;
+
+		public Concatenation(List<Iterable<Value>> members)
+		{
+			this.members = members;
+		}
+
+		@Override
+		public Iterator<Value> iterator()
+		{
+			return new Iterator<Value>()
+			{
+				private final Iterator<Iterable<Value>> member = members.iterator();
+				private Iterator<Value> iter = null;
+
+				@Override
+				public boolean hasNext()
+				{
+					while (iter == null || !iter.hasNext())
+					{
+						if (!member.hasNext())
+						{
+							return false;
+						}
+
+						iter = member.next().iterator();
+					}
+
+					return true;
+				}
+
+				@Override
+				public Value next()
+				{
+					if (!hasNext())
+					{
+						throw new NoSuchElementException();
+					}
+
+					return iter.next();
+				}
+			};
+		}
+	}
+
+	/**
+	 * The tuples of the cartesian product of several sources, with the first varying
+	 * fastest, as with a QuantifierList.
+	 */
+	private static class Product implements Iterable<Value>
+	{
+		private final List<Iterable<Value>> components;
+		private final TCType type;
+		private final Context ctxt;
+
+		public Product(List<Iterable<Value>> components, TCType type, Context ctxt)
+		{
+			this.components = components;
+			this.type = type;
+			this.ctxt = ctxt;
+		}
+
+		@Override
+		public Iterator<Value> iterator()
+		{
+			return new Iterator<Value>()
+			{
+				private final int count = components.size();
+				private final List<Iterator<Value>> iters = new Vector<Iterator<Value>>(count);
+				private final Value[] current = new Value[count];
+				private boolean done = (count == 0);
+				private long check = 0;
+
+				{
+					for (int i=0; i<count && !done; i++)
+					{
+						Iterator<Value> iter = components.get(i).iterator();
+						iters.add(iter);
+
+						if (iter.hasNext())
+						{
+							current[i] = iter.next();
+						}
+						else
+						{
+							done = true;
+						}
+					}
+				}
+
+				@Override
+				public boolean hasNext()
+				{
+					return !done;
+				}
+
+				@Override
+				public Value next()
+				{
+					if (done)
+					{
+						throw new NoSuchElementException();
+					}
+
+					if (++check >= 100)
+					{
+						INGetAllValuesVisitor.checkBreakpoint(type, new Breakpoint(ctxt.location), ctxt);
+						check = 0;
+					}
+
+					TupleValue tuple = new TupleValue(new ValueList(current));
+
+					for (int i=0; i<count; i++)
+					{
+						if (iters.get(i).hasNext())
+						{
+							current[i] = iters.get(i).next();
+							break;
+						}
+
+						if (i == count-1)
+						{
+							done = true;
+						}
+						else
+						{
+							iters.set(i, components.get(i).iterator());
+							current[i] = iters.get(i).next();
+						}
+					}
+
+					return tuple;
+				}
+			};
+		}
+	}
+}
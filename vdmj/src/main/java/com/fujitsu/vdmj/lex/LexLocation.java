@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.fujitsu.vdmj.ast.lex.LexNameList;
 import com.fujitsu.vdmj.ast.lex.LexNameToken;
@@ -53,6 +54,9 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	/** A unique map of LexLocation objects, for rapid searching. */
 	private static Map<LexLocation, LexLocation> uniqueLocations = new HashMap<LexLocation, LexLocation>();
 
+	/** The allLocations entries for each file, in the same order, for coverage. */
+	private static Map<File, List<LexLocation>> fileLocations = new HashMap<File, List<LexLocation>>();
+
 	/** A map of f/op/class names to their lexical span, for coverage. */
 	private static Map<LexNameToken, LexLocation> nameSpans = new HashMap<LexNameToken, LexLocation>();
 
@@ -89,8 +93,12 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	/** The position of the last character of the token. */
 	public final int endPos;
 
-	/** The number of times the location has been executed. */
-	public long hits = 0;
+	/**
+	 * The number of times the location has been executed. This is created on
+	 * the first hit, and is a LongAdder so that VDM-RT threads can update it
+	 * concurrently without losing counts or contending for one field.
+	 */
+	private volatile LongAdder hits = null;
 
 	/**
 	 * Create a location with the given fields.
@@ -110,6 +118,7 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 		{
 			allLocations.add(this);
 			uniqueLocations.put(this, this);
+			getFileLocations(file).add(this);
 		}
 
 		this.range = this;	// Overwritten by setRange
@@ -260,7 +269,44 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	 */
 	public void hit()
 	{
-		if (executable) hits++;
+		if (executable) getCounter().increment();
+	}
+
+	/**
+	 * Adjust the hit count, regardless of whether the location is executable.
+	 */
+	public void addHits(long n)
+	{
+		getCounter().add(n);
+	}
+
+	/**
+	 * The number of times the location has been executed.
+	 */
+	public long getHits()
+	{
+		LongAdder counter = hits;
+		return counter == null ? 0 : counter.sum();
+	}
+
+	private LongAdder getCounter()
+	{
+		LongAdder counter = hits;
+
+		if (counter == null)
+		{
+			synchronized (this)
+			{
+				if (hits == null)
+				{
+					hits = new LongAdder();
+				}
+
+				counter = hits;
+			}
+		}
+
+		return counter;
 	}
 
 	/**
@@ -270,7 +316,68 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	{
 		for (LexLocation loc: allLocations)
 		{
-			loc.hits = 0;
+			LongAdder counter = loc.hits;
+
+			if (counter != null)
+			{
+				counter.reset();
+			}
+		}
+	}
+
+	/**
+	 * The number of locations currently registered, in all files.
+	 */
+	public static int getLocationCount()
+	{
+		return allLocations.size();
+	}
+
+	/**
+	 * Get the list of locations for one file, creating it if necessary.
+	 */
+	private static List<LexLocation> getFileLocations(File file)
+	{
+		List<LexLocation> list = fileLocations.get(file);
+
+		if (list == null)
+		{
+			list = new Vector<LexLocation>();
+			fileLocations.put(file, list);
+		}
+
+		return list;
+	}
+
+	/**
+	 * Get the locations for one file, or an empty list.
+	 */
+	private static List<LexLocation> locationsIn(File file)
+	{
+		List<LexLocation> list = fileLocations.get(file);
+		return list == null ? new Vector<LexLocation>() : list;
+	}
+
+	/**
+	 * Remove a location from its file's list, by identity since positions
+	 * may be duplicated. Removals are usually from the end of the list.
+	 */
+	private static void removeFileLocation(LexLocation loc)
+	{
+		List<LexLocation> list = fileLocations.get(loc.file);
+
+		if (list != null)
+		{
+			ListIterator<LexLocation> it = list.listIterator(list.size());
+
+			while (it.hasPrevious())
+			{
+				if (it.previous() == loc)
+				{
+					it.remove();
+					break;
+				}
+			}
 		}
 	}
 
@@ -293,6 +400,7 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	{
 		allLocations = new Vector<LexLocation>();
 		uniqueLocations = new HashMap<LexLocation, LexLocation>();
+		fileLocations = new HashMap<File, List<LexLocation>>();
 		nameSpans =	new HashMap<LexNameToken, LexLocation>();
 	}
 
@@ -319,6 +427,7 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 			{
 				it.remove();
 				uniqueLocations.remove(l);
+				removeFileLocation(l);
 			}
 		}
 	}
@@ -327,8 +436,7 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	{
 		// Called from LSP's editor when files are changed on the fly.
 
-		ListIterator<LexLocation> it =
-			allLocations.listIterator(allLocations.size());
+		ListIterator<LexLocation> it = allLocations.listIterator();
 
 		while (it.hasNext())
 		{
@@ -340,6 +448,55 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 				uniqueLocations.remove(l);
 			}
 		}
+
+		fileLocations.remove(file);
+		nameSpans.values().removeIf(span -> span.file.equals(file));
+	}
+
+	/**
+	 * The locations and name spans created by parsing one file. These can be saved
+	 * after a parse and restored after a resetLocations, so that the LSP server can
+	 * reuse the AST of a file that has not changed, without re-parsing it.
+	 */
+	public static class FileLocations
+	{
+		private final List<LexLocation> locations;
+		private final Map<LexNameToken, LexLocation> spans;
+
+		private FileLocations(List<LexLocation> locations, Map<LexNameToken, LexLocation> spans)
+		{
+			this.locations = locations;
+			this.spans = spans;
+		}
+	}
+
+	public static FileLocations saveFile(File file)
+	{
+		Map<LexNameToken, LexLocation> spans = new HashMap<LexNameToken, LexLocation>();
+
+		for (Map.Entry<LexNameToken, LexLocation> entry: nameSpans.entrySet())
+		{
+			if (entry.getValue().file.equals(file))
+			{
+				spans.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		return new FileLocations(new Vector<LexLocation>(locationsIn(file)), spans);
+	}
+
+	public static void restoreFile(FileLocations saved)
+	{
+		for (LexLocation l: saved.locations)
+		{
+			l.hits = null;		// As if newly parsed, until the IN tree is built
+			l.executable = false;
+			allLocations.add(l);
+			uniqueLocations.put(l, l);
+			getFileLocations(l.file).add(l);
+		}
+
+		nameSpans.putAll(saved.spans);
 	}
 
 	public static void addSpan(LexNameToken name, LexToken upto)
@@ -389,11 +546,11 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 		int misses = 0;
 		LexLocation span = nameSpans.get(name);
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(span.file))
 		{
 			if (l.executable && l.within(span))
 			{
-				if (l.hits > 0)
+				if (l.getHits() > 0)
     			{
     				hits++;
     			}
@@ -415,11 +572,11 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 
 		LexLocation span = nameSpans.get(name);
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(span.file))
 		{
 			if (l.executable && l.within(span))
 			{
-				return l.hits;
+				return l.getHits();
 			}
 		}
 
@@ -430,9 +587,9 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	{
 		List<Integer> hits = new Vector<Integer>();
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(file))
 		{
-			if (l.hits > 0 && l.file.equals(file))
+			if (l.getHits() > 0)
 			{
 				hits.add(l.startLine);
 			}
@@ -445,9 +602,9 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	{
 		List<Integer> misses = new Vector<Integer>();
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(file))
 		{
-			if (l.hits == 0 && l.file.equals(file))
+			if (l.getHits() == 0)
 			{
 				misses.add(l.startLine);
 			}
@@ -461,9 +618,9 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 		List<Integer> lines = new Vector<Integer>();
 		int last = 0;
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(file))
 		{
-			if (l.executable && l.startLine != last && l.file.equals(file))
+			if (l.executable && l.startLine != last)
 			{
 				lines.add(l.startLine);
 				last = l.startLine;
@@ -478,9 +635,9 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 		Map<Integer, List<LexLocation>> map =
 				new HashMap<Integer, List<LexLocation>>();
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(file))
 		{
-			if (l.executable && l.hits > 0 && l.file.equals(file))
+			if (l.executable && l.getHits() > 0)
 			{
 				List<LexLocation> list = map.get(l.startLine);
 
@@ -502,11 +659,11 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 		int hits = 0;
 		int misses = 0;
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(file))
 		{
-			if (l.file.equals(file) && l.executable)
+			if (l.executable)
 			{
-				if (l.hits > 0)
+				if (l.getHits() > 0)
     			{
     				hits++;
     			}
@@ -526,9 +683,9 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 		Map<Integer, List<LexLocation>> map =
 				new HashMap<Integer, List<LexLocation>>();
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(file))
 		{
-			if (l.executable && l.hits == 0 && l.file.equals(file))
+			if (l.executable && l.getHits() == 0)
 			{
 				List<LexLocation> list = map.get(l.startLine);
 
@@ -549,9 +706,9 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 	{
 		List<LexLocation> locations = new Vector<LexLocation>();
 
-		for (LexLocation l: allLocations)
+		for (LexLocation l: locationsIn(file))
 		{
-			if (l.executable && l.file.equals(file))
+			if (l.executable)
 			{
 				locations.add(l);
 			}
@@ -562,7 +719,21 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 
 	public static void mergeHits(File source, File coverage) throws IOException
 	{
-		List<LexLocation> locations = getSourceLocations(source);
+		Map<Integer, List<LexLocation>> locations = new HashMap<Integer, List<LexLocation>>();
+
+		for (LexLocation l: getSourceLocations(source))		// Only executable locations
+		{
+			List<LexLocation> list = locations.get(l.startLine);
+
+			if (list == null)
+			{
+				list = new Vector<LexLocation>();
+				locations.put(l.startLine, list);
+			}
+
+			list.add(l);
+		}
+
 		BufferedReader br = new BufferedReader(new FileReader(coverage));
 		String line = br.readLine();
 
@@ -581,14 +752,17 @@ public class LexLocation implements Serializable, Comparable<LexLocation>
 				int to   = Integer.parseInt(line.substring(s2+1, s3));
 				int hits = Integer.parseInt(line.substring(s3+1));
 
-				for (LexLocation l: locations)	// Only executable locations
+				List<LexLocation> list = locations.get(lnum);
+
+				if (list != null)
 				{
-					if (l.startLine == lnum &&
-						l.startPos == from &&
-						l.endPos == to)
+					for (LexLocation l: list)
 					{
-						l.hits += hits;
-						break;
+						if (l.startPos == from && l.endPos == to)
+						{
+							l.addHits(hits);
+							break;
+						}
 					}
 				}
 			}
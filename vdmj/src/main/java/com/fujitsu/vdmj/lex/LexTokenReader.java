@@ -1222,7 +1222,7 @@ public class LexTokenReader extends BacktrackInputReader
 	/**
 	 * @return True if the character passed can be the start of a variable name.
 	 */
-	private boolean startOfName(char c)
+	public static boolean startOfName(char c)
 	{
 		if (c < 0x0100)
 		{
@@ -1251,7 +1251,7 @@ public class LexTokenReader extends BacktrackInputReader
 	/**
 	 * @return True if the character passed can be part of a variable name.
 	 */
-	private boolean restOfName(char c)
+	public static boolean restOfName(char c)
 	{
 		if (c < 0x0100)
 		{
@@ -27,15 +27,20 @@ package com.fujitsu.vdmj.mapper;
 import java.io.File;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -65,9 +70,11 @@ public class ClassMapper
 	 */
 	private final Stack<Progress> inProgress = new Stack<Progress>();
 	
+	private final Map<Object, Progress> inProgressIndex = new IdentityHashMap<Object, Progress>();
+	
 	private boolean dumpedProgress = false;
 
-	private final Map<Long, Object> converted = new HashMap<Long, Object>();
+	private final ConvertedMap converted = new ConvertedMap();
 	
 	private long loadTimeMs;
 
@@ -100,6 +107,7 @@ public class ClassMapper
 	public ClassMapper init()
 	{
 		inProgress.clear();
+		inProgressIndex.clear();
 		converted.clear();
 		dumpedProgress = false;
 		
@@ -184,6 +192,17 @@ public class ClassMapper
 		public Constructor<?> constructor;
 		public Method[] setters;
 
+		/** Handles created from the Fields, Constructor and Methods above */
+		public MethodHandle[] ctorGetters;
+		public MethodHandle[] setterGetters;
+		public MethodHandle ctorHandle;
+		public MethodHandle[] setterHandles;
+		public MethodHandle mappedFromSetter;
+
+		/** Progress messages for each field, see Progress */
+		public String[] ctorMessages;
+		public String[] setterMessages;
+
 		public MapParams(int lineNo, Class<?> srcClass, Class<?> destClass,
 				List<Field> ctorFields, List<Field> setterFields, Field mappedFrom, boolean unmapped)
 		{
@@ -688,7 +707,73 @@ public class ClassMapper
 								".set" + name + "(" + argType.getSimpleName() + ")");
 					}
 				}
+				
+				createHandles(mp);
+			}
+		}
+	}
+
+	/**
+	 * Create MethodHandles for the field accesses, constructor and setter calls of a
+	 * mapping, so that convert does not have to use reflection for every object. These
+	 * all take and return Objects, so that convert can use invokeExact.
+	 */
+	private void createHandles(MapParams mp)
+	{
+		if (mp.constructor == null || Arrays.asList(mp.setters).contains(null))
+		{
+			return;		// Errors already reported
+		}
+
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodType getter = MethodType.methodType(Object.class, Object.class);
+		MethodType setter = MethodType.methodType(void.class, Object.class, Object.class);
+
+		try
+		{
+			int count = mp.ctorFields.size();
+			mp.ctorGetters = new MethodHandle[count];
+			mp.ctorMessages = new String[count];
+
+			for (int i = 0; i < count; i++)
+			{
+				Field field = mp.ctorFields.get(i);
+
+				if (field != SELF)
+				{
+					field.setAccessible(true);
+					mp.ctorGetters[i] = lookup.unreflectGetter(field).asType(getter);
+					mp.ctorMessages[i] = "Field " + field.getName();
+				}
 			}
+
+			mp.ctorHandle = lookup.unreflectConstructor(mp.constructor)
+				.asSpreader(Object[].class, count)
+				.asType(MethodType.methodType(Object.class, Object[].class));
+
+			count = mp.setterFields.size();
+			mp.setterGetters = new MethodHandle[count];
+			mp.setterHandles = new MethodHandle[count];
+			mp.setterMessages = new String[count];
+
+			for (int i = 0; i < count; i++)
+			{
+				Field field = mp.setterFields.get(i);
+				field.setAccessible(true);
+				mp.setterGetters[i] = lookup.unreflectGetter(field).asType(getter);
+				mp.setterHandles[i] = lookup.unreflect(mp.setters[i]).asType(setter);
+				mp.setterMessages[i] = "Setter " + field.getName();
+			}
+
+			if (mp.mappedFrom != null)
+			{
+				mp.mappedFrom.setAccessible(true);
+				mp.mappedFromSetter = lookup.unreflectSetter(mp.mappedFrom).asType(setter);
+			}
+		}
+		catch (IllegalAccessException e)
+		{
+			error("Cannot access " + mp.destClass.getSimpleName() + ": " + e.getMessage());
 		}
 	}
 	
@@ -855,9 +940,12 @@ public class ClassMapper
     		}
 		}
 		
+		Progress current = new Progress(source, message);
+		
 		try
 		{
-    		inProgress.push(new Progress(source, message));
+    		inProgress.push(current);
+    		inProgressIndex.putIfAbsent(source, current);
     		
     		Class<?> srcClass = source.getClass();
     		MapParams mp = mappings.get(srcClass);
@@ -879,80 +967,84 @@ public class ClassMapper
     		{
     			result = (T) source;
     		}
+    		else if (mp.ctorHandle == null)
+    		{
+    			throw new Exception("No constructor for " + srcClass + " in " + configFile);
+    		}
     		else
     		{
-    			Object[] args = new Object[mp.ctorFields.size()];
-    			int a = 0;
+    			int ctorCount = mp.ctorGetters.length;
+    			int setterCount = mp.setterGetters.length;
+    			Object[] args = new Object[ctorCount];
+    			Object[] fieldvalues = new Object[ctorCount + setterCount];
     
-    			for (Field field: mp.ctorFields)
+    			for (int a = 0; a < ctorCount; a++)
     			{
-    				if (field == SELF)	// ie. "this"
+    				if (mp.ctorGetters[a] == null)	// ie. "this"
     				{
-    					args[a++] = source;
+    					args[a] = source;
     				}
     				else
     				{
-						field.setAccessible(true);
-    					Object fieldvalue = field.get(source);
+    					Object fieldvalue = get(mp.ctorGetters[a], source);
+    					fieldvalues[a] = fieldvalue;
     					
     					if (isInProgress(fieldvalue) == null)
     					{
-    						args[a++] = convert(fieldvalue, "Field " + field.getName());
+    						args[a] = convert(fieldvalue, mp.ctorMessages[a]);
     					}
     					else
     					{
-    						args[a++] = null;
+    						args[a] = null;
     					}
     				}
     			}
     			
-    			result = (T) mp.constructor.newInstance(args);
-    			int s = 0;
+    			result = (T) construct(mp.ctorHandle, args);
     			
-    			for (Field setter: mp.setterFields)
+    			for (int s = 0; s < setterCount; s++)
     			{
-					setter.setAccessible(true);
-					Object fieldvalue = setter.get(source);
+					Object fieldvalue = get(mp.setterGetters[s], source);
+					fieldvalues[ctorCount + s] = fieldvalue;
 					Object arg = null;
 					
 					if (isInProgress(fieldvalue) == null)
 					{
-						arg = convert(fieldvalue, "Setter " + setter.getName());
+						arg = convert(fieldvalue, mp.setterMessages[s]);
 					}
 					else
 					{
 						arg = null;
 					}
 					
-    				mp.setters[s++].invoke(result, arg);
+    				set(mp.setterHandles[s], result, arg);
     			}
 
-				if (mp.mappedFrom != null)		// Set this field to "this", if it exists
+				if (mp.mappedFromSetter != null)		// Set this field to "this", if it exists
 				{
-					mp.mappedFrom.setAccessible(true);
-					mp.mappedFrom.set(result, source);
+					set(mp.mappedFromSetter, result, source);
 				}
  
-    			for (Field field: mp.ctorFields)
+    			for (int a = 0; a < ctorCount; a++)
     			{
-    				if (field != SELF)
+    				if (mp.ctorGetters[a] != null)
     				{
-    					Progress progress = isInProgress(field.get(source));
+    					Progress progress = isInProgress(fieldvalues[a]);
     
     					if (progress != null)
     					{
-            				progress.updates.add(new Pair(result, field.getName()));
+            				progress.updates.add(new Pair(result, mp.ctorFields.get(a).getName()));
             			}
     				}
     			}
     			 
-    			for (Field field: mp.setterFields)
+    			for (int s = 0; s < setterCount; s++)
     			{
-					Progress progress = isInProgress(field.get(source));
+					Progress progress = isInProgress(fieldvalues[ctorCount + s]);
 
 					if (progress != null)
 					{
-        				progress.updates.add(new Pair(result, field.getName()));
+        				progress.updates.add(new Pair(result, mp.setterFields.get(s).getName()));
         			}
     			}
      		}
@@ -974,6 +1066,11 @@ public class ClassMapper
 		{
 			Progress progress = inProgress.pop();
 			
+			if (inProgressIndex.get(source) == progress)
+			{
+				inProgressIndex.remove(source);
+			}
+			
 			if (!progress.updates.isEmpty())
 			{
 				for (Pair pair: progress.updates)
@@ -1080,26 +1177,59 @@ public class ClassMapper
 	}
 
 	/**
-	 * Check whether an object is already in the process of being converted.
+	 * Check whether an object is already in the process of being converted. This
+	 * returns the outermost Progress for the object, as a search of the stack would.
 	 */
 	private Progress isInProgress(Object source)
 	{
-		for (Progress update: inProgress)
+		return source == null ? null : inProgressIndex.get(source);
+	}
+
+	/**
+	 * Invoke the MethodHandles created by createHandles. Exceptions thrown by the
+	 * target code are wrapped in an InvocationTargetException, as reflection does.
+	 */
+	private Object get(MethodHandle getter, Object source) throws InvocationTargetException
+	{
+		try
 		{
-			if (source == update.source)
-			{
-				return update;
-			}
+			return (Object) getter.invokeExact(source);
+		}
+		catch (Throwable t)
+		{
+			throw new InvocationTargetException(t);
+		}
+	}
+
+	private Object construct(MethodHandle ctor, Object[] args) throws InvocationTargetException
+	{
+		try
+		{
+			return (Object) ctor.invokeExact(args);
+		}
+		catch (Throwable t)
+		{
+			throw new InvocationTargetException(t);
+		}
+	}
+
+	private void set(MethodHandle setter, Object target, Object arg) throws InvocationTargetException
+	{
+		try
+		{
+			setter.invokeExact(target, arg);
+		}
+		catch (Throwable t)
+		{
+			throw new InvocationTargetException(t);
 		}
-		
-		return null;
 	}
 	
 	public int getNodeCount()
 	{
 		return converted.size();
 	}
-	
+
 	/**
 	 * Return the load time of the mappings file. This is zeroed after the first request,
 	 * because the mapping is not re-loaded after the first usage, and so the cost is
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.mapper;
+
+/**
+ * A map from MappedObject IDs to converted objects. This is a simple open addressed
+ * hash table with primitive long keys, because the converted map holds an entry for
+ * every node of every tree, and boxing the keys of a HashMap is a significant cost.
+ * Putting a null value removes the key, as the converted map never holds nulls.
+ */
+class ConvertedMap
+{
+	private static final int INITIAL_SIZE = 1024;
+
+	private long[] keys = new long[INITIAL_SIZE];
+	private Object[] values = new Object[INITIAL_SIZE];
+	private int size = 0;
+
+	public Object get(long key)
+	{
+		int mask = keys.length - 1;
+
+		for (int i = indexOf(key, mask); values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				return values[i];
+			}
+		}
+
+		return null;
+	}
+
+	public void put(long key, Object value)
+	{
+		if (value == null)
+		{
+			remove(key);
+			return;
+		}
+
+		int mask = keys.length - 1;
+		int i = indexOf(key, mask);
+
+		while (values[i] != null)
+		{
+			if (keys[i] == key)
+			{
+				values[i] = value;
+				return;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = value;
+
+		if (++size > keys.length / 2)
+		{
+			resize();
+		}
+	}
+
+	public void remove(long key)
+	{
+		int mask = keys.length - 1;
+		int i = indexOf(key, mask);
+
+		while (values[i] != null && keys[i] != key)
+		{
+			i = (i + 1) & mask;
+		}
+
+		if (values[i] == null)
+		{
+			return;		// Not present
+		}
+
+		values[i] = null;
+		size--;
+
+		// Shift back any following entries that would no longer be found
+
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask)
+		{
+			int home = indexOf(keys[j], mask);
+
+			if (((j - home) & mask) >= ((j - i) & mask))
+			{
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+	}
+
+	public void clear()
+	{
+		keys = new long[INITIAL_SIZE];
+		values = new Object[INITIAL_SIZE];
+		size = 0;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	private void resize()
+	{
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		size = 0;
+
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldValues[i] != null)
+			{
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * The home slot of a key, for a table size mask. This is not private, so that
+	 * tests can find keys that collide.
+	 */
+	static int indexOf(long key, int mask)
+	{
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int)(hash ^ (hash >>> 32)) & mask;
+	}
+}
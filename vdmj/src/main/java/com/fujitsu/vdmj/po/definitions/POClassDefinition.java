@@ -28,6 +28,8 @@ import com.fujitsu.vdmj.lex.LexLocation;
 import com.fujitsu.vdmj.lex.Token;
 import com.fujitsu.vdmj.po.annotations.POAnnotationList;
 import com.fujitsu.vdmj.po.definitions.visitors.PODefinitionVisitor;
+import com.fujitsu.vdmj.po.patterns.visitors.POGetMatchingExpressionVisitor;
+import com.fujitsu.vdmj.po.patterns.visitors.PORemoveIgnoresVisitor;
 import com.fujitsu.vdmj.po.statements.POClassInvariantStatement;
 import com.fujitsu.vdmj.pog.POContextStack;
 import com.fujitsu.vdmj.pog.POGState;
@@ -214,12 +216,13 @@ public class POClassDefinition extends PODefinition
 		ProofObligationList list =
 				(annotations != null) ? annotations.poBefore(this) : new ProofObligationList();
 		
-		Environment env = new PrivateClassEnvironment(tcdef, publicEnv);
-		Environment local = new FlatEnvironment(tcdef.getSelfDefinition(), env);
+		Environment local = getLocalEnvironment(publicEnv);
 
 		for (PODefinition def: definitions)
 		{
 			POSaveStateContext.reset();	// Reset the class state names
+			POGetMatchingExpressionVisitor.init();	// And "any" names, which are per thread
+			PORemoveIgnoresVisitor.init();
 			ctxt.push(new PONameContext(def.getVariableNames()));
 			list.addAll(def.getProofObligations(ctxt, new POGState(), local));
 			progress.makeProgress(1);
@@ -237,6 +240,29 @@ public class POClassDefinition extends PODefinition
 		return list;
 	}
 
+	/**
+	 * The environment for the POG and PO type checks of this class's definitions.
+	 */
+	public Environment getLocalEnvironment(Environment publicEnv)
+	{
+		Environment env = new PrivateClassEnvironment(tcdef, publicEnv);
+		return new FlatEnvironment(tcdef.getSelfDefinition(), env);
+	}
+
+	/**
+	 * Generate the obligations for one definition in this class. This is called by
+	 * POGScheduler threads for a parallel POG.
+	 */
+	public ProofObligationList getProofObligations(PODefinition def, Environment local)
+	{
+		POSaveStateContext.reset();	// Reset the class state names
+		POGetMatchingExpressionVisitor.init();	// And "any" names, which are per thread
+		PORemoveIgnoresVisitor.init();
+		POContextStack ctxt = new POContextStack();
+		ctxt.push(new PONameContext(def.getVariableNames()));
+		return def.getProofObligations(ctxt, new POGState(), local);
+	}
+
 	public PODefinitionList getInvDefs()
 	{
 		// Body of invariant operation is a list of invdefs
@@ -24,12 +24,18 @@
 
 package com.fujitsu.vdmj.po.definitions;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Vector;
+
 import com.fujitsu.vdmj.po.POMappedList;
 import com.fujitsu.vdmj.pog.POContextStack;
+import com.fujitsu.vdmj.pog.POGScheduler;
 import com.fujitsu.vdmj.pog.POGState;
 import com.fujitsu.vdmj.pog.ProofObligationList;
 import com.fujitsu.vdmj.tc.definitions.TCClassDefinition;
 import com.fujitsu.vdmj.tc.definitions.TCClassList;
+import com.fujitsu.vdmj.typechecker.Environment;
 import com.fujitsu.vdmj.typechecker.PublicClassEnvironment;
 import com.fujitsu.vdmj.util.NullProgress;
 import com.fujitsu.vdmj.util.Progress;
@@ -78,6 +84,11 @@ public class POClassList extends POMappedList<TCClassDefinition, POClassDefiniti
 		ProofObligationList obligations = new ProofObligationList();
 		POContextStack.reset();
 		progress.resetProgress();
+
+		if (POGScheduler.isParallel(getTotal()))
+		{
+			return getParallelObligations(progress);
+		}
 		
 		for (POClassDefinition c: this)
 		{
@@ -93,6 +104,54 @@ public class POClassList extends POMappedList<TCClassDefinition, POClassDefiniti
 		return obligations;
 	}
 
+	/**
+	 * Generate the obligations for all class definitions in parallel. Each class's
+	 * obligations are then type checked in order, which is not thread safe.
+	 */
+	private ProofObligationList getParallelObligations(Progress progress)
+	{
+		POGScheduler scheduler = new POGScheduler();
+		Environment publicEnv = new PublicClassEnvironment(tcclasses);
+		List<Environment> locals = new Vector<Environment>();
+
+		for (POClassDefinition c: this)
+		{
+			Environment local = c.getLocalEnvironment(publicEnv);
+			locals.add(local);
+
+			for (PODefinition def: c.definitions)
+			{
+				scheduler.add(() -> c.getProofObligations(def, local));
+			}
+		}
+
+		List<ProofObligationList> results = scheduler.run(progress);
+
+		if (results == null)
+		{
+			return new ProofObligationList();	// cancelled
+		}
+
+		ProofObligationList obligations = new ProofObligationList();
+		Iterator<ProofObligationList> iter = results.iterator();
+		Iterator<Environment> envs = locals.iterator();
+
+		for (POClassDefinition c: this)
+		{
+			ProofObligationList list = new ProofObligationList();
+
+			for (int i=0; i<c.definitions.size(); i++)
+			{
+				list.addAll(iter.next());
+			}
+
+			list.typeCheck(c.tcdef.name, envs.next());
+			obligations.addAll(list);
+		}
+
+		return obligations;
+	}
+
 	/**
 	 * Count the number of top level definitions across all classes. This is
 	 * used to calculate the progress of the POG for large specifications.
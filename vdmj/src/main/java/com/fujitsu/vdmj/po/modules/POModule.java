@@ -28,6 +28,8 @@ import com.fujitsu.vdmj.po.PONode;
 import com.fujitsu.vdmj.po.annotations.POAnnotationList;
 import com.fujitsu.vdmj.po.definitions.PODefinition;
 import com.fujitsu.vdmj.po.definitions.PODefinitionList;
+import com.fujitsu.vdmj.po.patterns.visitors.POGetMatchingExpressionVisitor;
+import com.fujitsu.vdmj.po.patterns.visitors.PORemoveIgnoresVisitor;
 import com.fujitsu.vdmj.pog.POContextStack;
 import com.fujitsu.vdmj.pog.POGState;
 import com.fujitsu.vdmj.pog.PONameContext;
@@ -91,11 +93,7 @@ public class POModule extends PONode
 
 		for (PODefinition def: defs)
 		{
-			POSaveStateContext.reset();				// Reset the module state names
-			def.moduleDefinition = this;
-			POContextStack ctxt = new POContextStack();
-			ctxt.push(new PONameContext(def.getVariableNames()));
-			list.addAll(def.getProofObligations(ctxt, new POGState(), menv));
+			list.addAll(getProofObligations(def, menv));
 			progress.makeProgress(1);
 
 			if (progress.cancelRequested())
@@ -109,4 +107,19 @@ public class POModule extends PONode
 		if (annotations != null) annotations.poAfter(this, list);
 		return list;
 	}
+
+	/**
+	 * Generate the obligations for one definition in this module. This is called by
+	 * POGScheduler threads for a parallel POG.
+	 */
+	public ProofObligationList getProofObligations(PODefinition def, MultiModuleEnvironment menv)
+	{
+		POSaveStateContext.reset();				// Reset the module state names
+		POGetMatchingExpressionVisitor.init();	// And "any" names, which are per thread
+		PORemoveIgnoresVisitor.init();
+		def.moduleDefinition = this;
+		POContextStack ctxt = new POContextStack();
+		ctxt.push(new PONameContext(def.getVariableNames()));
+		return def.getProofObligations(ctxt, new POGState(), menv);
+	}
 }
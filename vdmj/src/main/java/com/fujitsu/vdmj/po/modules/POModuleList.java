@@ -24,8 +24,13 @@
 
 package com.fujitsu.vdmj.po.modules;
 
+import java.util.Iterator;
+import java.util.List;
+
 import com.fujitsu.vdmj.po.POMappedList;
+import com.fujitsu.vdmj.po.definitions.PODefinition;
 import com.fujitsu.vdmj.pog.POContextStack;
+import com.fujitsu.vdmj.pog.POGScheduler;
 import com.fujitsu.vdmj.pog.ProofObligationList;
 import com.fujitsu.vdmj.tc.modules.TCModule;
 import com.fujitsu.vdmj.tc.modules.TCModuleList;
@@ -57,6 +62,11 @@ public class POModuleList extends POMappedList<TCModule, POModule>
 		MultiModuleEnvironment menv = new MultiModuleEnvironment(this);
 		POContextStack.reset();
 		progress.resetProgress();
+
+		if (POGScheduler.isParallel(getTotal()))
+		{
+			return getParallelObligations(progress, menv);
+		}
 		
 		for (POModule m: this)
 		{
@@ -71,6 +81,49 @@ public class POModuleList extends POMappedList<TCModule, POModule>
 		return obligations;
 	}
 
+	/**
+	 * Generate the obligations for all module definitions in parallel. Each module's
+	 * obligations are then type checked in order, which is not thread safe.
+	 */
+	private ProofObligationList getParallelObligations(Progress progress, MultiModuleEnvironment menv)
+	{
+		POGScheduler scheduler = new POGScheduler();
+
+		for (POModule m: this)
+		{
+			for (PODefinition def: m.defs)
+			{
+				def.moduleDefinition = m;
+				scheduler.add(() -> m.getProofObligations(def, menv));
+			}
+		}
+
+		List<ProofObligationList> results = scheduler.run(progress);
+
+		if (results == null)
+		{
+			return new ProofObligationList();	// cancelled
+		}
+
+		ProofObligationList obligations = new ProofObligationList();
+		Iterator<ProofObligationList> iter = results.iterator();
+
+		for (POModule m: this)
+		{
+			ProofObligationList list = new ProofObligationList();
+
+			for (int i=0; i<m.defs.size(); i++)
+			{
+				list.addAll(iter.next());
+			}
+
+			list.typeCheck(menv);
+			obligations.addAll(list);
+		}
+
+		return obligations;
+	}
+
 	/**
 	 * Count the number of top level definitions across all modules. This is
 	 * used to calculate the progress of the POG for large specifications.
@@ -75,11 +75,11 @@ import com.fujitsu.vdmj.tc.lex.TCNameToken;
 
 public class POGetMatchingExpressionVisitor extends POPatternVisitor<POExpression, Object>
 {
-	private static int var = 0;		// Used in caseIgnorePattern()
+	private static final ThreadLocal<int[]> var = ThreadLocal.withInitial(() -> new int[1]);	// Used in caseIgnorePattern()
 
 	public static void init()
 	{
-		var = 0;	// reset on each getProofObligations run.
+		var.get()[0] = 0;	// reset on each getProofObligations run.
 	}
 
 	@Override
@@ -126,8 +126,9 @@ public class POGetMatchingExpressionVisitor extends POPatternVisitor<POExpressio
 		// Generate a new "any" name for use during PO generation. The name
 		// must be unique for the pattern instance.
 		
-		var++;
-		TCNameToken anyName = new TCNameToken(node.location, node.location.module, "$any" + var);
+		int[] count = var.get();
+		count[0]++;
+		TCNameToken anyName = new TCNameToken(node.location, node.location.module, "$any" + count[0]);
 		
 		return new POVariableExpression(anyName, null);
 	}
@@ -53,11 +53,11 @@ import com.fujitsu.vdmj.tc.lex.TCNameToken;
 
 public class PORemoveIgnoresVisitor extends POPatternVisitor<POPattern, Object>
 {
-	private static int var = 1;		// Used in caseIgnorePattern()
+	private static final ThreadLocal<int[]> var = ThreadLocal.withInitial(() -> new int[] {1});	// Used in caseIgnorePattern()
 
 	public static void init()
 	{
-		var = 1;	// reset on each getProofObligations run.
+		var.get()[0] = 1;	// reset on each getProofObligations run.
 	}
 
 	@Override
@@ -112,7 +112,7 @@ public class PORemoveIgnoresVisitor extends POPatternVisitor<POPattern, Object>
 		// Generate a new "any" name for use during PO generation. The name
 		// must be unique for the pattern instance.
 		
-		TCNameToken anyName = new TCNameToken(node.location, node.location.module, "$any" + var++);
+		TCNameToken anyName = new TCNameToken(node.location, node.location.module, "$any" + var.get()[0]++);
 		return new POIdentifierPattern(anyName);
 	}
 	
@@ -0,0 +1,646 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.pog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import java.util.Vector;
+
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.tc.TCVisitorSet;
+import com.fujitsu.vdmj.tc.definitions.TCClassDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCClassList;
+import com.fujitsu.vdmj.tc.definitions.TCDefinition;
+import com.fujitsu.vdmj.tc.definitions.TCDefinitionList;
+import com.fujitsu.vdmj.tc.definitions.TCStateDefinition;
+import com.fujitsu.vdmj.tc.definitions.visitors.TCFreeVariableDefinitionVisitor;
+import com.fujitsu.vdmj.tc.expressions.TCExpression;
+import com.fujitsu.vdmj.tc.expressions.visitors.TCFreeVariableExpressionVisitor;
+import com.fujitsu.vdmj.tc.lex.TCNameSet;
+import com.fujitsu.vdmj.tc.lex.TCNameToken;
+import com.fujitsu.vdmj.tc.modules.TCModule;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.tc.patterns.visitors.TCFreeVariableBindVisitor;
+import com.fujitsu.vdmj.tc.patterns.visitors.TCFreeVariableMultipleBindVisitor;
+import com.fujitsu.vdmj.tc.patterns.visitors.TCFreeVariablePatternVisitor;
+import com.fujitsu.vdmj.tc.statements.visitors.TCFreeVariableStatementVisitor;
+import com.fujitsu.vdmj.tc.types.TCNamedType;
+import com.fujitsu.vdmj.tc.types.TCRecordType;
+import com.fujitsu.vdmj.tc.types.TCType;
+import com.fujitsu.vdmj.tc.types.visitors.TCLeafTypeVisitor;
+import com.fujitsu.vdmj.typechecker.Environment;
+import com.fujitsu.vdmj.typechecker.FlatEnvironment;
+
+/**
+ * A file of QuickCheck results, so that obligations that have not changed since they
+ * were last checked can be given their earlier result without being checked again.
+ *
+ * Results are keyed by a hash of the obligation's kind, name and source, which includes
+ * its context, and the text of every definition that it depends on, directly or via
+ * other definitions. That includes the definitions of the types that they use, with
+ * their invariants, orderings and equality clauses, and the state definition of any
+ * state they use. A change to any of these gives a new key. Results with a witness
+ * or counterexample are not saved, because these are runtime values, and neither are
+ * timeouts.
+ *
+ * The file is text, with a line for each result. The fields are separated by tabs,
+ * with tabs, newlines and backslashes escaped, and null fields written as "\N".
+ */
+public class ObligationCache
+{
+	/**
+	 * The parts of a PO that are set by QuickCheck.
+	 */
+	private static class Result
+	{
+		public final String settings;
+		public final POStatus status;
+		public final String qualifier;
+		public final String provedBy;
+		public final String message;
+		public final String explanation;
+		public final long duration;
+
+		public Result(ProofObligation po, String settings, long duration)
+		{
+			this.settings = settings;
+			this.status = po.status;
+			this.qualifier = po.qualifier;
+			this.provedBy = po.provedBy;
+			this.message = po.message;
+			this.explanation = po.getExplanation();
+			this.duration = duration;
+		}
+
+		public Result(String[] fields)
+		{
+			this.status = POStatus.valueOf(fields[1]);
+			this.duration = Long.parseLong(fields[2]);
+			this.settings = fields[3];
+			this.qualifier = fields[4];
+			this.provedBy = fields[5];
+			this.message = fields[6];
+			this.explanation = fields[7];
+		}
+
+		public String[] toFields(String key)
+		{
+			return new String[]
+			{
+				key, status.name(), Long.toString(duration), settings,
+				qualifier, provedBy, message, explanation
+			};
+		}
+	}
+
+	private static final String HEADER = "# VDMJ QuickCheck results, version 1";
+	private static final int FIELDS = 8;
+
+	/**
+	 * The free variable visitors, but with a type visitor that adds the names of the
+	 * named and record types used, so that their type definitions are found too.
+	 */
+	private static class DependencyVisitorSet extends TCVisitorSet<TCNameToken, TCNameSet, Environment>
+	{
+		@Override
+		protected void setVisitors()
+		{
+			definitionVisitor = new TCFreeVariableDefinitionVisitor(this);
+			expressionVisitor = new TCFreeVariableExpressionVisitor(this);
+			statementVisitor = new TCFreeVariableStatementVisitor(this);
+			patternVisitor = new TCFreeVariablePatternVisitor(this);
+			typeVisitor = new TypeNameVisitor();
+			bindVisitor = new TCFreeVariableBindVisitor(this);
+			multiBindVisitor = new TCFreeVariableMultipleBindVisitor(this);
+		}
+
+		@Override
+		protected TCNameSet newCollection()
+		{
+			return new TCNameSet();
+		}
+	}
+
+	private static class TypeNameVisitor extends TCLeafTypeVisitor<TCNameToken, TCNameSet, Environment>
+	{
+		@Override
+		protected TCNameSet newCollection()
+		{
+			return new TCNameSet();
+		}
+
+		@Override
+		public TCNameSet caseType(TCType node, Environment arg)
+		{
+			return newCollection();
+		}
+
+		@Override
+		public TCNameSet caseNamedType(TCNamedType node, Environment arg)
+		{
+			TCNameSet names = new TCNameSet(node.typename);
+			names.addAll(super.caseNamedType(node, arg));
+			return names;
+		}
+
+		@Override
+		public TCNameSet caseRecordType(TCRecordType node, Environment arg)
+		{
+			TCNameSet names = new TCNameSet(node.name);
+			names.addAll(super.caseRecordType(node, arg));
+			return names;
+		}
+	}
+
+	private static final Environment EMPTY = new FlatEnvironment(new TCDefinitionList());
+
+	private final File file;
+	private final Map<String, List<TCDefinition>> qualified = new HashMap<String, List<TCDefinition>>();
+	private final Map<String, List<TCDefinition>> unqualified = new HashMap<String, List<TCDefinition>>();
+	private final Map<TCDefinition, String> texts = new IdentityHashMap<TCDefinition, String>();
+	private final Map<TCDefinition, TCNameSet> freevars = new IdentityHashMap<TCDefinition, TCNameSet>();
+	private final Map<ProofObligation, String> keys = new IdentityHashMap<ProofObligation, String>();
+
+	private Map<String, Result> results = new HashMap<String, Result>();
+	private boolean changed = false;
+
+	public ObligationCache(File file, TCModuleList modules)
+	{
+		this.file = file;
+
+		for (TCModule module: modules)
+		{
+			addDefinitions(module.defs);
+		}
+
+		read();
+	}
+
+	public ObligationCache(File file, TCClassList classes)
+	{
+		this.file = file;
+
+		for (TCClassDefinition cdef: classes)
+		{
+			addDefinitions(cdef.definitions);
+		}
+
+		read();
+	}
+
+	private void addDefinitions(TCDefinitionList definitions)
+	{
+		for (TCDefinition def: definitions.singleDefinitions())
+		{
+			if (def.name != null)
+			{
+				add(def.name, def);
+			}
+		}
+
+		for (TCDefinition def: definitions)
+		{
+			if (def instanceof TCStateDefinition)
+			{
+				// The state's fields depend on its invariant and initializer too
+				TCStateDefinition sdef = (TCStateDefinition)def;
+
+				for (TCDefinition field: sdef.statedefs)
+				{
+					add(field.name, sdef);
+				}
+			}
+		}
+	}
+
+	private void add(TCNameToken name, TCDefinition def)
+	{
+		add(qualified, name.getModule() + "`" + name.getName(), def);
+		add(unqualified, name.getName(), def);
+	}
+
+	private void add(Map<String, List<TCDefinition>> map, String name, TCDefinition def)
+	{
+		List<TCDefinition> list = map.get(name);
+
+		if (list == null)
+		{
+			list = new Vector<TCDefinition>();
+			map.put(name, list);
+		}
+
+		list.add(def);
+	}
+
+	/**
+	 * The vdmj.qc.cache_file, or null if it is not set. A relative path is resolved
+	 * against the root passed, if any, else against the current directory.
+	 */
+	public static File getFile(File root)
+	{
+		if (Properties.qc_cache_file == null)
+		{
+			return null;
+		}
+
+		File cacheFile = new File(Properties.qc_cache_file);
+
+		if (root != null && !cacheFile.isAbsolute())
+		{
+			cacheFile = new File(root, Properties.qc_cache_file);
+		}
+
+		return cacheFile;
+	}
+
+	private void read()
+	{
+		if (file.exists())
+		{
+			try (BufferedReader in = new BufferedReader(
+				new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))
+			{
+				if (!HEADER.equals(in.readLine()))
+				{
+					changed = true;		// Not a cache file, or an old version
+					return;
+				}
+
+				String line = in.readLine();
+
+				while (line != null)
+				{
+					String[] fields = line.split("\t", -1);
+
+					try
+					{
+						if (fields.length != FIELDS)
+						{
+							throw new IllegalArgumentException("Wrong number of fields");
+						}
+
+						for (int i = 0; i < FIELDS; i++)
+						{
+							fields[i] = unescape(fields[i]);
+						}
+
+						results.put(fields[0], new Result(fields));
+					}
+					catch (IllegalArgumentException | NullPointerException e)
+					{
+						changed = true;		// Skip the line, and rewrite without it
+					}
+
+					line = in.readLine();
+				}
+			}
+			catch (IOException e)
+			{
+				results.clear();	// Start again
+				changed = true;
+			}
+		}
+	}
+
+	/**
+	 * Write the cache file, if any results have been saved or removed since it was read.
+	 */
+	public synchronized void write() throws IOException
+	{
+		if (changed)
+		{
+			try (BufferedWriter out = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+			{
+				out.write(HEADER);
+				out.newLine();
+
+				for (Map.Entry<String, Result> entry: results.entrySet())
+				{
+					String[] fields = entry.getValue().toFields(entry.getKey());
+
+					for (int i = 0; i < FIELDS; i++)
+					{
+						if (i > 0)
+						{
+							out.write('\t');
+						}
+
+						out.write(escape(fields[i]));
+					}
+
+					out.newLine();
+				}
+			}
+
+			changed = false;
+		}
+	}
+
+	private String escape(String field)
+	{
+		if (field == null)
+		{
+			return "\\N";
+		}
+
+		return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+	}
+
+	private String unescape(String field)
+	{
+		if (field.equals("\\N"))
+		{
+			return null;
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < field.length(); i++)
+		{
+			char c = field.charAt(i);
+
+			if (c == '\\')
+			{
+				if (++i == field.length())
+				{
+					throw new IllegalArgumentException("Bad escape");
+				}
+
+				switch (field.charAt(i))
+				{
+					case '\\':	sb.append('\\'); break;
+					case 't':	sb.append('\t'); break;
+					case 'n':	sb.append('\n'); break;
+					case 'r':	sb.append('\r'); break;
+					default:	throw new IllegalArgumentException("Bad escape");
+				}
+			}
+			else
+			{
+				sb.append(c);
+			}
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Remove the results for obligations that are not in the list passed, which should
+	 * be all of the current obligations, so that the file does not keep results for
+	 * obligations that have changed or been removed.
+	 */
+	public synchronized void prune(List<ProofObligation> current)
+	{
+		Set<String> keep = new HashSet<String>();
+
+		for (ProofObligation po: current)
+		{
+			keep.add(getKey(po));
+		}
+
+		if (results.keySet().retainAll(keep))
+		{
+			changed = true;
+		}
+	}
+
+	/**
+	 * True if there is a result for the PO, checked with the same settings.
+	 */
+	public synchronized boolean isCached(ProofObligation po, String settings)
+	{
+		return find(po, settings) != null;
+	}
+
+	/**
+	 * Set the PO's status and analysis from the cache, if it has a result for it.
+	 */
+	public synchronized boolean restore(ProofObligation po, String settings)
+	{
+		Result result = find(po, settings);
+
+		if (result != null)
+		{
+			po.clearAnalysis();
+			po.setStatus(result.status);
+			po.setQualifier(result.qualifier);
+			po.setProvedBy(result.provedBy);
+			po.setMessage(result.message);
+			po.setExplanation(result.explanation);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * The time taken to check the PO originally, in milliseconds, or -1 if not cached.
+	 */
+	public synchronized long getDuration(ProofObligation po, String settings)
+	{
+		Result result = find(po, settings);
+		return result == null ? -1 : result.duration;
+	}
+
+	/**
+	 * Save the result of checking a PO, if it can be restored later.
+	 */
+	public synchronized void save(ProofObligation po, String settings, long duration)
+	{
+		if (po.isCheckable && po.status != POStatus.TIMEOUT &&
+			po.counterexample == null && po.witness == null)
+		{
+			results.put(getKey(po), new Result(po, settings, duration));
+			changed = true;
+		}
+	}
+
+	private Result find(ProofObligation po, String settings)
+	{
+		Result result = results.get(getKey(po));
+
+		if (result != null && result.settings != null && result.settings.equals(settings))
+		{
+			return result;
+		}
+
+		return null;
+	}
+
+	/**
+	 * The hash of the PO and the definitions that it depends on, as a hex string.
+	 */
+	public synchronized String getKey(ProofObligation po)
+	{
+		String key = keys.get(po);
+
+		if (key == null)
+		{
+			List<String> depends = new Vector<String>();
+
+			for (TCDefinition def: getDependencies(po))
+			{
+				depends.add(getText(def));
+			}
+
+			Collections.sort(depends);		// Independent of search order
+
+			try
+			{
+				MessageDigest md = MessageDigest.getInstance("SHA-256");
+				update(md, po.kind.toString());
+				update(md, po.name);
+				update(md, po.source);
+
+				for (String text: depends)
+				{
+					update(md, text);
+				}
+
+				StringBuilder sb = new StringBuilder();
+
+				for (byte b: md.digest())
+				{
+					sb.append(String.format("%02x", b));
+				}
+
+				key = sb.toString();
+			}
+			catch (NoSuchAlgorithmException e)
+			{
+				throw new IllegalStateException(e);		// SHA-256 is always available
+			}
+
+			keys.put(po, key);
+		}
+
+		return key;
+	}
+
+	private void update(MessageDigest md, String text)
+	{
+		md.update(String.valueOf(text).getBytes(StandardCharsets.UTF_8));
+		md.update((byte)0);		// So that "ab","c" differs from "a","bc"
+	}
+
+	/**
+	 * The definitions that a PO's expression refers to, and those that they refer to,
+	 * including the definitions of the types that they use. Names that do not match a
+	 * definition in their own module (eg. imports) match every definition with the same
+	 * name, which can only make the key stricter.
+	 */
+	private Set<TCDefinition> getDependencies(ProofObligation po)
+	{
+		Set<TCDefinition> found = Collections.newSetFromMap(new IdentityHashMap<TCDefinition, Boolean>());
+		TCExpression exp = po.getCheckedExpression();
+
+		if (exp == null)
+		{
+			return found;
+		}
+
+		Stack<TCNameToken> names = new Stack<TCNameToken>();
+		DependencyVisitorSet visitors = new DependencyVisitorSet();
+		names.addAll(visitors.applyExpressionVisitor(exp, EMPTY));
+
+		while (!names.isEmpty())
+		{
+			TCNameToken name = names.pop();
+			List<TCDefinition> defs = qualified.get(name.getModule() + "`" + name.getName());
+
+			if (defs == null)
+			{
+				defs = unqualified.get(name.getName());
+			}
+
+			if (defs != null)
+			{
+				for (TCDefinition def: defs)
+				{
+					if (found.add(def))
+					{
+						names.addAll(getFreeVariables(def));
+					}
+				}
+			}
+		}
+
+		return found;
+	}
+
+	private TCNameSet getFreeVariables(TCDefinition def)
+	{
+		TCNameSet names = freevars.get(def);
+
+		if (names == null)
+		{
+			try
+			{
+				DependencyVisitorSet visitors = new DependencyVisitorSet();
+				names = visitors.applyDefinitionVisitor(def, EMPTY);
+				names.addAll(visitors.applyTypeVisitor(def.getType(), EMPTY));
+			}
+			catch (Exception e)
+			{
+				names = new TCNameSet();	// Just the definition's own text then
+			}
+
+			freevars.put(def, names);
+		}
+
+		return names;
+	}
+
+	private String getText(TCDefinition def)
+	{
+		String text = texts.get(def);
+
+		if (text == null)
+		{
+			text = def.name.getModule() + "`" + def.toString();
+			texts.put(def, text);
+		}
+
+		return text;
+	}
+}
@@ -24,6 +24,8 @@
 
 package com.fujitsu.vdmj.pog;
 
+import java.util.AbstractList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -65,9 +67,10 @@ public class POContextStack extends Stack<POContext>
 {
 	/**
 	 * Definitions which have had their ALT paths reduced, due to excessive branching,
-	 * to meet Properties.pog_max_alt_paths.
+	 * to meet Properties.pog_max_alt_paths. This is updated by POGScheduler threads.
 	 */
-	private static Map<PODefinition, Long> reducedDefinitions = new HashMap<PODefinition, Long>();
+	private static Map<PODefinition, Long> reducedDefinitions =
+		Collections.synchronizedMap(new HashMap<PODefinition, Long>());
 	
 	public static Map<PODefinition, Long> getReducedDefinitions()
 	{
@@ -150,27 +153,136 @@ public class POContextStack extends Stack<POContext>
 	
 	public List<POContextStack> getAlternatives(boolean excludeReturns)
 	{
-		return getAlternatives(this, excludeReturns, Properties.pog_max_alt_paths);
+		return new PathList(getPaths(this, excludeReturns, Properties.pog_max_alt_paths));
 	}
-	
-	private List<POContextStack> getAlternatives(POContextStack origin, boolean excludeReturns, int limit)
+
+	/**
+	 * A path through the alternatives of a stack. Paths share their prefixes with the
+	 * paths that they were extended from, and an alternative's subpath is joined to a
+	 * path without copying either. So the paths are only expanded into stacks when
+	 * they are used, one at a time, by a PathList.
+	 */
+	private static class Path
+	{
+		public static final Path EMPTY = new Path(null, null, null);
+
+		private final Path parent;		// The prefix of this path, or null if empty
+		private final POContext ctxt;	// A context added to the parent, or
+		private final Path joined;		// A path added to the parent
+		private final POContext last;	// The last context in the path
+
+		private Path(Path parent, POContext ctxt, Path joined)
+		{
+			this.parent = parent;
+			this.ctxt = ctxt;
+			this.joined = joined;
+			this.last = (ctxt != null) ? ctxt : (joined != null) ? joined.last : null;
+		}
+
+		public Path add(POContext next)
+		{
+			return new Path(this, next, null);
+		}
+
+		public Path add(Path next)
+		{
+			if (next == EMPTY)
+			{
+				return this;
+			}
+			else if (this == EMPTY)
+			{
+				return next;
+			}
+			else
+			{
+				return new Path(this, null, next);
+			}
+		}
+
+		public boolean returnsEarly()
+		{
+			return last != null && last.returnsEarly();
+		}
+
+		/**
+		 * Expand the path into a new stack. This does not recurse, since paths through
+		 * long operations can be deep.
+		 */
+		public POContextStack getStack()
+		{
+			POContextStack stack = new POContextStack();
+			Stack<Object> work = new Stack<Object>();	// Paths to expand or contexts to add
+			work.push(this);
+
+			while (!work.isEmpty())
+			{
+				Object item = work.pop();
+
+				if (item instanceof POContext)
+				{
+					stack.add((POContext)item);
+				}
+				else
+				{
+					Path p = (Path)item;
+
+					if (p != EMPTY)
+					{
+						// Parent first, then our item, so push in reverse order
+						work.push(p.ctxt != null ? p.ctxt : p.joined);
+						work.push(p.parent);
+					}
+				}
+			}
+
+			return stack;
+		}
+	}
+
+	/**
+	 * A list of the stacks for a list of paths, each created when it is fetched.
+	 */
+	private static class PathList extends AbstractList<POContextStack>
+	{
+		private final List<Path> paths;
+
+		public PathList(List<Path> paths)
+		{
+			this.paths = paths;
+		}
+
+		@Override
+		public POContextStack get(int index)
+		{
+			return paths.get(index).getStack();
+		}
+
+		@Override
+		public int size()
+		{
+			return paths.size();
+		}
+	}
+
+	private List<Path> getPaths(POContextStack origin, boolean excludeReturns, int limit)
 	{
-		List<POContextStack> results = new Vector<POContextStack>();
-		results.add(new POContextStack());
+		List<Path> results = new Vector<Path>();
+		results.add(Path.EMPTY);
 		
 		for (POContext ctxt: this)
 		{
 			if (ctxt instanceof POAltContext)
 			{
 				POAltContext alt = (POAltContext)ctxt;
-				List<POContextStack> newResults = new Vector<POContextStack>();
-				List<POContextStack> dontReturn = new Vector<POContextStack>();
+				List<Path> newResults = new Vector<Path>();
+				List<Path> dontReturn = new Vector<Path>();
 				int remaining = limit;
 				
 				try
 				{
 					// First add the returnsEarly originals once, because these won't change
-					for (POContextStack original: results)
+					for (Path original: results)
 					{
 						if (original.returnsEarly())
 						{
@@ -185,19 +297,16 @@ public class POContextStack extends Stack<POContext>
 					// Then append the alternative expansions to the dontReturn remainers
 					for (POContextStack substack: alt.alternatives)
 					{
-						List<POContextStack> subalternatives = substack.getAlternatives(origin, excludeReturns, remaining);
+						List<Path> subalternatives = substack.getPaths(origin, excludeReturns, remaining);
 
 						remaining = remaining - subalternatives.size();
 						if (remaining < 1) remaining = 1;
 
-						for (POContextStack alternative: subalternatives)
+						for (Path alternative: subalternatives)
 						{
-							for (POContextStack original: dontReturn)
+							for (Path original: dontReturn)
 							{
-								POContextStack combined = new POContextStack();
-								combined.addAll(original);
-								combined.addAll(alternative);
-								newResults.add(combined);
+								newResults.add(original.add(alternative));
 
 								if (newResults.size() > limit)
 								{
@@ -220,8 +329,7 @@ public class POContextStack extends Stack<POContext>
 				}
 				finally		// rebuild the results
 				{
-					results.clear();
-					results.addAll(newResults);
+					results = new Vector<Path>(newResults);
 				}
 			}
 			else
@@ -231,7 +339,7 @@ public class POContextStack extends Stack<POContext>
 					// An "error" statement is reached, so this control path aborts here and
 					// no further obligations are produced.
 
-					return new Vector<POContextStack>();
+					return new Vector<Path>();
 				}
 				else if (ctxt.returnsEarly())
 				{
@@ -241,20 +349,22 @@ public class POContextStack extends Stack<POContext>
 					
 					if (excludeReturns)
 					{
-						return new Vector<POContextStack>();
+						return new Vector<Path>();
 					}
 
 					// Else add it as usual...
 				}
 
-				for (POContextStack choice: results)
+				for (int i=0; i<results.size(); i++)
 				{
+					Path choice = results.get(i);
+
 					if (choice.returnsEarly())
 					{
 						continue;	// skip this choice, as it has already ended
 					}
 					
-					choice.add(ctxt);
+					results.set(i, choice.add(ctxt));
 				}
 			}
 		}
@@ -875,12 +985,12 @@ public class POContextStack extends Stack<POContext>
 	 */
 	public List<POContextStack> reduce()
 	{
-		List<POContextStack> paths = this.getAlternatives(false);		// Include returns
-		Iterator<POContextStack> iter = paths.iterator();
+		List<Path> paths = getPaths(this, false, Properties.pog_max_alt_paths);	// Include returns
+		Iterator<Path> iter = paths.iterator();
 
 		while (iter.hasNext())
 		{
-			POContextStack path = iter.next();
+			Path path = iter.next();
 
 			if (!path.returnsEarly())
 			{
@@ -888,6 +998,6 @@ public class POContextStack extends Stack<POContext>
 			}
 		}
 
-		return paths;
+		return new PathList(paths);
 	}
 }
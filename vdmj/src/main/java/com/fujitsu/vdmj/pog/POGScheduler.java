@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.pog;
+
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.messages.InternalException;
+import com.fujitsu.vdmj.po.annotations.POAnnotation;
+import com.fujitsu.vdmj.typechecker.TypeComparator;
+import com.fujitsu.vdmj.util.Progress;
+
+/**
+ * Generate the obligations for a list of definitions, using vdmj.pog.parallel_definitions
+ * threads. The obligations of one definition do not depend on any other, so each is
+ * a separate task. The results are returned in the order that the definitions were
+ * added, so that the POs are numbered as for a serial POG.
+ */
+public class POGScheduler
+{
+	/**
+	 * The POG to perform for one definition.
+	 */
+	public interface DefinitionPOG
+	{
+		public ProofObligationList getProofObligations();
+	}
+
+	private final List<DefinitionPOG> tasks = new Vector<DefinitionPOG>();
+
+	/**
+	 * True if there are enough definitions and threads to be worth generating POs in
+	 * parallel. Annotations are not assumed to be thread safe, so they force a serial POG.
+	 */
+	public static boolean isParallel(int definitions)
+	{
+		return Properties.pog_parallel_definitions > 1 && definitions > 1 &&
+			POAnnotation.getInstances(POAnnotation.class).isEmpty();
+	}
+
+	public void add(DefinitionPOG task)
+	{
+		tasks.add(task);
+	}
+
+	/**
+	 * Run the tasks added, returning their results in order, or null if the progress
+	 * is cancelled.
+	 */
+	public List<ProofObligationList> run(Progress progress)
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(Properties.pog_parallel_definitions);
+		List<Future<ProofObligationList>> futures = new Vector<Future<ProofObligationList>>();
+		String module = TypeComparator.getCurrentModule();
+
+		try
+		{
+			for (DefinitionPOG task: tasks)
+			{
+				futures.add(executor.submit(() ->
+				{
+					try
+					{
+						TypeComparator.setLocalModule(true);
+						TypeComparator.setCurrentModule(module);	// As for a serial POG
+						return task.getProofObligations();
+					}
+					finally
+					{
+						TypeComparator.setLocalModule(false);
+					}
+				}));
+			}
+
+			List<ProofObligationList> results = new Vector<ProofObligationList>();
+
+			for (Future<ProofObligationList> future: futures)
+			{
+				results.add(future.get());
+				progress.makeProgress(1);
+
+				if (progress.cancelRequested())
+				{
+					return null;
+				}
+			}
+
+			return results;
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException)e.getCause();	// As thrown by a serial POG
+			}
+
+			throw new InternalException(0, "Parallel POG failed: " + e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			throw new InternalException(0, "Parallel POG failed: " + e);
+		}
+		finally
+		{
+			executor.shutdownNow();		// Stops remaining tasks, if cancelled
+		}
+	}
+}
@@ -36,8 +36,17 @@ import com.fujitsu.vdmj.po.definitions.POStateDefinition;
 
 public class POSaveStateContext extends POContext
 {
-	private static int count = 0;
-	private static POSaveStateContext current = null;
+	/**
+	 * The state names are numbered per thread, since definitions can be processed in
+	 * parallel, see POGScheduler.
+	 */
+	private static class Names
+	{
+		public int count = 0;
+		public POSaveStateContext current = null;
+	}
+
+	private static final ThreadLocal<Names> names = ThreadLocal.withInitial(() -> new Names());
 
 	private static final String OLDNAME = "$oldState";
 	private static final String NEWNAME = "$newState";
@@ -54,7 +63,8 @@ public class POSaveStateContext extends POContext
 
 	public POSaveStateContext(PODefinition def, LexLocation from, boolean oldAndNew)
 	{
-		this.number = count++;
+		Names local = names.get();
+		this.number = local.count++;
 		this.from = from;
 		this.oldAndNew = oldAndNew;
 
@@ -98,22 +108,25 @@ public class POSaveStateContext extends POContext
 			moduleVar = newName();
 		}
 
-		current = this;
+		local.current = this;
 	}
 
 	public static void reset()
 	{
-		count = 0;
-		current = null;
+		Names local = names.get();
+		local.count = 0;
+		local.current = null;
 	}
 
 	public static String getOldName()
 	{
+		POSaveStateContext current = names.get().current;
 		return current == null ? OLDNAME : current.oldName();
 	}
 
 	public static String getNewName()
 	{
+		POSaveStateContext current = names.get().current;
 		return current == null ? NEWNAME : current.newName();
 	}
 
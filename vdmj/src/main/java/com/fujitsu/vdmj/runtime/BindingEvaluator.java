@@ -0,0 +1,457 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.runtime;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexLocation;
+import com.fujitsu.vdmj.values.NameValuePair;
+import com.fujitsu.vdmj.values.NameValuePairList;
+import com.fujitsu.vdmj.values.QuantifierList;
+import com.fujitsu.vdmj.values.Value;
+
+/**
+ * Evaluate something for every binding of a QuantifierList, returning the results in
+ * binding order. Each binding has its own Context, which is created and matched against
+ * the binding's names here, as the quantified expressions used to do themselves.
+ *
+ * If vdmj.in.parallel_binds is set, a large number of bindings is evaluated by a pool of
+ * threads, in batches. The results are still returned in order, and a binding that fails
+ * (or that the caller says is final) stops its batch, so the caller sees exactly what a
+ * serial evaluation would have seen. Parallel evaluation is only used for VDM-SL when the
+ * thread is in a pure function, is not debugging or measuring a recursive call, and is
+ * not already a pool thread. Callers must close() the evaluator, to cancel any remaining
+ * batches when they stop early.
+ *
+ * Each pool evaluation has its own ThreadState, which is a child of the caller's. So the
+ * atomic, pure and stepping values are not shared between threads, and the evaluation is
+ * cancelled if the caller is terminated or the evaluator is closed. A user cancel raised
+ * by a pool thread is passed back to the caller's ThreadState. The pool is created with
+ * the number of threads in vdmj.in.parallel_binds, and replaced if that changes.
+ */
+public class BindingEvaluator<T>
+{
+	/**
+	 * The evaluation to perform for each matching binding.
+	 */
+	public interface Evaluation<T>
+	{
+		public T eval(Context evalContext) throws ValueException;
+	}
+
+	/**
+	 * A test of whether a result means that the caller will stop, so that the pool
+	 * does not need to evaluate any more bindings in that batch.
+	 */
+	public interface FinalTest<T>
+	{
+		public boolean isFinal(T result);
+	}
+
+	/**
+	 * The result of one binding.
+	 */
+	public static class Binding<T>
+	{
+		public final Context context;
+		public final boolean matches;
+		private final T value;
+		private final Throwable failure;
+
+		private Binding(Context context, boolean matches, T value, Throwable failure)
+		{
+			this.context = context;
+			this.matches = matches;
+			this.value = value;
+			this.failure = failure;
+		}
+
+		/**
+		 * Get the result of the evaluation, or throw the exception that it raised.
+		 */
+		public T getValue() throws ValueException
+		{
+			if (failure != null)
+			{
+				rethrow(failure);
+			}
+
+			return value;
+		}
+	}
+
+	/**
+	 * A batch of bindings evaluated by one pool task.
+	 */
+	private class Batch implements Runnable
+	{
+		public final List<NameValuePairList> bindings = new Vector<NameValuePairList>(BATCH_SIZE);
+		public final List<Binding<T>> results = new Vector<Binding<T>>(BATCH_SIZE);
+		public RuntimeException readFailure = null;		// Thrown by the QuantifierList
+		public ForkJoinTask<?> task = null;
+
+		@Override
+		public void run()
+		{
+			for (NameValuePairList nvpl: bindings)
+			{
+				if (cancelled)
+				{
+					break;
+				}
+
+				Binding<T> result = evaluate(nvpl);
+				results.add(result);
+
+				if (isFinal(result))
+				{
+					break;
+				}
+			}
+		}
+	}
+
+	private static final int BATCH_SIZE = 128;
+	private static final int MIN_PARALLEL = 2 * BATCH_SIZE;
+	private static ForkJoinPool pool = null;
+
+	/**
+	 * Pool threads are marked, so that nested evaluations are serial.
+	 */
+	private static class BindingThread extends ForkJoinWorkerThread
+	{
+		public BindingThread(ForkJoinPool pool)
+		{
+			super(pool);
+		}
+	}
+
+	private static class BindingThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory
+	{
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+		{
+			return new BindingThread(pool);
+		}
+	}
+
+	private final QuantifierList quantifiers;
+	private final Context ctxt;
+	private final LexLocation location;
+	private final String title;
+	private final Evaluation<T> evaluation;
+	private final FinalTest<T> finalTest;
+	private final int window;
+	private final LinkedList<Batch> pending = new LinkedList<Batch>();
+	private ThreadState poolState = null;		// Parent of the pool evaluations' states
+
+	private Batch current = null;
+	private int position = 0;
+	private Binding<T> next = null;
+	private volatile boolean cancelled = false;
+
+	public BindingEvaluator(QuantifierList quantifiers, Context ctxt, LexLocation location,
+		String title, Evaluation<T> evaluation, FinalTest<T> finalTest)
+	{
+		this.quantifiers = quantifiers;
+		this.ctxt = ctxt;
+		this.location = location;
+		this.title = title;
+		this.evaluation = evaluation;
+		this.finalTest = finalTest;
+		this.window = 4 * Properties.in_parallel_binds;
+
+		if (isParallel(ctxt))
+		{
+			poolState = new ThreadState(ctxt.threadState);
+			Batch first = read(MIN_PARALLEL);
+
+			if (first.bindings.size() < MIN_PARALLEL || first.readFailure != null)
+			{
+				current = first;	// Too small to share, so evaluated by getNext
+			}
+			else
+			{
+				submit(first);
+				fill();
+			}
+		}
+	}
+
+	/**
+	 * True if there is another binding result, which is returned by next(). Note that
+	 * an exception raised by the QuantifierList is thrown here, as it would be from
+	 * QuantifierList.hasNext in a serial loop.
+	 */
+	public boolean hasNext()
+	{
+		if (next == null)
+		{
+			next = getNext();
+		}
+
+		return next != null;
+	}
+
+	public Binding<T> next()
+	{
+		Binding<T> result = next;
+		next = null;
+		return result;
+	}
+
+	/**
+	 * Cancel any batches that are still being evaluated.
+	 */
+	public void close()
+	{
+		cancelled = true;
+		pending.clear();
+
+		if (poolState != null)
+		{
+			poolState.setTerminate(true);	// Stops evaluations that are still running
+		}
+	}
+
+	private Binding<T> getNext()
+	{
+		while (true)
+		{
+			if (current == null)
+			{
+				if (pending.isEmpty())
+				{
+					return quantifiers.hasNext() ? evaluate(quantifiers.next()) : null;
+				}
+
+				current = pending.removeFirst();
+				position = 0;
+
+				if (current.task != null)
+				{
+					current.task.join();
+				}
+
+				fill();
+			}
+
+			if (position < current.results.size())
+			{
+				return current.results.get(position++);
+			}
+			else if (position < current.bindings.size())
+			{
+				// The batch stopped at a final result, but the caller carried on
+				return evaluate(current.bindings.get(position++));
+			}
+			else if (current.readFailure != null)
+			{
+				RuntimeException e = current.readFailure;
+				current.readFailure = null;
+				throw e;
+			}
+
+			current = null;
+		}
+	}
+
+	/**
+	 * Keep the pool busy with up to "window" batches, reading ahead in the QuantifierList.
+	 */
+	private void fill()
+	{
+		while (!cancelled && pending.size() < window)
+		{
+			Batch batch = read(BATCH_SIZE);
+
+			if (batch.bindings.isEmpty() && batch.readFailure == null)
+			{
+				break;
+			}
+
+			submit(batch);
+
+			if (batch.readFailure != null)
+			{
+				break;
+			}
+		}
+	}
+
+	private Batch read(int size)
+	{
+		Batch batch = new Batch();
+
+		try
+		{
+			while (batch.bindings.size() < size && quantifiers.hasNext())
+			{
+				batch.bindings.add(quantifiers.next());
+			}
+		}
+		catch (RuntimeException e)
+		{
+			batch.readFailure = e;		// Thrown after the bindings that precede it
+		}
+
+		return batch;
+	}
+
+	private void submit(Batch batch)
+	{
+		batch.task = getPool().submit(batch);
+		pending.add(batch);
+	}
+
+	private Binding<T> evaluate(NameValuePairList nvpl)
+	{
+		Context evalContext = new Context(location, title, ctxt);
+		boolean pooled = poolState != null && isPoolThread();	// Nested evaluators are serial
+
+		if (pooled)
+		{
+			evalContext.threadState = new ThreadState(poolState);
+			ThreadState.setThreadParent(evalContext.threadState);
+		}
+
+		for (NameValuePair nvp: nvpl)
+		{
+			Value v = evalContext.get(nvp.name);
+
+			if (v == null)
+			{
+				evalContext.put(nvp.name, nvp.value);
+			}
+			else if (!v.equals(nvp.value))
+			{
+				return new Binding<T>(evalContext, false, null, null);	// This quantifier set does not match
+			}
+		}
+
+		try
+		{
+			return new Binding<T>(evalContext, true, evaluation.eval(evalContext), null);
+		}
+		catch (Throwable e)
+		{
+			if (pooled && !cancelled && e instanceof ContextException && ((ContextException)e).isUserCancel())
+			{
+				ctxt.threadState.setTerminate(true);	// The pool thread caught an interrupt
+			}
+
+			return new Binding<T>(evalContext, true, null, e);
+		}
+		finally
+		{
+			if (pooled)
+			{
+				evalContext.threadState = ctxt.threadState;		// For counterexamples etc.
+				ThreadState.setThreadParent(null);
+			}
+		}
+	}
+
+	private boolean isFinal(Binding<T> result)
+	{
+		return result.failure != null || (result.matches && finalTest.isFinal(result.value));
+	}
+
+	private static boolean isParallel(Context ctxt)
+	{
+		if (Properties.in_parallel_binds < 2 || Settings.dialect != Dialect.VDM_SL)
+		{
+			return false;
+		}
+
+		ThreadState state = ctxt.threadState;
+
+		if (state == null || !state.isPure() || state.isMeasured() || state.isStepping())
+		{
+			return false;
+		}
+
+		Interpreter interpreter = Interpreter.getInstance();
+
+		if (interpreter == null || !interpreter.getBreakpoints().isEmpty())
+		{
+			return false;
+		}
+
+		return !isPoolThread();		// Nested evaluations are serial
+	}
+
+	/**
+	 * True if this thread is evaluating bindings for another. Breakpoint.check leaves
+	 * a pause request for the caller's thread, which can enter the debugger.
+	 */
+	public static boolean isPoolThread()
+	{
+		return Thread.currentThread() instanceof BindingThread;
+	}
+
+	private static synchronized ForkJoinPool getPool()
+	{
+		if (pool == null || pool.getParallelism() != Properties.in_parallel_binds)
+		{
+			if (pool != null)
+			{
+				pool.shutdown();	// Submitted tasks still complete
+			}
+
+			pool = new ForkJoinPool(Properties.in_parallel_binds, new BindingThreadFactory(), null, false);
+		}
+
+		return pool;
+	}
+
+	private static void rethrow(Throwable failure) throws ValueException
+	{
+		if (failure instanceof ValueException)
+		{
+			throw (ValueException)failure;
+		}
+		else if (failure instanceof RuntimeException)
+		{
+			throw (RuntimeException)failure;
+		}
+		else if (failure instanceof Error)
+		{
+			throw (Error)failure;
+		}
+		else
+		{
+			throw new RuntimeException(failure);
+		}
+	}
+}
@@ -210,30 +210,47 @@ public class Breakpoint implements Serializable
 		location.hit();
 		hits++;
 
-		switch (execInterruptLevel())
+		// This is called for almost every expression and statement, so we test
+		// the volatile flag directly before paying for the synchronized method.
+
+		if (execInterrupt != NONE)
 		{
-			case NONE:
-				break;
-				
-			case PAUSE:
-    			try
-    			{
-    				setExecInterrupt(Breakpoint.NONE);
-    				enterDebugger(ctxt);
-    			}
-    			catch (DebuggerException e)
-    			{
-    				throw e;
-    			}
-				break;
-
-			case TERMINATE:
-				setExecInterrupt(Breakpoint.NONE);
-				ContextException.throwUserCancel(location, ctxt);
+			switch (execInterruptLevel())
+			{
+				case NONE:
+					break;
+					
+				case PAUSE:
+					if (BindingEvaluator.isPoolThread())
+					{
+						break;	// Left for the thread that started the evaluation
+					}
+
+	    			try
+	    			{
+	    				setExecInterrupt(Breakpoint.NONE);
+	    				enterDebugger(ctxt);
+	    			}
+	    			catch (DebuggerException e)
+	    			{
+	    				throw e;
+	    			}
+					break;
+	
+				case TERMINATE:
+					setExecInterrupt(Breakpoint.NONE);
+					ContextException.throwUserCancel(location, ctxt);
+			}
 		}
 		
 		ThreadState state = ctxt.threadState;
 
+		if (state.isTerminating())
+		{
+			state.setTerminate(false);
+			ContextException.throwUserCancel(location, ctxt);
+		}
+
 		if (Settings.dialect != Dialect.VDM_SL)
 		{
 			state.reschedule(ctxt, execl);
@@ -559,4 +559,11 @@ public class ClassInterpreter extends Interpreter
 	{
 		return (T)executableClasses;
 	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getTC()
+	{
+		return (T)checkedClasses;
+	}
 }
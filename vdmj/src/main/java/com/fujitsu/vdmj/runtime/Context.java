@@ -52,6 +52,8 @@ public class Context extends HashMap<TCNameToken, Value>
 	public final String title;
 	/** A link to a lower level context, if present. */
 	public final Context outer;
+	/** The outermost context of the chain, which may be this. */
+	private final Context global;
 	/** The thread state associated with this context. */
 	public ThreadState threadState = null;
 
@@ -77,6 +79,7 @@ public class Context extends HashMap<TCNameToken, Value>
 		this.location = location;
 		this.outer = outer;
 		this.title = title;
+		this.global = (outer == null) ? this : outer.global;
 
 		if (outer != null)
 		{
@@ -132,14 +135,7 @@ public class Context extends HashMap<TCNameToken, Value>
 	 */
 	public Context getGlobal()
 	{
-		Context op = this;
-
-		while (op.outer != null)
-		{
-			op = op.outer;
-		}
-
-		return op;
+		return global;		// Set in the constructor, as the chain cannot change
 	}
 
 	/**
@@ -193,17 +189,22 @@ public class Context extends HashMap<TCNameToken, Value>
 	 * because the map is driven by the names' hashCodes. The equals
 	 * method of LexNameToken makes a TypeComparator check, which is
 	 * what we need. But we try a simple super.get() first.
+	 * 
+	 * The TypeComparator check only applies when both names have type
+	 * qualifiers, so unqualified names (ie. most lookups, which often
+	 * miss as they search down the chain) do not need to search keys.
 	 */
 	@Override
 	public Value get(Object name)
 	{
 		Value rv = super.get(name);
 
-		if (rv == null)
+		if (rv == null && name instanceof TCNameToken &&
+			((TCNameToken)name).getTypeQualifier() != null)
 		{
     		for (TCNameToken var: keySet())
     		{
-    			if (var.equals(name))
+    			if (var.getTypeQualifier() != null && var.equals(name))
     			{
     				rv = super.get(var);
     				break;
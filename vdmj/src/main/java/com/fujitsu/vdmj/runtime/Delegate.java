@@ -25,16 +25,21 @@
 package com.fujitsu.vdmj.runtime;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fujitsu.vdmj.in.definitions.INDefinition;
 import com.fujitsu.vdmj.in.definitions.INDefinitionList;
@@ -66,24 +71,20 @@ public class Delegate implements Serializable
 
 	private boolean delegateChecked = false;
 	private Class<?> delegateClass = null;
-	private Map<String, Method> delegateMethods = null;
-	private Map<String, TCNameList> delegateArgs = null;
+	private transient Map<String, DelegateMethod> delegateMethods = null;
 	
 	// Names of old VDMJ classes that moved to stdlib
 	private static String[] stdlibNames = { "CSV", "IO", "MATH", "VDMUtil" };
 
-	public boolean hasDelegate()
+	public synchronized boolean hasDelegate()
 	{
 		if (!delegateChecked)
 		{
-			delegateChecked = true;
-
 			try
 			{
 				String classname = name.replace('_', '.');
 				delegateClass = this.getClass().getClassLoader().loadClass(classname);
-				delegateMethods = new HashMap<String, Method>();
-				delegateArgs = new HashMap<String, TCNameList>();
+				delegateMethods = new ConcurrentHashMap<String, DelegateMethod>();
 			}
 			catch (ClassNotFoundException e)
 			{
@@ -92,6 +93,8 @@ public class Delegate implements Serializable
 					System.err.println("NOTE: include stdlib.jar in classpath to access " + name);
 				}
 			}
+
+			delegateChecked = true;
 		}
 
 		return (delegateClass != null);
@@ -130,142 +133,139 @@ public class Delegate implements Serializable
 		}
 	}
 
-	private Method getDelegateMethod(String title)
+	/**
+	 * Find and check the native method for a definition, and bind a MethodHandle
+	 * to call it. This is done once for each definition title, rather than on
+	 * every call. Functions may be called from several threads at once (eg. by
+	 * parallel binds), so the map is concurrent and the bind is done atomically.
+	 */
+	private DelegateMethod getDelegateMethod(String title, Token section)
 	{
-		Method m = delegateMethods.get(title);
+		DelegateMethod dm = delegateMethods.get(title);
 
-		if (m == null)
+		if (dm == null || dm.section != section)
 		{
-			INPatternList plist = null;
-			String mname = title.substring(0, title.indexOf('('));
+			dm = delegateMethods.compute(title, (t, old) ->
+				(old == null || old.section != section) ? bindDelegateMethod(t, section) : old);
+		}
 
-			for (INDefinition d: definitions)
-			{
-				if (d.name != null && d.name.getName().equals(mname))
-				{
-					plist = null;
-					
-    	 			if (d.isOperation())
-    	 			{
-    	 				if (d instanceof INExplicitOperationDefinition)
-    	 				{
-    	 					INExplicitOperationDefinition e = (INExplicitOperationDefinition)d;
-    	 					plist = e.parameterPatterns;
-    	 				}
-    	 				else if (d instanceof INImplicitOperationDefinition)
-    	 				{
-    	 					INImplicitOperationDefinition e = (INImplicitOperationDefinition)d;
-    	 					plist = e.getParamPatternList();
-    	 				}
-    	 			}
-    	 			else if (d.isFunction())
-    	 			{
-    	 				if (d instanceof INExplicitFunctionDefinition)
-    	 				{
-    	 					INExplicitFunctionDefinition e = (INExplicitFunctionDefinition)d;
-    	 					plist = e.paramPatternList.get(0);
-    	 				}
-    	 				else if (d instanceof INImplicitFunctionDefinition)
-    	 				{
-    	 					INImplicitFunctionDefinition e = (INImplicitFunctionDefinition)d;
-    	 					plist = e.getParamPatternList().get(0);
-    	 				}
-    	 			}
-    	 			
-    	 			if (toTitle(mname, plist).equals(title))
-    	 			{
-    	 				break;
-    	 			}
-				}
-			}
+		return dm;
+	}
 
-			TCNameList anames = new TCNameList();
-			List<Class<?>> ptypes = new Vector<Class<?>>();
+	private DelegateMethod bindDelegateMethod(String title, Token section)
+	{
+		Method m = null;
+		INPatternList plist = null;
+		String mname = title.substring(0, title.indexOf('('));
 
-			if (plist != null)
+		for (INDefinition d: definitions)
+		{
+			if (d.name != null && d.name.getName().equals(mname))
 			{
-				for (INPattern p: plist)
-				{
-					if (p instanceof INIdentifierPattern)
-					{
-						INIdentifierPattern ip = (INIdentifierPattern)p;
-						anames.add(ip.name);
-						ptypes.add(Value.class);
-					}
-					else
-					{
-						throw new InternalException(56,
-							"Native method must use identifier parameters: " + title);
-					}
-				}
+				plist = null;
 
-				delegateArgs.put(title, anames);
-			}
-			else
-			{
-				throw new InternalException(57, "Native member not found: " + title);
+	 			if (d.isOperation())
+	 			{
+	 				if (d instanceof INExplicitOperationDefinition)
+	 				{
+	 					INExplicitOperationDefinition e = (INExplicitOperationDefinition)d;
+	 					plist = e.parameterPatterns;
+	 				}
+	 				else if (d instanceof INImplicitOperationDefinition)
+	 				{
+	 					INImplicitOperationDefinition e = (INImplicitOperationDefinition)d;
+	 					plist = e.getParamPatternList();
+	 				}
+	 			}
+	 			else if (d.isFunction())
+	 			{
+	 				if (d instanceof INExplicitFunctionDefinition)
+	 				{
+	 					INExplicitFunctionDefinition e = (INExplicitFunctionDefinition)d;
+	 					plist = e.paramPatternList.get(0);
+	 				}
+	 				else if (d instanceof INImplicitFunctionDefinition)
+	 				{
+	 					INImplicitFunctionDefinition e = (INImplicitFunctionDefinition)d;
+	 					plist = e.getParamPatternList().get(0);
+	 				}
+	 			}
+
+	 			if (toTitle(mname, plist).equals(title))
+	 			{
+	 				break;
+	 			}
 			}
+		}
 
-			try
+		TCNameList anames = new TCNameList();
+		List<Class<?>> ptypes = new Vector<Class<?>>();
+
+		if (plist != null)
+		{
+			for (INPattern p: plist)
 			{
-				try
+				if (p instanceof INIdentifierPattern)
 				{
-					// First try to find a method with a final Context parameter
-					
-					List<Class<?>> ptypes2 = new Vector<Class<?>>(ptypes);
-					ptypes2.add(Context.class);
-					Class<?>[] array2 = new Class<?>[0];
-					
-					m = delegateClass.getMethod(mname, ptypes2.toArray(array2));
-	
-					if (!m.getReturnType().equals(Value.class))
-					{
-						throw new InternalException(58,
-							"Native method does not return Value: " + m);
-					}
+					INIdentifierPattern ip = (INIdentifierPattern)p;
+					anames.add(ip.name);
+					ptypes.add(Value.class);
 				}
-				catch (Throwable t)
+				else
 				{
-					Class<?>[] array = new Class<?>[0];
-					m = delegateClass.getMethod(mname, ptypes.toArray(array));
-	
-					if (!m.getReturnType().equals(Value.class))
-					{
-						throw new InternalException(58,
-							"Native method does not return Value: " + m);
-					}					
+					throw new InternalException(56,
+						"Native method must use identifier parameters: " + title);
 				}
 			}
-			catch (SecurityException e)
-			{
-				throw new InternalException(60,
-					"Cannot access native method: " + e.getMessage());
-			}
-			catch (NoSuchMethodException e)
+		}
+		else
+		{
+			throw new InternalException(57, "Native member not found: " + title);
+		}
+
+		try
+		{
+			try
 			{
-				throw new InternalException(61,
-					"Cannot find native method: " + e.getMessage());
-			}
+				// First try to find a method with a final Context parameter
 
-			delegateMethods.put(title, m);
-		}
+				List<Class<?>> ptypes2 = new Vector<Class<?>>(ptypes);
+				ptypes2.add(Context.class);
+				Class<?>[] array2 = new Class<?>[0];
 
-		return m;
-	}
+				m = delegateClass.getMethod(mname, ptypes2.toArray(array2));
 
-	public Value invokeDelegate(Object delegateObject, Context ctxt, Token section)
-	{
-		Method m = getDelegateMethod(ctxt.title);
+				if (!m.getReturnType().equals(Value.class))
+				{
+					throw new InternalException(58,
+						"Native method does not return Value: " + m);
+				}
+			}
+			catch (Throwable t)
+			{
+				Class<?>[] array = new Class<?>[0];
+				m = delegateClass.getMethod(mname, ptypes.toArray(array));
 
-		if ((m.getModifiers() & Modifier.STATIC) == 0 &&
-			delegateObject == null)
+				if (!m.getReturnType().equals(Value.class))
+				{
+					throw new InternalException(58,
+						"Native method does not return Value: " + m);
+				}
+			}
+		}
+		catch (SecurityException e)
 		{
-			throw new InternalException(64,
-				"Native method should be static: " + m.getName());
+			throw new InternalException(60,
+				"Cannot access native method: " + e.getMessage());
+		}
+		catch (NoSuchMethodException e)
+		{
+			throw new InternalException(61,
+				"Cannot find native method: " + e.getMessage());
 		}
-		
+
 		Class<? extends Value> paramTypes[] = null;
-		
+
 		if (section == Token.FUNCTIONS)
 		{
 			if (m.getAnnotation(VDMOperation.class) != null)
@@ -273,7 +273,7 @@ public class Delegate implements Serializable
 				throw new InternalException(72,
 					"Native method marked as @VDMOperation: " + m.getName());
 			}
-			
+
 			VDMFunction annotation = m.getAnnotation(VDMFunction.class);
 			if (annotation != null) paramTypes = annotation.params();
 		}
@@ -284,107 +284,207 @@ public class Delegate implements Serializable
 				throw new InternalException(71,
 					"Native method marked as @VDMFunction: " + m.getName());
 			}
-			
+
 			VDMOperation annotation = m.getAnnotation(VDMOperation.class);
 			if (annotation != null) paramTypes = annotation.params();
 		}
 
-		TCNameList anames = delegateArgs.get(ctxt.title);
-		boolean hasCtxt = m.getParameterCount() > anames.size();
-		Object[] avals = new Object[anames.size() + (hasCtxt ? 1 : 0)];
-		int a = 0;
+		if (paramTypes != null && paramTypes.length == 0)
+		{
+			paramTypes = null;		// Only check if provided
+		}
+		else if (paramTypes != null && paramTypes.length != anames.size())
+		{
+			throw new InternalException(77,
+				"Native method " + m.getName() + " expects " + paramTypes.length + " Value arguments");
+		}
 
-		for (TCNameToken arg: anames)
+		try
 		{
-			avals[a++] = ctxt.get(arg).deref();
+			return new DelegateMethod(m, section, anames, paramTypes);
 		}
-		
-		if (paramTypes != null && paramTypes.length > 0)	// Only check if provided
+		catch (IllegalAccessException e)
 		{
-			if (anames.size() == paramTypes.length)
+			throw new InternalException(62,
+				"Cannot invoke native method: " + e.getMessage());
+		}
+	}
+
+	public Value invokeDelegate(Object delegateObject, Context ctxt, Token section)
+	{
+		DelegateMethod dm = getDelegateMethod(ctxt.title, section);
+
+		if (!dm.isStatic && delegateObject == null)
+		{
+			throw new InternalException(64,
+				"Native method should be static: " + dm.method.getName());
+		}
+
+		int count = dm.argNames.length;
+		Value[] avals = new Value[count];
+
+		for (int a = 0; a < count; a++)
+		{
+			avals[a] = ctxt.get(dm.argNames[a]).deref();
+		}
+
+		if (dm.paramTypes != null)
+		{
+			for (int p = 0; p < count; p++)
 			{
-				for (int p = 0; p < anames.size(); p++)
+				if (!dm.paramTypes[p].isAssignableFrom(avals[p].getClass()))
 				{
-					if (!paramTypes[p].isAssignableFrom(avals[p].getClass()))
-					{
-						Parameter jp = m.getParameters()[p];
-						
-						throw new InternalException(76,
-								"Native method parameter " + m.getName() + "." + jp.getName() +
-								" should be type " + paramTypes[p].getSimpleName());
-					}
+					Parameter jp = dm.method.getParameters()[p];
+
+					throw new InternalException(76,
+							"Native method parameter " + dm.method.getName() + "." + jp.getName() +
+							" should be type " + dm.paramTypes[p].getSimpleName());
 				}
 			}
-			else
-			{
-				throw new InternalException(77,
-					"Native method " + m.getName() + " expects " + paramTypes.length + " Value arguments");
-			}
-		}
-		
-		if (hasCtxt)
-		{
-			avals[a] = ctxt;	// Not included in check above
 		}
 
 		try
 		{
-			return (Value)m.invoke(delegateObject, avals);
+			return dm.invoke(delegateObject, ctxt, avals);
 		}
-		catch (IllegalArgumentException e)
+		catch (ContextException e)		// Including ExitException
 		{
-			throw new InternalException(62,
-				"Cannot invoke native method: " + e.getMessage());
+			throw e;
 		}
-		catch (IllegalAccessException e)
+		catch (ValueException e)
 		{
-			throw new InternalException(62,
-				"Cannot invoke native method: " + e.getMessage());
+			// Replace the native ctxt with the VDM one
+			throw new ContextException(new ValueException(e.number, e.getMessage(), ctxt), ctxt.location);
 		}
-		catch (InvocationTargetException e)
+		catch (Throwable e)
 		{
-			if (e.getTargetException() instanceof ExitException)
+			if (e.getClass() == Exception.class)
 			{
-				throw (ExitException) e.getTargetException();
+				// VDMJ methods tend to throw raw Exception objects, so assume it's us
+				throw new ContextException(78, "Exception: " + e.getMessage(), ctxt.location, ctxt);
 			}
-			else if (e.getTargetException() instanceof ContextException)
+			else // Something ugly, like a NPE which should never happen.
 			{
-				throw (ContextException) e.getTargetException();
+				throw new InternalException(59,
+					"Failed in native method: " + e.toString());
 			}
-			else if (e.getTargetException() instanceof ValueException)
+		}
+	}
+
+	/**
+	 * A native method, checked when it is bound, and a MethodHandle to call it with
+	 * the type (Object, Context, Value...)Value. The Object is the delegate object,
+	 * which is ignored for static methods, and the Context is ignored if the method
+	 * does not have a final Context parameter.
+	 */
+	private static class DelegateMethod
+	{
+		private static final int MAX_EXACT = 4;		// See invoke
+
+		public final Method method;
+		public final Token section;
+		public final TCNameToken[] argNames;
+		public final Class<? extends Value>[] paramTypes;	// Null if not checked
+		public final boolean isStatic;
+
+		private final MethodHandle handle;
+
+		public DelegateMethod(Method method, Token section, TCNameList anames,
+			Class<? extends Value>[] paramTypes) throws IllegalAccessException
+		{
+			this.method = method;
+			this.section = section;
+			this.argNames = anames.toArray(new TCNameToken[0]);
+			this.paramTypes = paramTypes;
+			this.isStatic = (method.getModifiers() & Modifier.STATIC) != 0;
+
+			int count = argNames.length;
+			MethodHandle mh = MethodHandles.publicLookup().unreflect(method);
+
+			if (isStatic)
 			{
-				// Replace the native ctxt with the VDM one
-				ValueException ex = (ValueException) e.getTargetException();
-				throw new ContextException(new ValueException(ex.number, ex.getMessage(), ctxt), ctxt.location);
+				mh = MethodHandles.dropArguments(mh, 0, Object.class);
 			}
-			else if (e.getTargetException().getClass() == Exception.class)
+			else
 			{
-				// VDMJ methods tend to throw raw Exception objects, so assume it's us
-				Exception ex = (Exception)e.getTargetException();
-				throw new ContextException(78, "Exception: " + ex.getMessage(), ctxt.location, ctxt);
+				mh = mh.asType(mh.type().changeParameterType(0, Object.class));
 			}
-			else // Something ugly, like a NPE which should never happen.
+
+			if (method.getParameterCount() > count)
 			{
-				throw new InternalException(59,
-					"Failed in native method: " + e.getTargetException().toString());
+				// Move the final Context parameter to follow the Object
+				int[] reorder = new int[count + 2];
+				reorder[0] = 0;
+
+				for (int a = 1; a <= count; a++)
+				{
+					reorder[a] = a + 1;
+				}
+
+				reorder[count + 1] = 1;
+				List<Class<?>> ptypes = new Vector<Class<?>>();
+				ptypes.add(Object.class);
+				ptypes.add(Context.class);
+				ptypes.addAll(Collections.nCopies(count, Value.class));
+
+				mh = MethodHandles.permuteArguments(mh, MethodType.methodType(Value.class, ptypes), reorder);
+			}
+			else
+			{
+				mh = MethodHandles.dropArguments(mh, 1, Context.class);
+			}
+
+			if (count > MAX_EXACT)
+			{
+				mh = mh.asSpreader(Value[].class, count);
+			}
+
+			this.handle = mh;
+		}
+
+		/**
+		 * Calls with up to MAX_EXACT arguments are exact invocations of the handle,
+		 * and longer ones pass an array to a spreader.
+		 */
+		public Value invoke(Object delegateObject, Context ctxt, Value[] avals) throws Throwable
+		{
+			switch (avals.length)
+			{
+				case 0:
+					return (Value) handle.invokeExact(delegateObject, ctxt);
+
+				case 1:
+					return (Value) handle.invokeExact(delegateObject, ctxt, avals[0]);
+
+				case 2:
+					return (Value) handle.invokeExact(delegateObject, ctxt, avals[0], avals[1]);
+
+				case 3:
+					return (Value) handle.invokeExact(delegateObject, ctxt, avals[0], avals[1], avals[2]);
+
+				case 4:
+					return (Value) handle.invokeExact(delegateObject, ctxt, avals[0], avals[1], avals[2], avals[3]);
+
+				default:
+					return (Value) handle.invokeExact(delegateObject, ctxt, avals);
 			}
 		}
 	}
 
 	/**
-	 * The Method objects in the delegateMethods map cannot be serialized,
-	 * which means that deep copies fail. So here, we clear the map when
-	 * serialization occurs. The map is re-build later on demand.
+	 * The DelegateMethod objects in the delegateMethods map cannot be serialized,
+	 * so the map is transient. A copy starts with an empty map, which is re-built
+	 * on demand, and the original's map is not touched while others may use it.
 	 */
-	private void writeObject(java.io.ObjectOutputStream out)
-		throws IOException
+	private void readObject(ObjectInputStream in)
+		throws ClassNotFoundException, IOException
 	{
-		if (delegateMethods != null)
+		in.defaultReadObject();
+
+		if (delegateClass != null)
 		{
-			delegateMethods.clear();
+			delegateMethods = new ConcurrentHashMap<String, DelegateMethod>();
 		}
-
-		out.defaultWriteObject();
 	}
 
 	private String toTitle(String mname, INPatternList paramPatterns)
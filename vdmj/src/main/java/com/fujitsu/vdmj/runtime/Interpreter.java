@@ -29,10 +29,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.Vector;
@@ -42,6 +44,7 @@ import com.fujitsu.vdmj.ast.expressions.ASTExpression;
 import com.fujitsu.vdmj.ast.lex.LexIdentifierToken;
 import com.fujitsu.vdmj.ast.lex.LexNameToken;
 import com.fujitsu.vdmj.ast.lex.LexToken;
+import com.fujitsu.vdmj.config.Properties;
 import com.fujitsu.vdmj.in.definitions.INClassDefinition;
 import com.fujitsu.vdmj.in.definitions.INNamedTraceDefinition;
 import com.fujitsu.vdmj.in.expressions.INExpression;
@@ -68,10 +71,12 @@ import com.fujitsu.vdmj.traces.CallSequence;
 import com.fujitsu.vdmj.traces.TraceFilter;
 import com.fujitsu.vdmj.traces.TraceIterator;
 import com.fujitsu.vdmj.traces.TraceReductionType;
+import com.fujitsu.vdmj.traces.TraceWorkerPool;
 import com.fujitsu.vdmj.traces.Verdict;
 import com.fujitsu.vdmj.typechecker.Environment;
 import com.fujitsu.vdmj.typechecker.NameScope;
 import com.fujitsu.vdmj.typechecker.TypeChecker;
+import com.fujitsu.vdmj.values.StateSnapshot;
 import com.fujitsu.vdmj.values.Value;
 
 /**
@@ -100,6 +105,12 @@ abstract public class Interpreter
 	/** The saved initial context for trace execution */
 	protected ByteArrayOutputStream savedInitialContext;
 
+	/** The snapshot of the initial state for trace execution */
+	protected StateSnapshot savedSnapshot;
+
+	/** The time that the interpreter was created, after the files were loaded */
+	protected final long loaded;
+
 	/**
 	 * Create an Interpreter.
 	 */
@@ -108,6 +119,7 @@ abstract public class Interpreter
 		this.scheduler = new ResourceScheduler();
 		this.breakpoints = new TreeMap<Integer, Breakpoint>();
 		this.sourceFiles = new HashMap<File, SourceFile>();
+		this.loaded = System.currentTimeMillis();
 		
 		instance = this;
 	}
@@ -187,6 +199,19 @@ abstract public class Interpreter
 	 */
 	abstract public void traceInit() throws Exception;
 
+	/**
+	 * Stop recording the changes for traces_save_state, so that the next
+	 * trace starts from a new snapshot.
+	 */
+	protected void clearSnapshot()
+	{
+		if (savedSnapshot != null)
+		{
+			savedSnapshot.stop();
+			savedSnapshot = null;
+		}
+	}
+
 	/**
 	 * Parse the line passed, type check it and evaluate it as an expression
 	 * in the initial context.
@@ -572,34 +597,7 @@ abstract public class Interpreter
 		float subset, TraceReductionType reductionType, long seed)
 		throws Exception
 	{
-		// Trace names have / substituted for _ to make a valid name during the parse
-		name = name.replaceAll("/", "_");
-
-		LexTokenReader ltr = new LexTokenReader(name, Dialect.VDM_SL);
-		LexToken token = ltr.nextToken();
-		ltr.close();
-		TCNameToken lexname = null;
-
-		switch (token.type)
-		{
-			case NAME:
-				lexname = new TCNameToken((LexNameToken) token);
-
-				if (Settings.dialect == Dialect.VDM_SL &&
-					!lexname.getModule().equals(getDefaultName()))
-				{
-					setDefaultName(lexname.getModule());
-				}
-				break;
-
-			case IDENTIFIER:
-				lexname = new TCNameToken(token.location, getDefaultName(), ((LexIdentifierToken)token).name);
-				break;
-
-			default:
-				throw new Exception("Expecting trace name");
-		}
-
+		TCNameToken lexname = getTraceName(name);
 		INNamedTraceDefinition tracedef = findTraceDefinition(lexname);
 
 		if (tracedef == null)
@@ -659,44 +657,90 @@ abstract public class Interpreter
 		// Not needed with new traces?
 		// Environment environment = getTraceEnvironment(tracedef.classDefinition);
 
-		while (tests.hasMoreTests())
+		TraceWorkerPool pool = null;
+		Queue<CallSequence> pendingTests = new ArrayDeque<CallSequence>();
+		Queue<Integer> pendingNumbers = new ArrayDeque<Integer>();
+
+		try
 		{
-			CallSequence test = tests.getNextTest();
-			
-			if (testNumber < startTest || testNumber > endTest || filter.isRemoved(test, testNumber))
-			{
-				excluded++;
-			}
-			else if (filter.getFilteredBy(test) > 0)
+			if (!debug && Properties.traces_workers > 1 && Settings.mainArgs != null && !sourcesChanged())
 			{
-				excluded++;
-    			writer.println("Test " + testNumber + " = " + test.getCallString(getTraceContext(tracedef.classDefinition)));
-				writer.println("Test " + testNumber + " FILTERED by test " + filter.getFilteredBy(test));
+				int expected = filter.getFilteredCount() > 0 ?
+					filter.getFilteredCount() : endTest - Math.max(startTest, 1) + 1;
+
+				pool = new TraceWorkerPool(Properties.traces_workers,
+					lexname.getModule() + "`" + lexname.getName(), expected, getSourceFiles());
 			}
-			else
+
+			while (tests.hasMoreTests())
 			{
-				// test.typeCheck(this, environment);	// Not needed with new traces?
+				CallSequence test = tests.getNextTest();
+			
+				if (testNumber < startTest || testNumber > endTest || filter.isRemoved(test, testNumber))
+				{
+					excluded++;
+				}
+				else if (pool != null)
+				{
+					pool.submit(testNumber);
+					pendingTests.add(test);
+					pendingNumbers.add(testNumber);
+
+					if (pendingTests.size() > pool.getWindow())
+					{
+						failed |= runtraceResult(pool, tracedef, pendingTests.remove(), pendingNumbers.remove(), filter);
+					}
+				}
+				else if (filter.getFilteredBy(test) > 0)
+				{
+					excluded++;
+					writer.println("Test " + testNumber + " = " + test.getCallString(getTraceContext(tracedef.classDefinition)));
+					writer.println("Test " + testNumber + " FILTERED by test " + filter.getFilteredBy(test));
+				}
+				else
+				{
+					// test.typeCheck(this, environment);	// Not needed with new traces?
 				
-    			traceInit();	// Initialize completely between every run...
-    			List<Object> result = runOneTrace(tracedef.classDefinition, test, debug);
-    			filter.update(result, test, testNumber);
-
-    			writer.println("Test " + testNumber + " = " + test.getCallString(getTraceContext(tracedef.classDefinition)));
-    			writer.println("Result = " + result);
-    			
-    			if (result.lastIndexOf(Verdict.PASSED) == -1)
-    			{
-    				failed = true;	// Not passed => failed.
-    			}
+					traceInit();	// Initialize completely between every run...
+					List<Object> result = runOneTrace(tracedef.classDefinition, test, debug);
+					filter.update(result, test, testNumber);
+
+					writer.println("Test " + testNumber + " = " + test.getCallString(getTraceContext(tracedef.classDefinition)));
+					writer.println("Result = " + result);
+					
+					if (result.lastIndexOf(Verdict.PASSED) == -1)
+					{
+						failed = true;	// Not passed => failed.
+					}
+				}
+
+				if (testNumber >= endTest)
+				{
+					excluded = count - (endTest - startTest + 1);
+					break;
+				}
+
+				testNumber++;
 			}
 
-			if (testNumber >= endTest)
+			if (pool != null)
 			{
-				excluded = count - (endTest - startTest + 1);
-				break;
+				pool.finish();
+
+				while (!pendingTests.isEmpty())
+				{
+					failed |= runtraceResult(pool, tracedef, pendingTests.remove(), pendingNumbers.remove(), filter);
+				}
+			}
+		}
+		finally
+		{
+			if (pool != null)
+			{
+				pool.close();
 			}
 
-			testNumber++;
+			clearSnapshot();	// Even if a test or the writer throws
 		}
 
 		init();
@@ -713,6 +757,108 @@ abstract public class Interpreter
 		return !failed;
 	}
 
+	/**
+	 * Workers are only used if the files loaded have not changed since, because the
+	 * workers load the files again. The settings are passed to the workers.
+	 */
+	private boolean sourcesChanged()
+	{
+		for (File file: getSourceFiles())
+		{
+			if (file.lastModified() > loaded)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Write the result of the next test submitted to a pool of worker processes, so
+	 * that results are written in test number order. Each worker filters the tests it
+	 * runs by its own failures, but the filter here has all of the failures, in order,
+	 * so the verdicts and the FILTERED tests are the same as a serial run. A test that
+	 * a worker skipped but which is not filtered here is run locally.
+	 */
+	private boolean runtraceResult(TraceWorkerPool pool, INNamedTraceDefinition tracedef,
+		CallSequence test, int testNumber, TraceFilter filter) throws Exception
+	{
+		boolean failed = false;
+		TraceWorkerPool.Result wresult = pool.getResult(testNumber);
+
+		if (filter.getFilteredBy(test) > 0)
+		{
+			writer.println("Test " + testNumber + " = " + test.getCallString(getTraceContext(tracedef.classDefinition)));
+			writer.println("Test " + testNumber + " FILTERED by test " + filter.getFilteredBy(test));
+		}
+		else if (wresult.skipped)
+		{
+			traceInit();
+			List<Object> result = runOneTrace(tracedef.classDefinition, test, false);
+			filter.update(result, test, testNumber);
+
+			writer.println("Test " + testNumber + " = " + test.getCallString(getTraceContext(tracedef.classDefinition)));
+			writer.println("Result = " + result);
+
+			if (result.lastIndexOf(Verdict.PASSED) == -1)
+			{
+				failed = true;
+			}
+		}
+		else
+		{
+			Console.out.print(wresult.output);	// Anything printed by the spec
+			filter.update(wresult.stem, wresult.passed, test, testNumber);
+
+			writer.println("Test " + testNumber + " = " + wresult.callString);
+			writer.println("Result = " + wresult.result);
+
+			if (!wresult.anyPassed)
+			{
+				failed = true;
+			}
+		}
+
+		return failed;
+	}
+
+	/**
+	 * Parse a trace name, as passed to runtrace.
+	 */
+	public TCNameToken getTraceName(String name) throws Exception
+	{
+		// Trace names have / substituted for _ to make a valid name during the parse
+		name = name.replaceAll("/", "_");
+
+		LexTokenReader ltr = new LexTokenReader(name, Dialect.VDM_SL);
+		LexToken token = ltr.nextToken();
+		ltr.close();
+		TCNameToken lexname = null;
+
+		switch (token.type)
+		{
+			case NAME:
+				lexname = new TCNameToken((LexNameToken) token);
+
+				if (Settings.dialect == Dialect.VDM_SL &&
+					!lexname.getModule().equals(getDefaultName()))
+				{
+					setDefaultName(lexname.getModule());
+				}
+				break;
+
+			case IDENTIFIER:
+				lexname = new TCNameToken(token.location, getDefaultName(), ((LexIdentifierToken)token).name);
+				break;
+
+			default:
+				throw new Exception("Expecting trace name");
+		}
+
+		return lexname;
+	}
+
 	public abstract List<Object> runOneTrace(INClassDefinition classDefinition, CallSequence test, boolean debug);
 	
 	/**
@@ -720,4 +866,9 @@ abstract public class Interpreter
 	 * one that is loaded in the INPlugin (ie. differences mean that the spec has changed).
 	 */
 	public abstract <T> T getIN();
+
+	/**
+	 * Return the type checked AST that is loaded in the interpreter.
+	 */
+	public abstract <T> T getTC();
 }
@@ -24,11 +24,7 @@
 
 package com.fujitsu.vdmj.runtime;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
@@ -67,6 +63,7 @@ import com.fujitsu.vdmj.typechecker.Environment;
 import com.fujitsu.vdmj.typechecker.ModuleEnvironment;
 import com.fujitsu.vdmj.typechecker.TypeComparator;
 import com.fujitsu.vdmj.values.CPUValue;
+import com.fujitsu.vdmj.values.StateSnapshot;
 import com.fujitsu.vdmj.values.Value;
 
 /**
@@ -228,6 +225,7 @@ public class ModuleInterpreter extends Interpreter
 	@Override
 	public void init()
 	{
+		clearSnapshot();	// The state it would restore is replaced
 		scheduler.init();
 		CPUValue.init(scheduler);
 		initialContext = executableModules.creatInitialContext();
@@ -243,21 +241,15 @@ public class ModuleInterpreter extends Interpreter
 			scheduler.init();
 			CPUValue.init(scheduler);
 			
-			if (savedInitialContext == null)
+			if (savedSnapshot == null)
 			{
 				initialContext = executableModules.creatInitialContext();
 				executableModules.initialize(initialContext);
-				
-				savedInitialContext = new ByteArrayOutputStream();
-				ObjectOutputStream oos = new ObjectOutputStream(savedInitialContext);
-				oos.writeObject(initialContext);
-				oos.close();
+				savedSnapshot = StateSnapshot.start(getSnapshotContexts());
 			}
 			else
 			{
-				ByteArrayInputStream is = new ByteArrayInputStream(savedInitialContext.toByteArray());
-				ObjectInputStream ois = new ObjectInputStream(is);
-				initialContext = (RootContext)ois.readObject();
+				savedSnapshot.restore();	// Undo the changes made by the last test
 			}
 			
 			INAnnotation.init(initialContext);
@@ -268,6 +260,28 @@ public class ModuleInterpreter extends Interpreter
 		}
 	}
 
+	/**
+	 * The contexts that hold the state restored by traces_save_state: the initial
+	 * context, and the module state contexts which are independent of it.
+	 */
+	private List<Context> getSnapshotContexts()
+	{
+		List<Context> contexts = new Vector<Context>();
+		contexts.add(initialContext);
+
+		for (INModule module: executableModules)
+		{
+			Context state = module.getStateContext();
+
+			if (state != null)
+			{
+				contexts.add(state);
+			}
+		}
+
+		return contexts;
+	}
+
 	@Override
 	protected TCExpression parseExpression(String line, String module) throws Exception
 	{
@@ -450,4 +464,11 @@ public class ModuleInterpreter extends Interpreter
 	{
 		return (T)executableModules;
 	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getTC()
+	{
+		return (T)checkedModules;
+	}
 }
@@ -39,22 +39,69 @@ public class ThreadState implements Serializable
     private static final long serialVersionUID = 1L;
 	public final long threadId;
 	public final CPUValue CPU;
+	private final ThreadState parent;	// Terminates this state too, if set
 
 	private int atomic = 0;			// Don't reschedule if >0
 	private int pure = 0;			// In a pure operation if >0
+	private int measured = 0;		// In a function with a measure if >0
+	private volatile boolean terminate = false;	// Cancel at the next breakpoint check
 
 	public LexLocation stepline;	// Breakpoint stepping values
 	public RootContext nextctxt;
 	public Context outctxt;
 
+	/**
+	 * The parent of new states created by this thread, if set by setThreadParent.
+	 */
+	private static final ThreadLocal<ThreadState> threadParent = new ThreadLocal<ThreadState>();
+
 
 	public ThreadState(CPUValue cpu)
 	{
 		this.threadId = Thread.currentThread().getId();
 		this.CPU = cpu;
+		this.parent = threadParent.get();
+		init();
+	}
+
+	/**
+	 * Create the state for a thread that evaluates part of an expression on behalf of
+	 * another, like a BindingEvaluator pool thread. It has its own counts and stepping
+	 * values, starting from the parent's counts, but it terminates when the parent does.
+	 */
+	public ThreadState(ThreadState parent)
+	{
+		this.threadId = parent.threadId;
+		this.CPU = parent.CPU;
+		this.parent = parent;
+
+		synchronized (parent)
+		{
+			this.atomic = parent.atomic;
+			this.pure = parent.pure;
+			this.measured = parent.measured;
+		}
+
 		init();
 	}
 
+	/**
+	 * States created later by this thread with a CPU, like the contexts that evaluate
+	 * invariant, equality and ordering functions, terminate when the state passed does.
+	 * This is set by threads that can be terminated individually, and cleared with null.
+	 */
+	public static void setThreadParent(ThreadState state)
+	{
+		if (state == null)
+		{
+			threadParent.remove();
+		}
+		else
+		{
+			threadParent.set(state);
+		}
+	}
+
 	public void init()
 	{
 		setBreaks(null, null, null);
@@ -122,4 +169,41 @@ public class ThreadState implements Serializable
 	{
 		return pure > 0;
 	}
+
+	/**
+	 * Set while a function with a measure is being called. Measure checks are made
+	 * per thread, so BindingEvaluator does not use other threads in this mode.
+	 */
+	public synchronized void setMeasured(boolean measured)
+	{
+		if (measured)
+		{
+			this.measured++;
+		}
+		else
+		{
+			this.measured--;
+		}
+	}
+
+	public synchronized boolean isMeasured()
+	{
+		return measured > 0;
+	}
+
+	/**
+	 * Cancel this thread at its next breakpoint check. Breakpoint.setExecInterrupt
+	 * cancels whichever thread checks first, so this is used to stop one thread when
+	 * several are evaluating in parallel, like QuickCheck workers that time out.
+	 * Child states are also terminated, but clearing the flag only affects this state.
+	 */
+	public void setTerminate(boolean terminate)
+	{
+		this.terminate = terminate;
+	}
+
+	public boolean isTerminating()
+	{
+		return terminate || (parent != null && parent.isTerminating());
+	}
 }
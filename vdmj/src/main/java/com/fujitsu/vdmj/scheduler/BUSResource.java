@@ -123,7 +123,7 @@ public class BUSResource extends Resource
 			switch (busThread.getRunState())
 			{
 				case TIMESTEP:
-					return busThread.getTimestep();
+					return busThread.getTimeRemaining();
 
 				case RUNNING:
 					return -1;			// Can't timestep
@@ -158,7 +158,7 @@ public class CPUResource extends Resource
 			switch (swappedIn.getRunState())
 			{
 				case TIMESTEP:
-					long step = swappedIn.getTimestep();
+					long step = swappedIn.getTimeRemaining();
 
 					if (step < minTime)
 					{
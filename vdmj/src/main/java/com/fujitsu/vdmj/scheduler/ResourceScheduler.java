@@ -36,6 +36,7 @@ public class ResourceScheduler implements Serializable
 
 	public String name = "scheduler";
 	private List<Resource> resources = new LinkedList<Resource>();
+	private long[] timesteps = new long[0];		// Per resource, from last idle scan
 	private static boolean stopping = false;
 	private static MainThread mainThread = null;
 
@@ -88,22 +89,32 @@ public class ResourceScheduler implements Serializable
 		{
 			long minstep = Long.MAX_VALUE;
 			idle = true;
+			int r = 0;
+
+			if (timesteps.length < resources.size())
+			{
+				timesteps = new long[resources.size()];
+			}
 
 			for (Resource resource: resources)
 			{
 				if (resource.reschedule())
 				{
 					idle = false;
+					timesteps[r] = Long.MAX_VALUE;
 				}
 				else
 				{
 					long d = resource.getMinimumTimestep();
+					timesteps[r] = d;
 
 					if (d < minstep)
 					{
 						minstep = d;
 					}
 				}
+
+				r++;
 			}
 
 			if (idle && minstep >= 0 && minstep < Long.MAX_VALUE)
@@ -115,9 +126,18 @@ public class ResourceScheduler implements Serializable
 					nextSimulationStop = simulation.step(SystemClock.getWallTime());
 				}
 
+				// Only the resources whose next event is due need to be advanced. The
+				// others are left waiting, and their timesteps are recalculated from the
+				// new wall time on the next scan.
+
+				r = 0;
+
 				for (Resource resource: resources)
 				{
-					resource.advance();
+					if (timesteps[r++] <= minstep)
+					{
+						resource.advance();
+					}
 				}
 
 				idle = false;
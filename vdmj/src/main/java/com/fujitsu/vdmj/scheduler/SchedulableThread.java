@@ -50,12 +50,15 @@ public abstract class SchedulableThread extends Thread implements Serializable,
     private static final long serialVersionUID = 1L;
 
 	private static List<SchedulableThread> allThreads =	new LinkedList<SchedulableThread>();
+	private static List<SchedulableThread> deferredThreads = new LinkedList<SchedulableThread>();
 	private static int threadCount = 0;		// Non-bus threads
 
 	protected final Resource resource;
 	protected final ObjectValue object;
 	private final boolean periodic;
 	private final boolean virtual;
+	private final boolean deferred;
+	private boolean started;
 
 	protected RunState state;
 	protected Signal signal;
@@ -74,10 +77,13 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 		Resource resource, ObjectValue object, long priority,
 		boolean periodic, long swapInBy)
 	{
+		super(null, null, "SchedulableThread", getStackSize(object));
+
 		this.resource = resource;
 		this.object = object;
 		this.periodic = periodic;
 		this.virtual = resource.isVirtual();
+		this.deferred = Properties.scheduler_deferred_start && object != null;
 		this.setSwapInBy(swapInBy);
 
 		state = RunState.CREATED;
@@ -89,20 +95,50 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 		durationEnd = 0;
 		inOuterTimeStep = false;
 		stopCalled = false;
+		started = false;
 
 		resource.register(this, priority);
 
 		synchronized (allThreads)
 		{
-			allThreads.add(this);
-			
-			if (!(this instanceof BusThread))
+			if (deferred)
+			{
+				deferredThreads.add(this);	// Until it is first scheduled
+			}
+			else
 			{
-				threadCount++;
+				addThread(this);
 			}
 		}
 	}
 
+	private static void addThread(SchedulableThread th)
+	{
+		allThreads.add(th);
+		
+		if (!(th instanceof BusThread))
+		{
+			threadCount++;
+		}
+	}
+
+	/**
+	 * Models can create many object, periodic and async threads, which otherwise all
+	 * have the (usually large) stack of the JVM's -Xss setting. Threads that do not
+	 * belong to an object, like the main, init and bus threads, always use the default.
+	 */
+	private static long getStackSize(ObjectValue object)
+	{
+		if (object == null)
+		{
+			return 0;	// JVM default
+		}
+		else
+		{
+			return Properties.scheduler_thread_stack * 1024L;
+		}
+	}
+
 	@Override
 	public boolean equals(Object other)
 	{
@@ -127,14 +163,28 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 		return getName() + " (" + (stopCalled ? "STOPPING" : state) + ")";
 	}
 
+	/**
+	 * With vdmj.scheduler.deferred_start, threads that belong to an object are not
+	 * started as Java threads until the scheduler first gives them a timeslice. So
+	 * threads that are waiting to run, like periodic threads waiting for their start
+	 * time or async calls queued on a busy CPU, do not need a Java thread until then.
+	 * The thread's states change in the same order, so scheduling is unaffected.
+	 */
     @Override
 	public synchronized void start()
 	{
-		super.start();
-
-		while (state == RunState.CREATED)
+		if (deferred)
 		{
-			sleep(null, null);
+			setState(RunState.RUNNABLE);	// As the initial reschedule in run() would
+		}
+		else
+		{
+			super.start();
+	
+			while (state == RunState.CREATED)
+			{
+				sleep(null, null);
+			}
 		}
 
 		// Log the creation here so that it is deterministic...
@@ -151,7 +201,15 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 	{
 		try
 		{
-			reschedule(null, null);
+			if (!deferred)
+			{
+				reschedule(null, null);
+			}
+			else if (stopCalled)
+			{
+				throw new VDMThreadDeath();		// As sleep does when rescheduled
+			}
+
 			body();
 		}
 		catch (VDMThreadDeath e)
@@ -160,18 +218,28 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 		}
 		finally
 		{
-			setState(RunState.COMPLETE);
-			resource.unregister(this);
+			complete();
+		}
+	}
 
-			synchronized (allThreads)
-			{
-				allThreads.remove(this);
+	private void complete()
+	{
+		setState(RunState.COMPLETE);
+		resource.unregister(this);
 
+		synchronized (allThreads)
+		{
+			if (allThreads.remove(this))
+			{
 				if (!(this instanceof BusThread))
 				{
 					threadCount--;
 				}
 			}
+			else
+			{
+				deferredThreads.remove(this);	// Never started
+			}
 		}
 	}
 
@@ -241,11 +309,38 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 		setState(RunState.ALARM);
 	}
 
-	public synchronized void runslice(long slice)
+	public void runslice(long slice)
 	{
 		// Run one time slice - called by Scheduler
-		timeslice = slice;
-		waitWhileState(RunState.RUNNING, RunState.RUNNING, null, null);
+
+		if (deferred)
+		{
+			synchronized (allThreads)	// Not within our lock, see signalAll
+			{
+				if (deferredThreads.remove(this))
+				{
+					addThread(this);
+				}
+			}
+		}
+
+		synchronized (this)
+		{
+			timeslice = slice;
+
+			if (deferred && !started)
+			{
+				if (state == RunState.COMPLETE)
+				{
+					return;		// Terminated before it started
+				}
+
+				started = true;
+				super.start();		// Runs once we wait, below
+			}
+
+			waitWhileState(RunState.RUNNING, RunState.RUNNING, null, null);
+		}
 	}
 
 	public synchronized void duration(long pause, Context ctxt, LexLocation location)
@@ -364,13 +459,7 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 
 	public static void terminateAll()
 	{
-		synchronized (allThreads)
-		{
-    		for (SchedulableThread th: allThreads)
-    		{
-   				th.setSignal(Signal.TERMINATE);
-    		}
-		}
+		signalAll(Signal.TERMINATE);
 	}
 
 	public static void signalAll(Signal sig)
@@ -381,6 +470,15 @@ public abstract class SchedulableThread extends Thread implements Serializable,
     		{
    				th.setSignal(sig);
     		}
+
+    		if (sig != Signal.SUSPEND)
+    		{
+    			// Threads that have not started have nothing to stop or report
+    			for (SchedulableThread th: new Vector<SchedulableThread>(deferredThreads))
+    			{
+    				th.complete();
+    			}
+    		}
 		}
 	}
 	
@@ -418,6 +516,14 @@ public abstract class SchedulableThread extends Thread implements Serializable,
    				}
     		}
     		
+    		for (SchedulableThread th: deferredThreads)
+    		{
+   				if (th.object == target)
+   				{
+   					list.add(th);
+   				}
+    		}
+    		
     		return list;
 		}
 	}
@@ -504,6 +610,22 @@ public abstract class SchedulableThread extends Thread implements Serializable,
 		return timestep;
 	}
 
+	/**
+	 * The time remaining until the end of the current duration, which may be less than
+	 * the timestep if the clock has been moved by other threads since it was set.
+	 */
+	public synchronized long getTimeRemaining()
+	{
+		if (timestep == Long.MAX_VALUE)
+		{
+			return timestep;
+		}
+		else
+		{
+			return durationEnd - SystemClock.getWallTime();
+		}
+	}
+
 	public synchronized long getDurationEnd()
 	{
 		return durationEnd;
@@ -88,10 +88,18 @@ public class TraceFilter
 
 	public void update(List<Object> result, CallSequence test, int n)
 	{
-		if (result.get(result.size()-1) != Verdict.PASSED)
+		update(result.size() - 1, result.get(result.size()-1) == Verdict.PASSED, test, n);
+	}
+
+	/**
+	 * Update with the stem length and verdict of a result, as returned by a trace worker.
+	 */
+	public void update(int stem, boolean passed, CallSequence test, int n)
+	{
+		if (!passed)
 		{
 			failedTests.add(test);
-			failedStems.add(result.size() - 1);
+			failedStems.add(stem);
 			failedNumbers.add(n);
 		}
 	}
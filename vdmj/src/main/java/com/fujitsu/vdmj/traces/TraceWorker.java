@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.traces;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.fujitsu.vdmj.ExitStatus;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.in.definitions.INNamedTraceDefinition;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.messages.ConsolePrintWriter;
+import com.fujitsu.vdmj.plugins.Lifecycle;
+import com.fujitsu.vdmj.plugins.VDMJ;
+import com.fujitsu.vdmj.runtime.Interpreter;
+
+/**
+ * The main class of a trace worker process, started by a TraceWorkerPool. This loads
+ * the specification with the normal lifecycle, then reads a trace name and test numbers
+ * from stdin, in order, and writes the result of each test to stdout as soon as it has
+ * run, until stdin is closed. Anything
+ * printed by the specification is captured and returned with the test's result.
+ */
+public class TraceWorker extends Lifecycle
+{
+	private final BufferedReader in;
+	private final DataOutputStream out;
+	private final StringWriter captured;
+
+	public static void main(String[] args)
+	{
+		Settings.mainClass = VDMJ.class;
+		Properties.init();
+
+		TraceWorker worker = new TraceWorker(args);
+		System.exit(worker.run() == ExitStatus.EXIT_OK ? 0 : 1);
+	}
+
+	public TraceWorker(String[] args)
+	{
+		super(args);
+
+		// stdin and stdout are only used to talk to the pool, so that the console
+		// key watchers cannot see the test numbers and everything else is captured.
+		in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		captured = new StringWriter();
+		System.setIn(new ByteArrayInputStream(new byte[0]));
+		System.setOut(System.err);
+		Console.init(Console.charset, new ConsolePrintWriter(new PrintWriter(captured, true)), Console.err);
+	}
+
+	@Override
+	protected ExitStatus startConsole()
+	{
+		try
+		{
+			runTests(in.readLine());
+			out.close();
+			return ExitStatus.EXIT_OK;
+		}
+		catch (Exception e)
+		{
+			Console.err.println("Trace worker: " + e);
+			return ExitStatus.EXIT_ERRORS;
+		}
+	}
+
+	private void runTests(String tracename) throws Exception
+	{
+		Interpreter interpreter = Interpreter.getInstance();
+		INNamedTraceDefinition tracedef = interpreter.findTraceDefinition(interpreter.getTraceName(tracename));
+
+		if (tracedef == null)
+		{
+			throw new Exception("Trace " + tracename + " not found");
+		}
+
+		TraceIterator tests = tracedef.getIterator(interpreter.getTraceContext(tracedef.classDefinition));
+		TraceFilter filter = new TraceFilter(tests.count(), 1.0F, TraceReductionType.NONE, 0);
+		int testNumber = 1;
+		String line = in.readLine();
+
+		while (line != null && tests.hasMoreTests())
+		{
+			CallSequence test = tests.getNextTest();
+
+			if (testNumber == Integer.parseInt(line))
+			{
+				out.writeInt(testNumber);
+
+				if (filter.getFilteredBy(test) > 0)
+				{
+					out.writeBoolean(true);		// Skipped
+				}
+				else
+				{
+					captured.getBuffer().setLength(0);
+					interpreter.traceInit();
+					List<Object> result = interpreter.runOneTrace(tracedef.classDefinition, test, false);
+					filter.update(result, test, testNumber);
+
+					out.writeBoolean(false);
+					out.writeInt(result.size() - 1);
+					out.writeBoolean(result.get(result.size() - 1) == Verdict.PASSED);
+					out.writeBoolean(result.lastIndexOf(Verdict.PASSED) != -1);
+					writeString(out, captured.toString());
+					writeString(out, test.getCallString(interpreter.getTraceContext(tracedef.classDefinition)));
+					writeString(out, result.toString());
+				}
+
+				out.flush();
+				line = in.readLine();
+			}
+
+			testNumber++;
+		}
+	}
+
+	/**
+	 * Strings are written as a length and UTF-8 bytes, because writeUTF is limited to 64K.
+	 */
+	public static void writeString(DataOutputStream out, String s) throws IOException
+	{
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public static String readString(DataInputStream in) throws IOException
+	{
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
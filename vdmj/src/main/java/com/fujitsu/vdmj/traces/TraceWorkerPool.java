@@ -0,0 +1,293 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.traces;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.fujitsu.vdmj.Settings;
+
+/**
+ * A pool of worker processes that run trace tests. Each worker is a separate JVM that
+ * loads the same files as this one, with the same current settings, and so has its own
+ * initialized interpreter state.
+ *
+ * Test numbers are submitted in order, in batches that are given to the workers in
+ * turn, and each worker runs its tests as they arrive. The results come back in the
+ * order that each worker runs them, and getResult returns the result for the earliest
+ * test submitted, so the caller can process them in test order while it submits more.
+ */
+public class TraceWorkerPool
+{
+	/**
+	 * The result of one test, as returned by a worker.
+	 */
+	public static class Result
+	{
+		public final int number;
+		public final boolean skipped;		// Filtered by the worker's own failures
+		public final int stem;
+		public final boolean passed;		// The final verdict was PASSED
+		public final boolean anyPassed;		// Any verdict was PASSED
+		public final String output;
+		public final String callString;
+		public final String result;
+
+		public Result(int number, boolean skipped, int stem, boolean passed, boolean anyPassed,
+			String output, String callString, String result)
+		{
+			this.number = number;
+			this.skipped = skipped;
+			this.stem = stem;
+			this.passed = passed;
+			this.anyPassed = anyPassed;
+			this.output = output;
+			this.callString = callString;
+			this.result = result;
+		}
+	}
+
+	private static final int MAX_BATCH = 100;
+
+	private final Process[] workers;
+	private final PrintWriter[] writers;
+	private final List<BlockingQueue<Result>> queues;
+	private final Queue<Integer> pending;		// The worker of each test submitted
+	private final int batch;
+	private int submitted = 0;
+	private volatile IOException failure = null;
+
+	/**
+	 * Start the workers for a trace. The expected number of tests sets the batch size,
+	 * and the files are those of the caller's interpreter.
+	 */
+	public TraceWorkerPool(int count, String tracename, int expected, Collection<File> files) throws IOException
+	{
+		this.workers = new Process[count];
+		this.writers = new PrintWriter[count];
+		this.queues = new Vector<BlockingQueue<Result>>();
+		this.pending = new ArrayDeque<Integer>();
+		this.batch = Math.max(1, Math.min(MAX_BATCH, expected / (count * 4)));
+
+		List<String> command = getCommand(files);
+
+		try
+		{
+			for (int w = 0; w < count; w++)
+			{
+				ProcessBuilder pb = new ProcessBuilder(command);
+				pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+				workers[w] = pb.start();
+			}
+
+			for (int w = 0; w < count; w++)
+			{
+				writers[w] = new PrintWriter(new OutputStreamWriter(workers[w].getOutputStream(), StandardCharsets.UTF_8));
+				writers[w].println(tracename);
+				writers[w].flush();
+
+				BlockingQueue<Result> queue = new LinkedBlockingQueue<Result>();
+				queues.add(queue);
+				startReader(w, queue);
+			}
+		}
+		catch (IOException e)
+		{
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Give the next test number to a worker. Numbers must be submitted in order.
+	 */
+	public void submit(int number)
+	{
+		int w = (submitted++ / batch) % workers.length;
+		writers[w].println(number);
+		writers[w].flush();
+		pending.add(w);
+	}
+
+	/**
+	 * The number of tests that can be submitted ahead of the results being read, to
+	 * keep every worker busy.
+	 */
+	public int getWindow()
+	{
+		return workers.length * batch * 2;
+	}
+
+	/**
+	 * Tell the workers that there are no more tests, so they stop when they are done.
+	 */
+	public void finish()
+	{
+		for (PrintWriter writer: writers)
+		{
+			writer.close();
+		}
+	}
+
+	/**
+	 * Get the result of the earliest test submitted that has not been returned, which
+	 * must have the number passed, waiting for the worker to produce it if necessary.
+	 */
+	public Result getResult(int number) throws IOException, InterruptedException
+	{
+		int w = pending.remove();
+		Result result = queues.get(w).take();
+
+		if (result.number != number)
+		{
+			throw failure != null ? failure : new IOException("Trace worker " + w + " failed");
+		}
+
+		return result;
+	}
+
+	public void close()
+	{
+		for (Process worker: workers)
+		{
+			if (worker != null)
+			{
+				worker.destroy();
+			}
+		}
+	}
+
+	/**
+	 * A worker runs the same Java command as this process, but with a TraceWorker main
+	 * class and arguments that load this session's files with its current settings.
+	 * These may differ from Settings.mainArgs, after "set" or "reload" commands.
+	 */
+	private List<String> getCommand(Collection<File> files)
+	{
+		List<String> command = new Vector<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+
+		for (String arg: ManagementFactory.getRuntimeMXBean().getInputArguments())
+		{
+			if (arg.startsWith("-D") || arg.startsWith("-Xm") || arg.startsWith("-Xss"))
+			{
+				command.add(arg);
+			}
+		}
+
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(TraceWorker.class.getName());
+		command.add(Settings.dialect.getArgstring());
+		command.add("-r");
+		command.add(Settings.release.toString());
+		command.add("-c");
+		command.add(Settings.filecharset.name());
+		command.add("-q");
+		command.add("-w");
+		command.add("-e");		// Creates an interpreter, but TraceWorker does not
+		command.add("true");	// evaluate the expression
+
+		if (!Settings.prechecks)		command.add("-pre");
+		if (!Settings.postchecks)		command.add("-post");
+		if (!Settings.invchecks)		command.add("-inv");
+		if (!Settings.dynamictypechecks)	command.add("-dtc");
+		if (Settings.exceptions)		command.add("-exceptions");
+		if (!Settings.measureChecks)	command.add("-measures");
+		if (Settings.annotations)		command.add("-annotations");
+		if (Settings.strict)			command.add("-strict");
+
+		for (File file: new TreeSet<File>(files))	// Predictable order
+		{
+			command.add(file.getAbsolutePath());
+		}
+
+		return command;
+	}
+
+	/**
+	 * Each worker has a thread that reads its results into a queue, so that a worker
+	 * never blocks writing results while the caller is submitting tests to it.
+	 */
+	private void startReader(int w, BlockingQueue<Result> queue)
+	{
+		Thread reader = new Thread("trace worker " + w)
+		{
+			@Override
+			public void run()
+			{
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(workers[w].getInputStream())))
+				{
+					while (true)
+					{
+						int number = in.readInt();
+
+						if (in.readBoolean())
+						{
+							queue.add(new Result(number, true, 0, false, false, null, null, null));
+						}
+						else
+						{
+							int stem = in.readInt();
+							boolean passed = in.readBoolean();
+							boolean anyPassed = in.readBoolean();
+							String output = TraceWorker.readString(in);
+							String callString = TraceWorker.readString(in);
+							String result = TraceWorker.readString(in);
+
+							queue.add(new Result(number, false, stem, passed, anyPassed, output, callString, result));
+						}
+					}
+				}
+				catch (IOException e)
+				{
+					if (failure == null)
+					{
+						failure = new IOException("Trace worker " + w + " stopped: " + e.getMessage());
+					}
+
+					queue.add(new Result(-1, true, 0, false, false, null, null, null));	// Unblock getResult
+				}
+			}
+		};
+
+		reader.setDaemon(true);
+		reader.start();
+	}
+}
@@ -55,6 +55,8 @@ public class ClassTypeChecker extends TypeChecker
 	@Override
 	public void typeCheck()
 	{
+		TypeComparator.clearCache();	// Forget the types of earlier checks
+
 		boolean hasSystem = false;
 
 		for (TCClassDefinition c1: classes)
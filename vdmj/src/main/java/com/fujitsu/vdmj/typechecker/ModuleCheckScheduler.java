@@ -0,0 +1,314 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.typechecker;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.Vector;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.messages.InternalException;
+import com.fujitsu.vdmj.messages.VDMMessage;
+import com.fujitsu.vdmj.tc.annotations.TCAnnotation;
+import com.fujitsu.vdmj.tc.modules.TCImportFromModule;
+import com.fujitsu.vdmj.tc.modules.TCModule;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+
+/**
+ * Run a type checking pass over a list of modules, using vdmj.tc.parallel_modules
+ * threads. A module is only checked after the modules that it imports from, and a
+ * group of modules that import from each other is checked by one thread, in order.
+ * The messages reported for each module are buffered and added to the TypeChecker
+ * lists in module order, so the result is the same as a serial check.
+ */
+public class ModuleCheckScheduler
+{
+	/**
+	 * The check to perform for each module.
+	 */
+	public interface ModuleCheck
+	{
+		public void typeCheck(TCModule module);
+	}
+
+	/**
+	 * A group of modules that import from each other, and the groups that depend
+	 * on it.
+	 */
+	private static class Group
+	{
+		public final List<TCModule> modules = new Vector<TCModule>();
+		public final List<Group> dependents = new Vector<Group>();
+		public int waiting = 0;
+	}
+
+	private final TCModuleList modules;
+	private final Map<TCModule, Integer> indexes = new HashMap<TCModule, Integer>();
+
+	// Tarjan's strongly connected components
+	private final Map<TCModule, Integer> lowlinks = new HashMap<TCModule, Integer>();
+	private final Map<TCModule, Integer> visited = new HashMap<TCModule, Integer>();
+	private final Stack<TCModule> stack = new Stack<TCModule>();
+	private final Map<TCModule, Group> groups = new HashMap<TCModule, Group>();
+	private final List<Group> groupList = new Vector<Group>();
+
+	public ModuleCheckScheduler(TCModuleList modules)
+	{
+		this.modules = modules;
+
+		for (int i=0; i<modules.size(); i++)
+		{
+			indexes.put(modules.get(i), i);
+		}
+	}
+
+	/**
+	 * True if there are enough modules and threads to be worth checking in parallel.
+	 * Annotations are not assumed to be thread safe, so they force a serial check.
+	 */
+	public boolean isParallel()
+	{
+		return Properties.tc_parallel_modules > 1 && modules.size() > 1 &&
+			TCAnnotation.getInstances(TCAnnotation.class).isEmpty();
+	}
+
+	public void run(ModuleCheck check)
+	{
+		if (!isParallel())
+		{
+			for (TCModule m: modules)
+			{
+				check.typeCheck(m);
+			}
+
+			return;
+		}
+
+		for (TCModule m: modules)
+		{
+			if (!visited.containsKey(m))
+			{
+				findGroups(m);
+			}
+		}
+
+		linkGroups();
+
+		ExecutorService executor = Executors.newFixedThreadPool(Properties.tc_parallel_modules);
+		CompletionService<Group> completion = new ExecutorCompletionService<Group>(executor);
+		Map<TCModule, List<VDMMessage>> buffered = new HashMap<TCModule, List<VDMMessage>>();
+		Map<TCModule, RuntimeException> failures = new HashMap<TCModule, RuntimeException>();
+		int running = 0;
+
+		try
+		{
+			for (Group group: groupList)
+			{
+				if (group.waiting == 0)
+				{
+					submit(completion, group, check, buffered, failures);
+					running++;
+				}
+			}
+
+			while (running > 0)
+			{
+				Group done = completion.take().get();
+				running--;
+
+				for (Group dependent: done.dependents)
+				{
+					if (--dependent.waiting == 0)
+					{
+						submit(completion, dependent, check, buffered, failures);
+						running++;
+					}
+				}
+			}
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException)e.getCause();	// As thrown by a serial check
+			}
+			else if (e.getCause() instanceof Error)
+			{
+				throw (Error)e.getCause();				// Eg. StackOverflowError
+			}
+
+			throw new InternalException(0, "Parallel type check failed: " + e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			throw new InternalException(0, "Parallel type check failed: " + e);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		for (TCModule m: modules)	// In the original order
+		{
+			TypeChecker.addBuffered(buffered.get(m));
+
+			if (failures.containsKey(m))
+			{
+				throw failures.get(m);
+			}
+		}
+	}
+
+	private void submit(CompletionService<Group> completion, Group group, ModuleCheck check,
+		Map<TCModule, List<VDMMessage>> buffered, Map<TCModule, RuntimeException> failures)
+	{
+		completion.submit(() ->
+		{
+			try
+			{
+				TypeComparator.setLocalModule(true);
+
+				for (TCModule m: group.modules)
+				{
+					TypeChecker.startBuffer();
+
+					try
+					{
+						check.typeCheck(m);
+					}
+					catch (RuntimeException e)
+					{
+						synchronized (failures)
+						{
+							failures.put(m, e);
+						}
+					}
+					finally
+					{
+						List<VDMMessage> messages = TypeChecker.endBuffer();
+
+						synchronized (buffered)
+						{
+							buffered.put(m, messages);
+						}
+					}
+				}
+			}
+			finally
+			{
+				TypeComparator.setLocalModule(false);
+			}
+
+			return group;
+		});
+	}
+
+	/**
+	 * The modules that a module imports from.
+	 */
+	private List<TCModule> getImports(TCModule module)
+	{
+		List<TCModule> imported = new Vector<TCModule>();
+
+		if (module.imports != null)
+		{
+			for (TCImportFromModule from: module.imports.imports)
+			{
+				TCModule m = modules.findModule(from.name);
+
+				if (m != null && m != module)
+				{
+					imported.add(m);
+				}
+			}
+		}
+
+		return imported;
+	}
+
+	private void findGroups(TCModule module)
+	{
+		visited.put(module, visited.size());
+		lowlinks.put(module, visited.get(module));
+		stack.push(module);
+
+		for (TCModule imported: getImports(module))
+		{
+			if (!visited.containsKey(imported))
+			{
+				findGroups(imported);
+				lowlinks.put(module, Math.min(lowlinks.get(module), lowlinks.get(imported)));
+			}
+			else if (stack.contains(imported))
+			{
+				lowlinks.put(module, Math.min(lowlinks.get(module), visited.get(imported)));
+			}
+		}
+
+		if (lowlinks.get(module).equals(visited.get(module)))
+		{
+			Group group = new Group();
+			TCModule m = null;
+
+			do
+			{
+				m = stack.pop();
+				group.modules.add(m);
+				groups.put(m, group);
+			}
+			while (m != module);
+
+			group.modules.sort((a, b) -> indexes.get(a) - indexes.get(b));
+			groupList.add(group);
+		}
+	}
+
+	private void linkGroups()
+	{
+		for (Group group: groupList)
+		{
+			for (TCModule m: group.modules)
+			{
+				for (TCModule imported: getImports(m))
+				{
+					Group other = groups.get(imported);
+
+					if (other != group && !other.dependents.contains(group))
+					{
+						other.dependents.add(group);
+						group.waiting++;
+					}
+				}
+			}
+		}
+	}
+}
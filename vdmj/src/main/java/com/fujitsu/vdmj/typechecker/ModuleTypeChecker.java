@@ -74,6 +74,8 @@ public class ModuleTypeChecker extends TypeChecker
 	@Override
 	public void typeCheck()
 	{
+		TypeComparator.clearCache();	// Forget the types of earlier checks
+
 		// Check for module name duplication
 
 		boolean hasFlat = false;
@@ -194,42 +196,18 @@ public class ModuleTypeChecker extends TypeChecker
 
 		for (Pass pass: Pass.values())
 		{
-			for (TCModule m: modules)
+			if (pass == Pass.DEFS)
 			{
-				TypeComparator.setCurrentModule(m.name.getName());
-				ModuleEnvironment e = new ModuleEnvironment(m);
-
-				if (pass == Pass.DEFS && m.annotations != null)
-				{
-					m.annotations.tcBefore(m, e);
-				}
-
-				for (TCDefinition d: m.defs)
-				{
-					if (d.pass == pass)
-					{
-						try
-						{
-							d.typeCheck(e, NameScope.NAMES);
-						}
-						catch (TypeCheckException te)
-						{
-							report(3430, te.getMessage(), te.location);
-							
-		    				if (te.extras != null)
-		    				{
-		    					for (TypeCheckException ex: te.extras)
-		    					{
-		    						report(3430, ex.getMessage(), ex.location);
-		    					}
-		    				}
-						}
-					}
-				}
+				// Definitions only depend on the types and values of the modules they
+				// import from, so these can be checked in parallel, if enabled.
 				
-				if (pass == Pass.DEFS && m.annotations != null)
+				new ModuleCheckScheduler(modules).run(m -> typeCheckPass(pass, m));
+			}
+			else
+			{
+				for (TCModule m: modules)
 				{
-					m.annotations.tcAfter(m, e);
+					typeCheckPass(pass, m);
 				}
 			}
 			
@@ -301,4 +279,46 @@ public class ModuleTypeChecker extends TypeChecker
 		// Calculate the transitive update sets for the operations
 		populateTransitiveUpdates(alldefs);
 	}
+
+	/**
+	 * Type check the definitions of one module for one pass.
+	 */
+	private void typeCheckPass(Pass pass, TCModule m)
+	{
+		TypeComparator.setCurrentModule(m.name.getName());
+		ModuleEnvironment e = new ModuleEnvironment(m);
+
+		if (pass == Pass.DEFS && m.annotations != null)
+		{
+			m.annotations.tcBefore(m, e);
+		}
+
+		for (TCDefinition d: m.defs)
+		{
+			if (d.pass == pass)
+			{
+				try
+				{
+					d.typeCheck(e, NameScope.NAMES);
+				}
+				catch (TypeCheckException te)
+				{
+					report(3430, te.getMessage(), te.location);
+					
+    				if (te.extras != null)
+    				{
+    					for (TypeCheckException ex: te.extras)
+    					{
+    						report(3430, ex.getMessage(), ex.location);
+    					}
+    				}
+				}
+			}
+		}
+		
+		if (pass == Pass.DEFS && m.annotations != null)
+		{
+			m.annotations.tcAfter(m, e);
+		}
+	}
 }
@@ -88,7 +88,7 @@ public class TCRecursiveCycles
 		defmap = new  HashMap<TCNameToken, TCDefinition>();
 	}
 	
-	public void addCaller(TCDefinition parent, TCDefinitionListList loops, TCDefinition calling)
+	public synchronized void addCaller(TCDefinition parent, TCDefinitionListList loops, TCDefinition calling)
 	{
 		if (!applymap.containsKey(parent))
 		{
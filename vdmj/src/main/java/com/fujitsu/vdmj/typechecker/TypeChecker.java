@@ -64,6 +64,19 @@ abstract public class TypeChecker
 	private static boolean suspended = false;
 	private static int MAXE = Properties.tc_max_errors;
 	private static int MAXW = Properties.tc_max_warnings;
+
+	/**
+	 * Messages reported by a thread that is checking a module in parallel with others.
+	 * These are added to the error and warning lists later, in module order.
+	 */
+	private static class MessageBuffer
+	{
+		public final List<VDMMessage> messages = new Vector<VDMMessage>();
+		public VDMMessage lastMessage = null;
+		public boolean suspended = false;
+	}
+
+	private static final ThreadLocal<MessageBuffer> buffers = new ThreadLocal<MessageBuffer>();
 	
 	public TypeChecker()
 	{
@@ -450,10 +463,20 @@ abstract public class TypeChecker
 	 */
 	public static void report(int number, String problem, LexLocation location)
 	{
-		if (suspended) return;	
-		VDMError error = new VDMError(number, problem, location);
+		if (isSuspended()) return;
+		addError(new VDMError(number, problem, location));
+	}
+
+	private static void addError(VDMError error)
+	{
+		MessageBuffer buffer = buffers.get();
 
-		if (!errors.contains(error))
+		if (buffer != null)
+		{
+			buffer.messages.add(error);
+			buffer.lastMessage = error;
+		}
+		else if (!errors.contains(error))
 		{
 			if (errors.size() < MAXE)
 			{
@@ -462,7 +485,7 @@ abstract public class TypeChecker
 	
 	    		if (errors.size() == MAXE)
 	    		{
-	    			errors.add(new VDMError(10, "Too many type checking errors", location));
+	    			errors.add(new VDMError(10, "Too many type checking errors", error.location));
 	    		}
 			}
 		}
@@ -477,10 +500,20 @@ abstract public class TypeChecker
 	 */
 	public static void warning(int number, String problem, LexLocation location)
 	{
-		if (suspended) return;
-		VDMWarning warning = new VDMWarning(number, problem, location);
+		if (isSuspended()) return;
+		addWarning(new VDMWarning(number, problem, location));
+	}
 
-		if (!warnings.contains(warning))
+	private static void addWarning(VDMWarning warning)
+	{
+		MessageBuffer buffer = buffers.get();
+
+		if (buffer != null)
+		{
+			buffer.messages.add(warning);
+			buffer.lastMessage = warning;
+		}
+		else if (!warnings.contains(warning))
 		{
 			if (warnings.size() < MAXW)
 			{
@@ -489,7 +522,7 @@ abstract public class TypeChecker
 
 				if (warnings.size() == MAXW)
 	    		{
-	    			warnings.add(new VDMWarning(10, "Too many type checking warnings", location));
+	    			warnings.add(new VDMWarning(10, "Too many type checking warnings", warning.location));
 	    		}
 			}
 		}
@@ -501,11 +534,13 @@ abstract public class TypeChecker
 
 	public static void detail(String tag, Object obj)
 	{
-		if (suspended) return;
+		if (isSuspended()) return;
+		MessageBuffer buffer = buffers.get();
+		VDMMessage last = (buffer != null) ? buffer.lastMessage : lastMessage;
 
-		if (lastMessage != null)
+		if (last != null)
 		{
-			lastMessage.add(tag + ": " + obj);
+			last.add(tag + ": " + obj);
 		}
 	}
 
@@ -559,6 +594,59 @@ abstract public class TypeChecker
 
 	public static void suspend(boolean suspend)
 	{
-		suspended  = suspend;
+		MessageBuffer buffer = buffers.get();
+
+		if (buffer != null)
+		{
+			buffer.suspended = suspend;
+		}
+		else
+		{
+			suspended = suspend;
+		}
+	}
+
+	private static boolean isSuspended()
+	{
+		MessageBuffer buffer = buffers.get();
+		return (buffer != null) ? buffer.suspended : suspended;
+	}
+
+	/**
+	 * Start buffering the messages reported by the current thread.
+	 */
+	static void startBuffer()
+	{
+		buffers.set(new MessageBuffer());
+	}
+
+	/**
+	 * Stop buffering the messages reported by the current thread, returning those
+	 * buffered since startBuffer.
+	 */
+	static List<VDMMessage> endBuffer()
+	{
+		MessageBuffer buffer = buffers.get();
+		buffers.remove();
+		return buffer.messages;
+	}
+
+	/**
+	 * Add buffered messages to the error and warning lists, as though they had
+	 * been reported by this thread.
+	 */
+	static void addBuffered(List<VDMMessage> messages)
+	{
+		for (VDMMessage message: messages)
+		{
+			if (message instanceof VDMError)
+			{
+				addError((VDMError)message);
+			}
+			else
+			{
+				addWarning((VDMWarning)message);
+			}
+		}
 	}
 }
@@ -24,8 +24,10 @@
 
 package com.fujitsu.vdmj.typechecker;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.Vector;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fujitsu.vdmj.Settings;
 import com.fujitsu.vdmj.lex.Dialect;
@@ -68,12 +70,25 @@ import com.fujitsu.vdmj.tc.types.visitors.TCParameterCollector;
 public class TypeComparator
 {
 	/**
-	 * A vector of type pairs that have already been compared. This is to
-	 * allow recursive type definitions to be compared without infinite
-	 * regress.
+	 * A map of type pairs that have already been compared in the current check.
+	 * This is to allow recursive type definitions to be compared without infinite
+	 * regress. Each thread has its own map, so that checks can run concurrently, and
+	 * the map is removed when the check ends, so that pool threads do not keep it.
 	 */
 
-	private static Vector<TypePair> done = new Vector<TypePair>(256);
+	private static final ThreadLocal<Map<TypePair, TypePair>> done =
+		new ThreadLocal<Map<TypePair, TypePair>>();
+
+	/**
+	 * A cache of the results of complete checks between resolved types, which are
+	 * compared by identity. This is cleared when a new type check starts, so that it
+	 * does not keep the types of earlier checks, and when it reaches its maximum size.
+	 */
+
+	private static final int CACHE_SIZE = 10000;
+
+	private static final Map<CacheKey, Boolean> cache =
+		new ConcurrentHashMap<CacheKey, Boolean>(1024);
 
 	/**
 	 * A result value for comparison of types. The "Maybe" value is needed so
@@ -116,7 +131,47 @@ public class TypeComparator
 		@Override
 		public int hashCode()
 		{
-			return a.hashCode() + b.hashCode();
+			return System.identityHashCode(a) + System.identityHashCode(b);
+		}
+	}
+
+	private static class CacheKey
+	{
+		public final boolean subtype;
+		public final TCType a;
+		public final TCType b;
+		public final boolean flag;		// paramOnly or invignore
+		public final String module;
+
+		public CacheKey(boolean subtype, TCType a, TCType b, boolean flag, String module)
+		{
+			this.subtype = subtype;
+			this.a = a;
+			this.b = b;
+			this.flag = flag;
+			this.module = module;
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			if (other instanceof CacheKey)
+			{
+				CacheKey key = (CacheKey)other;
+
+				return a == key.a && b == key.b &&
+					subtype == key.subtype && flag == key.flag &&
+					(module == null ? key.module == null : module.equals(key.module));
+			}
+
+			return false;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return System.identityHashCode(a) * 31 + System.identityHashCode(b) +
+				(subtype ? 1 : 0) + (flag ? 2 : 0);
 		}
 	}
 	
@@ -128,14 +183,127 @@ public class TypeComparator
 	
 	private static String currentModule = null;
 
+	/**
+	 * Threads that type check modules or evaluate POs in parallel have their own
+	 * current module.
+	 */
+	private static final ThreadLocal<String[]> localModule = new ThreadLocal<String[]>();
+
 	public static void setCurrentModule(String module)
 	{
-		currentModule = module;
+		String[] local = localModule.get();
+
+		if (local != null)
+		{
+			local[0] = module;
+		}
+		else
+		{
+			currentModule = module;
+		}
 	}
 	
 	public static String getCurrentModule()
 	{
-		return currentModule;
+		String[] local = localModule.get();
+		return (local != null) ? local[0] : currentModule;
+	}
+
+	/**
+	 * Give the current thread its own current module, or remove it.
+	 */
+	public static void setLocalModule(boolean local)
+	{
+		if (local)
+		{
+			localModule.set(new String[1]);
+		}
+		else
+		{
+			localModule.remove();
+		}
+	}
+
+	/**
+	 * Clear the cache of comparison results. This is called at the start of each type
+	 * check, since the same types may be re-resolved differently, and so that the
+	 * cache does not keep the type trees of earlier checks alive.
+	 */
+	public static void clearCache()
+	{
+		cache.clear();
+	}
+
+	/**
+	 * Start a new check, with an empty map of pairs compared, returning the map of
+	 * any check that this one is nested within.
+	 */
+	private static Map<TypePair, TypePair> newCheck()
+	{
+		Map<TypePair, TypePair> previous = done.get();
+		done.set(new HashMap<TypePair, TypePair>(64));
+		return previous;
+	}
+
+	/**
+	 * End a check, restoring the map of the check it was nested within, if any.
+	 */
+	private static void endCheck(Map<TypePair, TypePair> previous)
+	{
+		if (previous == null)
+		{
+			done.remove();
+		}
+		else
+		{
+			done.set(previous);
+		}
+	}
+
+	/**
+	 * Search the cache for the result of a complete check between two types, or
+	 * make the check and cache the result, if both types are resolved.
+	 */
+	private static boolean cachedCheck(boolean subtype, TCType a, TCType b, boolean flag)
+	{
+		CacheKey key = null;
+
+		if (a != null && b != null && a.resolved && b.resolved)
+		{
+			key = new CacheKey(subtype, a, b, flag, subtype ? null : getCurrentModule());
+			Boolean result = cache.get(key);
+
+			if (result != null)
+			{
+				return result;
+			}
+		}
+
+		Map<TypePair, TypePair> previous = newCheck();
+		boolean result = false;
+
+		try
+		{
+			result = subtype ?
+				searchSubType(a, b, flag) == Result.Yes :
+				searchCompatible(a, b, flag) == Result.Yes;
+		}
+		finally
+		{
+			endCheck(previous);
+		}
+
+		if (key != null)
+		{
+			if (cache.size() >= CACHE_SIZE)
+			{
+				cache.clear();
+			}
+
+			cache.put(key, result);
+		}
+
+		return result;
 	}
 	
 	/**
@@ -147,21 +315,19 @@ public class TypeComparator
 	 * @param from
 	 * @return True if types "a" and "b" are compatible.
 	 */
-	public synchronized static boolean compatible(TCType to, TCType from)
+	public static boolean compatible(TCType to, TCType from)
 	{
-		done.clear();
-		return searchCompatible(to, from, false) == Result.Yes;
+		return cachedCheck(false, to, from, false);
 	}
 
-	public synchronized static boolean compatible(String module, TCType to, TCType from)
+	public static boolean compatible(String module, TCType to, TCType from)
 	{
-		String old = currentModule;
+		String old = getCurrentModule();
 		
 		try
 		{
 			setCurrentModule(module);
-			done.clear();
-			return searchCompatible(to, from, false) == Result.Yes;
+			return cachedCheck(false, to, from, false);
 		}
 		finally
 		{
@@ -169,10 +335,9 @@ public class TypeComparator
 		}
 	}
 
-	public synchronized static boolean compatible(TCType to, TCType from, boolean paramOnly)
+	public static boolean compatible(TCType to, TCType from, boolean paramOnly)
 	{
-		done.clear();
-		return searchCompatible(to, from, paramOnly) == Result.Yes;
+		return cachedCheck(false, to, from, paramOnly);
 	}
 
 	/**
@@ -183,10 +348,18 @@ public class TypeComparator
 	 * @return True if all types compatible.
 	 */
 
-	public synchronized static boolean compatible(TCTypeList to, TCTypeList from)
+	public static boolean compatible(TCTypeList to, TCTypeList from)
 	{
-		done.clear();
-		return allCompatible(to, from, false) == Result.Yes;
+		Map<TypePair, TypePair> previous = newCheck();
+
+		try
+		{
+			return allCompatible(to, from, false) == Result.Yes;
+		}
+		finally
+		{
+			endCheck(previous);
+		}
 	}
 
 	/**
@@ -220,9 +393,9 @@ public class TypeComparator
 	}
 
 	/**
-	 * Search the {@link #done} vector for an existing comparison of two
+	 * Search the {@link #done} map for an existing comparison of two
 	 * types before either returning the previous result, or making a new
-	 * comparison and adding that result to the vector.
+	 * comparison and adding that result to the map.
 	 *
 	 * @param to
 	 * @param from
@@ -232,15 +405,11 @@ public class TypeComparator
 	private static Result searchCompatible(TCType to, TCType from, boolean paramOnly)
 	{
 		TypePair pair = new TypePair(to, from);
-		int i = done.indexOf(pair);
+		TypePair previous = done.get().putIfAbsent(pair, pair);
 
-		if (i >= 0)
+		if (previous != null)
 		{
-			return done.get(i).result;		// May be "Maybe".
-		}
-		else
-		{
-			done.add(pair);
+			return previous.result;		// May be "Maybe".
 		}
 
 		// The pair.result is "Maybe" until this call returns.
@@ -353,7 +522,7 @@ public class TypeComparator
     		{
     			TCInvariantType ito =(TCInvariantType)to;
     			
-	    		if (to instanceof TCNamedType && !ito.isOpaque(currentModule))
+	    		if (to instanceof TCNamedType && !ito.isOpaque(getCurrentModule()))
 	    		{
 	    			to = ((TCNamedType)to).type;
 	    			continue;
@@ -364,7 +533,7 @@ public class TypeComparator
     		{
     			TCInvariantType ifrom =(TCInvariantType)from;
     			
-	    		if (from instanceof TCNamedType && !ifrom.isOpaque(currentModule))
+	    		if (from instanceof TCNamedType && !ifrom.isOpaque(getCurrentModule()))
 	    		{
 	    			from = ((TCNamedType)from).type;
 	    			continue;
@@ -631,15 +800,14 @@ public class TypeComparator
 	 * @return True if sub is a subtype of sup.
 	 */
 
-	public synchronized static boolean isSubType(TCType sub, TCType sup)
+	public static boolean isSubType(TCType sub, TCType sup)
 	{
 		return isSubType(sub, sup, false);	// By default, invariants fail a match 
 	}
 
-	public synchronized static boolean isSubType(TCType sub, TCType sup, boolean invignore)
+	public static boolean isSubType(TCType sub, TCType sup, boolean invignore)
 	{
-		done.clear();
-		return searchSubType(sub, sup, invignore) == Result.Yes;
+		return cachedCheck(true, sub, sup, invignore);
 	}
 
 	/**
@@ -673,9 +841,9 @@ public class TypeComparator
 	}
 
 	/**
-	 * Search the {@link #done} vector for an existing subtype comparison of two
+	 * Search the {@link #done} map for an existing subtype comparison of two
 	 * types before either returning the previous result, or making a new
-	 * comparison and adding that result to the vector.
+	 * comparison and adding that result to the map.
 	 *
 	 * @param sub
 	 * @param sup
@@ -686,15 +854,11 @@ public class TypeComparator
 	private static Result searchSubType(TCType sub, TCType sup, boolean invignore)
 	{
 		TypePair pair = new TypePair(sub, sup);
-		int i = done.indexOf(pair);
+		TypePair previous = done.get().putIfAbsent(pair, pair);
 
-		if (i >= 0)
+		if (previous != null)
 		{
-			return done.get(i).result;		// May be "Maybe".
-		}
-		else
-		{
-			done.add(pair);
+			return previous.result;		// May be "Maybe".
 		}
 
 		// The pair.result is "Maybe" until this call returns.
@@ -1276,12 +1440,21 @@ public class TypeComparator
 	/**
 	 * Return the narrowest of two types/type lists.
 	 */
-	public static synchronized TCTypeList narrowest(TCTypeList t1, TCTypeList t2)
+	public static TCTypeList narrowest(TCTypeList t1, TCTypeList t2)
 	{
-		return allSubTypes(t1, t2, false) == Result.Yes ? t1 : t2;
+		Map<TypePair, TypePair> previous = newCheck();
+
+		try
+		{
+			return allSubTypes(t1, t2, false) == Result.Yes ? t1 : t2;
+		}
+		finally
+		{
+			endCheck(previous);
+		}
 	}
 	
-	public static synchronized TCType narrowest(TCType t1, TCType t2)
+	public static TCType narrowest(TCType t1, TCType t2)
 	{
 		return isSubType(t1, t2) ? t1 : t2;
 	}
@@ -36,11 +36,22 @@ public class BooleanValue extends Value
 	private static final long serialVersionUID = 1L;
 	public final boolean value;
 
+	private static final BooleanValue TRUE = new BooleanValue(true);
+	private static final BooleanValue FALSE = new BooleanValue(false);
+
 	public BooleanValue(boolean value)
 	{
 		this.value = value;
 	}
 
+	/**
+	 * Values are immutable, so the interpreter can share the two boolean values.
+	 */
+	public static BooleanValue valueOf(boolean value)
+	{
+		return value ? TRUE : FALSE;
+	}
+
 	@Override
 	public boolean boolValue(Context ctxt)
 	{
@@ -39,11 +39,35 @@ public class CharacterValue extends Value
 	private static final long serialVersionUID = 1L;
 	public final char unicode;
 
+	private static final CharacterValue[] cache = new CharacterValue[256];
+
 	public CharacterValue(char value)
 	{
 		this.unicode = value;
 	}
 
+	/**
+	 * Values are immutable, so the common (8-bit) characters are cached. A race to
+	 * create a value is harmless, because the fields are final.
+	 */
+	public static CharacterValue valueOf(char value)
+	{
+		if (value < cache.length)
+		{
+			CharacterValue cached = cache[value];
+
+			if (cached == null)
+			{
+				cached = new CharacterValue(value);
+				cache[value] = cached;
+			}
+
+			return cached;
+		}
+
+		return new CharacterValue(value);
+	}
+
 	@Override
 	public char charValue(Context ctxt)
 	{
@@ -86,6 +86,7 @@ public class FunctionValue extends Value
 	private ObjectValue self = null;
 	private boolean isStatic = false;
 	public boolean uninstantiated = false;
+	private String title = null;	// Cached toTitle() for call contexts
 
 	/**
 	 * Private constructor used by clone and curry.
@@ -527,6 +528,7 @@ public class FunctionValue extends Value
 				}
 
 				stack.push(currentMeasure);
+				evalContext.threadState.setMeasured(true);
 			}
 
 			Value rv = null;
@@ -582,6 +584,7 @@ public class FunctionValue extends Value
 			if (measure != null)
 			{
 				measureValues.get(tid).pop();
+				evalContext.threadState.setMeasured(false);
 			}
 
 			if (isMeasure)
@@ -850,8 +853,13 @@ public class FunctionValue extends Value
 
 	public String toTitle()
 	{
-		INPatternList paramPatterns = paramPatternList.get(0);
-		return name + Utils.listToString("(", paramPatterns, ", ", ")");
+		if (title == null)
+		{
+			INPatternList paramPatterns = paramPatternList.get(0);
+			title = name + Utils.listToString("(", paramPatterns, ", ", ")");
+		}
+
+		return title;
 	}
 
 	@Override
@@ -37,12 +37,37 @@ public class IntegerValue extends RationalValue
 	private static final long serialVersionUID = 1L;
 	protected final long longVal;
 
+	private static final IntegerValue[] cache = new IntegerValue[CACHE_HIGH - CACHE_LOW + 1];
+
 	public IntegerValue(long value)
 	{
 		super(value);
 		longVal = value;
 	}
 
+	/**
+	 * Return an int value, which is shared if the value is small. Note that
+	 * NumericValue.valueOf returns the narrowest nat1, nat or int value.
+	 */
+	public static IntegerValue valueOf(long value)
+	{
+		if (value >= CACHE_LOW && value <= CACHE_HIGH)
+		{
+			int index = (int)(value - CACHE_LOW);
+			IntegerValue cached = cache[index];
+
+			if (cached == null)
+			{
+				cached = new IntegerValue(value);
+				cache[index] = cached;
+			}
+
+			return cached;
+		}
+
+		return new IntegerValue(value);
+	}
+
 	@Override
 	public int compareTo(Value other)
 	{
@@ -40,6 +40,15 @@ public abstract class NumericValue extends Value
 	private static final long serialVersionUID = 1L;
 	public final double value;
 
+	/**
+	 * The range of small integer values that are cached by valueOf(long). Values are
+	 * immutable, so they can be shared, and a race to create a value is harmless
+	 * because the fields are final.
+	 */
+	protected static final int CACHE_LOW = -128;
+	protected static final int CACHE_HIGH = 1024;
+	private static final NumericValue[] cache = new NumericValue[CACHE_HIGH - CACHE_LOW + 1];
+
 	public NumericValue(double value)
 	{
 		super();
@@ -71,6 +80,25 @@ public abstract class NumericValue extends Value
 	}
 
 	public static NumericValue valueOf(long iv, Context ctxt) throws ValueException
+	{
+		if (iv >= CACHE_LOW && iv <= CACHE_HIGH)
+		{
+			int index = (int)(iv - CACHE_LOW);
+			NumericValue cached = cache[index];
+
+			if (cached == null)
+			{
+				cached = create(iv, ctxt);
+				cache[index] = cached;
+			}
+
+			return cached;
+		}
+
+		return create(iv, ctxt);
+	}
+
+	private static NumericValue create(long iv, Context ctxt) throws ValueException
 	{
 		if (iv > 0)
 		{
@@ -103,6 +103,7 @@ public class OperationValue extends Value
 	private long priority = 0;
 	private boolean traceRT = true;
 	private INOperationMeasureAnnotation measure = null;
+	private String title = null;	// Cached toTitle() for call contexts
 
 	public OperationValue(INExplicitOperationDefinition def,
 		FunctionValue precondition, FunctionValue postcondition,
@@ -817,7 +818,12 @@ public class OperationValue extends Value
 
 	public String toTitle()
 	{
-		return name.getName() + Utils.listToString("(", paramPatterns, ", ", ")");
+		if (title == null)
+		{
+			title = name.getName() + Utils.listToString("(", paramPatterns, ", ", ")");
+		}
+
+		return title;
 	}
 
 	public void setMeasure(INOperationMeasureAnnotation measure)
@@ -24,7 +24,9 @@
 
 package com.fujitsu.vdmj.values;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Vector;
 
 import com.fujitsu.vdmj.in.patterns.INPattern;
@@ -35,25 +37,60 @@ public class Quantifier
 {
 	public final INPattern pattern;
 	public final ValueList values;
+	private final Iterable<Value> source;
 	private List<NameValuePairList> nvlist;
+	private Context ctxt;
+	private boolean allPossibilities;
 
 	public Quantifier(INPattern pattern, ValueList values)
 	{
 		this.pattern = pattern;
 		this.values = values;
+		this.source = null;
 		this.nvlist = new Vector<NameValuePairList>(values.size());
 	}
 
+	/**
+	 * A quantifier whose values are produced on demand, and matched against the pattern
+	 * as they are needed, rather than all being held in memory at once. The source may
+	 * be iterated several times. A ValueList source is matched once, in init.
+	 */
+	public Quantifier(INPattern pattern, Iterable<Value> source)
+	{
+		this.pattern = pattern;
+
+		if (source instanceof ValueList)
+		{
+			this.values = (ValueList)source;
+			this.source = null;
+			this.nvlist = new Vector<NameValuePairList>(values.size());
+		}
+		else
+		{
+			this.values = null;
+			this.source = source;
+			this.nvlist = null;
+		}
+	}
+
 	public Quantifier(INPattern pattern)
 	{
 		this.pattern = pattern;
 		this.values = null;
+		this.source = null;
 		this.nvlist = new Vector<NameValuePairList>(1);
 	}
 
-	public int size(Context ctxt, boolean allPossibilities)
+	public void init(Context ctxt, boolean allPossibilities)
 	{
-		if (values == null)		// Create one undefined binding for the pattern names
+		this.ctxt = ctxt;
+		this.allPossibilities = allPossibilities;
+
+		if (source != null)
+		{
+			return;		// Matched in iterator()
+		}
+		else if (values == null)		// Create one undefined binding for the pattern names
 		{
 			nvlist.add(pattern.getUndefinedValues());
 		}
@@ -78,18 +115,68 @@ public class Quantifier
 				}
 			}
 		}
-		
-		return nvlist.size();
 	}
 
-	public NameValuePairList get(int index)
-		throws PatternMatchException
+	/**
+	 * Iterate over the pattern bindings, starting again from the first value each
+	 * time this is called.
+	 */
+	public Iterator<NameValuePairList> iterator()
 	{
-		if (index >= nvlist.size())		// no values
+		if (source == null)
 		{
-			return new NameValuePairList();
+			return nvlist.iterator();
 		}
 
-		return nvlist.get(index);
+		return new Iterator<NameValuePairList>()
+		{
+			private final Iterator<Value> iter = source.iterator();
+			private Iterator<NameValuePairList> matches = null;
+
+			@Override
+			public boolean hasNext()
+			{
+				while (matches == null || !matches.hasNext())
+				{
+					if (!iter.hasNext())
+					{
+						return false;
+					}
+
+					try
+					{
+						Value value = iter.next();
+
+						if (allPossibilities)
+						{
+							matches = pattern.getAllNamedValues(value, ctxt).iterator();
+						}
+						else
+						{
+							List<NameValuePairList> one = new Vector<NameValuePairList>(1);
+							one.add(pattern.getNamedValues(value, ctxt));
+							matches = one.iterator();
+						}
+					}
+					catch (PatternMatchException e)
+					{
+						matches = null;		// Value does not match the pattern, so skip it
+					}
+				}
+
+				return true;
+			}
+
+			@Override
+			public NameValuePairList next()
+			{
+				if (!hasNext())
+				{
+					throw new NoSuchElementException();
+				}
+
+				return matches.next();
+			}
+		};
 	}
 }
@@ -24,54 +24,70 @@
 
 package com.fujitsu.vdmj.values;
 
+import java.util.Iterator;
 import java.util.Vector;
 
 import com.fujitsu.vdmj.runtime.Context;
-import com.fujitsu.vdmj.runtime.PatternMatchException;
-
 
+/**
+ * A list of quantifiers, which produces every combination of their bindings. The first
+ * quantifier varies fastest. Each quantifier is iterated from the start again when the
+ * next one moves on, so only one binding of each quantifier is held at a time.
+ */
 public class QuantifierList extends Vector<Quantifier>
 {
 	private int count;
-	private int[] size;
-	private int[] next;
+	private Iterator<NameValuePairList>[] iterators;
+	private NameValuePairList[] current;
 	private NameValuePairList result = null;
 	private boolean done = false;
 
+	@SuppressWarnings("unchecked")
 	public void init(Context ctxt, boolean allPossibilities)
 	{
 		count = size();
-		size = new int[count];
-		next = new int[count];
-		boolean someData = false;
+		iterators = new Iterator[count];
+		current = new NameValuePairList[count];
 		boolean oneHasNoData = false;
 
 		for (int i=0; i<count; i++)
 		{
-			size[i] = get(i).size(ctxt, allPossibilities);
-			someData = someData || size[i] > 0;
-			oneHasNoData = oneHasNoData || size[i] == 0;
-			next[i] = 0;
+			Quantifier q = get(i);
+			q.init(ctxt, allPossibilities);
+			iterators[i] = q.iterator();
+
+			if (iterators[i].hasNext())
+			{
+				current[i] = iterators[i].next();
+			}
+			else
+			{
+				oneHasNoData = true;
+			}
 		}
 
-		done = count == 0 || !someData || oneHasNoData;
+		done = count == 0 || oneHasNoData;
 	}
 
 	private void permute()
 	{
 		for (int i=0; i<count; i++)
 		{
-			if (++next[i] < size[i])
+			if (iterators[i].hasNext())
 			{
+				current[i] = iterators[i].next();
 				break;
 			}
 
-			next[i] = 0;
-
 			if (i == count-1)
 			{
 				done = true;
 			}
+			else
+			{
+				iterators[i] = get(i).iterator();
+				current[i] = iterators[i].next();
+			}
 		}
 	}
 
@@ -82,25 +98,17 @@ public class QuantifierList extends Vector<Quantifier>
 
 	public boolean hasNext()
 	{
-		while (!done)
+		if (!done)
 		{
-			try
-			{
-           		result = new NameValuePairList();
+			result = new NameValuePairList();
 
-        		for (int i=0; i<count; i++)
-        		{
-        			Quantifier q = get(i);
-        			result.addAll(q.get(next[i]));
-        		}
-
-        		permute();
-        		return true;
-			}
-			catch (PatternMatchException e)
+			for (int i=0; i<count; i++)
 			{
-				permute();		// Bad matches are ignored
+				result.addAll(current[i]);
 			}
+
+			permute();
+			return true;
 		}
 
 		return false;
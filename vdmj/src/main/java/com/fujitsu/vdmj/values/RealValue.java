@@ -128,6 +128,16 @@ public class RealValue extends NumericValue
 	@Override
 	public int hashCode()
 	{
+		// Reals that are equal to integers must hash like IntegerValues,
+		// since equals is based on the numeric value alone.
+
+		long rounded = (long)value;
+
+		if (rounded == value)
+		{
+			return (int)rounded;
+		}
+
 		return toString().hashCode();
 	}
 
@@ -59,7 +59,7 @@ public class SeqValue extends Value
 
 		for (int i=0; i<len; i++)
 		{
-			this.values.add(new CharacterValue(s.charAt(i)));
+			this.values.add(CharacterValue.valueOf(s.charAt(i)));
 		}
 	}
 
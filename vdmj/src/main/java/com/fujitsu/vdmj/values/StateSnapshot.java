@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.values;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Vector;
+
+import com.fujitsu.vdmj.runtime.Context;
+import com.fujitsu.vdmj.values.visitors.LeafValueVisitor;
+
+/**
+ * A snapshot of the state held in UpdatableValues, taken after initialization. While a
+ * snapshot is recording, the first change to each UpdatableValue logs its previous value,
+ * and new map keys or sequence elements created by assignments are logged too. Restoring
+ * the snapshot undoes the log, in reverse, so the cost is proportional to the number of
+ * values that were changed since the snapshot was taken or last restored.
+ *
+ * Only the UpdatableValues that are reachable from the snapshot's contexts when it starts
+ * are logged. Other values, like local "dcl" variables or values created by a test, are
+ * discarded when the values that hold them are restored.
+ *
+ * Only one snapshot can be recording at a time.
+ */
+public class StateSnapshot
+{
+	private static volatile StateSnapshot recording = null;
+
+	/**
+	 * One undo action: a previous value of an UpdatableValue, or a map key or list
+	 * element that was added.
+	 */
+	private static class Change
+	{
+		public final UpdatableValue target;
+		public final Value previous;
+		public final ValueMap map;
+		public final Value key;
+		public final ValueList list;
+
+		public Change(UpdatableValue target, Value previous, ValueMap map, Value key, ValueList list)
+		{
+			this.target = target;
+			this.previous = previous;
+			this.map = map;
+			this.key = key;
+			this.list = list;
+		}
+	}
+
+	/**
+	 * Marks the UpdatableValues reachable from a value as belonging to a snapshot.
+	 */
+	private static class SnapshotMarker extends LeafValueVisitor<Value, List<Value>, StateSnapshot>
+	{
+		@Override
+		public List<Value> caseValue(Value node, StateSnapshot snapshot)
+		{
+			return newCollection();
+		}
+
+		@Override
+		public List<Value> caseUpdatableValue(UpdatableValue node, StateSnapshot snapshot)
+		{
+			node.snapshot = snapshot;
+			return super.caseUpdatableValue(node, snapshot);
+		}
+
+		@Override
+		protected List<Value> newCollection()
+		{
+			return new Vector<Value>();
+		}
+	}
+
+	private final List<Change> changes = new ArrayList<Change>();
+	private volatile int epoch = 1;
+
+	/**
+	 * Start recording changes to the UpdatableValues reachable from the contexts passed,
+	 * and their outer contexts, returning the snapshot.
+	 */
+	public static StateSnapshot start(Collection<Context> contexts)
+	{
+		StateSnapshot snapshot = new StateSnapshot();
+		SnapshotMarker marker = new SnapshotMarker();
+
+		for (Context ctxt: contexts)
+		{
+			while (ctxt != null)
+			{
+				for (Value value: ctxt.values())
+				{
+					value.apply(marker, snapshot);
+				}
+
+				ctxt = ctxt.outer;
+			}
+		}
+
+		recording = snapshot;
+		return snapshot;
+	}
+
+	/**
+	 * Stop recording changes. The snapshot can no longer be restored.
+	 */
+	public void stop()
+	{
+		if (recording == this)
+		{
+			recording = null;
+		}
+
+		changes.clear();
+	}
+
+	/**
+	 * Undo all of the changes since the snapshot was started or last restored.
+	 */
+	public synchronized void restore()
+	{
+		for (int i = changes.size() - 1; i >= 0; i--)
+		{
+			Change change = changes.get(i);
+
+			if (change.target != null)
+			{
+				change.target.restore(change.previous);
+			}
+			else if (change.map != null)
+			{
+				change.map.remove(change.key);
+			}
+			else
+			{
+				change.list.remove(change.list.size() - 1);
+			}
+		}
+
+		changes.clear();
+		epoch++;	// So that every value logs its next change again
+	}
+
+	/**
+	 * Called by an UpdatableValue, while locked, before its value is replaced.
+	 */
+	static void changing(UpdatableValue target)
+	{
+		StateSnapshot snapshot = recording;
+
+		if (snapshot != null && target.snapshot == snapshot && target.snapshotEpoch != snapshot.epoch)
+		{
+			target.snapshotEpoch = snapshot.epoch;
+			snapshot.add(new Change(target, target.value, null, null, null));
+		}
+	}
+
+	/**
+	 * Called before a new key is added to a map held in an UpdatableValue, the holder.
+	 */
+	public static void adding(UpdatableValue holder, ValueMap map, Value key)
+	{
+		StateSnapshot snapshot = recording;
+
+		if (snapshot != null && holder.snapshot == snapshot)
+		{
+			snapshot.add(new Change(null, null, map, key, null));
+		}
+	}
+
+	/**
+	 * Called before a new element is appended to a list held in an UpdatableValue, the holder.
+	 */
+	public static void adding(UpdatableValue holder, ValueList list)
+	{
+		StateSnapshot snapshot = recording;
+
+		if (snapshot != null && holder.snapshot == snapshot)
+		{
+			snapshot.add(new Change(null, null, null, null, list));
+		}
+	}
+
+	private synchronized void add(Change change)
+	{
+		changes.add(change);
+	}
+}
@@ -48,6 +48,12 @@ public class UpdatableValue extends ReferenceValue
 	public ValueListenerList listeners;
 	protected final TCType restrictedTo;
 
+	/** The StateSnapshot that restores this value, if it is part of the saved state */
+	transient StateSnapshot snapshot = null;
+
+	/** The StateSnapshot epoch when this value's last change was recorded */
+	transient int snapshotEpoch = 0;
+
 	public static UpdatableValue factory(Value value, ValueListenerList listeners)
 	{
 		return factory(value, listeners, null);
@@ -147,6 +153,8 @@ public class UpdatableValue extends ReferenceValue
 
 		synchronized (this)
 		{
+			StateSnapshot.changing(this);
+
 			if (value instanceof InvariantValue && Settings.dialect != Dialect.VDM_SL)
 			{
 				// Before overwriting this invariant value, we check whether any listeners
@@ -169,6 +177,14 @@ public class UpdatableValue extends ReferenceValue
 		// NOTE: we omit the listener check here, called in "set" above.
 	}
 
+	/**
+	 * Used by StateSnapshot to put back a previous value, without listeners.
+	 */
+	synchronized void restore(Value previous)
+	{
+		value = previous;
+	}
+
 	public void addListener(ValueListener listener)
 	{
 		if (listeners != null)
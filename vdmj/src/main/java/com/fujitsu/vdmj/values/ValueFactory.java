@@ -41,17 +41,17 @@ public class ValueFactory
 {
 	public static BooleanValue mkBool(boolean b)
 	{
-		return new BooleanValue(b);
+		return BooleanValue.valueOf(b);
 	}
 	
 	public static CharacterValue mkChar(char c)
 	{
-		return new CharacterValue(c);
+		return CharacterValue.valueOf(c);
 	}
 	
 	public static IntegerValue mkInt(long i)
 	{
-		return new IntegerValue(i);
+		return IntegerValue.valueOf(i);
 	}
 	
 	public static NaturalValue mkNat(long n) throws Exception
@@ -81,7 +81,7 @@ public class ValueFactory
 
 	public static NilValue mkNil()
 	{
-		return new NilValue();
+		return NilValue.valueOf();
 	}
 	
 	public static QuoteValue mkQuote(String q)
@@ -24,15 +24,13 @@
 
 package com.fujitsu.vdmj.values;
 
-import java.util.Vector;
-
 import com.fujitsu.vdmj.util.Utils;
 
 /**
  * A sequential list of values.
  */
 
-public class ValueList extends Vector<Value>
+public class ValueList extends ValueVector
 {
 	public ValueList()
 	{
@@ -41,8 +39,8 @@ public class ValueList extends Vector<Value>
 
 	public ValueList(ValueList from)
 	{
-		super(from.size());
-		addAll(from);
+		super(0);
+		copyFrom(from);
 	}
 
 	public ValueList(Value v)
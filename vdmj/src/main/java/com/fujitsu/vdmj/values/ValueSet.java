@@ -26,8 +26,11 @@ package com.fujitsu.vdmj.values;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Vector;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import com.fujitsu.vdmj.config.Properties;
 import com.fujitsu.vdmj.messages.InternalException;
@@ -42,10 +45,26 @@ import com.fujitsu.vdmj.util.Utils;
  * it is not based on a java.util.Set&lt;Value&gt;, but rather a Vector&lt;Value&gt;. This is
  * so that the possible orderings of set values can be enumerated when
  * performing quantifiers like "a,b,c in set {{1,2,3}, {4,5,6}}".
+ * 
+ * NOTE! To avoid an O(N^2) cost when building large sets, membership tests are
+ * made via a hash index once the set has more than INDEX_THRESHOLD elements and
+ * has been searched more than INDEX_SCANS times (so a set that is copied, updated
+ * once and then discarded does not pay to build an index). The index maps each value to its position, so that it can be shared with copies of
+ * the set which share storage (see ValueVector). It is built lazily and discarded
+ * by any update that is not a simple add. As with ValueMap, as soon as an
+ * Invariant/Record value is added that defines "eq", we stop using the index,
+ * because such values do not have a hashCode consistent with "eq".
  */
-public class ValueSet extends Vector<Value>		// NB based on Vector
+public class ValueSet extends ValueVector		// NB based on Vector
 {
+	private static final int INDEX_THRESHOLD = 16;
+	private static final int INDEX_SCANS = 2;
+
 	private boolean isSorted;
+	private int sortedCount = 0;	// Leading elements known to be in order
+	private boolean indexable = true;
+	private transient HashMap<Value, Integer> index = null;
+	private transient int scans = 0;
 
 	public ValueSet()
 	{
@@ -61,9 +80,21 @@ public class ValueSet extends Vector<Value>		// NB based on Vector
 
 	public ValueSet(ValueSet from)
 	{
-		super(from.size());
-		addAll(from);
-		isSorted = from.isSorted;
+		super(0);
+
+		synchronized (from)
+		{
+			copyFrom(from);		// No duplicates to remove
+			isSorted = from.isSorted;
+			sortedCount = from.sortedCount;
+			indexable = from.indexable;
+
+			if (isShared())
+			{
+				index = from.index;
+				scans = from.scans;
+			}
+		}
 	}
 
 	public ValueSet(Value v)
@@ -142,7 +173,7 @@ public class ValueSet extends Vector<Value>		// NB based on Vector
 		else
 		{
 			isSorted = false;
-			return super.add(v);
+			return addIndexed(v);
 		}
 	}
 	
@@ -152,20 +183,258 @@ public class ValueSet extends Vector<Value>		// NB based on Vector
 	 */
 	public boolean addSorted(Value v)
 	{
+		addIndexed(v);
 		isSorted = true;
-		return super.add(v);
+		sortedCount = size();
+		return true;
 	}
 
 	public boolean addUnsorted(Value v)
 	{
 		isSorted = false;
-		return super.add(v);
+		return addIndexed(v);
 	}
 	
 	public boolean addSorted(Value v, boolean sorted)
 	{
-		isSorted = sorted;
-		return super.add(v);
+		if (sorted)
+		{
+			return addSorted(v);
+		}
+		else
+		{
+			return addUnsorted(v);
+		}
+	}
+
+	@Override
+	public synchronized boolean contains(Object v)
+	{
+		HashMap<Value, Integer> idx = getIndex();
+
+		if (idx == null || definesEquality(v))
+		{
+			return super.contains(v);
+		}
+		else if (isShared())
+		{
+			synchronized (idx)
+			{
+				Integer pos = idx.get(v);
+				return pos != null && pos < elementCount;
+			}
+		}
+		else
+		{
+			Integer pos = idx.get(v);
+			return pos != null && pos < elementCount;
+		}
+	}
+
+	/**
+	 * Add a value that is known not to be in the set, keeping the index (if any)
+	 * up to date.
+	 */
+	private synchronized boolean addIndexed(Value v)
+	{
+		if (indexable && definesEquality(v))
+		{
+			indexable = false;
+			index = null;
+		}
+
+		super.add(v);	// Calls unshared(), if the storage is no longer shared
+
+		if (index != null)
+		{
+			synchronized (index)
+			{
+				index.put(v, elementCount - 1);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Get the membership index, building it if the set is large enough to need one,
+	 * and has been searched often enough to be worth it.
+	 * Note that the index may be shared with other sets that share our storage, so
+	 * it can contain positions beyond our own size.
+	 */
+	private HashMap<Value, Integer> getIndex()
+	{
+		if (index == null && indexable && elementCount > INDEX_THRESHOLD && ++scans > INDEX_SCANS)
+		{
+			HashMap<Value, Integer> idx = new HashMap<Value, Integer>(elementCount * 2);
+
+			for (int i=0; i<elementCount; i++)
+			{
+				idx.put((Value)elementData[i], i);
+			}
+
+			index = idx;
+		}
+
+		return index;
+	}
+
+	@Override
+	protected void unshared()
+	{
+		index = null;	// Positions may be claimed by others
+	}
+
+	/**
+	 * True if the value defines an "eq" clause, and so cannot be hashed reliably.
+	 */
+	private static boolean definesEquality(Object v)
+	{
+		if (v instanceof Value)
+		{
+			Value dv = ((Value)v).deref();
+
+			if (dv instanceof InvariantValue)
+			{
+				return ((InvariantValue)dv).equality != null;
+			}
+			else if (dv instanceof RecordValue)
+			{
+				return ((RecordValue)dv).equality != null;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * All of the other Vector update methods discard the index, which is then
+	 * rebuilt on the next contains call.
+	 */
+
+	@Override
+	public synchronized Value set(int i, Value v)
+	{
+		changed();
+		return super.set(i, v);
+	}
+
+	@Override
+	public synchronized void add(int i, Value v)
+	{
+		changed();
+		super.add(i, v);
+	}
+
+	@Override
+	public synchronized Value remove(int i)
+	{
+		changed();
+		return super.remove(i);
+	}
+
+	@Override
+	public synchronized boolean remove(Object v)
+	{
+		changed();
+		return super.remove(v);
+	}
+
+	@Override
+	public synchronized boolean removeAll(Collection<?> c)
+	{
+		changed();
+		return super.removeAll(c);
+	}
+
+	@Override
+	public synchronized boolean retainAll(Collection<?> c)
+	{
+		changed();
+		return super.retainAll(c);
+	}
+
+	@Override
+	public synchronized boolean removeIf(Predicate<? super Value> filter)
+	{
+		changed();
+		return super.removeIf(filter);
+	}
+
+	@Override
+	public synchronized void replaceAll(UnaryOperator<Value> operator)
+	{
+		changed();
+		super.replaceAll(operator);
+	}
+
+	@Override
+	public synchronized void clear()
+	{
+		changed();
+		super.clear();
+	}
+
+	@Override
+	public synchronized void setSize(int size)
+	{
+		changed();
+		super.setSize(size);
+	}
+
+	@Override
+	public synchronized void setElementAt(Value v, int i)
+	{
+		changed();
+		super.setElementAt(v, i);
+	}
+
+	@Override
+	public synchronized void removeElementAt(int i)
+	{
+		changed();
+		super.removeElementAt(i);
+	}
+
+	@Override
+	public synchronized void insertElementAt(Value v, int i)
+	{
+		changed();
+		super.insertElementAt(v, i);
+	}
+
+	@Override
+	public synchronized void addElement(Value v)
+	{
+		changed();
+		super.addElement(v);
+	}
+
+	@Override
+	public synchronized boolean removeElement(Object v)
+	{
+		changed();
+		return super.removeElement(v);
+	}
+
+	@Override
+	public synchronized void removeAllElements()
+	{
+		changed();
+		super.removeAllElements();
+	}
+
+	@Override
+	protected synchronized void removeRange(int from, int to)
+	{
+		changed();
+		super.removeRange(from, to);
+	}
+
+	private void changed()
+	{
+		index = null;
+		sortedCount = 0;
 	}
 
 	@Override
@@ -185,12 +454,28 @@ public class ValueSet extends Vector<Value>		// NB based on Vector
 		return Utils.listToString("{", this, ", ", "}");
 	}
 
-	public void sort()
+	public synchronized void sort()
 	{
 		if (!isSorted)
 		{
-			Collections.sort(this);
+			// Values may only have been added to the end of a sorted set (eg. by
+			// a union), so we check for that first, since it avoids any updates.
+
+			boolean inOrder = true;
+
+			for (int i = Math.max(sortedCount, 1); i < elementCount && inOrder; i++)
+			{
+				inOrder = get(i - 1).compareTo(get(i)) < 0;
+			}
+
+			if (!inOrder)
+			{
+				Collections.sort(this);
+				index = null;
+			}
+
 			isSorted = true;
+			sortedCount = elementCount;
 		}
 	}
 
@@ -217,7 +502,7 @@ public class ValueSet extends Vector<Value>		// NB based on Vector
 
     			for (int i=0; i<size; i++)
     			{
-    				m.add(get(perm[i]));	// Note, unsorted
+    				m.addUnsorted(get(perm[i]));	// Note, unsorted
     			}
 
     			results.add(m);
@@ -349,10 +634,11 @@ public class ValueSet extends Vector<Value>		// NB based on Vector
 		for (Value v: this)
 		{
 			Value vcopy = (Value)v.clone();
-			copy.add(vcopy);
+			copy.addUnsorted(vcopy);	// No duplicates to remove
 		}
 
 		copy.isSorted = isSorted;
+		copy.sortedCount = sortedCount;
 		return copy;
 	}
 }
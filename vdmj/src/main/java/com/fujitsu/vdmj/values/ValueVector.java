@@ -0,0 +1,334 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.values;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Vector;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import com.fujitsu.vdmj.config.Properties;
+
+/**
+ * A Vector of values that can share its storage with copies of itself, when
+ * Properties.in_shared_collections is set.
+ *
+ * A copy shares the elementData array of the original, and both remember how many
+ * slots of that array have been "claimed" by any sharer. Appending to a ValueVector
+ * whose size is equal to the claimed count can write into the shared array in place,
+ * because no other sharer can see that slot. Any other update first copies the array,
+ * so that other sharers are not affected. This makes the common "s union {x}" and
+ * "l ^ [x]" patterns in loops cost (amortized) O(1) copying rather than O(n).
+ */
+abstract public class ValueVector extends Vector<Value>
+{
+	/**
+	 * The array shared by several ValueVectors, and the number of slots in use.
+	 */
+	private static class SharedStore
+	{
+		public final Object[] array;
+		public int claimed;
+
+		public SharedStore(Object[] array, int claimed)
+		{
+			this.array = array;
+			this.claimed = claimed;
+		}
+	}
+
+	private transient SharedStore store = null;
+
+	protected ValueVector()
+	{
+		super();
+	}
+
+	protected ValueVector(int size)
+	{
+		super(size);
+	}
+
+	/**
+	 * Initialize this (empty) vector as a copy of another. The storage is shared
+	 * if Properties.in_shared_collections is set, else the values are copied.
+	 */
+	protected void copyFrom(ValueVector from)
+	{
+		if (Properties.in_shared_collections)
+		{
+			synchronized (from)
+			{
+				if (from.store == null || from.store.array != from.elementData)
+				{
+					from.store = new SharedStore(from.elementData, from.elementCount);
+				}
+
+				store = from.store;
+				elementData = from.elementData;
+				elementCount = from.elementCount;
+			}
+		}
+		else
+		{
+			super.addAll(from);
+		}
+	}
+
+	/**
+	 * True if the elementData array may be visible to other ValueVectors.
+	 */
+	protected boolean isShared()
+	{
+		return store != null;
+	}
+
+	/**
+	 * Called when this vector stops sharing its storage with others. Subclasses
+	 * that hold data about slot positions in the shared array must discard it.
+	 */
+	protected void unshared()
+	{
+		// Nothing by default
+	}
+
+	/**
+	 * Take a private copy of the storage, if it is shared, before an update.
+	 */
+	private void unshare()
+	{
+		if (store != null)
+		{
+			if (store.array == elementData)
+			{
+				elementData = Arrays.copyOf(elementData, elementData.length);
+			}
+
+			store = null;
+			unshared();
+		}
+	}
+
+	@Override
+	public synchronized boolean add(Value v)
+	{
+		if (store != null)
+		{
+			synchronized (store)
+			{
+				if (store.array == elementData && store.claimed == elementCount)
+				{
+					if (elementCount < elementData.length)
+					{
+						store.claimed++;
+						elementData[elementCount++] = v;
+						modCount++;
+						return true;
+					}
+
+					// Else Vector.add will grow into a new array, which is private
+				}
+				else if (store.array == elementData)
+				{
+					elementData = Arrays.copyOf(elementData, elementData.length);
+				}
+			}
+
+			store = null;
+			unshared();
+		}
+
+		return super.add(v);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Value> values)
+	{
+		if (store != null)
+		{
+			for (Value v: values)
+			{
+				add(v);		// Appends in place, if possible
+			}
+
+			return !values.isEmpty();
+		}
+		else
+		{
+			return super.addAll(values);
+		}
+	}
+
+	/**
+	 * All of the other Vector update methods take a private copy of shared storage.
+	 */
+
+	@Override
+	public synchronized boolean addAll(int i, Collection<? extends Value> values)
+	{
+		unshare();
+		return super.addAll(i, values);
+	}
+
+	@Override
+	public synchronized Value set(int i, Value v)
+	{
+		unshare();
+		return super.set(i, v);
+	}
+
+	@Override
+	public void add(int i, Value v)
+	{
+		synchronized (this)
+		{
+			unshare();
+		}
+
+		super.add(i, v);
+	}
+
+	@Override
+	public synchronized Value remove(int i)
+	{
+		unshare();
+		return super.remove(i);
+	}
+
+	@Override
+	public boolean remove(Object v)
+	{
+		synchronized (this)
+		{
+			unshare();
+		}
+
+		return super.remove(v);
+	}
+
+	@Override
+	public synchronized boolean removeAll(Collection<?> c)
+	{
+		unshare();
+		return super.removeAll(c);
+	}
+
+	@Override
+	public synchronized boolean retainAll(Collection<?> c)
+	{
+		unshare();
+		return super.retainAll(c);
+	}
+
+	@Override
+	public synchronized boolean removeIf(Predicate<? super Value> filter)
+	{
+		unshare();
+		return super.removeIf(filter);
+	}
+
+	@Override
+	public synchronized void replaceAll(UnaryOperator<Value> operator)
+	{
+		unshare();
+		super.replaceAll(operator);
+	}
+
+	@Override
+	public synchronized void sort(Comparator<? super Value> c)
+	{
+		unshare();
+		super.sort(c);
+	}
+
+	@Override
+	public void clear()
+	{
+		synchronized (this)
+		{
+			unshare();
+		}
+
+		super.clear();
+	}
+
+	@Override
+	public synchronized void setSize(int size)
+	{
+		unshare();
+		super.setSize(size);
+	}
+
+	@Override
+	public synchronized void setElementAt(Value v, int i)
+	{
+		unshare();
+		super.setElementAt(v, i);
+	}
+
+	@Override
+	public synchronized void removeElementAt(int i)
+	{
+		unshare();
+		super.removeElementAt(i);
+	}
+
+	@Override
+	public synchronized void insertElementAt(Value v, int i)
+	{
+		unshare();
+		super.insertElementAt(v, i);
+	}
+
+	@Override
+	public synchronized void addElement(Value v)
+	{
+		unshare();
+		super.addElement(v);
+	}
+
+	@Override
+	public synchronized boolean removeElement(Object v)
+	{
+		unshare();
+		return super.removeElement(v);
+	}
+
+	@Override
+	public synchronized void removeAllElements()
+	{
+		unshare();
+		super.removeAllElements();
+	}
+
+	@Override
+	protected synchronized void removeRange(int from, int to)
+	{
+		unshare();
+		super.removeRange(from, to);
+	}
+}
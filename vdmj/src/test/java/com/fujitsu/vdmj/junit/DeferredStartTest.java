@@ -0,0 +1,214 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.definitions.ASTBUSClassDefinition;
+import com.fujitsu.vdmj.ast.definitions.ASTCPUClassDefinition;
+import com.fujitsu.vdmj.ast.definitions.ASTClassList;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.in.INNode;
+import com.fujitsu.vdmj.in.definitions.INClassList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.messages.ConsolePrintWriter;
+import com.fujitsu.vdmj.messages.ConsoleWriter;
+import com.fujitsu.vdmj.messages.RTLogger;
+import com.fujitsu.vdmj.runtime.ClassInterpreter;
+import com.fujitsu.vdmj.scheduler.SchedulableThread;
+import com.fujitsu.vdmj.syntax.ClassReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.definitions.TCClassList;
+import com.fujitsu.vdmj.typechecker.ClassTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that vdmj.scheduler.deferred_start gives the same results and RT log as
+ * threads that start when they are created, with fewer Java threads.
+ */
+public class DeferredStartTest extends TestCase
+{
+	private static final int WORKERS = 50;
+
+	private boolean saved;
+	private ConsoleWriter savedOut;
+	private volatile boolean sampling;
+	private volatile int peak;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.dialect = Dialect.VDM_RT;
+		Settings.release = Release.VDM_10;
+		saved = Properties.scheduler_deferred_start;
+		savedOut = Console.out;
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		Properties.scheduler_deferred_start = saved;
+		Console.out = savedOut;
+		RTLogger.enable(false);
+		Settings.dialect = Dialect.VDM_SL;
+		super.tearDown();
+	}
+
+	/**
+	 * Sample the number of Java threads running for VDM objects, recording the peak.
+	 */
+	private Thread sampler()
+	{
+		sampling = true;
+		peak = 0;
+
+		Thread sampler = new Thread(() ->
+		{
+			while (sampling)
+			{
+				int count = 0;
+
+				for (Thread t: Thread.getAllStackTraces().keySet())
+				{
+					if (t instanceof SchedulableThread && ((SchedulableThread)t).getObject() != null)
+					{
+						count++;
+					}
+				}
+
+				peak = Math.max(peak, count);
+				Thread.yield();
+			}
+		});
+
+		sampler.start();
+		return sampler;
+	}
+
+	/**
+	 * Run the test, returning its result and the RT log, with the thread and message
+	 * IDs replaced by the order of their first appearance.
+	 */
+	private String run(boolean deferred) throws Exception
+	{
+		Properties.scheduler_deferred_start = deferred;
+
+		URL rurl = getClass().getResource("/schedtest/deferred.vdmrt");
+		LexTokenReader ltr = new LexTokenReader(new File(rurl.getPath()), Dialect.VDM_RT);
+		ClassReader cr = new ClassReader(ltr);
+		ASTClassList parsed = cr.readClasses();
+		cr.close();
+		assertEquals("Parse errors", 0, cr.getErrorCount());
+		parsed.add(new ASTCPUClassDefinition());
+		parsed.add(new ASTBUSClassDefinition());
+
+		TCClassList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+		TypeChecker typeChecker = new ClassTypeChecker(checked);
+		typeChecker.typeCheck();
+		TypeChecker.printErrors(Console.out);
+		assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+		INClassList runnable = ClassMapper.getInstance(INNode.MAPPINGS).init().convert(checked);
+		ClassInterpreter interpreter = new ClassInterpreter(runnable, checked);
+
+		StringWriter output = new StringWriter();
+		Console.out = new ConsolePrintWriter(new PrintWriter(output, true));
+		RTLogger.setLogfileName(null);		// To Console.out
+		Thread sampler = sampler();
+		String result = null;
+
+		try
+		{
+			interpreter.init();
+			result = interpreter.execute("new Test().test()").toString();
+		}
+		finally
+		{
+			sampling = false;
+			sampler.join();
+			RTLogger.enable(false);
+			Console.out = savedOut;
+		}
+
+		SchedulableThread.terminateAll();	// Else the next init does this, while logging
+
+		for (int i = 0; i < 500 && !SchedulableThread.getAllThreads().isEmpty(); i++)
+		{
+			Thread.sleep(10);
+		}
+
+		Map<String, String> ids = new HashMap<String, String>();
+		Matcher m = Pattern.compile("\\b(id|callthr|calleethr|msgid|origmsgid): (\\d+)").matcher(output.toString());
+		StringBuffer log = new StringBuffer();
+
+		while (m.find())
+		{
+			String key = (m.group(1).endsWith("msgid") ? "M" : "T") + m.group(2);
+			String id = ids.get(key);
+
+			if (id == null)
+			{
+				id = key.charAt(0) + Integer.toString(ids.size());
+				ids.put(key, id);
+			}
+
+			m.appendReplacement(log, m.group(1) + ": " + id);
+		}
+
+		m.appendTail(log);
+		return result + "\n" + log;
+	}
+
+	public void testDeferredStart() throws Exception
+	{
+		String immediate = run(false);
+		int immediatePeak = peak;
+		String deferred = run(true);
+		int deferredPeak = peak;
+
+		assertEquals(immediate, deferred);
+		assertTrue(immediate, immediate.contains("ThreadCreate"));
+		assertTrue(immediate, immediate.contains("opname: \"Worker`call(nat)\""));
+
+		// Without deferral, each worker always has a periodic thread waiting
+		assertTrue("Peak " + immediatePeak, immediatePeak >= WORKERS);
+		assertTrue("Peak " + deferredPeak, deferredPeak < WORKERS);
+	}
+}
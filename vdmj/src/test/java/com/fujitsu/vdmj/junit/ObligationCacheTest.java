@@ -0,0 +1,287 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.modules.ASTModuleList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.po.PONode;
+import com.fujitsu.vdmj.po.modules.POModuleList;
+import com.fujitsu.vdmj.pog.ObligationCache;
+import com.fujitsu.vdmj.pog.POStatus;
+import com.fujitsu.vdmj.pog.ProofObligation;
+import com.fujitsu.vdmj.pog.ProofObligationList;
+import com.fujitsu.vdmj.syntax.ModuleReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.typechecker.ModuleTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that a cached QuickCheck result is only restored if the obligation and
+ * everything it depends on, including types and state, are unchanged, and that
+ * the cache file is read as text.
+ */
+public class ObligationCacheTest extends TestCase
+{
+	private static final String SPEC =
+		"module M\n" +
+		"exports all\n" +
+		"definitions\n" +
+		"types\n" +
+		"	T = nat inv t == %s;\n" +
+		"	R :: a : T;\n" +
+		"state S of\n" +
+		"	s : nat\n" +
+		"	inv mk_S(s) == %s\n" +
+		"	init s == s = mk_S(0)\n" +
+		"end\n" +
+		"functions\n" +
+		"	f: T -> nat\n" +
+		"	f(x) == 100 div (5 - x);\n" +
+		"	g: nat -> nat\n" +
+		"	g(x) == 100 div (5 - x);\n" +
+		"	r: R -> nat\n" +
+		"	r(x) == 100 div (5 - x.a);\n" +
+		"operations\n" +
+		"	op: () ==> nat\n" +
+		"	op() == return 100 div (5 - s);\n" +
+		"end M\n";
+
+	private File file;
+	private ProofObligationList obligations;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.release = Release.CLASSIC;
+		Settings.dialect = Dialect.VDM_SL;
+		file = File.createTempFile("obligations", ".cache");
+		file.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		file.delete();
+		super.tearDown();
+	}
+
+	private ObligationCache load(String typeInv, String stateInv) throws Exception
+	{
+		String spec = String.format(SPEC, typeInv, stateInv);
+		LexTokenReader ltr = new LexTokenReader(spec, Dialect.VDM_SL);
+		ModuleReader mr = new ModuleReader(ltr);
+		ASTModuleList parsed = new ASTModuleList();
+		parsed.addAll(mr.readModules());
+		mr.close();
+		mr.printErrors(Console.out);
+		assertEquals("Parse errors", 0, mr.getErrorCount());
+
+		TCModuleList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+		TypeChecker typeChecker = new ModuleTypeChecker(checked);
+		typeChecker.typeCheck();
+		TypeChecker.printErrors(Console.out);
+		assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+		POModuleList poglist = ClassMapper.getInstance(PONode.MAPPINGS).init().convert(checked);
+		obligations = poglist.getProofObligations();
+		return new ObligationCache(file, checked);
+	}
+
+	private ProofObligation findPO(String definition)
+	{
+		for (ProofObligation po: obligations)
+		{
+			if (po.toTitle().startsWith(definition + ": non-zero obligation"))
+			{
+				assertNotNull("Checked expression", po.getCheckedExpression());
+				return po;
+			}
+		}
+
+		throw new AssertionError("PO not found: " + definition);
+	}
+
+	/**
+	 * Load the original spec, and save a MAYBE result for every PO.
+	 */
+	private void saveAll() throws Exception
+	{
+		ObligationCache cache = load("t < 3", "s < 3");
+
+		for (ProofObligation po: obligations)
+		{
+			po.setStatus(POStatus.MAYBE);
+			cache.save(po, "settings", 1);
+		}
+
+		cache.write();
+	}
+
+	public void testUnchanged() throws Exception
+	{
+		saveAll();
+		ObligationCache cache = load("t < 3", "s < 3");
+
+		for (String name: new String[] { "f", "g", "r", "op" })
+		{
+			assertTrue(name, cache.isCached(findPO(name), "settings"));
+		}
+
+		assertFalse(cache.isCached(findPO("f"), "other settings"));
+	}
+
+	public void testTypeInvariant() throws Exception
+	{
+		saveAll();
+		ObligationCache cache = load("t < 10", "s < 3");
+
+		assertFalse(cache.isCached(findPO("f"), "settings"));	// Uses T
+		assertFalse(cache.isCached(findPO("r"), "settings"));	// Uses R, with a T field
+		assertTrue(cache.isCached(findPO("g"), "settings"));
+		assertTrue(cache.isCached(findPO("op"), "settings"));
+	}
+
+	public void testStateInvariant() throws Exception
+	{
+		saveAll();
+		ObligationCache cache = load("t < 3", "s < 10");
+
+		assertFalse(cache.isCached(findPO("op"), "settings"));	// Uses S
+		assertTrue(cache.isCached(findPO("f"), "settings"));
+		assertTrue(cache.isCached(findPO("g"), "settings"));
+	}
+
+	public void testFields() throws Exception
+	{
+		ObligationCache cache = load("t < 3", "s < 3");
+		ProofObligation po = findPO("g");
+		po.setStatus(POStatus.PROVABLE);
+		po.setQualifier(null);
+		po.setProvedBy("fixed\tstrategy");
+		po.setMessage("line one\nline\ttwo \\N\r");
+		po.setExplanation("\\");
+		cache.save(po, "settings\t-u", 42);
+		cache.write();
+
+		cache = load("t < 3", "s < 3");
+		po = findPO("g");
+		assertTrue(cache.restore(po, "settings\t-u"));
+		assertEquals(POStatus.PROVABLE, po.status);
+		assertEquals(null, po.qualifier);
+		assertEquals("fixed\tstrategy", po.provedBy);
+		assertEquals("line one\nline\ttwo \\N\r", po.message);
+		assertEquals("\\", po.getExplanation());
+		assertEquals(42, cache.getDuration(po, "settings\t-u"));
+
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals(2, lines.size());		// Header and one result
+	}
+
+	public void testBadFile() throws Exception
+	{
+		// An old serialized cache, and a text file with a corrupt line
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file)))
+		{
+			out.writeObject(new HashMap<String, String>());
+		}
+
+		ObligationCache cache = load("t < 3", "s < 3");
+		assertFalse(cache.isCached(findPO("g"), "settings"));
+
+		saveAll();
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		String key = load("t < 3", "s < 3").getKey(findPO("g"));
+
+		for (int i = 1; i < lines.size(); i++)
+		{
+			if (lines.get(i).startsWith(key))
+			{
+				lines.set(i, key + "\tNOSUCHSTATUS\t1\tsettings\t\\N\t\\N\t\\N\t\\N");
+			}
+		}
+
+		lines.add("not\ta\tresult");
+		Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+		cache = load("t < 3", "s < 3");
+		assertFalse(cache.isCached(findPO("g"), "settings"));
+		assertTrue(cache.isCached(findPO("f"), "settings"));
+	}
+
+	public void testPrune() throws Exception
+	{
+		saveAll();
+		int saved = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size() - 1;
+
+		ObligationCache cache = load("t < 10", "s < 3");
+		Set<String> current = new HashSet<String>();
+
+		for (ProofObligation po: obligations)
+		{
+			if (cache.isCached(po, "settings"))
+			{
+				current.add(cache.getKey(po));
+			}
+		}
+
+		cache.prune(obligations);
+		cache.write();
+
+		// Results that depend on the old definition of T, like f and r, are removed
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		Set<String> kept = new HashSet<String>();
+
+		for (String line: lines.subList(1, lines.size()))
+		{
+			kept.add(line.substring(0, line.indexOf('\t')));
+		}
+
+		assertEquals(current, kept);
+		assertTrue(kept.size() < saved);
+
+		cache = load("t < 10", "s < 3");
+		assertTrue(cache.isCached(findPO("g"), "settings"));
+		assertTrue(cache.isCached(findPO("op"), "settings"));
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.net.URL;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.modules.ASTModuleList;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.in.INNode;
+import com.fujitsu.vdmj.in.modules.INModuleList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.runtime.Breakpoint;
+import com.fujitsu.vdmj.runtime.ModuleInterpreter;
+import com.fujitsu.vdmj.syntax.ModuleReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.typechecker.ModuleTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that vdmj.in.parallel_binds gives the same results and the same first
+ * exception as a serial evaluation, for bind sets large enough to be shared by
+ * the pool. Bindings beyond the one that decides a forall or exists raise errors
+ * if they are evaluated, so a result shows that they were not reported.
+ */
+public class ParallelBindTest extends TestCase
+{
+	private ModuleInterpreter interpreter;
+	private int saved;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.release = Release.CLASSIC;
+		Settings.dialect = Dialect.VDM_SL;
+		saved = Properties.in_parallel_binds;
+
+		URL rurl = getClass().getResource("/exectest/parallel.vdm");
+		LexTokenReader ltr = new LexTokenReader(new File(rurl.getPath()), Dialect.VDM_SL);
+		ModuleReader mr = new ModuleReader(ltr);
+		ASTModuleList parsed = new ASTModuleList();
+		parsed.addAll(mr.readModules());
+		mr.close();
+		assertEquals("Parse errors", 0, mr.getErrorCount());
+
+		TCModuleList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+		TypeChecker typeChecker = new ModuleTypeChecker(checked);
+		typeChecker.typeCheck();
+		TypeChecker.printErrors(Console.out);
+		assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+		INModuleList runnable = ClassMapper.getInstance(INNode.MAPPINGS).init().convert(checked);
+		interpreter = new ModuleInterpreter(runnable, checked);
+		interpreter.init();
+		interpreter.setDefaultName("P");
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		Properties.in_parallel_binds = saved;
+		super.tearDown();
+	}
+
+	private String execute(String expression, int threads)
+	{
+		Properties.in_parallel_binds = threads;
+
+		try
+		{
+			return interpreter.execute(expression).toString();
+		}
+		catch (Exception e)
+		{
+			return "Exception: " + e.getMessage();
+		}
+	}
+
+	private void compare(String expression, String expected)
+	{
+		String serial = execute(expression, 0);
+		String parallel = execute(expression, 4);
+
+		assertEquals(expression, serial, parallel);
+
+		if (expected != null)
+		{
+			assertTrue(expression + " = " + serial, serial.startsWith(expected));
+		}
+	}
+
+	public void testForAll() throws Exception
+	{
+		compare("allTrue()", "true");
+		compare("allFalse()", "false");
+		compare("allFails()", "Exception: Error 4134");
+
+		boolean pooled = false;
+
+		for (Thread t: Thread.getAllStackTraces().keySet())
+		{
+			pooled = pooled || t.getName().startsWith("ForkJoinPool-");
+		}
+
+		assertTrue("Expecting parallel evaluation", pooled);
+	}
+
+	public void testExists() throws Exception
+	{
+		compare("anyTrue()", "true");
+		compare("anyFalse()", "false");
+		compare("anyFails()", "Exception: Error 4010");
+	}
+
+	public void testSetComp() throws Exception
+	{
+		compare("setComp()", null);
+		compare("setPairs()", null);
+		compare("setFails()", "Exception: Error 4134");
+	}
+
+	public void testMapComp() throws Exception
+	{
+		compare("mapComp()", null);
+		compare("mapFails()", "Exception: Error");
+	}
+
+	public void testPoolSize() throws Exception
+	{
+		String serial = execute("allFails()", 0);
+		assertEquals(serial, execute("allFails()", 2));
+		assertEquals(serial, execute("allFails()", 4));
+		assertEquals(serial, execute("allFails()", 2));
+	}
+
+	public void testInterrupt() throws Exception
+	{
+		Thread interrupter = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					Thread.sleep(200);
+					Breakpoint.setExecInterrupt(Breakpoint.TERMINATE);
+				}
+				catch (InterruptedException e)
+				{
+					// Test fails
+				}
+			}
+		};
+
+		long start = System.currentTimeMillis();
+		interrupter.start();
+		String result = execute("slow()", 4);
+		interrupter.join();
+		Breakpoint.setExecInterrupt(Breakpoint.NONE);
+
+		assertTrue(result, result.contains("Execution cancelled"));
+		assertTrue("Cancel took too long", System.currentTimeMillis() - start < 10000);
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+import java.util.Vector;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.modules.ASTModuleList;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.messages.VDMError;
+import com.fujitsu.vdmj.messages.VDMWarning;
+import com.fujitsu.vdmj.syntax.ModuleReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.annotations.TCAnnotation;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.typechecker.ModuleCheckScheduler;
+import com.fujitsu.vdmj.typechecker.ModuleTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that vdmj.tc.parallel_modules produces the same errors and warnings, in
+ * the same order, as a serial type check.
+ */
+public class ParallelModuleTest extends TestCase
+{
+	private int saved;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.release = Release.CLASSIC;
+		Settings.dialect = Dialect.VDM_SL;
+		TCAnnotation.reset();
+		saved = Properties.tc_parallel_modules;
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		Properties.tc_parallel_modules = saved;
+		super.tearDown();
+	}
+
+	private List<String> typeCheck(String resource, int threads) throws Exception
+	{
+		Properties.tc_parallel_modules = threads;
+
+		URL rurl = getClass().getResource("/modtest/" + resource);
+		LexTokenReader ltr = new LexTokenReader(new File(rurl.getPath()), Dialect.VDM_SL);
+		ModuleReader mr = new ModuleReader(ltr);
+		ASTModuleList parsed = new ASTModuleList();
+		parsed.addAll(mr.readModules());
+		assertEquals("Parse errors", 0, mr.getErrorCount());
+
+		TCModuleList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+
+		if (threads > 1 && checked.size() > 1)
+		{
+			assertTrue("Parallel check expected", new ModuleCheckScheduler(checked).isParallel());
+		}
+
+		TypeChecker typeChecker = new ModuleTypeChecker(checked);
+		typeChecker.typeCheck();
+		List<String> messages = new Vector<String>();
+
+		for (VDMError err: TypeChecker.getErrors())
+		{
+			messages.add(err.toString());
+		}
+
+		for (VDMWarning warn: TypeChecker.getWarnings())
+		{
+			messages.add(warn.toString());
+		}
+
+		return messages;
+	}
+
+	private void compare(String resource) throws Exception
+	{
+		List<String> serial = typeCheck(resource, 1);
+		List<String> parallel = typeCheck(resource, 4);
+		assertEquals(resource, serial, parallel);
+	}
+
+	public void testSAFER() throws Exception
+	{
+		compare("SAFER.vdm");
+	}
+
+	public void testLoose() throws Exception
+	{
+		compare("loose.vdm");
+	}
+
+	public void testMetro() throws Exception
+	{
+		compare("metro.vdm");
+	}
+
+	public void testRailway() throws Exception
+	{
+		compare("railway.vdm");
+	}
+
+	public void testBar() throws Exception
+	{
+		compare("bar.vdm");
+	}
+
+	public void testSoccer() throws Exception
+	{
+		compare("soccer.vdm");
+	}
+
+	public void testStruct() throws Exception
+	{
+		compare("struct.vdm");
+	}
+
+	public void testImpcheck() throws Exception
+	{
+		compare("impcheck.vdm");
+	}
+}
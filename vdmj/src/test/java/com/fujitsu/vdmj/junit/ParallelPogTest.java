@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Vector;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.definitions.ASTClassList;
+import com.fujitsu.vdmj.ast.modules.ASTModuleList;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.po.PONode;
+import com.fujitsu.vdmj.po.annotations.POAnnotation;
+import com.fujitsu.vdmj.po.definitions.PODefinition;
+import com.fujitsu.vdmj.po.definitions.POClassList;
+import com.fujitsu.vdmj.po.modules.POModuleList;
+import com.fujitsu.vdmj.pog.POContextStack;
+import com.fujitsu.vdmj.pog.POGScheduler;
+import com.fujitsu.vdmj.pog.ProofObligation;
+import com.fujitsu.vdmj.pog.ProofObligationList;
+import com.fujitsu.vdmj.syntax.ClassReader;
+import com.fujitsu.vdmj.syntax.ModuleReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.annotations.TCAnnotation;
+import com.fujitsu.vdmj.tc.definitions.TCClassList;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.typechecker.ClassTypeChecker;
+import com.fujitsu.vdmj.typechecker.ModuleTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that vdmj.pog.parallel_definitions produces the same obligations, with the
+ * same numbers, names and state names, and the same reduced definitions, as a serial
+ * POG.
+ */
+public class ParallelPogTest extends TestCase
+{
+	private int savedThreads;
+	private int savedPaths;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.release = Release.DEFAULT;
+		TCAnnotation.reset();
+		savedThreads = Properties.pog_parallel_definitions;
+		savedPaths = Properties.pog_max_alt_paths;
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		Properties.pog_parallel_definitions = savedThreads;
+		Properties.pog_max_alt_paths = savedPaths;
+		super.tearDown();
+	}
+
+	/**
+	 * Generate the obligations for a spec, returning them as strings with their
+	 * numbers and names, followed by the definitions that had their paths reduced.
+	 */
+	private List<String> runPOG(String resource, Dialect dialect, int threads) throws Exception
+	{
+		Settings.dialect = dialect;
+		Properties.pog_parallel_definitions = threads;
+
+		URL rurl = getClass().getResource(resource);
+		LexTokenReader ltr = new LexTokenReader(new File(rurl.getPath()), dialect);
+		ProofObligationList polist = null;
+		int definitions = 0;
+
+		if (dialect == Dialect.VDM_SL)
+		{
+			ModuleReader mr = new ModuleReader(ltr);
+			ASTModuleList parsed = mr.readModules();
+			assertEquals("Parse errors", 0, mr.getErrorCount());
+
+			TCModuleList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+			TypeChecker typeChecker = new ModuleTypeChecker(checked);
+			typeChecker.typeCheck();
+			assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+			POModuleList poglist = ClassMapper.getInstance(PONode.MAPPINGS).init().convert(checked);
+			definitions = poglist.getTotal();
+			polist = poglist.getProofObligations();
+		}
+		else
+		{
+			ClassReader cr = new ClassReader(ltr);
+			ASTClassList parsed = cr.readClasses();
+			assertEquals("Parse errors", 0, cr.getErrorCount());
+
+			TCClassList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+			TypeChecker typeChecker = new ClassTypeChecker(checked);
+			typeChecker.typeCheck();
+			assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+			POClassList poglist = ClassMapper.getInstance(PONode.MAPPINGS).init().convert(checked);
+			definitions = poglist.getTotal();
+			polist = poglist.getProofObligations();
+		}
+
+		assertTrue("No annotations expected", POAnnotation.getInstances(POAnnotation.class).isEmpty());
+		assertEquals("Parallel POG expected", threads > 1, POGScheduler.isParallel(definitions));
+		polist.renumber();		// As the POPlugin does
+		List<String> results = new Vector<String>();
+
+		for (ProofObligation po: polist)
+		{
+			results.add(po.number + " " + po.name + " " + po.location + ": " + po);
+		}
+
+		Map<String, Long> reduced = new TreeMap<String, Long>();
+
+		for (Map.Entry<PODefinition, Long> entry: POContextStack.getReducedDefinitions().entrySet())
+		{
+			reduced.put(entry.getKey().location + " " + entry.getKey().name, entry.getValue());
+		}
+
+		results.add("Reduced " + reduced);
+		return results;
+	}
+
+	private List<String> compare(String resource, Dialect dialect) throws Exception
+	{
+		List<String> serial = runPOG(resource, dialect, 1);
+		List<String> parallel = runPOG(resource, dialect, 4);
+
+		assertTrue(resource, serial.size() > 1);
+		assertEquals(resource, serial, parallel);
+		return serial;
+	}
+
+	private boolean contains(List<String> results, String text)
+	{
+		for (String result: results)
+		{
+			if (result.contains(text))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public void testPogSL() throws Exception
+	{
+		compare("/pogtest/pog.vdmsl", Dialect.VDM_SL);
+	}
+
+	public void testStateNames() throws Exception
+	{
+		List<String> results = compare("/pogtest/parallel.vdmsl", Dialect.VDM_SL);
+		assertTrue(contains(results, "$oldState1"));
+	}
+
+	public void testLoopsSL() throws Exception
+	{
+		compare("/pogtest/loops.vdmsl", Dialect.VDM_SL);
+	}
+
+	public void testPogPP() throws Exception
+	{
+		compare("/pogtest/pog.vdmpp", Dialect.VDM_PP);
+	}
+
+	public void testModules() throws Exception
+	{
+		Settings.release = Release.CLASSIC;		// As for ParallelModuleTest
+		compare("/modtest/SAFER.vdm", Dialect.VDM_SL);
+		compare("/modtest/metro.vdm", Dialect.VDM_SL);
+		compare("/modtest/soccer.vdm", Dialect.VDM_SL);
+	}
+
+	public void testReduced() throws Exception
+	{
+		Properties.pog_max_alt_paths = 2;
+		List<String> results = compare("/pogtest/pog.vdmsl", Dialect.VDM_SL);
+		assertFalse(results.get(results.size() - 1).equals("Reduced {}"));
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.definitions.ASTBUSClassDefinition;
+import com.fujitsu.vdmj.ast.definitions.ASTCPUClassDefinition;
+import com.fujitsu.vdmj.ast.definitions.ASTClassList;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.in.INNode;
+import com.fujitsu.vdmj.in.definitions.INClassList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.messages.ConsolePrintWriter;
+import com.fujitsu.vdmj.messages.ConsoleWriter;
+import com.fujitsu.vdmj.messages.RTLogger;
+import com.fujitsu.vdmj.runtime.ClassInterpreter;
+import com.fujitsu.vdmj.scheduler.SchedulableThread;
+import com.fujitsu.vdmj.syntax.ClassReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.definitions.TCClassList;
+import com.fujitsu.vdmj.typechecker.ClassTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that the ResourceScheduler, which only advances the resources whose next
+ * event is due, gives the same results and RT log as advancing every resource at
+ * each time step. The expected logs were recorded with every resource advanced.
+ */
+public class TimestepTest extends TestCase
+{
+	private boolean savedTransactions;
+	private ConsoleWriter savedOut;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.dialect = Dialect.VDM_RT;
+		Settings.release = Release.VDM_10;
+		savedTransactions = Properties.rt_duration_transactions;
+		savedOut = Console.out;
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		Properties.rt_duration_transactions = savedTransactions;
+		Console.out = savedOut;
+		RTLogger.enable(false);
+		Settings.dialect = Dialect.VDM_SL;
+		super.tearDown();
+	}
+
+	/**
+	 * Run the test, returning its result and the RT log, with the thread and message
+	 * IDs replaced by the order of their first appearance.
+	 */
+	private String run(String resource) throws Exception
+	{
+		URL rurl = getClass().getResource(resource);
+		LexTokenReader ltr = new LexTokenReader(new File(rurl.getPath()), Dialect.VDM_RT);
+		ClassReader cr = new ClassReader(ltr);
+		ASTClassList parsed = cr.readClasses();
+		cr.close();
+		assertEquals("Parse errors", 0, cr.getErrorCount());
+		parsed.add(new ASTCPUClassDefinition());
+		parsed.add(new ASTBUSClassDefinition());
+
+		TCClassList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+		TypeChecker typeChecker = new ClassTypeChecker(checked);
+		typeChecker.typeCheck();
+		TypeChecker.printErrors(Console.out);
+		assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+		INClassList runnable = ClassMapper.getInstance(INNode.MAPPINGS).init().convert(checked);
+		ClassInterpreter interpreter = new ClassInterpreter(runnable, checked);
+
+		StringWriter output = new StringWriter();
+		Console.out = new ConsolePrintWriter(new PrintWriter(output, true));
+		RTLogger.setLogfileName(null);		// To Console.out
+		String result = null;
+
+		try
+		{
+			interpreter.init();
+			result = interpreter.execute("new Test().test()").toString();
+		}
+		finally
+		{
+			RTLogger.enable(false);
+			Console.out = savedOut;
+		}
+
+		SchedulableThread.terminateAll();	// Else the next init does this, while logging
+
+		for (int i = 0; i < 500 && !SchedulableThread.getAllThreads().isEmpty(); i++)
+		{
+			Thread.sleep(10);
+		}
+
+		Map<String, String> ids = new HashMap<String, String>();
+		Matcher m = Pattern.compile("\\b(id|callthr|calleethr|msgid|origmsgid): (\\d+)").matcher(output.toString());
+		StringBuffer log = new StringBuffer();
+
+		while (m.find())
+		{
+			String key = (m.group(1).endsWith("msgid") ? "M" : "T") + m.group(2);
+			String id = ids.get(key);
+
+			if (id == null)
+			{
+				id = key.charAt(0) + Integer.toString(ids.size());
+				ids.put(key, id);
+			}
+
+			m.appendReplacement(log, m.group(1) + ": " + id);
+		}
+
+		m.appendTail(log);
+		return result + "\n" + log;
+	}
+
+	private String expected(String resource) throws Exception
+	{
+		URL rurl = getClass().getResource(resource);
+		return new String(Files.readAllBytes(new File(rurl.getPath()).toPath()), StandardCharsets.UTF_8);
+	}
+
+	public void testTimesteps() throws Exception
+	{
+		Properties.rt_duration_transactions = false;
+		String actual = run("/schedtest/timestep.vdmrt");
+
+		assertTrue(actual, actual.contains("cpunm: 4"));
+		assertTrue(actual, actual.contains("MessageCompleted"));
+		assertEquals(expected("/schedtest/timestep.log"), actual);
+	}
+
+	public void testTransactions() throws Exception
+	{
+		Properties.rt_duration_transactions = true;
+		String actual = run("/schedtest/timestep.vdmrt");
+		assertEquals(expected("/schedtest/transactions.log"), actual);
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.runtime.ValueException;
+import com.fujitsu.vdmj.values.BooleanValue;
+import com.fujitsu.vdmj.values.Value;
+import com.fujitsu.vdmj.values.VoidValue;
+
+/**
+ * The native delegate for tracetest/workers.vdm.
+ */
+public class TraceDelegate
+{
+	public static final int LIMIT = 8;
+	private static int calls = 0;
+
+	public static void reset()
+	{
+		calls = 0;
+	}
+
+	public static int getCalls()
+	{
+		return calls;
+	}
+
+	public static Value print(Value n)
+	{
+		Console.out.println("print(" + n + ")");
+		return new VoidValue();
+	}
+
+	/**
+	 * True for the first call in this process, and for the first LIMIT calls unless
+	 * n is 1. The count is not reset by traceInit, so the trace worker processes can
+	 * disagree about the verdicts.
+	 */
+	public static Value ok(Value n) throws ValueException
+	{
+		long limit = (n.natValue(null) == 1) ? 1 : LIMIT;
+		return new BooleanValue(calls++ < limit);
+	}
+}
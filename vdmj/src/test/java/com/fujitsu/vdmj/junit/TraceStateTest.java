@@ -0,0 +1,191 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.modules.ASTModuleList;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.in.INNode;
+import com.fujitsu.vdmj.in.modules.INModuleList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.messages.ConsolePrintWriter;
+import com.fujitsu.vdmj.messages.ConsoleWriter;
+import com.fujitsu.vdmj.runtime.Interpreter;
+import com.fujitsu.vdmj.runtime.ModuleInterpreter;
+import com.fujitsu.vdmj.syntax.ModuleReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.typechecker.ModuleTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that vdmj.traces.save_state starts every trace test from the initial state,
+ * as re-initializing does.
+ */
+public class TraceStateTest extends TestCase
+{
+	private static final String INITIAL = "mk_({1 |-> 10}, [1], 0)";
+
+	private ModuleInterpreter interpreter;
+	private boolean savedState;
+	private ConsoleWriter savedOut;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.release = Release.VDM_10;
+		Settings.dialect = Dialect.VDM_SL;
+		savedState = Properties.traces_save_state;
+		savedOut = Console.out;
+
+		URL rurl = getClass().getResource("/tracetest/state.vdm");
+		LexTokenReader ltr = new LexTokenReader(new File(rurl.getPath()), Dialect.VDM_SL);
+		ModuleReader mr = new ModuleReader(ltr);
+		ASTModuleList parsed = new ASTModuleList();
+		parsed.addAll(mr.readModules());
+		mr.close();
+		mr.printErrors(Console.out);
+		assertEquals("Parse errors", 0, mr.getErrorCount());
+
+		TCModuleList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+		TypeChecker typeChecker = new ModuleTypeChecker(checked);
+		typeChecker.typeCheck();
+		TypeChecker.printErrors(Console.out);
+		assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+		INModuleList runnable = ClassMapper.getInstance(INNode.MAPPINGS).init().convert(checked);
+		interpreter = new ModuleInterpreter(runnable, checked);
+		interpreter.init();
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		Properties.traces_save_state = savedState;
+		Console.out = savedOut;
+		Interpreter.setTraceOutput(savedOut);
+		super.tearDown();
+	}
+
+	/**
+	 * Run a trace to a writer, returning the trace results without the timings.
+	 */
+	private String runtrace(String trace, boolean saveState, ConsoleWriter writer, StringWriter output)
+		throws Exception
+	{
+		Properties.traces_save_state = saveState;
+		Interpreter.setTraceOutput(writer);
+		interpreter.runtrace("A`" + trace, 0, 0, false);
+		return output.toString().replaceAll("(?m)^(Generated|Executed) .*\n", "");
+	}
+
+	private String runtrace(String trace, boolean saveState) throws Exception
+	{
+		StringWriter output = new StringWriter();
+		return runtrace(trace, saveState, new ConsolePrintWriter(new PrintWriter(output, true)), output);
+	}
+
+	public void testSameAsInit() throws Exception
+	{
+		String saved = runtrace("T1", true);
+		String reinit = runtrace("T1", false);
+
+		assertEquals(reinit, saved);
+
+		// Every test starts from the initial state, and the same last call has the same effect
+		String[] results = saved.split("\n");
+		assertEquals(8, results.length);
+
+		for (int i = 1; i < results.length; i += 2)
+		{
+			assertTrue(results[i], results[i].startsWith("Result = [" + INITIAL + ", "));
+		}
+
+		assertEquals("Result = [" + INITIAL + ", (), (), mk_({1 |-> 19, 4 |-> 4, 5 |-> 5}, [1], 0), PASSED]", results[1]);
+		assertEquals("Result = [" + INITIAL + ", (), (), mk_({1 |-> 14, 4 |-> 4}, [6, 6], 0), PASSED]", results[3]);
+		assertEquals("Result = [" + INITIAL + ", (), (), mk_({1 |-> 14, 4 |-> 4}, [1], 4), PASSED]", results[5]);
+		assertTrue(results[7], results[7].startsWith("Result = [" + INITIAL + ", Error 4"));
+
+		// The state after the trace is the initial state again
+		assertEquals(INITIAL, interpreter.execute("get()").toString());
+	}
+
+	public void testFailedTest() throws Exception
+	{
+		String saved = runtrace("T2", true);
+
+		assertEquals(saved, runtrace("T2", false));
+		assertTrue(saved, saved.contains("Test 1 = fail(); get()\nResult = [Error 4"));
+	}
+
+	public void testThrowingRun() throws Exception
+	{
+		// A trace run that throws must not leave its snapshot to be restored by the
+		// next run, which would start from the state of the old initial context.
+
+		final StringWriter output = new StringWriter();
+		ConsoleWriter failing = new ConsolePrintWriter(new PrintWriter(output, true))
+		{
+			@Override
+			public void println(String line)
+			{
+				if (line.startsWith("Test 2 "))
+				{
+					throw new IllegalStateException("Writer failed");
+				}
+
+				super.println(line);
+			}
+		};
+
+		try
+		{
+			runtrace("T1", true, failing, output);
+			fail("Expected writer failure");
+		}
+		catch (IllegalStateException e)
+		{
+			// expected
+		}
+
+		interpreter.init();
+		interpreter.execute("addKey(3)");
+
+		String saved = runtrace("T1", true);
+		assertTrue(saved, saved.contains("Test 1 = get(); addKey(5); addKey(4); get()\nResult = [" + INITIAL));
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.junit;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+
+import com.fujitsu.vdmj.Release;
+import com.fujitsu.vdmj.Settings;
+import com.fujitsu.vdmj.ast.modules.ASTModuleList;
+import com.fujitsu.vdmj.config.Properties;
+import com.fujitsu.vdmj.in.INNode;
+import com.fujitsu.vdmj.in.modules.INModuleList;
+import com.fujitsu.vdmj.lex.Dialect;
+import com.fujitsu.vdmj.lex.LexTokenReader;
+import com.fujitsu.vdmj.mapper.ClassMapper;
+import com.fujitsu.vdmj.messages.Console;
+import com.fujitsu.vdmj.messages.ConsolePrintWriter;
+import com.fujitsu.vdmj.messages.ConsoleWriter;
+import com.fujitsu.vdmj.runtime.Interpreter;
+import com.fujitsu.vdmj.runtime.ModuleInterpreter;
+import com.fujitsu.vdmj.syntax.ModuleReader;
+import com.fujitsu.vdmj.tc.TCNode;
+import com.fujitsu.vdmj.tc.modules.TCModuleList;
+import com.fujitsu.vdmj.typechecker.ModuleTypeChecker;
+import com.fujitsu.vdmj.typechecker.TypeChecker;
+
+import junit.framework.TestCase;
+
+/**
+ * Check that vdmj.traces.workers gives the same trace output as a serial run, with the
+ * session's current settings, and that a test which a worker skips, but which is not
+ * filtered globally, is run locally.
+ */
+public class TraceWorkerTest extends TestCase
+{
+	private static final String MODULE = "com_fujitsu_vdmj_junit_TraceDelegate";
+
+	private ModuleInterpreter interpreter;
+	private int savedWorkers;
+	private String[] savedArgs;
+	private boolean savedPrechecks;
+	private ConsoleWriter savedOut;
+
+	@Override
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		Settings.release = Release.VDM_10;
+		Settings.dialect = Dialect.VDM_SL;
+		savedWorkers = Properties.traces_workers;
+		savedArgs = Settings.mainArgs;
+		savedPrechecks = Settings.prechecks;
+		savedOut = Console.out;
+
+		URL rurl = getClass().getResource("/tracetest/workers.vdm");
+		String file = rurl.getPath();
+		LexTokenReader ltr = new LexTokenReader(new File(file), Dialect.VDM_SL);
+		ModuleReader mr = new ModuleReader(ltr);
+		ASTModuleList parsed = new ASTModuleList();
+		parsed.addAll(mr.readModules());
+		mr.close();
+		mr.printErrors(Console.out);
+		assertEquals("Parse errors", 0, mr.getErrorCount());
+
+		TCModuleList checked = ClassMapper.getInstance(TCNode.MAPPINGS).init().convert(parsed);
+		TypeChecker typeChecker = new ModuleTypeChecker(checked);
+		typeChecker.typeCheck();
+		TypeChecker.printErrors(Console.out);
+		assertEquals("Type check errors", 0, TypeChecker.getErrorCount());
+
+		INModuleList runnable = ClassMapper.getInstance(INNode.MAPPINGS).init().convert(checked);
+		interpreter = new ModuleInterpreter(runnable, checked);
+		interpreter.init();
+
+		// Workers are only used when VDMJ is run from the command line, but they load
+		// the interpreter's files with the current settings, not these arguments.
+		Settings.mainArgs = new String[] { "-vdmsl", "-pre", "unused.vdmsl" };
+	}
+
+	@Override
+	protected void tearDown() throws Exception
+	{
+		Properties.traces_workers = savedWorkers;
+		Settings.mainArgs = savedArgs;
+		Settings.prechecks = savedPrechecks;
+		Console.out = savedOut;
+		Interpreter.setTraceOutput(savedOut);
+		super.tearDown();
+	}
+
+	/**
+	 * Run a trace, returning the trace results and anything printed by the spec,
+	 * without the timings.
+	 */
+	private String runtrace(String trace, int workers) throws Exception
+	{
+		Properties.traces_workers = workers;
+		TraceDelegate.reset();
+		StringWriter output = new StringWriter();
+		ConsolePrintWriter pw = new ConsolePrintWriter(new PrintWriter(output, true));
+		Console.out = pw;
+		Interpreter.setTraceOutput(pw);
+
+		try
+		{
+			interpreter.runtrace(MODULE + "`" + trace, 0, 0, false);
+		}
+		finally
+		{
+			Console.out = savedOut;
+		}
+
+		return output.toString().replaceAll("(?m)^(Generated|Executed) .*\n", "");
+	}
+
+	public void testSameAsSerial() throws Exception
+	{
+		String serial = runtrace("T1", 0);
+		String parallel = runtrace("T1", 2);
+
+		assertEquals(serial, parallel);
+		assertTrue(serial.contains("print(4)"));
+		assertTrue(serial.contains("Test 5 = op(5)"));
+		assertTrue(serial.contains("Test 11 FILTERED by test 5"));
+		assertTrue(serial.contains("Test 36 FILTERED by test 6"));
+	}
+
+	public void testSettings() throws Exception
+	{
+		// As if "set pre off" had been used in the session, so op(5) and op(6) pass
+
+		Settings.prechecks = false;
+		String serial = runtrace("T1", 0);
+		String parallel = runtrace("T1", 2);
+
+		assertEquals(serial, parallel);
+		assertTrue(serial.contains("print(6)"));
+		assertFalse(serial.contains("FILTERED"));
+	}
+
+	public void testLocalRerun() throws Exception
+	{
+		// Three workers are given two tests at a time, so the third runs tests 5, 6,
+		// 11, 12, 17, 18, 23 and 24. Its calls fail from the ninth, so it fails test 12
+		// at the first call, count(3), and skips tests 18 and 24 which start the same
+		// way. But test 12 is filtered globally by test 3, which fails at its second
+		// call, so tests 18 and 24 must be run locally, making three calls each.
+
+		String result = runtrace("T2", 3);
+
+		assertTrue(result, result.contains("Test 18 = count(3); count(3); count(2)\nResult = [(), (), (), PASSED]"));
+		assertTrue(result, result.contains("Test 24 = count(3); count(2); count(3)\nResult = [(), (), (), PASSED]"));
+		assertEquals(6, TraceDelegate.getCalls());
+	}
+}
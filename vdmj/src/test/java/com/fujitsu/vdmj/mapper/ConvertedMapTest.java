@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *
+ *	Copyright (c) 2026 Nick Battle.
+ *
+ *	Author: Nick Battle
+ *
+ *	This file is part of VDMJ.
+ *
+ *	VDMJ is free software: you can redistribute it and/or modify
+ *	it under the terms of the GNU General Public License as published by
+ *	the Free Software Foundation, either version 3 of the License, or
+ *	(at your option) any later version.
+ *
+ *	VDMJ is distributed in the hope that it will be useful,
+ *	but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *	GNU General Public License for more details.
+ *
+ *	You should have received a copy of the GNU General Public License
+ *	along with VDMJ.  If not, see &lt;http://www.gnu.org/licenses/&gt;.
+ *	SPDX-License-Identifier: GPL-3.0-or-later
+ *
+ ******************************************************************************/
+
+package com.fujitsu.vdmj.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Vector;
+
+import org.junit.Test;
+
+/**
+ * Tests of the ConvertedMap used by the ClassMapper, compared with a HashMap.
+ */
+public class ConvertedMapTest
+{
+	private static final int MASK = 1023;	// The initial table size, less one
+
+	/**
+	 * Find keys that have the same home slot in the initial table, and keys that have
+	 * the next slot, so that their chains run into each other.
+	 */
+	private List<Long> colliding(int home, int count)
+	{
+		List<Long> keys = new Vector<Long>();
+
+		for (long key = 1; keys.size() < count; key++)
+		{
+			if (ConvertedMap.indexOf(key, MASK) == home)
+			{
+				keys.add(key);
+			}
+		}
+
+		return keys;
+	}
+
+	private void check(Map<Long, Object> expected, ConvertedMap map, List<Long> keys)
+	{
+		assertEquals(expected.size(), map.size());
+
+		for (Long key: keys)
+		{
+			assertEquals("Key " + key, expected.get(key), map.get(key));
+		}
+	}
+
+	@Test
+	public void testPutGet()
+	{
+		ConvertedMap map = new ConvertedMap();
+		assertNull(map.get(0));
+		assertNull(map.get(123));
+
+		map.put(0, "zero");
+		map.put(123, "one");
+		map.put(-1, "minus");
+		map.put(Long.MAX_VALUE, "max");
+		assertEquals(4, map.size());
+		assertEquals("zero", map.get(0));
+		assertEquals("one", map.get(123));
+		assertEquals("minus", map.get(-1));
+		assertEquals("max", map.get(Long.MAX_VALUE));
+		assertNull(map.get(1));
+
+		map.put(123, "replaced");
+		assertEquals(4, map.size());
+		assertEquals("replaced", map.get(123));
+
+		map.put(123, null);		// Removes
+		assertEquals(3, map.size());
+		assertNull(map.get(123));
+
+		map.clear();
+		assertEquals(0, map.size());
+		assertNull(map.get(0));
+	}
+
+	@Test
+	public void testCollisions()
+	{
+		List<Long> keys = colliding(MASK, 5);		// Chains wrap around the end
+		keys.addAll(colliding(0, 5));
+		keys.addAll(colliding(1, 5));
+
+		// Remove each key in turn from a full set of chains, checking that the
+		// keys shifted back are all still found.
+
+		for (Long removed: keys)
+		{
+			ConvertedMap map = new ConvertedMap();
+			Map<Long, Object> expected = new HashMap<Long, Object>();
+
+			for (Long key: keys)
+			{
+				map.put(key, "v" + key);
+				expected.put(key, "v" + key);
+			}
+
+			check(expected, map, keys);
+
+			map.remove(removed);
+			expected.remove(removed);
+			check(expected, map, keys);
+
+			map.remove(removed);	// Not present
+			check(expected, map, keys);
+
+			map.put(removed, "again");
+			expected.put(removed, "again");
+			check(expected, map, keys);
+		}
+	}
+
+	@Test
+	public void testRandom()
+	{
+		// Enough keys to resize the table several times, with many removes.
+
+		Random random = new Random(1234);
+		ConvertedMap map = new ConvertedMap();
+		Map<Long, Object> expected = new HashMap<Long, Object>();
+		List<Long> keys = new Vector<Long>();
+
+		for (int i = 0; i < 20000; i++)
+		{
+			long key = random.nextInt(10000);
+			keys.add(key);
+
+			if (random.nextInt(3) == 0)
+			{
+				map.remove(key);
+				expected.remove(key);
+			}
+			else
+			{
+				map.put(key, i);
+				expected.put(key, i);
+			}
+		}
+
+		check(expected, map, keys);
+
+		for (Long key: keys)
+		{
+			map.put(key, null);
+			expected.remove(key);
+		}
+
+		check(expected, map, keys);
+		assertEquals(0, map.size());
+	}
+}